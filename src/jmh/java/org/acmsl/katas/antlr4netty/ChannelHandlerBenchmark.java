@@ -0,0 +1,276 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ChannelHandlerBenchmark.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Measures the channel handlers through an embedded channel.
+ *
+ * Date: 2026/10/17
+ * Time: 09:25
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JMH classes.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InterpreterServerChannelHandler} and {@link BinaryInterpreterServerChannelHandler}
+ * driven through {@link EmbeddedChannel}s, excluding framing and sockets.
+ * Run it with {@code -prof gc} to get the allocation rate per response as well.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:25
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelHandlerBenchmark
+{
+    /**
+     * The number of expressions in each batch.
+     */
+    protected static final int BATCH_SIZE = 16;
+
+    /**
+     * The kind of input.
+     */
+    @Param({ "integer", "real", "negative" })
+    public String input;
+
+    /**
+     * Whether to put a {@link ResultCache} in front of the interpreter.
+     */
+    @Param({ "false", "true" })
+    public boolean cached;
+
+    /**
+     * The channel speaking text.
+     */
+    private EmbeddedChannel textChannel;
+
+    /**
+     * The channel speaking the binary protocol.
+     */
+    private EmbeddedChannel binaryChannel;
+
+    /**
+     * The text request, reusable since it's unreleasable.
+     */
+    private Object[] textRequest;
+
+    /**
+     * The text batch, reusable since it's unreleasable.
+     */
+    private Object[] batchRequest;
+
+    /**
+     * The binary request, reusable since it's unreleasable.
+     */
+    private Object[] binaryRequest;
+
+    /**
+     * The frame of the binary request, rewound before each use since the handler reads it.
+     */
+    private ByteBuf binaryFrame;
+
+    /**
+     * Prepares the channels and requests.
+     */
+    @Setup
+    public void setUp()
+    {
+        @NotNull final String expression = InterpreterBenchmark.expressionFor(this.input);
+
+        this.textChannel =
+            new EmbeddedChannel(
+                new InterpreterServerChannelHandler(new Interpreter(), this.cached ? new ResultCache(1024) : null));
+        this.textChannel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+
+        this.binaryChannel = new EmbeddedChannel(new BinaryInterpreterServerChannelHandler());
+        this.binaryChannel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+
+        this.textRequest = new Object[] { unreleasable(expression) };
+
+        @NotNull final StringBuilder batch = new StringBuilder(expression);
+
+        for (int index = 1; index < BATCH_SIZE; index++)
+        {
+            batch.append(InterpreterServerChannelHandler.BATCH_SEPARATOR).append(expression);
+        }
+
+        this.batchRequest = new Object[] { unreleasable(batch.toString()) };
+
+        @NotNull final ByteBuf frame = binaryRequestFor(this.input);
+        frame.skipBytes(BinaryProtocol.LENGTH_FIELD_LENGTH);
+
+        this.binaryFrame = Unpooled.unreleasableBuffer(frame);
+        this.binaryRequest = new Object[] { this.binaryFrame };
+    }
+
+    /**
+     * Closes the channels.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.textChannel.finish();
+        this.binaryChannel.finish();
+    }
+
+    /**
+     * Answers a text expression.
+     * @return the length of the response.
+     */
+    @Benchmark
+    public int text()
+    {
+        return exchange(this.textChannel, this.textRequest);
+    }
+
+    /**
+     * Answers a batch of {@link #BATCH_SIZE} text expressions.
+     * @return the length of the response.
+     */
+    @Benchmark
+    public int textBatch()
+    {
+        return exchange(this.textChannel, this.batchRequest);
+    }
+
+    /**
+     * Answers a binary request.
+     * @return the length of the response.
+     */
+    @Benchmark
+    public int binary()
+    {
+        this.binaryFrame.readerIndex(BinaryProtocol.LENGTH_FIELD_LENGTH);
+
+        return exchange(this.binaryChannel, this.binaryRequest);
+    }
+
+    /**
+     * Sends given request through given channel, and discards the response.
+     * @param channel the channel.
+     * @param request the request.
+     * @return the length of the response.
+     */
+    protected int exchange(@NotNull final EmbeddedChannel channel, @NotNull final Object[] request)
+    {
+        channel.writeInbound(request);
+
+        @NotNull final ByteBuf response = channel.readOutbound();
+
+        final int result = response.readableBytes();
+
+        response.release();
+
+        return result;
+    }
+
+    /**
+     * Builds an unreleasable buffer with given text, so it survives the handler.
+     * @param text the text.
+     * @return such buffer.
+     */
+    @NotNull
+    protected static ByteBuf unreleasable(@NotNull final String text)
+    {
+        return Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(text, CharsetUtil.US_ASCII));
+    }
+
+    /**
+     * Builds the binary counterpart of {@link InterpreterBenchmark#expressionFor(String)}.
+     * @param kind the kind: {@code integer}, {@code real} or {@code negative}.
+     * @return the request frame, length prefix included.
+     */
+    @NotNull
+    protected static ByteBuf binaryRequestFor(@NotNull final String kind)
+    {
+        @NotNull final ByteBuf result = Unpooled.buffer();
+
+        @NotNull final BinaryProtocol protocol = new BinaryProtocol();
+
+        if ("real".equals(kind))
+        {
+            protocol.writeRequest(
+                BinaryProtocol.ADD,
+                new NumericValue().setDecimal(new BigDecimal("-13.1")),
+                new NumericValue().setDecimal(new BigDecimal("42.1")),
+                result);
+        }
+        else if ("negative".equals(kind))
+        {
+            protocol.writeRequest(
+                BinaryProtocol.SUBTRACT, new NumericValue().setLong(-1234), new NumericValue().setLong(-5678), result);
+        }
+        else
+        {
+            protocol.writeRequest(
+                BinaryProtocol.ADD, new NumericValue().setLong(1234), new NumericValue().setLong(5678), result);
+        }
+
+        return result;
+    }
+}
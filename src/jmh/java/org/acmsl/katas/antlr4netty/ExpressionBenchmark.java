@@ -0,0 +1,179 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionBenchmark.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Measures long arithmetic expressions, parsed or precompiled.
+ *
+ * Date: 2026/10/17
+ * Time: 10:35
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JMH classes.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures long arithmetic expressions, mixing all operators and parentheses:
+ * parsing, compiling and evaluating them from scratch, versus evaluating
+ * them already compiled. Evaluation time should grow linearly with the size.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:35
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark
+{
+    /**
+     * The number of terms.
+     */
+    @Param({ "1000", "100000" })
+    public int terms;
+
+    /**
+     * The interpreter.
+     */
+    private Interpreter interpreter;
+
+    /**
+     * The expression.
+     */
+    private String expression;
+
+    /**
+     * The expression, compiled.
+     */
+    private CompiledExpression compiled;
+
+    /**
+     * The value holding the outcomes.
+     */
+    private NumericValue value;
+
+    /**
+     * Prepares the interpreter and the input.
+     */
+    @Setup
+    public void setUp()
+    {
+        this.interpreter = new Interpreter();
+        this.expression = expressionOf(this.terms, new Random(20141017L));
+        this.compiled = this.interpreter.compile(this.expression);
+        this.value = new NumericValue();
+    }
+
+    /**
+     * Parses, compiles and evaluates the expression.
+     * @return the outcome.
+     */
+    @Benchmark
+    @NotNull
+    public BigDecimal parseAndEvaluate()
+    {
+        return this.interpreter.eval(this.expression);
+    }
+
+    /**
+     * Evaluates the expression, already compiled.
+     * @return the outcome.
+     */
+    @Benchmark
+    @NotNull
+    public NumericValue evaluateCompiled()
+    {
+        return this.compiled.evaluate(this.value);
+    }
+
+    /**
+     * Builds a random expression with given number of terms: a sum of products,
+     * quotients and negated parentheses, so its precision stays bounded.
+     * @param terms the number of terms.
+     * @param random the random generator.
+     * @return the expression.
+     */
+    @NotNull
+    protected static String expressionOf(final int terms, @NotNull final Random random)
+    {
+        @NotNull final StringBuilder result = new StringBuilder();
+
+        for (int index = 0; index < terms; index++)
+        {
+            if (index > 0)
+            {
+                result.append(random.nextBoolean() ? " + " : " - ");
+            }
+
+            switch (index % 4)
+            {
+                case 0:
+                    result.append(1 + random.nextInt(999));
+                    break;
+                case 1:
+                    result.append(1 + random.nextInt(999)).append(" * ").append(1 + random.nextInt(99));
+                    break;
+                case 2:
+                    result.append(1 + random.nextInt(999)).append(" / 4");
+                    break;
+                default:
+                    result.append("-(").append(1 + random.nextInt(99)).append(" - ").append(1 + random.nextInt(99)).append(')');
+                    break;
+            }
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: InterpreterBenchmark.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Measures Interpreter throughput and allocation per evaluation.
+ *
+ * Date: 2026/10/17
+ * Time: 09:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JMH classes.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Interpreter} throughput, per kind of input, both on the
+ * fast path and through the ANTLR parser.
+ * Run it with {@code -prof gc} to get the allocation rate as well.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark
+{
+    /**
+     * The kind of input.
+     */
+    @Param({ "integer", "real", "negative" })
+    public String input;
+
+    /**
+     * Whether to use the {@link CommandScanner} fast path.
+     */
+    @Param({ "true", "false" })
+    public boolean fastPath;
+
+    /**
+     * The interpreter.
+     */
+    private Interpreter interpreter;
+
+    /**
+     * The expression.
+     */
+    private String expression;
+
+    /**
+     * The expression, as a buffer.
+     */
+    private ByteBuf buffer;
+
+    /**
+     * The value holding the outcomes.
+     */
+    private NumericValue value;
+
+    /**
+     * Prepares the interpreter and the input.
+     */
+    @Setup
+    public void setUp()
+    {
+        this.interpreter = new Interpreter(this.fastPath);
+        this.expression = expressionFor(this.input);
+        this.buffer = Unpooled.directBuffer().writeBytes(this.expression.getBytes(CharsetUtil.US_ASCII));
+        this.value = new NumericValue();
+    }
+
+    /**
+     * Releases the input.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.buffer.release();
+    }
+
+    /**
+     * Evaluates the expression, as a {@link String}.
+     * @return the outcome.
+     */
+    @Benchmark
+    @NotNull
+    public BigDecimal evalString()
+    {
+        return this.interpreter.eval(this.expression);
+    }
+
+    /**
+     * Evaluates the expression in place, as the server does.
+     * @return the outcome.
+     */
+    @Benchmark
+    @NotNull
+    public NumericValue evalBuffer()
+    {
+        return this.interpreter.eval(this.buffer, this.value);
+    }
+
+    /**
+     * Retrieves a representative expression of given kind.
+     * @param kind the kind: {@code integer}, {@code real} or {@code negative}.
+     * @return the expression.
+     */
+    @NotNull
+    protected static String expressionFor(@NotNull final String kind)
+    {
+        @NotNull final String result;
+
+        if ("real".equals(kind))
+        {
+            result = "-13.1 + 42.1";
+        }
+        else if ("negative".equals(kind))
+        {
+            result = "-1234 - -5678";
+        }
+        else
+        {
+            result = "1234 + 5678";
+        }
+
+        return result;
+    }
+}
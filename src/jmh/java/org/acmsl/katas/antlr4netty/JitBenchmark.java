@@ -0,0 +1,178 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: JitBenchmark.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Measures hot expressions, interpreted versus compiled into bytecode.
+ *
+ * Date: 2026/10/17
+ * Time: 13:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JMH classes.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hot expressions, interpreted by {@link CompiledExpression} versus
+ * run as bytecode generated for their shape by {@link ExpressionJit}: both
+ * already compiled, and parsed from scratch as {@link Interpreter#eval(String)} does.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 13:10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JitBenchmark
+{
+    /**
+     * The kind of expression.
+     */
+    @Param({ "small", "large" })
+    public String input;
+
+    /**
+     * Whether to compile hot shapes into bytecode.
+     */
+    @Param({ "false", "true" })
+    public boolean jit;
+
+    /**
+     * The interpreter.
+     */
+    private Interpreter interpreter;
+
+    /**
+     * The expression.
+     */
+    private String expression;
+
+    /**
+     * The expression, compiled.
+     */
+    private CompiledExpression compiled;
+
+    /**
+     * The value holding the outcomes.
+     */
+    private NumericValue value;
+
+    /**
+     * Prepares the interpreter and the input, past the compilation threshold.
+     */
+    @Setup
+    public void setUp()
+    {
+        this.interpreter =
+            new Interpreter(
+                true, true, ParseStrategy.SLL_THEN_LL, null, this.jit ? new ExpressionJit(1, 16) : null);
+        this.expression = expressionFor(this.input);
+        this.compiled = this.interpreter.compile(this.expression);
+        this.value = new NumericValue();
+
+        this.interpreter.evaluate(this.compiled, this.value);
+    }
+
+    /**
+     * Evaluates the expression, already compiled.
+     * @return the outcome.
+     */
+    @Benchmark
+    @NotNull
+    public NumericValue evaluateCompiled()
+    {
+        return this.interpreter.evaluate(this.compiled, this.value);
+    }
+
+    /**
+     * Parses and evaluates the expression.
+     * @return the outcome.
+     */
+    @Benchmark
+    @NotNull
+    public BigDecimal evalString()
+    {
+        return this.interpreter.eval(this.expression);
+    }
+
+    /**
+     * Retrieves a representative expression of given kind.
+     * @param kind the kind: {@code small} or {@code large}.
+     * @return the expression.
+     */
+    @NotNull
+    protected static String expressionFor(@NotNull final String kind)
+    {
+        @NotNull final String result;
+
+        if ("large".equals(kind))
+        {
+            @NotNull final StringBuilder builder = new StringBuilder("1");
+
+            for (int index = 2; index <= 64; index++)
+            {
+                builder.append((index % 3 == 0) ? " * " : " + ").append('(').append(index).append(" - 1)");
+            }
+
+            result = builder.toString();
+        }
+        else
+        {
+            result = "(12 + 34) * 5 - -6 / 2";
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ServerRoundTripBenchmark.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Measures full loopback round trips against InterpreterServer.
+ *
+ * Date: 2026/10/17
+ * Time: 09:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JMH classes.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JDK classes.
+ */
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures full round trips over loopback against an {@link InterpreterServer},
+ * one blocking connection per benchmark thread, for both protocols and transports.
+ * The server listens on the port in the "kata.port" system property (8765 by default).
+ * On platforms, or Netty versions, without the native transport, both transport
+ * settings run on NIO, and the server says so on startup.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:40
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerRoundTripBenchmark
+{
+    /**
+     * The running server, shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Server
+    {
+        /**
+         * Whether to prefer the native transport.
+         */
+        @Param({ "true", "false" })
+        public boolean nativeTransport;
+
+        /**
+         * The number of threads evaluating expressions off the I/O event loop.
+         */
+        @Param({ "0" })
+        public int evaluationThreads;
+
+        /**
+         * The port.
+         */
+        private int port;
+
+        /**
+         * The future of the running server.
+         */
+        private ChannelFuture future;
+
+        /**
+         * Launches the server.
+         * @throws InterruptedException if the launch gets interrupted.
+         */
+        @Setup(Level.Trial)
+        public void start()
+            throws InterruptedException
+        {
+            this.port = Integer.getInteger("kata.port", 8765);
+
+            @NotNull final InterpreterServer server =
+                new InterpreterServer(
+                    new ServerSettings()
+                        .setNativeTransport(this.nativeTransport)
+                        .setEvaluationThreads(this.evaluationThreads));
+
+            System.out.println("Server running on " + server.getTransport() + " transport");
+
+            this.future = server.listen(this.port);
+            this.future.await();
+        }
+
+        /**
+         * Stops the server.
+         * @throws InterruptedException if the shutdown gets interrupted.
+         */
+        @TearDown(Level.Trial)
+        public void stop()
+            throws InterruptedException
+        {
+            this.future.channel().close().sync();
+
+            // releases the event loops.
+            this.future.sync();
+        }
+    }
+
+    /**
+     * The connection of each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Client
+    {
+        /**
+         * The protocol.
+         */
+        @Param({ "text", "binary" })
+        public String protocol;
+
+        /**
+         * The kind of input.
+         */
+        @Param({ "integer", "real", "negative" })
+        public String input;
+
+        /**
+         * The socket.
+         */
+        private Socket socket;
+
+        /**
+         * The request.
+         */
+        private byte[] request;
+
+        /**
+         * The buffer of responses.
+         */
+        private byte[] response;
+
+        /**
+         * The socket's output.
+         */
+        private OutputStream writer;
+
+        /**
+         * The socket's input, buffered.
+         */
+        private DataInputStream reader;
+
+        /**
+         * Connects to the server.
+         * @param server the server.
+         * @throws IOException if the connection fails.
+         */
+        @Setup(Level.Trial)
+        public void connect(@NotNull final Server server)
+            throws IOException
+        {
+            this.socket = new Socket("localhost", server.port);
+            this.socket.setTcpNoDelay(true);
+            this.writer = this.socket.getOutputStream();
+            this.reader = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+            this.response = new byte[BinaryProtocol.MAX_FRAME_LENGTH];
+
+            if ("binary".equals(this.protocol))
+            {
+                @NotNull final ByteBuf frame = ChannelHandlerBenchmark.binaryRequestFor(this.input);
+
+                this.writer.write(BinaryProtocol.MAGIC);
+
+                this.request = new byte[frame.readableBytes()];
+                frame.readBytes(this.request);
+            }
+            else
+            {
+                this.request = (InterpreterBenchmark.expressionFor(this.input) + "\n").getBytes(CharsetUtil.US_ASCII);
+            }
+        }
+
+        /**
+         * Closes the connection.
+         * @throws IOException if the connection cannot be closed.
+         */
+        @TearDown(Level.Trial)
+        public void close()
+            throws IOException
+        {
+            this.socket.close();
+        }
+
+        /**
+         * Sends the request, and waits for the response.
+         * @return the length of the response.
+         * @throws IOException if the communication fails.
+         */
+        public int roundTrip()
+            throws IOException
+        {
+            this.writer.write(this.request);
+
+            final int result;
+
+            if ("binary".equals(this.protocol))
+            {
+                result = this.reader.readUnsignedShort();
+
+                this.reader.readFully(this.response, 0, result);
+            }
+            else
+            {
+                result = readLine(this.reader, this.response);
+            }
+
+            return result;
+        }
+
+        /**
+         * Reads a line.
+         * @param stream the stream.
+         * @param line the buffer to read the line into.
+         * @return the length of the line, terminator included.
+         * @throws IOException if the line cannot be read.
+         */
+        protected int readLine(@NotNull final InputStream stream, @NotNull final byte[] line)
+            throws IOException
+        {
+            int result = 0;
+
+            int current;
+
+            do
+            {
+                current = stream.read();
+
+                if (current < 0)
+                {
+                    throw new IOException("connection closed");
+                }
+
+                line[result++] = (byte) current;
+            }
+            while (current != '\n');
+
+            return result;
+        }
+    }
+
+    /**
+     * Performs a round trip.
+     * @param server the server.
+     * @param client the connection.
+     * @return the length of the response.
+     * @throws IOException if the communication fails.
+     */
+    @Benchmark
+    public int roundTrip(@NotNull final Server server, @NotNull final Client client)
+        throws IOException
+    {
+        return client.roundTrip();
+    }
+}
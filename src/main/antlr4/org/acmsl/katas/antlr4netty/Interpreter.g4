@@ -124,10 +124,19 @@ grammar Interpreter;
  * PARSER RULES
  *------------------------------------------------------------------*/
 
-command : exp op? exp;
-
-exp : NUMBER;
-op : OPERATOR;
+// an assignment stores the outcome in the session, under given name.
+command : (IDENTIFIER ASSIGN)? expression EOF;
+
+// alternatives are listed from the highest precedence to the lowest.
+expression
+    : MINUS expression                                  # negation
+    | expression operator=(TIMES | DIVIDE) expression   # multiplicative
+    | expression operator=(PLUS | MINUS) expression     # additive
+    | LPAREN expression RPAREN                          # parenthesized
+    | NUMBER                                            # literal
+    | PARAMETER                                         # parameter
+    | IDENTIFIER                                        # variable
+    ;
 
 /*------------------------------------------------------------------
  * LEXER RULES
@@ -135,13 +144,21 @@ op : OPERATOR;
 
 WS : ( '\t' | ' ' | '\r' | '\n'| '\u000C' )+ -> skip;
 
-NUMBER: ('-')? POSITIVE_NUMBER;
+NUMBER: POSITIVE_NUMBER;
 
-OPERATOR: '+' | '-';
+PLUS : '+';
+MINUS : '-';
+TIMES : '*';
+DIVIDE : '/';
+LPAREN : '(';
+RPAREN : ')';
+PARAMETER : '?';
+ASSIGN : '=';
+IDENTIFIER : [a-zA-Z_] [a-zA-Z_0-9]*;
 
 fragment POSITIVE_NUMBER :
     POSITIVE_INTEGER
   | POSITIVE_REAL;
 
 fragment POSITIVE_INTEGER : ('0'..'9')+;
-fragment POSITIVE_REAL : ('0'..'9')+'.'('0'..'9')+;
\ No newline at end of file
+fragment POSITIVE_REAL : ('0'..'9')+'.'('0'..'9')+;
@@ -0,0 +1,512 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: Accumulators.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Server-wide named accumulators, with striped updates.
+ *
+ * Date: 2026/10/17
+ * Time: 19:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded registry of named {@link Accumulator}s, shared by all connections, so
+ * any of them can add expression results into a total, and read it back.
+ * Accumulators get created on their first update, and live as long as the server.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 19:10
+ */
+@ThreadSafe
+public class Accumulators
+{
+    /**
+     * The default maximum number of accumulators.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The maximum number of stripes of each accumulator.
+     */
+    public static final int MAX_STRIPES = 64;
+
+    /**
+     * The maximum number of accumulators.
+     */
+    private final int capacity;
+
+    /**
+     * The number of stripes of each accumulator, a power of two.
+     */
+    private final int stripes;
+
+    /**
+     * The accumulators, by name.
+     */
+    @NotNull
+    private final ConcurrentHashMap<String, Accumulator> accumulators = new ConcurrentHashMap<>();
+
+    /**
+     * The number of accumulators, including those being created.
+     */
+    @NotNull
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates a new registry, with default capacity, and two stripes per processor.
+     */
+    public Accumulators()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new registry, with two stripes per processor.
+     * @param capacity the maximum number of accumulators.
+     */
+    public Accumulators(final int capacity)
+    {
+        this(capacity, defaultStripes(Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a new registry.
+     * @param capacity the maximum number of accumulators.
+     * @param stripes the number of stripes of each accumulator, a power of two.
+     */
+    public Accumulators(final int capacity, final int stripes)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        if (stripes < 1 || stripes > MAX_STRIPES || Integer.bitCount(stripes) != 1)
+        {
+            throw new IllegalArgumentException("stripes must be a power of two up to " + MAX_STRIPES + ": " + stripes);
+        }
+
+        this.capacity = capacity;
+        this.stripes = stripes;
+    }
+
+    /**
+     * Computes the default number of stripes: the power of two at or above
+     * twice given number of processors, as many as event-loop threads by default.
+     * @param processors the number of processors.
+     * @return such number, up to {@link #MAX_STRIPES}.
+     */
+    protected static int defaultStripes(final int processors)
+    {
+        final int threads = Math.min(processors * 2, MAX_STRIPES);
+
+        int result = 1;
+
+        while (result < threads)
+        {
+            result <<= 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the maximum number of accumulators.
+     * @return such number.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Retrieves the number of stripes of each accumulator.
+     * @return such number.
+     */
+    public int getStripes()
+    {
+        return this.stripes;
+    }
+
+    /**
+     * Retrieves the number of accumulators.
+     * @return such number.
+     */
+    public int size()
+    {
+        return this.accumulators.size();
+    }
+
+    /**
+     * Adds given value to the named accumulator, creating it if it's new.
+     * @param name the name.
+     * @param value the value.
+     * @return {@code false} if the accumulator is new, and there's no room for it.
+     */
+    public boolean add(@NotNull final String name, @NotNull final NumericValue value)
+    {
+        @Nullable final Accumulator accumulator = get(name);
+
+        if (accumulator != null)
+        {
+            accumulator.add(value);
+        }
+
+        return accumulator != null;
+    }
+
+    /**
+     * Retrieves the total of the named accumulator.
+     * @param name the name.
+     * @param result the value to hold the total: zero if there's no such accumulator.
+     * @return {@code result}, for convenience.
+     */
+    @NotNull
+    public NumericValue sum(@NotNull final String name, @NotNull final NumericValue result)
+    {
+        @Nullable final Accumulator accumulator = this.accumulators.get(name);
+
+        if (accumulator != null)
+        {
+            accumulator.sum(result);
+        }
+        else
+        {
+            result.setLong(0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the named accumulator, creating it if it's new and there's room.
+     * @param name the name.
+     * @return the accumulator, or {@code null} if there's no room for it.
+     */
+    @Nullable
+    protected Accumulator get(@NotNull final String name)
+    {
+        @Nullable Accumulator result = this.accumulators.get(name);
+
+        if (result == null)
+        {
+            // reserved first, so concurrent creations never exceed the capacity.
+            if (this.size.incrementAndGet() <= this.capacity)
+            {
+                @NotNull final Accumulator created = new Accumulator(this.stripes);
+
+                result = this.accumulators.putIfAbsent(name, created);
+
+                if (result == null)
+                {
+                    result = created;
+                }
+                else
+                {
+                    this.size.decrementAndGet();
+                }
+            }
+            else
+            {
+                this.size.decrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Exact running total, updated concurrently without a shared hot spot:
+     * each thread adds into its own stripe, picked by thread id, since the
+     * event-loop threads updating it are few and long-lived. Integers go into
+     * {@code long} cells, LongAdder-style, except when a cell would overflow,
+     * in which case its value moves into the thread's decimal cell. Decimals go
+     * into {@link BigDecimal} cells, allocated on the first decimal update.
+     * Cells are spread a cache line apart, so stripes don't share lines.
+     * Moving a value takes two steps, so they run under a write lock, and totals
+     * get read optimistically, retrying if any value moved meanwhile: no total
+     * counts a moving value twice, or misses it. Totals read while other updates
+     * are in flight may not include them.
+     */
+    @ThreadSafe
+    public static class Accumulator
+    {
+        /**
+         * The distance between {@code long} cells, so each one gets a 64-byte cache line.
+         */
+        protected static final int LONG_PADDING = 8;
+
+        /**
+         * The distance between decimal cells, so each one gets a cache line,
+         * even with compressed references.
+         */
+        protected static final int REFERENCE_PADDING = 16;
+
+        /**
+         * The mask to pick a stripe.
+         */
+        private final int mask;
+
+        /**
+         * The integer cells.
+         */
+        @NotNull
+        private final AtomicLongArray longs;
+
+        /**
+         * The decimal cells, once there's any decimal.
+         */
+        @Nullable
+        private volatile AtomicReferenceArray<BigDecimal> decimals;
+
+        /**
+         * Guards the values moving from {@code long} cells to decimal ones.
+         */
+        @NotNull
+        private final StampedLock moves = new StampedLock();
+
+        /**
+         * Creates a new accumulator, initially zero.
+         * @param stripes the number of stripes, a power of two.
+         */
+        public Accumulator(final int stripes)
+        {
+            this.mask = stripes - 1;
+            this.longs = new AtomicLongArray(stripes * LONG_PADDING);
+        }
+
+        /**
+         * Adds given value.
+         * @param value the value.
+         */
+        public void add(@NotNull final NumericValue value)
+        {
+            if (value.isLong())
+            {
+                add(value.getLong());
+            }
+            else
+            {
+                add(value.toBigDecimal());
+            }
+        }
+
+        /**
+         * Adds given integer.
+         * @param value the integer.
+         */
+        public void add(final long value)
+        {
+            final int cell = stripe() * LONG_PADDING;
+
+            boolean added = false;
+
+            while (!added)
+            {
+                final long current = this.longs.get(cell);
+
+                final long next = current + value;
+
+                // both operands share a sign the sum lacks.
+                if (((current ^ next) & (value ^ next)) < 0)
+                {
+                    added = move(cell, current, value);
+                }
+                else
+                {
+                    added = this.longs.compareAndSet(cell, current, next);
+                }
+            }
+        }
+
+        /**
+         * Moves the value of given integer cell, plus given integer, into the
+         * decimal cell of the current thread, unless the integer cell changed.
+         * @param cell the integer cell.
+         * @param current its expected value.
+         * @param value the integer.
+         * @return {@code true} if the value moved.
+         */
+        protected boolean move(final int cell, final long current, final long value)
+        {
+            final long stamp = this.moves.writeLock();
+
+            try
+            {
+                final boolean result = this.longs.compareAndSet(cell, current, 0);
+
+                if (result)
+                {
+                    add(BigDecimal.valueOf(current).add(BigDecimal.valueOf(value)));
+                }
+
+                return result;
+            }
+            finally
+            {
+                this.moves.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Adds given number.
+         * @param value the number.
+         */
+        public void add(@NotNull final BigDecimal value)
+        {
+            @NotNull final AtomicReferenceArray<BigDecimal> cells = decimals();
+
+            final int cell = stripe() * REFERENCE_PADDING;
+
+            boolean added = false;
+
+            while (!added)
+            {
+                @Nullable final BigDecimal current = cells.get(cell);
+
+                added = cells.compareAndSet(cell, current, (current != null) ? current.add(value) : value);
+            }
+        }
+
+        /**
+         * Retrieves the total.
+         * @param result the value to hold the total.
+         * @return {@code result}, for convenience.
+         */
+        @NotNull
+        public NumericValue sum(@NotNull final NumericValue result)
+        {
+            final long stamp = this.moves.tryOptimisticRead();
+
+            collect(result);
+
+            if (!this.moves.validate(stamp))
+            {
+                // some value moved meanwhile; wait for it, and read again.
+                final long readStamp = this.moves.readLock();
+
+                try
+                {
+                    collect(result);
+                }
+                finally
+                {
+                    this.moves.unlockRead(readStamp);
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Adds up all cells.
+         * @param result the value to hold the total.
+         */
+        protected void collect(@NotNull final NumericValue result)
+        {
+            result.setLong(0);
+
+            for (int cell = 0; cell < this.longs.length(); cell += LONG_PADDING)
+            {
+                result.add(this.longs.get(cell));
+            }
+
+            @Nullable final AtomicReferenceArray<BigDecimal> cells = this.decimals;
+
+            if (cells != null)
+            {
+                for (int cell = 0; cell < cells.length(); cell += REFERENCE_PADDING)
+                {
+                    @Nullable final BigDecimal value = cells.get(cell);
+
+                    if (value != null)
+                    {
+                        result.add(value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Retrieves the stripe of the current thread.
+         * @return such stripe.
+         */
+        protected int stripe()
+        {
+            return (int) Thread.currentThread().getId() & this.mask;
+        }
+
+        /**
+         * Retrieves the decimal cells, allocating them the first time.
+         * @return such cells.
+         */
+        @NotNull
+        protected AtomicReferenceArray<BigDecimal> decimals()
+        {
+            @Nullable AtomicReferenceArray<BigDecimal> result = this.decimals;
+
+            if (result == null)
+            {
+                synchronized (this)
+                {
+                    result = this.decimals;
+
+                    if (result == null)
+                    {
+                        result = new AtomicReferenceArray<>((this.mask + 1) * REFERENCE_PADDING);
+                        this.decimals = result;
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+}
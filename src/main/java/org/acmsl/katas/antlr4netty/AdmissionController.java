@@ -0,0 +1,325 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: AdmissionController.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Server-wide limits on connections and in-flight evaluations.
+ *
+ * Date: 2026/10/17
+ * Time: 16:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-wide limits on concurrent connections and in-flight evaluations,
+ * so that overload gets shed upfront instead of queued until every
+ * request is late.
+ * <p>The in-flight limit is either fixed, or adaptive: it then moves between
+ * 1 and its maximum, following an additive-increase/multiplicative-decrease
+ * rule on the observed latency. After each window of as many completed
+ * requests as the current limit, it shrinks by {@link #DECREASE_FACTOR} if more
+ * than {@link #SLOW_FRACTION} of them took longer than the target latency,
+ * and grows by one otherwise.</p>
+ * <p>Everything is lock-free: one atomic per acquisition and release, and one
+ * more per release when adaptive.</p>
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 16:30
+ */
+@ThreadSafe
+public class AdmissionController
+{
+    /**
+     * The upper bound of the adaptive limit, when in-flight evaluations are not capped otherwise.
+     */
+    public static final int DEFAULT_ADAPTIVE_MAX = 4096;
+
+    /**
+     * The initial adaptive limit, unless its upper bound is lower.
+     */
+    public static final int INITIAL_ADAPTIVE_LIMIT = 64;
+
+    /**
+     * The factor applied to the adaptive limit when a window is too slow.
+     */
+    public static final double DECREASE_FACTOR = 0.9;
+
+    /**
+     * The fraction of slow requests tolerated in a window.
+     */
+    public static final double SLOW_FRACTION = 0.1;
+
+    /**
+     * The maximum number of concurrent connections (0 for no limit).
+     */
+    private final int maxConnections;
+
+    /**
+     * The maximum number of in-flight evaluations (0 for no limit, unless adaptive).
+     */
+    private final int maxInFlight;
+
+    /**
+     * The target latency of the adaptive limit, in nanoseconds, or 0 if it's fixed.
+     */
+    private final long targetLatencyNanos;
+
+    /**
+     * The open connections.
+     */
+    @NotNull
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * The in-flight evaluations.
+     */
+    @NotNull
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The current in-flight limit.
+     */
+    @NotNull
+    private final AtomicInteger limit;
+
+    /**
+     * The current window: slow requests in the upper 32 bits, all requests in the lower ones.
+     */
+    @NotNull
+    private final AtomicLong window = new AtomicLong();
+
+    /**
+     * Creates a new controller with fixed limits.
+     * @param maxConnections the maximum number of concurrent connections, or 0 for no limit.
+     * @param maxInFlight the maximum number of in-flight evaluations, or 0 for no limit.
+     */
+    public AdmissionController(final int maxConnections, final int maxInFlight)
+    {
+        this(maxConnections, maxInFlight, 0);
+    }
+
+    /**
+     * Creates a new controller.
+     * @param maxConnections the maximum number of concurrent connections, or 0 for no limit.
+     * @param maxInFlight the maximum number of in-flight evaluations, or 0 for no limit
+     * (or {@link #DEFAULT_ADAPTIVE_MAX} if adaptive).
+     * @param targetLatencyNanos the latency the adaptive limit aims at, in
+     * nanoseconds, or 0 to keep the limit fixed.
+     */
+    public AdmissionController(final int maxConnections, final int maxInFlight, final long targetLatencyNanos)
+    {
+        this.maxConnections = maxConnections;
+        this.targetLatencyNanos = targetLatencyNanos;
+
+        if (targetLatencyNanos > 0)
+        {
+            this.maxInFlight = (maxInFlight > 0) ? maxInFlight : DEFAULT_ADAPTIVE_MAX;
+            this.limit = new AtomicInteger(Math.min(this.maxInFlight, INITIAL_ADAPTIVE_LIMIT));
+        }
+        else
+        {
+            this.maxInFlight = maxInFlight;
+            this.limit = new AtomicInteger(maxInFlight);
+        }
+    }
+
+    /**
+     * Retrieves the maximum number of concurrent connections.
+     * @return such number, or 0 if there's no limit.
+     */
+    public int getMaxConnections()
+    {
+        return this.maxConnections;
+    }
+
+    /**
+     * Retrieves the maximum number of in-flight evaluations.
+     * @return such number, or 0 if there's no limit.
+     */
+    public int getMaxInFlight()
+    {
+        return this.maxInFlight;
+    }
+
+    /**
+     * Checks whether the in-flight limit adapts to the observed latency.
+     * @return {@code true} in such case.
+     */
+    public boolean isAdaptive()
+    {
+        return this.targetLatencyNanos > 0;
+    }
+
+    /**
+     * Retrieves the current in-flight limit.
+     * @return such limit, or 0 if there's none.
+     */
+    public int getLimit()
+    {
+        return this.limit.get();
+    }
+
+    /**
+     * Retrieves the number of open connections.
+     * @return such number.
+     */
+    public int getConnections()
+    {
+        return this.connections.get();
+    }
+
+    /**
+     * Retrieves the number of in-flight evaluations.
+     * @return such number.
+     */
+    public int getInFlight()
+    {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Tries to admit a new connection.
+     * @return {@code true} if admitted, in which case {@link #connectionClosed()}
+     * must follow once it's closed.
+     */
+    public boolean tryOpenConnection()
+    {
+        return tryIncrement(this.connections, this.maxConnections);
+    }
+
+    /**
+     * Annotates an admitted connection has been closed.
+     */
+    public void connectionClosed()
+    {
+        this.connections.decrementAndGet();
+    }
+
+    /**
+     * Tries to admit a new evaluation.
+     * @return {@code true} if admitted, in which case {@link #release(long)}
+     * must follow once it's answered.
+     */
+    public boolean tryAcquire()
+    {
+        return tryIncrement(this.inFlight, this.limit.get());
+    }
+
+    /**
+     * Annotates an admitted evaluation has been answered.
+     * @param latencyNanos how long it took since it was admitted, in nanoseconds,
+     * or a negative value if unknown (i.e. the connection was closed).
+     */
+    public void release(final long latencyNanos)
+    {
+        this.inFlight.decrementAndGet();
+
+        if (isAdaptive() && latencyNanos >= 0)
+        {
+            adapt(latencyNanos > this.targetLatencyNanos);
+        }
+    }
+
+    /**
+     * Adds a latency sample to the current window, adjusting the limit if it's complete.
+     * @param slow whether the sample went above the target latency.
+     */
+    protected void adapt(final boolean slow)
+    {
+        final long state = this.window.addAndGet(slow ? (1L << 32) + 1 : 1);
+
+        final int current = this.limit.get();
+
+        final int samples = (int) state;
+
+        // only the thread resetting the window adjusts the limit.
+        if (samples >= current && this.window.compareAndSet(state, 0))
+        {
+            final int slowSamples = (int) (state >>> 32);
+
+            final int next;
+
+            if (slowSamples > samples * SLOW_FRACTION)
+            {
+                next = Math.max(1, (int) (current * DECREASE_FACTOR));
+            }
+            else
+            {
+                next = Math.min(this.maxInFlight, current + 1);
+            }
+
+            this.limit.compareAndSet(current, next);
+        }
+    }
+
+    /**
+     * Increments given counter unless it has reached given limit.
+     * @param counter the counter.
+     * @param max the limit, or 0 for none.
+     * @return {@code true} if incremented.
+     */
+    protected boolean tryIncrement(@NotNull final AtomicInteger counter, final int max)
+    {
+        boolean result;
+
+        if (max <= 0)
+        {
+            counter.incrementAndGet();
+            result = true;
+        }
+        else
+        {
+            int current;
+
+            do
+            {
+                current = counter.get();
+                result = current < max;
+            }
+            while (result && !counter.compareAndSet(current, current + 1));
+        }
+
+        return result;
+    }
+}
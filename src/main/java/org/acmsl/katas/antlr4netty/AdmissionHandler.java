@@ -0,0 +1,298 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: AdmissionHandler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Sheds requests above the server-wide in-flight limit.
+ *
+ * Date: 2026/10/17
+ * Time: 16:55
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/**
+ * Asks the {@link AdmissionController} before passing each frame on to the
+ * interpreter. Frames not admitted are answered right away with a "busy"
+ * response, without being evaluated nor queued for evaluation.
+ * <p>It sits between the framing and the interpreter, counting each outbound
+ * message coming from the interpreter as the response to the oldest admitted
+ * frame, and reporting how long it took to the controller.</p>
+ * <p>Busy responses keep their place among the other responses: when the
+ * interpreter runs in an evaluation group, they're written from its executor,
+ * after the responses to the frames already queued there.</p>
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 16:55
+ */
+@NotThreadSafe
+public class AdmissionHandler
+    extends ChannelHandlerAdapter
+{
+    /**
+     * The initial capacity of the queue of admission times.
+     */
+    protected static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The controller.
+     */
+    @NotNull
+    private final AdmissionController controller;
+
+    /**
+     * The response to frames not admitted, never released.
+     */
+    @NotNull
+    private final ByteBuf busyResponse;
+
+    /**
+     * Where to annotate rejections, if anywhere.
+     */
+    @Nullable
+    private final InterpreterMetrics metrics;
+
+    /**
+     * When unanswered admitted frames were admitted, oldest first, as a ring.
+     */
+    @NotNull
+    private long[] admitted = new long[INITIAL_CAPACITY];
+
+    /**
+     * The position of the oldest admission time.
+     */
+    private int head;
+
+    /**
+     * The number of unanswered admitted frames.
+     */
+    private int pending;
+
+    /**
+     * Whether busy responses have been written but not flushed.
+     */
+    private boolean flushNeeded;
+
+    /**
+     * Creates a new handler.
+     * @param controller the controller.
+     * @param busyResponse the response to frames not admitted, never released.
+     * @param metrics where to annotate rejections, if anywhere.
+     */
+    public AdmissionHandler(
+        @NotNull final AdmissionController controller,
+        @NotNull final ByteBuf busyResponse,
+        @Nullable final InterpreterMetrics metrics)
+    {
+        this.controller = controller;
+        this.busyResponse = busyResponse;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves the controller.
+     * @return such controller.
+     */
+    @NotNull
+    public AdmissionController getController()
+    {
+        return this.controller;
+    }
+
+    /**
+     * Retrieves the number of admitted frames not answered yet.
+     * @return such number.
+     */
+    public int getPending()
+    {
+        return this.pending;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelRead(@NotNull final ChannelHandlerContext ctx, @NotNull final Object msg)
+        throws Exception
+    {
+        if (this.controller.tryAcquire())
+        {
+            enqueue(System.nanoTime());
+            ctx.fireChannelRead(msg);
+        }
+        else
+        {
+            ReferenceCountUtil.release(msg);
+
+            if (this.metrics != null)
+            {
+                this.metrics.requestRejected();
+            }
+
+            writeBusy(ctx);
+        }
+    }
+
+    /**
+     * Writes the busy response after the responses to the frames already admitted.
+     * @param ctx the context.
+     */
+    protected void writeBusy(@NotNull final ChannelHandlerContext ctx)
+    {
+        @Nullable final ChannelHandlerContext interpreter = ctx.pipeline().context(ProtocolSelector.INTERPRETER);
+
+        @NotNull final EventExecutor executor = (interpreter != null) ? interpreter.executor() : ctx.executor();
+
+        if (executor.inEventLoop())
+        {
+            ctx.write(this.busyResponse.duplicate(), ctx.voidPromise());
+            this.flushNeeded = true;
+        }
+        else
+        {
+            executor.execute(
+                new Runnable()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public void run()
+                    {
+                        ctx.writeAndFlush(busyResponse.duplicate(), ctx.voidPromise());
+                    }
+                });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(
+        @NotNull final ChannelHandlerContext ctx, @NotNull final Object msg, @NotNull final ChannelPromise promise)
+        throws Exception
+    {
+        if (this.pending > 0)
+        {
+            this.controller.release(System.nanoTime() - dequeue());
+        }
+
+        ctx.write(msg, promise);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelReadComplete(@NotNull final ChannelHandlerContext ctx)
+        throws Exception
+    {
+        if (this.flushNeeded)
+        {
+            this.flushNeeded = false;
+            ctx.flush();
+        }
+
+        ctx.fireChannelReadComplete();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Admitted frames left unanswered are released, without latency samples.</p>
+     */
+    @Override
+    public void channelInactive(@NotNull final ChannelHandlerContext ctx)
+        throws Exception
+    {
+        while (this.pending > 0)
+        {
+            dequeue();
+            this.controller.release(-1);
+        }
+
+        ctx.fireChannelInactive();
+    }
+
+    /**
+     * Annotates when a frame got admitted.
+     * @param time such time, in {@link System#nanoTime()} terms.
+     */
+    protected void enqueue(final long time)
+    {
+        if (this.pending == this.admitted.length)
+        {
+            @NotNull final long[] larger = new long[this.admitted.length * 2];
+
+            for (int index = 0; index < this.pending; index++)
+            {
+                larger[index] = this.admitted[(this.head + index) & (this.admitted.length - 1)];
+            }
+
+            this.admitted = larger;
+            this.head = 0;
+        }
+
+        this.admitted[(this.head + this.pending) & (this.admitted.length - 1)] = time;
+        this.pending++;
+    }
+
+    /**
+     * Retrieves when the oldest unanswered frame got admitted, forgetting it.
+     * @return such time, in {@link System#nanoTime()} terms.
+     */
+    protected long dequeue()
+    {
+        final long result = this.admitted[this.head];
+
+        this.head = (this.head + 1) & (this.admitted.length - 1);
+        this.pending--;
+
+        return result;
+    }
+}
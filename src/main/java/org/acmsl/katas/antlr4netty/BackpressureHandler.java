@@ -0,0 +1,185 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BackpressureHandler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Stops reading from clients which don't read their responses.
+ *
+ * Date: 2026/10/17
+ * Time: 15:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/**
+ * Keeps the memory spent on each connection bounded, by suspending
+ * {@link ChannelConfig#setAutoRead(boolean) reads} while either:
+ * <ul>
+ *   <li>the channel is not writable, that is, its outbound buffer went
+ *   above the high write-buffer watermark, until it drains below the low one;</li>
+ *   <li>or {@link #getMaxInFlight()} requests are still waiting for their
+ *   responses, until half of them are answered.</li>
+ * </ul>
+ * It sits between the framing and the interpreter, counting each inbound frame
+ * as a request, and each outbound message as its response: the interpreters
+ * answer every frame exactly once. Frames already read when reads get
+ * suspended are still passed on, so the cap is exceeded by at most one read.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 15:10
+ */
+@NotThreadSafe
+public class BackpressureHandler
+    extends ChannelHandlerAdapter
+{
+    /**
+     * The maximum number of unanswered requests (0 for no limit).
+     */
+    private final int maxInFlight;
+
+    /**
+     * The number of unanswered requests.
+     */
+    private int inFlight;
+
+    /**
+     * Creates a new handler.
+     * @param maxInFlight the maximum number of unanswered requests,
+     * or 0 to pause reading only when the channel is not writable.
+     */
+    public BackpressureHandler(final int maxInFlight)
+    {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Retrieves the maximum number of unanswered requests.
+     * @return such number, or 0 if there's no limit.
+     */
+    public int getMaxInFlight()
+    {
+        return this.maxInFlight;
+    }
+
+    /**
+     * Retrieves the number of unanswered requests.
+     * @return such number.
+     */
+    public int getInFlight()
+    {
+        return this.inFlight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelRead(@NotNull final ChannelHandlerContext ctx, @NotNull final Object msg)
+        throws Exception
+    {
+        this.inFlight++;
+
+        if (this.maxInFlight > 0 && this.inFlight >= this.maxInFlight)
+        {
+            ctx.channel().config().setAutoRead(false);
+        }
+
+        ctx.fireChannelRead(msg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(
+        @NotNull final ChannelHandlerContext ctx, @NotNull final Object msg, @NotNull final ChannelPromise promise)
+        throws Exception
+    {
+        if (this.inFlight > 0)
+        {
+            this.inFlight--;
+        }
+
+        ctx.write(msg, promise);
+
+        resumeIfPossible(ctx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelWritabilityChanged(@NotNull final ChannelHandlerContext ctx)
+        throws Exception
+    {
+        if (!ctx.channel().isWritable())
+        {
+            ctx.channel().config().setAutoRead(false);
+        }
+        else
+        {
+            resumeIfPossible(ctx);
+        }
+
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    /**
+     * Resumes reading, if it's suspended, the channel is writable, and
+     * unanswered requests are below half the cap.
+     * @param ctx the context.
+     */
+    protected void resumeIfPossible(@NotNull final ChannelHandlerContext ctx)
+    {
+        @NotNull final ChannelConfig config = ctx.channel().config();
+
+        if (!config.isAutoRead()
+            && ctx.channel().isWritable()
+            && (this.maxInFlight == 0 || this.inFlight <= this.maxInFlight / 2))
+        {
+            config.setAutoRead(true);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BinaryInterpreterServerChannelHandler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Calculates requests arriving in the binary protocol.
+ *
+ * Date: 2026/10/17
+ * Time: 23:58
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.ReferenceCountUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/**
+ * Calculates requests arriving in the {@link BinaryProtocol binary protocol}.
+ * Expects each inbound message to be a single request, already stripped of
+ * its length prefix (i.e. by a {@link io.netty.handler.codec.LengthFieldBasedFrameDecoder}),
+ * and keeps the connection open so clients can pipeline requests.
+ * Operands arrive already encoded, so no lexing nor parsing is involved.
+ * Malformed requests get {@link BinaryProtocol#ERROR} back.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:58
+ */
+@ThreadSafe
+@Sharable
+public class BinaryInterpreterServerChannelHandler
+    extends ChannelHandlerAdapter
+{
+    /**
+     * The protocol, shared since it's stateless.
+     */
+    @NotNull
+    protected static final BinaryProtocol PROTOCOL = new BinaryProtocol();
+
+    /**
+     * The response to requests rejected because the server is overloaded, shared by all connections.
+     */
+    @NotNull
+    protected static final ByteBuf BUSY_BUFFER = Unpooled.unreleasableBuffer(busyResponse());
+
+    /**
+     * The value holding each thread's current outcome.
+     */
+    @NotNull
+    protected static final ThreadLocal<NumericValue> RESULTS =
+        new ThreadLocal<NumericValue>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected NumericValue initialValue()
+            {
+                return new NumericValue();
+            }
+        };
+
+    /**
+     * The value holding each thread's current second operand.
+     */
+    @NotNull
+    protected static final ThreadLocal<NumericValue> OPERANDS =
+        new ThreadLocal<NumericValue>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected NumericValue initialValue()
+            {
+                return new NumericValue();
+            }
+        };
+
+    /**
+     * Where to record latencies and counters, if anywhere.
+     */
+    @Nullable
+    private final InterpreterMetrics metrics;
+
+    /**
+     * Creates a new handler.
+     */
+    public BinaryInterpreterServerChannelHandler()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates a new handler recording given metrics.
+     * @param metrics where to record latencies and counters, if anywhere.
+     */
+    public BinaryInterpreterServerChannelHandler(@Nullable final InterpreterMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves where latencies and counters are recorded.
+     * @return such metrics, or {@code null} if not recorded.
+     */
+    @Nullable
+    public InterpreterMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Responses are written but not flushed: pipelined requests arriving
+     * in the same read get flushed together in {@link #channelReadComplete}.</p>
+     */
+    @Override
+    public void channelRead(
+        @NotNull final ChannelHandlerContext ctx, @NotNull final Object msg)
+        throws Exception
+    {
+        final long start = (this.metrics != null) ? System.nanoTime() : 0;
+
+        try
+        {
+            ctx.write(respond(ctx, (ByteBuf) msg), ctx.voidPromise());
+        }
+        finally
+        {
+            ReferenceCountUtil.release(msg);
+
+            if (this.metrics != null)
+            {
+                this.metrics.recordSince(InterpreterMetrics.Stage.REQUEST, start);
+                this.metrics.requestAnswered();
+            }
+        }
+    }
+
+    /**
+     * Builds the response to given request.
+     * @param ctx the context.
+     * @param input the request.
+     * @return the response, length prefix included.
+     */
+    @NotNull
+    protected ByteBuf respond(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf input)
+    {
+        @NotNull final ByteBuf result = ctx.alloc().ioBuffer(InterpreterServerChannelHandler.RESPONSE_CAPACITY);
+
+        try
+        {
+            if (this.metrics != null)
+            {
+                final long start = System.nanoTime();
+
+                @NotNull final NumericValue outcome = PROTOCOL.evaluate(input, RESULTS.get(), OPERANDS.get());
+
+                final long evaluated = this.metrics.recordSince(InterpreterMetrics.Stage.EVALUATE, start);
+
+                PROTOCOL.writeResponse(outcome, result);
+
+                this.metrics.recordSince(InterpreterMetrics.Stage.ENCODE, evaluated);
+            }
+            else
+            {
+                PROTOCOL.writeResponse(PROTOCOL.evaluate(input, RESULTS.get(), OPERANDS.get()), result);
+            }
+        }
+        catch (@NotNull final CorruptedFrameException malformed)
+        {
+            writeError(result);
+        }
+        catch (@NotNull final ArithmeticException outOfRange)
+        {
+            // i.e. decimal scales too far apart to be aligned.
+            writeError(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the response to requests rejected because the server is overloaded.
+     * @return such response.
+     */
+    @NotNull
+    protected static ByteBuf busyResponse()
+    {
+        @NotNull final ByteBuf result = Unpooled.buffer(BinaryProtocol.LENGTH_FIELD_LENGTH + 1);
+
+        PROTOCOL.writeBusy(result);
+
+        return result;
+    }
+
+    /**
+     * Replaces the response with an error, annotating it in the metrics, if any.
+     * @param response the response.
+     */
+    protected void writeError(@NotNull final ByteBuf response)
+    {
+        response.clear();
+        PROTOCOL.writeError(response);
+
+        if (this.metrics != null)
+        {
+            this.metrics.malformed();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelReadComplete(final ChannelHandlerContext ctx) throws Exception
+    {
+        ctx.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause)
+        throws Exception
+    {
+        cause.printStackTrace();
+        ctx.close();
+    }
+}
@@ -0,0 +1,444 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BinaryProtocol.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Encodes and decodes the compact, length-prefixed binary protocol.
+ *
+ * Date: 2026/10/17
+ * Time: 23:55
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Encodes and decodes the compact binary protocol, an alternative to the text one
+ * for callers that can send operands already encoded, skipping lexing and parsing.
+ * <p>A connection speaks it if its first byte is {@link #MAGIC}. Afterwards, each
+ * request and response is a frame prefixed with its length, as an unsigned
+ * big-endian {@code short} of {@link #LENGTH_FIELD_LENGTH} bytes.</p>
+ * <p>Requests hold an opcode ({@link #ADD} or {@link #SUBTRACT}) followed by two operands.
+ * Operands start with their kind:
+ * <ul>
+ *   <li>{@link #INTEGER}: followed by the value as a zig-zag varint.</li>
+ *   <li>{@link #DECIMAL}: followed by the scale as a zig-zag varint, up to
+ *       {@link #MAX_SCALE} either way, the length
+ *       of the unscaled value as a varint, and the unscaled value itself, as
+ *       big-endian two's complement bytes ({@link BigInteger#toByteArray()}).</li>
+ * </ul>
+ * Responses hold the outcome as an operand, or just {@link #ERROR} for
+ * malformed requests, or {@link #BUSY} for requests shed by admission control.</p>
+ * <p>Arithmetic follows {@link NumericValue}, as the text protocol does.</p>
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:55
+ */
+@ThreadSafe
+public class BinaryProtocol
+{
+    /**
+     * The first byte of connections using this protocol.
+     * It's not ASCII, so it cannot start a text expression.
+     */
+    public static final byte MAGIC = (byte) 0xB1;
+
+    /**
+     * The length of the length prefix of each frame.
+     */
+    public static final int LENGTH_FIELD_LENGTH = 2;
+
+    /**
+     * The maximum length of a frame, excluding its prefix.
+     */
+    public static final int MAX_FRAME_LENGTH = 0xFFFF;
+
+    /**
+     * The opcode to add both operands.
+     */
+    public static final byte ADD = '+';
+
+    /**
+     * The opcode to subtract the second operand from the first one.
+     */
+    public static final byte SUBTRACT = '-';
+
+    /**
+     * The kind of integer operands.
+     */
+    public static final byte INTEGER = 0;
+
+    /**
+     * The kind of decimal operands.
+     */
+    public static final byte DECIMAL = 1;
+
+    /**
+     * The maximum absolute scale of decimal operands. Operands with scales far apart
+     * get aligned before adding them, which takes time and memory proportional to
+     * the gap, so wider scales would let a ten-byte request stall the event loop.
+     */
+    public static final int MAX_SCALE = 1000;
+
+    /**
+     * The kind of responses to malformed requests.
+     */
+    public static final byte ERROR = 0x7F;
+
+    /**
+     * The kind of responses to requests rejected because the server is overloaded.
+     */
+    public static final byte BUSY = 0x7E;
+
+    /**
+     * Creates a new protocol instance.
+     */
+    public BinaryProtocol()
+    {
+    }
+
+    /**
+     * Evaluates the request in given frame.
+     * @param frame the frame, without its length prefix.
+     * @param result the value to hold the outcome.
+     * @param operand a value to hold the second operand.
+     * @return {@code result}, for convenience.
+     * @throws CorruptedFrameException if the request is malformed.
+     */
+    @NotNull
+    public NumericValue evaluate(
+        @NotNull final ByteBuf frame, @NotNull final NumericValue result, @NotNull final NumericValue operand)
+    {
+        if (!frame.isReadable())
+        {
+            throw new CorruptedFrameException("missing opcode");
+        }
+
+        final byte opcode = frame.readByte();
+
+        readOperand(frame, result);
+        readOperand(frame, operand);
+
+        if (frame.isReadable())
+        {
+            throw new CorruptedFrameException(frame.readableBytes() + " trailing bytes");
+        }
+
+        if (opcode == ADD)
+        {
+            result.add(operand);
+        }
+        else if (opcode == SUBTRACT)
+        {
+            result.subtract(operand);
+        }
+        else
+        {
+            throw new CorruptedFrameException("unknown opcode " + opcode);
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes a request frame, length prefix included.
+     * @param opcode the opcode.
+     * @param left the first operand.
+     * @param right the second operand.
+     * @param output the buffer to write to.
+     */
+    public void writeRequest(
+        final byte opcode,
+        @NotNull final NumericValue left,
+        @NotNull final NumericValue right,
+        @NotNull final ByteBuf output)
+    {
+        final int start = startFrame(output);
+
+        output.writeByte(opcode);
+        writeOperand(left, output);
+        writeOperand(right, output);
+
+        endFrame(start, output);
+    }
+
+    /**
+     * Writes a response frame, length prefix included.
+     * @param outcome the outcome.
+     * @param output the buffer to write to.
+     */
+    public void writeResponse(@NotNull final NumericValue outcome, @NotNull final ByteBuf output)
+    {
+        final int start = startFrame(output);
+
+        writeOperand(outcome, output);
+
+        endFrame(start, output);
+    }
+
+    /**
+     * Writes the response frame to malformed requests, length prefix included.
+     * @param output the buffer to write to.
+     */
+    public void writeError(@NotNull final ByteBuf output)
+    {
+        output.writeShort(1);
+        output.writeByte(ERROR);
+    }
+
+    /**
+     * Writes the response to requests rejected because the server is overloaded.
+     * @param output the buffer to write to.
+     */
+    public void writeBusy(@NotNull final ByteBuf output)
+    {
+        output.writeShort(1);
+        output.writeByte(BUSY);
+    }
+
+    /**
+     * Reads the response in given frame.
+     * @param frame the frame, without its length prefix.
+     * @param result the value to hold the outcome.
+     * @return {@code false} if the response is {@link #ERROR} or {@link #BUSY}.
+     * @throws CorruptedFrameException if the response is malformed.
+     */
+    public boolean readResponse(@NotNull final ByteBuf frame, @NotNull final NumericValue result)
+    {
+        final boolean outcome;
+
+        if (frame.isReadable()
+            && (frame.getByte(frame.readerIndex()) == ERROR || frame.getByte(frame.readerIndex()) == BUSY))
+        {
+            frame.skipBytes(1);
+            outcome = false;
+        }
+        else
+        {
+            readOperand(frame, result);
+            outcome = true;
+        }
+
+        return outcome;
+    }
+
+    /**
+     * Writes given operand.
+     * @param value the operand.
+     * @param output the buffer to write to.
+     */
+    public void writeOperand(@NotNull final NumericValue value, @NotNull final ByteBuf output)
+    {
+        if (value.isLong())
+        {
+            output.writeByte(INTEGER);
+            writeVarint(zigZag(value.getLong()), output);
+        }
+        else
+        {
+            @NotNull final BigDecimal decimal = value.toBigDecimal();
+
+            @NotNull final byte[] unscaled = decimal.unscaledValue().toByteArray();
+
+            output.writeByte(DECIMAL);
+            writeVarint(zigZag(decimal.scale()), output);
+            writeVarint(unscaled.length, output);
+            output.writeBytes(unscaled);
+        }
+    }
+
+    /**
+     * Reads an operand.
+     * @param input the buffer to read from.
+     * @param result the value to hold the operand.
+     * @return {@code result}, for convenience.
+     * @throws CorruptedFrameException if the operand is malformed, or its scale
+     * is beyond {@link #MAX_SCALE}.
+     */
+    @NotNull
+    public NumericValue readOperand(@NotNull final ByteBuf input, @NotNull final NumericValue result)
+    {
+        if (!input.isReadable())
+        {
+            throw new CorruptedFrameException("missing operand");
+        }
+
+        final byte kind = input.readByte();
+
+        if (kind == INTEGER)
+        {
+            result.setLong(unZigZag(readVarint(input)));
+        }
+        else if (kind == DECIMAL)
+        {
+            final long scale = unZigZag(readVarint(input));
+            final long length = readVarint(input);
+
+            if (   (scale < -MAX_SCALE)
+                || (scale > MAX_SCALE)
+                || (length < 1)
+                || (length > input.readableBytes()))
+            {
+                throw new CorruptedFrameException("malformed decimal operand");
+            }
+
+            @NotNull final byte[] unscaled = new byte[(int) length];
+            input.readBytes(unscaled);
+
+            result.setDecimal(new BigDecimal(new BigInteger(unscaled), (int) scale));
+        }
+        else
+        {
+            throw new CorruptedFrameException("unknown operand kind " + kind);
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes given value as an unsigned varint: seven bits per byte, least
+     * significant group first, with the high bit set on all bytes but the last.
+     * @param value the value.
+     * @param output the buffer to write to.
+     */
+    public void writeVarint(final long value, @NotNull final ByteBuf output)
+    {
+        long remaining = value;
+
+        while ((remaining & ~0x7FL) != 0)
+        {
+            output.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+
+        output.writeByte((int) remaining);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     * @param input the buffer to read from.
+     * @return the value.
+     * @throws CorruptedFrameException if the varint is truncated or too long.
+     */
+    public long readVarint(@NotNull final ByteBuf input)
+    {
+        long result = 0;
+
+        int shift = 0;
+
+        byte current;
+
+        do
+        {
+            if (!input.isReadable() || shift >= Long.SIZE)
+            {
+                throw new CorruptedFrameException("malformed varint");
+            }
+
+            current = input.readByte();
+
+            result |= (long) (current & 0x7F) << shift;
+
+            shift += 7;
+        }
+        while ((current & 0x80) != 0);
+
+        return result;
+    }
+
+    /**
+     * Maps signed values to unsigned ones, so that small magnitudes get short varints.
+     * @param value the value.
+     * @return the zig-zag encoded value.
+     */
+    public long zigZag(final long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverts {@link #zigZag(long)}.
+     * @param value the zig-zag encoded value.
+     * @return the original value.
+     */
+    public long unZigZag(final long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reserves the length prefix of a new frame.
+     * @param output the buffer.
+     * @return the index of the length prefix.
+     */
+    protected int startFrame(@NotNull final ByteBuf output)
+    {
+        final int result = output.writerIndex();
+
+        output.writeShort(0);
+
+        return result;
+    }
+
+    /**
+     * Fills in the length prefix of the frame just written.
+     * @param start the index of the length prefix.
+     * @param output the buffer.
+     */
+    protected void endFrame(final int start, @NotNull final ByteBuf output)
+    {
+        final int length = output.writerIndex() - start - LENGTH_FIELD_LENGTH;
+
+        if (length > MAX_FRAME_LENGTH)
+        {
+            throw new CorruptedFrameException("frame too long: " + length + " bytes");
+        }
+
+        output.setShort(start, length);
+    }
+}
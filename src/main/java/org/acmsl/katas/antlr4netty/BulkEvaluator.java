@@ -0,0 +1,547 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BulkEvaluator.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Evaluates files of expressions in parallel.
+ *
+ * Date: 2026/10/17
+ * Time: 13:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates files of newline-delimited expressions, writing a file with the result
+ * of each line, in order: the batch counterpart of {@link InterpreterServer}.
+ * The input is memory-mapped a chunk at a time, each chunk ending at a line
+ * boundary, and chunks are evaluated in parallel on a fork-join pool, lexing
+ * the mapped bytes in place. Only a bounded window of chunks is in flight, so
+ * files larger than the heap need no more memory than that window.
+ * Malformed lines get {@link InterpreterServerChannelHandler#ERROR_RESULT}, and blank
+ * lines a blank result, so output lines keep matching input lines.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 13:20
+ */
+@ThreadSafe
+public class BulkEvaluator
+{
+    /**
+     * The default size of chunks, before aligning them to line boundaries.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The number of chunks in flight per thread.
+     */
+    protected static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The size of the reads looking for line boundaries.
+     */
+    protected static final int BOUNDARY_READ_SIZE = 4096;
+
+    /**
+     * The writer of results.
+     */
+    @NotNull
+    protected static final DigitWriter DIGITS = new DigitWriter();
+
+    /**
+     * The value holding each thread's current result.
+     */
+    @NotNull
+    protected static final ThreadLocal<NumericValue> RESULTS =
+        new ThreadLocal<NumericValue>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected NumericValue initialValue()
+            {
+                return new NumericValue();
+            }
+        };
+
+    /**
+     * The interpreter.
+     */
+    @NotNull
+    private final Interpreter interpreter;
+
+    /**
+     * The pool evaluating chunks.
+     */
+    @NotNull
+    private final ForkJoinPool pool;
+
+    /**
+     * The size of chunks, before aligning them to line boundaries.
+     */
+    private final int chunkSize;
+
+    /**
+     * Creates a new instance, using all available processors.
+     */
+    public BulkEvaluator()
+    {
+        this(new Interpreter(), ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param interpreter the interpreter.
+     * @param pool the pool evaluating chunks.
+     * @param chunkSize the size of chunks, before aligning them to line boundaries.
+     */
+    public BulkEvaluator(
+        @NotNull final Interpreter interpreter, @NotNull final ForkJoinPool pool, final int chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+
+        this.interpreter = interpreter;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Retrieves the interpreter.
+     * @return such instance.
+     */
+    @NotNull
+    public Interpreter getInterpreter()
+    {
+        return this.interpreter;
+    }
+
+    /**
+     * Retrieves the pool evaluating chunks.
+     * @return such pool.
+     */
+    @NotNull
+    public ForkJoinPool getPool()
+    {
+        return this.pool;
+    }
+
+    /**
+     * Retrieves the size of chunks, before aligning them to line boundaries.
+     * @return such size.
+     */
+    public int getChunkSize()
+    {
+        return this.chunkSize;
+    }
+
+    /**
+     * Evaluates each line of given file, writing the results to another one.
+     * @param input the file of expressions.
+     * @param output the file of results, replaced if it exists.
+     * @return the number of lines evaluated.
+     * @throws IOException if either file cannot be read or written.
+     * @throws UncheckedIOException if a chunk cannot be mapped.
+     */
+    public long evaluate(@NotNull final Path input, @NotNull final Path output)
+        throws IOException
+    {
+        long result = 0;
+
+        try (@NotNull final FileChannel source = FileChannel.open(input, StandardOpenOption.READ);
+             @NotNull final FileChannel target =
+                 FileChannel.open(
+                     output,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE))
+        {
+            final long size = source.size();
+
+            final int window = Math.max(1, getPool().getParallelism() * CHUNKS_PER_THREAD);
+
+            @NotNull final Deque<ForkJoinTask<Chunk>> pending = new ArrayDeque<>(window);
+
+            long position = 0;
+
+            try
+            {
+                while (position < size || !pending.isEmpty())
+                {
+                    while (position < size && pending.size() < window)
+                    {
+                        final long end = nextLine(source, Math.min(size, position + getChunkSize()), size);
+
+                        pending.addLast(getPool().submit(new ChunkTask(source, position, end)));
+
+                        position = end;
+                    }
+
+                    // results are written in input order, while later chunks keep evaluating.
+                    @NotNull final Chunk chunk = pending.removeFirst().join();
+
+                    try
+                    {
+                        write(chunk.results, target);
+                    }
+                    finally
+                    {
+                        chunk.results.release();
+                    }
+
+                    result += chunk.lines;
+                }
+            }
+            finally
+            {
+                for (@NotNull final ForkJoinTask<Chunk> task : pending)
+                {
+                    task.cancel(false);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the first line boundary at or after given position.
+     * @param source the file.
+     * @param position the position, after the start of the file.
+     * @param size the file size.
+     * @return the position right after the next newline, or {@code size} if there's none.
+     * @throws IOException if the file cannot be read.
+     */
+    protected long nextLine(@NotNull final FileChannel source, final long position, final long size)
+        throws IOException
+    {
+        long result = size;
+
+        boolean found = false;
+
+        @NotNull final ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_READ_SIZE);
+
+        // the previous byte closes a line, if it's a newline.
+        long current = position - 1;
+
+        while (!found && current < size)
+        {
+            buffer.clear();
+
+            final int read = source.read(buffer, current);
+
+            for (int index = 0; !found && index < read; index++)
+            {
+                found = buffer.get(index) == '\n';
+                result = current + index + 1;
+            }
+
+            current += Math.max(read, 0);
+        }
+
+        return found ? result : size;
+    }
+
+    /**
+     * Evaluates the lines of a chunk.
+     * @param lines the chunk, made of whole lines.
+     * @return the results, one per line.
+     */
+    @NotNull
+    protected Chunk evaluate(@NotNull final ByteBuf lines)
+    {
+        @NotNull final ByteBuf results = Unpooled.buffer(lines.readableBytes() / 2 + 16);
+
+        @NotNull final NumericValue value = RESULTS.get();
+
+        long count = 0;
+
+        final int end = lines.writerIndex();
+
+        int start = lines.readerIndex();
+
+        while (start < end)
+        {
+            int newline = lines.indexOf(start, end, (byte) '\n');
+
+            if (newline < 0)
+            {
+                newline = end;
+            }
+
+            int lineEnd = newline;
+
+            if (lineEnd > start && lines.getByte(lineEnd - 1) == '\r')
+            {
+                lineEnd--;
+            }
+
+            evaluateLine(lines.slice(start, lineEnd - start), value, results);
+
+            results.writeByte('\n');
+
+            count++;
+
+            start = newline + 1;
+        }
+
+        return new Chunk(results, count);
+    }
+
+    /**
+     * Evaluates a line, writing its result.
+     * @param line the line.
+     * @param value the value to hold the outcome.
+     * @param output the buffer to write the result to.
+     */
+    protected void evaluateLine(
+        @NotNull final ByteBuf line, @NotNull final NumericValue value, @NotNull final ByteBuf output)
+    {
+        if (!InterpreterServerChannelHandler.isBlank(line))
+        {
+            boolean evaluated;
+
+            try
+            {
+                getInterpreter().eval(line, value);
+
+                evaluated = true;
+            }
+            catch (@NotNull final ParseCancellationException malformed)
+            {
+                evaluated = false;
+            }
+            catch (@NotNull final NumberFormatException malformed)
+            {
+                // ParseStrategy.LL recovers from errors, leaving tokens that are not numbers.
+                evaluated = false;
+            }
+            catch (@NotNull final ArithmeticException divisionByZero)
+            {
+                evaluated = false;
+            }
+
+            if (evaluated)
+            {
+                DIGITS.write(value, output);
+            }
+            else
+            {
+                DIGITS.writeAscii(InterpreterServerChannelHandler.ERROR_RESULT, output);
+            }
+        }
+    }
+
+    /**
+     * Writes given results to given file.
+     * @param results the results.
+     * @param target the file.
+     * @throws IOException if the file cannot be written.
+     */
+    protected void write(@NotNull final ByteBuf results, @NotNull final FileChannel target)
+        throws IOException
+    {
+        while (results.isReadable())
+        {
+            results.readBytes(target, results.readableBytes());
+        }
+    }
+
+    /**
+     * Evaluates a file of expressions.
+     * @param args the input file, the output file, and optionally the number of threads.
+     * @throws IOException if either file cannot be read or written.
+     */
+    public static void main(@NotNull final String[] args)
+        throws IOException
+    {
+        if (args.length < 2 || args.length > 3)
+        {
+            System.err.println("Usage: " + BulkEvaluator.class.getName() + " input output [threads]");
+        }
+        else
+        {
+            @NotNull final ForkJoinPool pool =
+                (args.length > 2) ? new ForkJoinPool(Integer.parseInt(args[2])) : ForkJoinPool.commonPool();
+
+            @NotNull final BulkEvaluator evaluator =
+                new BulkEvaluator(new Interpreter(), pool, DEFAULT_CHUNK_SIZE);
+
+            final long start = System.nanoTime();
+
+            final long lines = evaluator.evaluate(Paths.get(args[0]), Paths.get(args[1]));
+
+            final long elapsed = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+            System.out.println(
+                "Evaluated " + lines + " lines in " + elapsed + " ms ("
+                + (lines * 1000 / elapsed) + " lines/s) on " + pool.getParallelism() + " threads");
+
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The results of a chunk.
+     */
+    protected static final class Chunk
+    {
+        /**
+         * The results, one line per input line.
+         */
+        @NotNull
+        protected final ByteBuf results;
+
+        /**
+         * The number of lines.
+         */
+        protected final long lines;
+
+        /**
+         * Creates a new instance.
+         * @param results the results.
+         * @param lines the number of lines.
+         */
+        protected Chunk(@NotNull final ByteBuf results, final long lines)
+        {
+            this.results = results;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Maps a chunk of the input, and evaluates its lines.
+     */
+    protected final class ChunkTask
+        extends RecursiveTask<Chunk>
+    {
+        /**
+         * The serial version id.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The input.
+         */
+        @NotNull
+        private final transient FileChannel source;
+
+        /**
+         * The start of the chunk.
+         */
+        private final long start;
+
+        /**
+         * The end of the chunk (exclusive).
+         */
+        private final long end;
+
+        /**
+         * Creates a new task.
+         * @param source the input.
+         * @param start the start of the chunk.
+         * @param end the end of the chunk (exclusive).
+         */
+        protected ChunkTask(@NotNull final FileChannel source, final long start, final long end)
+        {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        protected Chunk compute()
+        {
+            @NotNull final MappedByteBuffer mapping;
+
+            final long length = this.end - this.start;
+
+            if (length > Integer.MAX_VALUE)
+            {
+                throw new IllegalStateException("Line too long to be mapped, at offset " + this.start);
+            }
+
+            try
+            {
+                // unmapped once it's garbage collected.
+                mapping = this.source.map(FileChannel.MapMode.READ_ONLY, this.start, length);
+            }
+            catch (@NotNull final IOException cannotMap)
+            {
+                throw new UncheckedIOException(cannotMap);
+            }
+
+            return evaluate(Unpooled.wrappedBuffer(mapping));
+        }
+    }
+}
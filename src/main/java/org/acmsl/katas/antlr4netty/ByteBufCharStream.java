@@ -0,0 +1,302 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ByteBufCharStream.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: ANTLR CharStream reading ASCII bytes straight from a Netty ByteBuf.
+ *
+ * Date: 2026/10/17
+ * Time: 20:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/**
+ * ANTLR {@link CharStream} reading ASCII bytes straight from a Netty {@link ByteBuf},
+ * without copying them into an intermediate {@code byte[]}, {@link String} or {@code char[]}.
+ * It's also a {@link CharSequence} view of the same bytes.
+ * Only the readable region of the buffer, at creation time, is visible to the lexer.
+ * Instances can be {@link #reset(ByteBuf) reset} to read another buffer, so that
+ * each thread can keep reusing the same one.
+ * The buffer's indexes are never modified, and its release is up to the caller,
+ * once the evaluation finishes.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 20:20
+ */
+@NotThreadSafe
+public class ByteBufCharStream
+    implements CharStream,
+               CharSequence
+{
+    /**
+     * The underlying buffer.
+     */
+    @NotNull
+    private ByteBuf buffer;
+
+    /**
+     * The absolute index of the first visible byte.
+     */
+    private int offset;
+
+    /**
+     * The number of visible bytes.
+     */
+    private int length;
+
+    /**
+     * The current position, relative to {@link #offset}.
+     */
+    private int position;
+
+    /**
+     * Creates a new stream to read the readable bytes of given buffer.
+     * @param buffer the buffer.
+     */
+    public ByteBufCharStream(@NotNull final ByteBuf buffer)
+    {
+        this.buffer = buffer;
+        this.offset = buffer.readerIndex();
+        this.length = buffer.readableBytes();
+        this.position = 0;
+    }
+
+    /**
+     * Makes this stream read the readable bytes of given buffer, from the start.
+     * @param buffer the buffer.
+     * @return this instance.
+     */
+    @NotNull
+    public ByteBufCharStream reset(@NotNull final ByteBuf buffer)
+    {
+        this.buffer = buffer;
+        this.offset = buffer.readerIndex();
+        this.length = buffer.readableBytes();
+        this.position = 0;
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void consume()
+    {
+        if (this.position >= this.length)
+        {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        this.position++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int LA(final int i)
+    {
+        final int result;
+
+        if (i == 0)
+        {
+            // undefined
+            result = 0;
+        }
+        else
+        {
+            // LA(-1) is the previous char, LA(1) the current one.
+            final int index = (i < 0) ? this.position + i : this.position + i - 1;
+
+            if (index < 0 || index >= this.length)
+            {
+                result = IntStream.EOF;
+            }
+            else
+            {
+                result = this.buffer.getByte(this.offset + index) & 0xFF;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The whole input is always available, so marks are free.</p>
+     */
+    @Override
+    public int mark()
+    {
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release(final int marker)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int index()
+    {
+        return this.position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seek(final int index)
+    {
+        this.position = Math.min(Math.max(index, 0), this.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return this.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getSourceName()
+    {
+        return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getText(@NotNull final Interval interval)
+    {
+        @NotNull final String result;
+
+        final int start = Math.max(interval.a, 0);
+        final int stop = Math.min(interval.b, this.length - 1);
+
+        if (start > stop)
+        {
+            result = "";
+        }
+        else
+        {
+            // decoded by hand: ByteBuf#toString(int, int, Charset) ignores the index
+            // on read-only NIO buffers (i.e. memory-mapped files).
+            @NotNull final char[] characters = new char[stop - start + 1];
+
+            for (int index = 0; index < characters.length; index++)
+            {
+                characters[index] = charAt(start + index);
+            }
+
+            result = new String(characters);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length()
+    {
+        return this.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(final int index)
+    {
+        if (index < 0 || index >= this.length)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + this.length);
+        }
+
+        return (char) (this.buffer.getByte(this.offset + index) & 0xFF);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        return getText(Interval.of(start, end - 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String toString()
+    {
+        return getText(Interval.of(0, this.length - 1));
+    }
+}
@@ -0,0 +1,478 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: CommandScanner.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Single-pass evaluator for the most common command shape.
+ *
+ * Date: 2026/10/17
+ * Time: 20:55
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * Single-pass evaluator for the most common command shape of Interpreter grammar:
+ * a {@code +} or {@code -} between two numbers, each optionally negated.
+ * A {@code -} immediately followed by a digit is taken as the sign of the right
+ * number, so {@code 3 -5} means {@code 3 + (-5)}, which is what the grammar's
+ * {@code 3 - 5} amounts to. Any input outside the strict shape (including further
+ * operators, parentheses, or anything ANTLR would need to recover from) is rejected,
+ * so that {@link Interpreter} can fall back to the ANTLR parser and keep its exact behavior.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 20:55
+ */
+@ThreadSafe
+public class CommandScanner
+{
+    /**
+     * The maximum number of digits whose unscaled value is guaranteed to fit in a {@code long}.
+     */
+    protected static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * The number of digits of {@link Long#MAX_VALUE} and {@link Long#MIN_VALUE}.
+     */
+    protected static final int LONG_LIMIT_DIGITS = 19;
+
+    /**
+     * The digits of {@link Long#MAX_VALUE}.
+     */
+    @NotNull
+    protected static final String LONG_MAX_DIGITS = Long.toString(Long.MAX_VALUE);
+
+    /**
+     * The digits of {@link Long#MIN_VALUE}, without sign.
+     */
+    @NotNull
+    protected static final String LONG_MIN_DIGITS = Long.toString(Long.MIN_VALUE).substring(1);
+
+    /**
+     * Creates a new scanner.
+     */
+    public CommandScanner()
+    {
+    }
+
+    /**
+     * Evaluates given command, if it matches the {@code NUMBER (+|-) NUMBER} shape exactly.
+     * @param input the command.
+     * @return the outcome, or {@code null} if the input needs the full parser.
+     */
+    @Nullable
+    public BigDecimal evaluate(@NotNull final CharSequence input)
+    {
+        @Nullable final BigDecimal result;
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        if (evaluate(input, value))
+        {
+            result = value.toBigDecimal();
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates given command, if it matches the {@code NUMBER (+|-) NUMBER} shape exactly.
+     * Integer operands are parsed and operated on as {@code long}s, as long as they fit.
+     * @param input the command.
+     * @param result the value to hold the outcome.
+     * @return {@code false} if the input needs the full parser, in which case
+     * {@code result} is left in an unspecified state.
+     */
+    public boolean evaluate(@NotNull final CharSequence input, @NotNull final NumericValue result)
+    {
+        boolean evaluated = false;
+
+        final int length = input.length();
+
+        int position = skipWhitespace(input, 0, length);
+
+        final int leftStart = position;
+        position = scanNumber(input, position, length);
+
+        if (position > leftStart)
+        {
+            final int leftEnd = position;
+
+            position = skipWhitespace(input, position, length);
+
+            boolean subtract = false;
+
+            boolean operator = false;
+
+            if (position < length)
+            {
+                final char current = input.charAt(position);
+
+                if (current == '+')
+                {
+                    operator = true;
+                    position++;
+                }
+                else if (current == '-' && !isDigit(input, position + 1, length))
+                {
+                    subtract = true;
+                    operator = true;
+                    position++;
+                }
+                // otherwise, only a negative right operand can carry the operator.
+            }
+
+            position = skipWhitespace(input, position, length);
+
+            final int rightStart = position;
+            position = scanNumber(input, position, length);
+
+            if (   (position > rightStart)
+                && (operator || input.charAt(rightStart) == '-')
+                && (skipWhitespace(input, position, length) == length))
+            {
+                final int rightEnd = position;
+
+                if (isLong(input, leftStart, leftEnd))
+                {
+                    result.setLong(toLong(input, leftStart, leftEnd));
+                }
+                else
+                {
+                    result.setDecimal(toBigDecimal(input, leftStart, leftEnd));
+                }
+
+                if (isLong(input, rightStart, rightEnd))
+                {
+                    final long right = toLong(input, rightStart, rightEnd);
+
+                    if (subtract)
+                    {
+                        result.subtract(right);
+                    }
+                    else
+                    {
+                        result.add(right);
+                    }
+                }
+                else
+                {
+                    @NotNull final BigDecimal right = toBigDecimal(input, rightStart, rightEnd);
+
+                    if (subtract)
+                    {
+                        result.subtract(right);
+                    }
+                    else
+                    {
+                        result.add(right);
+                    }
+                }
+
+                evaluated = true;
+            }
+        }
+
+        return evaluated;
+    }
+
+    /**
+     * Scans a list of whitespace-separated numbers, each optionally negated,
+     * as the arguments of a prepared expression.
+     * @param input the input.
+     * @param start the position to start scanning at.
+     * @param values the values to hold the numbers, in order.
+     * @param count the number of numbers expected.
+     * @return {@code true} if the rest of the input is exactly {@code count} numbers.
+     */
+    public boolean scanNumbers(
+        @NotNull final CharSequence input, final int start, @NotNull final NumericValue[] values, final int count)
+    {
+        boolean result = true;
+
+        final int length = input.length();
+
+        int position = start;
+
+        for (int index = 0; result && index < count; index++)
+        {
+            position = skipWhitespace(input, position, length);
+
+            final int numberStart = position;
+            position = scanNumber(input, position, length);
+
+            // numbers must be followed by whitespace: 1-2 is not two arguments.
+            result =
+                   (position > numberStart)
+                && (position == length || isWhitespace(input.charAt(position)));
+
+            if (result)
+            {
+                if (isLong(input, numberStart, position))
+                {
+                    values[index].setLong(toLong(input, numberStart, position));
+                }
+                else
+                {
+                    values[index].setDecimal(toBigDecimal(input, numberStart, position));
+                }
+            }
+        }
+
+        return result && skipWhitespace(input, position, length) == length;
+    }
+
+    /**
+     * Skips the characters the lexer's {@code WS} rule would skip.
+     * @param input the input.
+     * @param start the start position.
+     * @param length the input length.
+     * @return the position of the first non-whitespace character.
+     */
+    protected int skipWhitespace(@NotNull final CharSequence input, final int start, final int length)
+    {
+        int result = start;
+
+        while (result < length && isWhitespace(input.charAt(result)))
+        {
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given character is matched by the lexer's {@code WS} rule.
+     * @param c the character.
+     * @return {@code true} in such case.
+     */
+    protected boolean isWhitespace(final char c)
+    {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\u000C';
+    }
+
+    /**
+     * Checks whether there's a digit at given position.
+     * @param input the input.
+     * @param position the position.
+     * @param length the input length.
+     * @return {@code true} in such case.
+     */
+    protected boolean isDigit(@NotNull final CharSequence input, final int position, final int length)
+    {
+        return position < length && input.charAt(position) >= '0' && input.charAt(position) <= '9';
+    }
+
+    /**
+     * Scans a {@code NUMBER} token, optionally negated: {@code '-'? [0-9]+ ('.' [0-9]+)?}.
+     * @param input the input.
+     * @param start the start position.
+     * @param length the input length.
+     * @return the position right after the token, or {@code start} if there's none.
+     */
+    protected int scanNumber(@NotNull final CharSequence input, final int start, final int length)
+    {
+        int result = start;
+
+        int position = start;
+
+        if (position < length && input.charAt(position) == '-')
+        {
+            position++;
+        }
+
+        if (isDigit(input, position, length))
+        {
+            while (isDigit(input, position, length))
+            {
+                position++;
+            }
+
+            // the fraction is only part of the token if it has digits.
+            if (   position < length
+                && input.charAt(position) == '.'
+                && isDigit(input, position + 1, length))
+            {
+                position++;
+
+                while (isDigit(input, position, length))
+                {
+                    position++;
+                }
+            }
+
+            result = position;
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether a scanned {@code NUMBER} is an integer fitting in a {@code long}.
+     * @param input the input.
+     * @param start the start of the token.
+     * @param end the end of the token (exclusive).
+     * @return {@code true} in such case.
+     */
+    protected boolean isLong(@NotNull final CharSequence input, final int start, final int end)
+    {
+        boolean result = true;
+
+        final boolean negative = input.charAt(start) == '-';
+
+        int firstSignificant = negative ? start + 1 : start;
+
+        for (int index = firstSignificant; result && index < end; index++)
+        {
+            result = input.charAt(index) != '.';
+        }
+
+        if (result)
+        {
+            while (firstSignificant < end - 1 && input.charAt(firstSignificant) == '0')
+            {
+                firstSignificant++;
+            }
+
+            final int digits = end - firstSignificant;
+
+            if (digits > LONG_LIMIT_DIGITS)
+            {
+                result = false;
+            }
+            else if (digits == LONG_LIMIT_DIGITS)
+            {
+                @NotNull final String limit = negative ? LONG_MIN_DIGITS : LONG_MAX_DIGITS;
+
+                int comparison = 0;
+
+                for (int index = 0; comparison == 0 && index < digits; index++)
+                {
+                    comparison = input.charAt(firstSignificant + index) - limit.charAt(index);
+                }
+
+                result = comparison <= 0;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts a scanned {@code NUMBER}, already known to fit, into a {@code long}.
+     * @param input the input.
+     * @param start the start of the token.
+     * @param end the end of the token (exclusive).
+     * @return the number.
+     */
+    protected long toLong(@NotNull final CharSequence input, final int start, final int end)
+    {
+        final boolean negative = input.charAt(start) == '-';
+
+        // accumulated negatively, so Long.MIN_VALUE fits as well.
+        long result = 0;
+
+        for (int index = negative ? start + 1 : start; index < end; index++)
+        {
+            result = result * 10 - (input.charAt(index) - '0');
+        }
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Converts a scanned {@code NUMBER} into the same {@link BigDecimal}
+     * {@code new BigDecimal(text)} would build (same unscaled value and scale).
+     * @param input the input.
+     * @param start the start of the token.
+     * @param end the end of the token (exclusive).
+     * @return the number.
+     */
+    @NotNull
+    protected BigDecimal toBigDecimal(@NotNull final CharSequence input, final int start, final int end)
+    {
+        @NotNull final BigDecimal result;
+
+        final boolean negative = input.charAt(start) == '-';
+
+        long unscaled = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+
+        for (int index = negative ? start + 1 : start; index < end; index++)
+        {
+            final char current = input.charAt(index);
+
+            if (current == '.')
+            {
+                fraction = true;
+            }
+            else
+            {
+                unscaled = unscaled * 10 + (current - '0');
+                digits++;
+
+                if (fraction)
+                {
+                    scale++;
+                }
+            }
+        }
+
+        if (digits <= MAX_LONG_DIGITS)
+        {
+            result = BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+        }
+        else
+        {
+            result = new BigDecimal(input.subSequence(start, end).toString());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,607 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: CompiledExpression.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Arithmetic expression compiled into a tree of nodes, ready to be evaluated many times.
+ *
+ * Date: 2026/10/17
+ * Time: 09:25
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Arithmetic expression compiled into a tree of {@link ExpressionNode}s, ready to be
+ * evaluated many times. The tree is flattened once into post-order, so each evaluation
+ * is a single linear pass over an operand stack, regardless of how deep the tree is.
+ * The operand stack is reused per thread, so integer evaluations don't allocate.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:25
+ */
+@ThreadSafe
+public class CompiledExpression
+{
+    /**
+     * The arguments of expressions without parameters.
+     */
+    @NotNull
+    public static final NumericValue[] NO_ARGUMENTS = new NumericValue[0];
+
+    /**
+     * The operand stack of each thread, grown on demand.
+     */
+    @NotNull
+    protected static final ThreadLocal<NumericValue[][]> STACKS =
+        new ThreadLocal<NumericValue[][]>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected NumericValue[][] initialValue()
+            {
+                return new NumericValue[][] { new NumericValue[0] };
+            }
+        };
+
+    /**
+     * The root node.
+     */
+    @NotNull
+    private final ExpressionNode root;
+
+    /**
+     * The nodes, in post-order.
+     */
+    @NotNull
+    private final ExpressionNode[] program;
+
+    /**
+     * The maximum number of operands in the stack while evaluating.
+     */
+    private final int depth;
+
+    /**
+     * The number of parameters.
+     */
+    private final int parameterCount;
+
+    /**
+     * The names of the variables, in the order their values follow the parameters'.
+     */
+    @NotNull
+    private final String[] variables;
+
+    /**
+     * The name of the variable the outcome is assigned to, if any.
+     */
+    @Nullable
+    private final String target;
+
+    /**
+     * The shape, built the first time an {@link ExpressionJit} asks for it,
+     * so expressions evaluated without one don't pay for it.
+     */
+    @Nullable
+    private volatile Shape shape;
+
+    /**
+     * The entry of the shape in the last {@link ExpressionJit} evaluating it,
+     * so repeated evaluations skip its lookup.
+     */
+    @Nullable
+    private volatile ExpressionJit.Entry jitEntry;
+
+    /**
+     * Creates a new expression.
+     * @param root the root node.
+     */
+    public CompiledExpression(@NotNull final ExpressionNode root)
+    {
+        this(root, null);
+    }
+
+    /**
+     * Creates a new expression, assigning its outcome to a variable.
+     * @param root the root node.
+     * @param target the name of the variable, or {@code null} if it's not assigned.
+     */
+    public CompiledExpression(@NotNull final ExpressionNode root, @Nullable final String target)
+    {
+        this.root = root;
+        this.target = target;
+        this.program = flatten(root);
+        this.depth = measure(this.program);
+        this.parameterCount = countParameters(this.program);
+        this.variables = listVariables(this.program, this.parameterCount);
+    }
+
+    /**
+     * Retrieves the root node.
+     * @return such node.
+     */
+    @NotNull
+    public ExpressionNode getRoot()
+    {
+        return this.root;
+    }
+
+    /**
+     * Retrieves the number of nodes.
+     * @return such number.
+     */
+    public int getSize()
+    {
+        return this.program.length;
+    }
+
+    /**
+     * Retrieves the maximum number of operands in the stack while evaluating.
+     * @return such number.
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    /**
+     * Retrieves the shape: the post-order of the tree, with one character per node,
+     * as {@link ShapeCompiler} expects.
+     * @return such shape, or {@code null} if the expression has decimal literals,
+     * or is too large to be compiled into bytecode.
+     */
+    @Nullable
+    public String getShape()
+    {
+        return shape().symbols;
+    }
+
+    /**
+     * Retrieves the literals, in the order {@link #getShape()} refers to them.
+     * They must not be modified.
+     * @return such literals, or {@code null} if there's no shape.
+     */
+    @Nullable
+    public long[] getLiterals()
+    {
+        return shape().literals;
+    }
+
+    /**
+     * Retrieves the argument each literal slot of the shape is bound to.
+     * They must not be modified.
+     * @return such argument indexes, with {@code -1} for actual literals,
+     * or {@code null} if there are no parameters nor variables, or no shape.
+     */
+    @Nullable
+    public int[] getBindings()
+    {
+        return shape().bindings;
+    }
+
+    /**
+     * Retrieves the shape, building it the first time. Racing threads
+     * may build it more than once, but always the same.
+     * @return such shape.
+     */
+    @NotNull
+    protected Shape shape()
+    {
+        @Nullable Shape result = this.shape;
+
+        if (result == null)
+        {
+            result = buildShape(this.program);
+            this.shape = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the shape of given nodes.
+     * @param program the nodes, in post-order.
+     * @return such shape, with no symbols if it cannot be compiled into bytecode.
+     */
+    @NotNull
+    protected static Shape buildShape(@NotNull final ExpressionNode[] program)
+    {
+        @NotNull final Shape result;
+
+        boolean compilable = program.length <= ShapeCompiler.MAX_NODES;
+
+        @NotNull final StringBuilder symbols = new StringBuilder();
+
+        @NotNull final long[] values = new long[compilable ? program.length : 0];
+
+        @NotNull final int[] parameters = new int[values.length];
+
+        int count = 0;
+
+        boolean parameterized = false;
+
+        for (int index = 0; compilable && index < program.length; index++)
+        {
+            @NotNull final ExpressionNode node = program[index];
+
+            if (node instanceof ExpressionNode.Literal)
+            {
+                // decimals need BigDecimal arithmetic.
+                compilable = ((ExpressionNode.Literal) node).isLong();
+
+                symbols.append(ShapeCompiler.LITERAL);
+                parameters[count] = -1;
+                values[count++] = ((ExpressionNode.Literal) node).getLong();
+            }
+            else if (node instanceof ExpressionNode.Parameter)
+            {
+                // bound on each evaluation (variables as well), if the argument is a long.
+                symbols.append(ShapeCompiler.LITERAL);
+                parameters[count++] = ((ExpressionNode.Parameter) node).getIndex();
+                parameterized = true;
+            }
+            else if (node instanceof ExpressionNode.Negation)
+            {
+                symbols.append(ShapeCompiler.NEGATION);
+            }
+            else
+            {
+                symbols.append(((ExpressionNode.Binary) node).getOperator().getSymbol());
+            }
+        }
+
+        if (compilable)
+        {
+            result =
+                new Shape(
+                    symbols.toString(),
+                    Arrays.copyOf(values, count),
+                    parameterized ? Arrays.copyOf(parameters, count) : null);
+        }
+        else
+        {
+            result = Shape.NONE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the number of parameters.
+     * @return such number.
+     */
+    public int getParameterCount()
+    {
+        return this.parameterCount;
+    }
+
+    /**
+     * Retrieves the names of the variables, in the order their values follow the
+     * parameters' among the arguments. They must not be modified.
+     * @return such names.
+     */
+    @NotNull
+    public String[] getVariables()
+    {
+        return this.variables;
+    }
+
+    /**
+     * Retrieves the number of arguments: the values of the parameters, followed
+     * by the values of the variables.
+     * @return such number.
+     */
+    public int getArgumentCount()
+    {
+        return this.parameterCount + this.variables.length;
+    }
+
+    /**
+     * Retrieves the name of the variable the outcome is assigned to.
+     * @return such name, or {@code null} if it's not assigned.
+     */
+    @Nullable
+    public String getTarget()
+    {
+        return this.target;
+    }
+
+    /**
+     * Retrieves the entry of the shape in the last {@link ExpressionJit} evaluating it.
+     * @return such entry, if any.
+     */
+    @Nullable
+    protected ExpressionJit.Entry getJitEntry()
+    {
+        return this.jitEntry;
+    }
+
+    /**
+     * Specifies the entry of the shape in the {@link ExpressionJit} evaluating it.
+     * @param entry such entry.
+     */
+    protected void setJitEntry(@NotNull final ExpressionJit.Entry entry)
+    {
+        this.jitEntry = entry;
+    }
+
+    /**
+     * Evaluates the expression.
+     * @return the outcome.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public BigDecimal evaluate()
+    {
+        return evaluate(new NumericValue()).toBigDecimal();
+    }
+
+    /**
+     * Evaluates the expression, keeping integer outcomes as {@code long}s whenever possible.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue evaluate(@NotNull final NumericValue result)
+    {
+        return evaluate(NO_ARGUMENTS, result);
+    }
+
+    /**
+     * Evaluates the expression with given arguments, keeping integer outcomes as
+     * {@code long}s whenever possible. The outcome is not assigned to the target, if any.
+     * @param arguments the values of the parameters, in order of appearance,
+     * followed by the values of the variables (see {@link #getVariables()}).
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws IllegalArgumentException if there are fewer arguments than expected.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue evaluate(@NotNull final NumericValue[] arguments, @NotNull final NumericValue result)
+    {
+        final int count = getArgumentCount();
+
+        if (arguments.length < count)
+        {
+            throw new IllegalArgumentException(count + " arguments expected, but got " + arguments.length);
+        }
+
+        @NotNull final NumericValue[] stack = stack(this.depth);
+
+        int size = 0;
+
+        for (@NotNull final ExpressionNode node : this.program)
+        {
+            size = node.evaluate(stack, size, arguments);
+        }
+
+        return result.set(stack[0]);
+    }
+
+    /**
+     * Retrieves the current thread's operand stack, growing it if needed.
+     * @param depth the number of operands it has to hold.
+     * @return such stack.
+     */
+    @NotNull
+    protected static NumericValue[] stack(final int depth)
+    {
+        @NotNull final NumericValue[][] holder = STACKS.get();
+
+        @NotNull NumericValue[] result = holder[0];
+
+        if (result.length < depth)
+        {
+            @NotNull final NumericValue[] grown = new NumericValue[Math.max(depth, result.length * 2)];
+
+            System.arraycopy(result, 0, grown, 0, result.length);
+
+            for (int index = result.length; index < grown.length; index++)
+            {
+                grown[index] = new NumericValue();
+            }
+
+            holder[0] = grown;
+            result = grown;
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists the nodes of given tree in post-order, without recursion.
+     * @param root the root node.
+     * @return such nodes.
+     */
+    @NotNull
+    protected static ExpressionNode[] flatten(@NotNull final ExpressionNode root)
+    {
+        @NotNull final Deque<ExpressionNode> pending = new ArrayDeque<ExpressionNode>();
+        @NotNull final Deque<ExpressionNode> reversed = new ArrayDeque<ExpressionNode>();
+
+        pending.push(root);
+
+        while (!pending.isEmpty())
+        {
+            @NotNull final ExpressionNode node = pending.pop();
+
+            reversed.push(node);
+
+            for (int index = 0; index < node.getArity(); index++)
+            {
+                pending.push(node.getOperand(index));
+            }
+        }
+
+        return reversed.toArray(new ExpressionNode[reversed.size()]);
+    }
+
+    /**
+     * Computes the maximum number of operands in the stack while running given nodes.
+     * @param program the nodes, in post-order.
+     * @return such number.
+     */
+    protected static int measure(@NotNull final ExpressionNode[] program)
+    {
+        int result = 0;
+
+        int size = 0;
+
+        for (@NotNull final ExpressionNode node : program)
+        {
+            size += 1 - node.getArity();
+            result = Math.max(result, size);
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts the parameters among given nodes.
+     * @param program the nodes.
+     * @return the number of parameters.
+     */
+    protected static int countParameters(@NotNull final ExpressionNode[] program)
+    {
+        int result = 0;
+
+        for (@NotNull final ExpressionNode node : program)
+        {
+            if (node instanceof ExpressionNode.Parameter && !(node instanceof ExpressionNode.Variable))
+            {
+                result = Math.max(result, ((ExpressionNode.Parameter) node).getIndex() + 1);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists the names of the variables among given nodes, by the index of their values.
+     * @param program the nodes.
+     * @param parameterCount the number of parameters, whose values come first.
+     * @return such names.
+     */
+    @NotNull
+    protected static String[] listVariables(@NotNull final ExpressionNode[] program, final int parameterCount)
+    {
+        int count = 0;
+
+        for (@NotNull final ExpressionNode node : program)
+        {
+            if (node instanceof ExpressionNode.Variable)
+            {
+                count = Math.max(count, ((ExpressionNode.Variable) node).getIndex() - parameterCount + 1);
+            }
+        }
+
+        @NotNull final String[] result = new String[count];
+
+        for (@NotNull final ExpressionNode node : program)
+        {
+            if (node instanceof ExpressionNode.Variable)
+            {
+                @NotNull final ExpressionNode.Variable variable = (ExpressionNode.Variable) node;
+
+                result[variable.getIndex() - parameterCount] = variable.getName();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The shape of an expression, with its literals, as {@link ExpressionJit} needs them.
+     */
+    @ThreadSafe
+    protected static final class Shape
+    {
+        /**
+         * The shape of expressions that cannot be compiled into bytecode.
+         */
+        @NotNull
+        protected static final Shape NONE = new Shape(null, null, null);
+
+        /**
+         * The post-order of the tree, with one character per node, or {@code null} if none.
+         */
+        @Nullable
+        protected final String symbols;
+
+        /**
+         * The literals, in post-order; parameters and variables take a slot as well,
+         * holding zero.
+         */
+        @Nullable
+        protected final long[] literals;
+
+        /**
+         * The argument bound to each literal slot, or {@code -1} for actual literals;
+         * {@code null} if there are no parameters nor variables.
+         */
+        @Nullable
+        protected final int[] bindings;
+
+        /**
+         * Creates a new shape.
+         * @param symbols the post-order of the tree, with one character per node.
+         * @param literals the literals.
+         * @param bindings the argument bound to each literal slot.
+         */
+        protected Shape(
+            @Nullable final String symbols, @Nullable final long[] literals, @Nullable final int[] bindings)
+        {
+            this.symbols = symbols;
+            this.literals = literals;
+            this.bindings = bindings;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: CompiledShape.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Expression shape compiled into JVM bytecode.
+ *
+ * Date: 2026/10/17
+ * Time: 11:00
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Expression shape compiled into JVM bytecode by {@link ShapeCompiler}: the structure
+ * of an expression, with its integer literals as parameters.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:00
+ */
+public interface CompiledShape
+{
+    /**
+     * Evaluates the shape with given literals, using {@code long} arithmetic only.
+     * @param literals the literals, in the order they appear in the expression.
+     * @return the outcome.
+     * @throws ArithmeticException if any step overflows, or divides inexactly or by zero:
+     * the expression must then be evaluated by {@link CompiledExpression} itself.
+     */
+    long evaluate(@NotNull final long[] literals);
+}
@@ -0,0 +1,174 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ConcurrentLatencyHistogram.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Latency histogram recorded concurrently without locks nor allocation.
+ *
+ * Date: 2026/10/17
+ * Time: 12:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LatencyHistogram} any number of threads can record into, without
+ * locks, contention or allocation: each thread gets its own shard, which
+ * only it writes, and {@link #snapshot()} adds them all up.
+ * Snapshots taken while threads record are not atomic, but every value
+ * recorded before the snapshot started is in it.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 12:30
+ */
+@ThreadSafe
+public class ConcurrentLatencyHistogram
+{
+    /**
+     * The position of the sum of values in each shard, after the buckets.
+     */
+    protected static final int SUM = LatencyHistogram.BUCKETS;
+
+    /**
+     * The position of the smallest value in each shard.
+     */
+    protected static final int MIN = SUM + 1;
+
+    /**
+     * The position of the largest value in each shard.
+     */
+    protected static final int MAX = MIN + 1;
+
+    /**
+     * The size of each shard.
+     */
+    protected static final int SHARD_SIZE = MAX + 1;
+
+    /**
+     * All shards, including those of threads already gone.
+     */
+    @NotNull
+    private final List<AtomicLongArray> shards = new CopyOnWriteArrayList<AtomicLongArray>();
+
+    /**
+     * The shard of each thread.
+     */
+    @NotNull
+    private final ThreadLocal<AtomicLongArray> shard =
+        new ThreadLocal<AtomicLongArray>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected AtomicLongArray initialValue()
+            {
+                @NotNull final AtomicLongArray result = new AtomicLongArray(SHARD_SIZE);
+
+                result.set(MIN, Long.MAX_VALUE);
+
+                shards.add(result);
+
+                return result;
+            }
+        };
+
+    /**
+     * Creates an empty histogram.
+     */
+    public ConcurrentLatencyHistogram()
+    {
+    }
+
+    /**
+     * Records given value, in the current thread's shard.
+     * @param value the value; negative ones count as zero.
+     */
+    public void record(final long value)
+    {
+        final long actual = Math.max(0, value);
+
+        @NotNull final AtomicLongArray target = this.shard.get();
+
+        // single writer per shard: ordered writes are enough, no compare-and-set needed.
+        final int bucket = LatencyHistogram.indexOf(actual);
+        target.lazySet(bucket, target.get(bucket) + 1);
+        target.lazySet(SUM, target.get(SUM) + actual);
+
+        if (actual < target.get(MIN))
+        {
+            target.lazySet(MIN, actual);
+        }
+
+        if (actual > target.get(MAX))
+        {
+            target.lazySet(MAX, actual);
+        }
+    }
+
+    /**
+     * Adds up all shards.
+     * @return the recorded values so far.
+     */
+    @NotNull
+    public LatencyHistogram snapshot()
+    {
+        @NotNull final LatencyHistogram result = new LatencyHistogram();
+
+        @NotNull final long[] counts = new long[LatencyHistogram.BUCKETS];
+
+        for (@NotNull final AtomicLongArray source : this.shards)
+        {
+            for (int index = 0; index < counts.length; index++)
+            {
+                counts[index] = source.get(index);
+            }
+
+            result.add(counts, source.get(SUM), source.get(MIN), source.get(MAX));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: DigitWriter.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Writes numbers as ASCII digits straight into buffers.
+ *
+ * Date: 2026/10/17
+ * Time: 23:45
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/**
+ * Writes numbers as ASCII digits straight into buffers, without building
+ * intermediate {@link String}s, so that responses can be encoded in
+ * pooled buffers without generating garbage.
+ * Integers are written digit by digit; values promoted to {@link java.math.BigDecimal}
+ * still go through {@link java.math.BigDecimal#toString()}.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:45
+ */
+@ThreadSafe
+public class DigitWriter
+{
+    /**
+     * Creates a new writer.
+     */
+    public DigitWriter()
+    {
+    }
+
+    /**
+     * Writes given value, as {@link NumericValue#toString()} would render it.
+     * @param value the value.
+     * @param output the buffer to write to.
+     */
+    public void write(@NotNull final NumericValue value, @NotNull final ByteBuf output)
+    {
+        if (value.isLong())
+        {
+            write(value.getLong(), output);
+        }
+        else
+        {
+            writeAscii(value.toBigDecimal().toString(), output);
+        }
+    }
+
+    /**
+     * Writes given integer, as {@link Long#toString(long)} would render it.
+     * @param value the value.
+     * @param output the buffer to write to.
+     */
+    public void write(final long value, @NotNull final ByteBuf output)
+    {
+        final int length = length(value);
+
+        output.ensureWritable(length);
+
+        final int start = output.writerIndex();
+
+        int index = start + length;
+
+        // working with negative values, since Long.MIN_VALUE has no positive counterpart.
+        long remaining = (value < 0) ? value : -value;
+
+        while (remaining <= -10)
+        {
+            final long quotient = remaining / 10;
+
+            output.setByte(--index, '0' + (int) (quotient * 10 - remaining));
+
+            remaining = quotient;
+        }
+
+        output.setByte(--index, '0' - (int) remaining);
+
+        if (value < 0)
+        {
+            output.setByte(--index, '-');
+        }
+
+        output.writerIndex(start + length);
+    }
+
+    /**
+     * Retrieves the number of characters needed to write given integer.
+     * @param value the value.
+     * @return such length, including the sign, if any.
+     */
+    public int length(final long value)
+    {
+        int result = (value < 0) ? 2 : 1;
+
+        for (long remaining = (value < 0) ? value : -value; remaining <= -10; remaining /= 10)
+        {
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes given text, which must contain only ASCII characters.
+     * @param text the text.
+     * @param output the buffer to write to.
+     */
+    public void writeAscii(@NotNull final CharSequence text, @NotNull final ByteBuf output)
+    {
+        final int length = text.length();
+
+        output.ensureWritable(length);
+
+        for (int index = 0; index < length; index++)
+        {
+            output.writeByte(text.charAt(index));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: Environment.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: The variables of a session.
+ *
+ * Date: 2026/10/17
+ * Time: 17:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * The variables of a session, in an open-addressing table with linear probing.
+ * Values are kept as {@code long}s, and the table of {@link BigDecimal}s only
+ * gets allocated once a decimal is assigned, so sessions with a few integer
+ * variables take a few hundred bytes. Nothing is allocated until the first assignment.
+ * Sessions are confined to their connection, so it's not thread-safe.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 17:10
+ */
+@NotThreadSafe
+public class Environment
+{
+    /**
+     * The default maximum number of variables.
+     */
+    public static final int DEFAULT_MAX_VARIABLES = 256;
+
+    /**
+     * The number of slots allocated on the first assignment.
+     */
+    protected static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The maximum number of variables.
+     */
+    private final int maxVariables;
+
+    /**
+     * The names, by slot; {@code null} for free slots.
+     */
+    @Nullable
+    private String[] names;
+
+    /**
+     * The integer values, by slot.
+     */
+    @Nullable
+    private long[] longs;
+
+    /**
+     * The decimal values, by slot; {@code null} for integer values.
+     */
+    @Nullable
+    private BigDecimal[] decimals;
+
+    /**
+     * The number of variables.
+     */
+    private int size;
+
+    /**
+     * Creates a new environment, with the default maximum number of variables.
+     */
+    public Environment()
+    {
+        this(DEFAULT_MAX_VARIABLES);
+    }
+
+    /**
+     * Creates a new environment.
+     * @param maxVariables the maximum number of variables.
+     */
+    public Environment(final int maxVariables)
+    {
+        if (maxVariables < 1)
+        {
+            throw new IllegalArgumentException("maximum number of variables must be positive: " + maxVariables);
+        }
+
+        this.maxVariables = maxVariables;
+    }
+
+    /**
+     * Retrieves the maximum number of variables.
+     * @return such number.
+     */
+    public int getMaxVariables()
+    {
+        return this.maxVariables;
+    }
+
+    /**
+     * Retrieves the number of variables.
+     * @return such number.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Retrieves the value of given variable.
+     * @param name the name.
+     * @param result the value to hold the variable's.
+     * @return {@code false} if the variable is not defined.
+     */
+    public boolean get(@NotNull final String name, @NotNull final NumericValue result)
+    {
+        final int slot = find(name);
+
+        final boolean defined = slot >= 0;
+
+        if (defined)
+        {
+            @Nullable final BigDecimal decimal = (this.decimals != null) ? this.decimals[slot] : null;
+
+            if (decimal != null)
+            {
+                result.setDecimal(decimal);
+            }
+            else
+            {
+                result.setLong(this.longs[slot]);
+            }
+        }
+
+        return defined;
+    }
+
+    /**
+     * Assigns given value to given variable, defining it if it's new.
+     * @param name the name.
+     * @param value the value.
+     * @return {@code false} if the variable is new, and there's no room for it.
+     */
+    public boolean set(@NotNull final String name, @NotNull final NumericValue value)
+    {
+        int slot = find(name);
+
+        if (slot < 0 && this.size < this.maxVariables)
+        {
+            if (this.names == null || (this.size + 1) * 4 > this.names.length * 3)
+            {
+                resize((this.names == null) ? INITIAL_CAPACITY : this.names.length * 2);
+            }
+
+            slot = -find(name) - 1;
+
+            this.names[slot] = name;
+            this.size++;
+        }
+
+        final boolean assigned = slot >= 0;
+
+        if (assigned)
+        {
+            if (value.isLong())
+            {
+                this.longs[slot] = value.getLong();
+
+                if (this.decimals != null)
+                {
+                    this.decimals[slot] = null;
+                }
+            }
+            else
+            {
+                if (this.decimals == null)
+                {
+                    this.decimals = new BigDecimal[this.names.length];
+                }
+
+                this.decimals[slot] = value.toBigDecimal();
+            }
+        }
+
+        return assigned;
+    }
+
+    /**
+     * Finds the slot of given variable.
+     * @param name the name.
+     * @return the slot, if defined; otherwise, {@code -(slot + 1)}, with the free slot
+     * to define it in, or {@code -1} if nothing is allocated yet.
+     */
+    protected int find(@NotNull final String name)
+    {
+        int result = -1;
+
+        @Nullable final String[] table = this.names;
+
+        if (table != null)
+        {
+            final int mask = table.length - 1;
+
+            final int hash = name.hashCode();
+
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            // the load factor keeps free slots, so probing ends.
+            while (table[slot] != null && !table[slot].equals(name))
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            result = (table[slot] != null) ? slot : -slot - 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves all variables into tables of given capacity.
+     * @param capacity the number of slots, a power of two.
+     */
+    protected void resize(final int capacity)
+    {
+        @Nullable final String[] oldNames = this.names;
+        @Nullable final long[] oldLongs = this.longs;
+        @Nullable final BigDecimal[] oldDecimals = this.decimals;
+
+        this.names = new String[capacity];
+        this.longs = new long[capacity];
+        this.decimals = (oldDecimals != null) ? new BigDecimal[capacity] : null;
+
+        if (oldNames != null)
+        {
+            for (int index = 0; index < oldNames.length; index++)
+            {
+                if (oldNames[index] != null)
+                {
+                    final int slot = -find(oldNames[index]) - 1;
+
+                    this.names[slot] = oldNames[index];
+                    this.longs[slot] = oldLongs[index];
+
+                    if (oldDecimals != null)
+                    {
+                        this.decimals[slot] = oldDecimals[index];
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionCompiler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Compiles ANTLR parse trees into trees of expression nodes.
+ *
+ * Date: 2026/10/17
+ * Time: 09:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles ANTLR parse trees into trees of {@link ExpressionNode}s.
+ * The parse tree is walked iteratively, since left-associative chains such as
+ * {@code 1 + 2 + ... + n} are parsed into trees {@code n} levels deep.
+ * An unary minus over a literal is folded into it, so {@code -9223372036854775808}
+ * remains a {@code long}.
+ * Variables are bound like parameters, to the arguments following the parameters',
+ * one per distinct name.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:40
+ */
+@ThreadSafe
+public class ExpressionCompiler
+{
+    /**
+     * Creates a new compiler.
+     */
+    public ExpressionCompiler()
+    {
+    }
+
+    /**
+     * Compiles given parse tree.
+     * @param tree the tree, as built by {@link InterpreterParser#command()}.
+     * @return the compiled expression.
+     * @throws ParseCancellationException if the tree is incomplete, as it
+     * can be after ANTLR recovers from errors.
+     */
+    @NotNull
+    public CompiledExpression compile(@NotNull final ParseTree tree)
+    {
+        @NotNull final Deque<ExpressionNode> operands = new ArrayDeque<ExpressionNode>();
+
+        @NotNull final List<InterpreterParser.ExpressionContext> reversed = reversePostOrder(tree);
+
+        @NotNull final Map<String, Integer> variables = new HashMap<String, Integer>();
+
+        final int parameterCount = countParameters(reversed);
+
+        int parameters = 0;
+
+        for (int index = reversed.size() - 1; index >= 0; index--)
+        {
+            parameters = compile(reversed.get(index), operands, parameters, variables, parameterCount);
+        }
+
+        if (operands.size() != 1)
+        {
+            throw new ParseCancellationException("Incomplete expression");
+        }
+
+        return new CompiledExpression(operands.pop(), target(tree));
+    }
+
+    /**
+     * Retrieves the name of the variable given command assigns its outcome to.
+     * @param tree the command.
+     * @return such name, or {@code null} if it's not an assignment.
+     * @throws ParseCancellationException if the assignment is incomplete.
+     */
+    @Nullable
+    protected String target(@NotNull final ParseTree tree)
+    {
+        @Nullable String result = null;
+
+        if (tree instanceof InterpreterParser.CommandContext)
+        {
+            @NotNull final InterpreterParser.CommandContext command = (InterpreterParser.CommandContext) tree;
+
+            @Nullable final TerminalNode name = command.IDENTIFIER();
+
+            @Nullable final TerminalNode assign = command.ASSIGN();
+
+            if (name != null || assign != null)
+            {
+                if (   name == null
+                    || name instanceof ErrorNode
+                    || assign == null
+                    || assign instanceof ErrorNode)
+                {
+                    throw new ParseCancellationException("Incomplete assignment");
+                }
+
+                result = name.getText();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts the parameters among given expressions.
+     * @param expressions the expressions.
+     * @return such number.
+     */
+    protected int countParameters(@NotNull final List<InterpreterParser.ExpressionContext> expressions)
+    {
+        int result = 0;
+
+        for (@NotNull final InterpreterParser.ExpressionContext expression : expressions)
+        {
+            if (expression instanceof InterpreterParser.ParameterContext)
+            {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists the expressions of given parse tree in reverse post-order, without recursion.
+     * @param tree the tree.
+     * @return such expressions.
+     */
+    @NotNull
+    protected List<InterpreterParser.ExpressionContext> reversePostOrder(@NotNull final ParseTree tree)
+    {
+        @NotNull final List<InterpreterParser.ExpressionContext> result =
+            new ArrayList<InterpreterParser.ExpressionContext>();
+
+        @NotNull final Deque<ParseTree> pending = new ArrayDeque<ParseTree>();
+
+        pending.push(tree);
+
+        while (!pending.isEmpty())
+        {
+            @NotNull final ParseTree node = pending.pop();
+
+            if (node instanceof InterpreterParser.ExpressionContext)
+            {
+                result.add((InterpreterParser.ExpressionContext) node);
+            }
+
+            for (int index = 0; index < node.getChildCount(); index++)
+            {
+                @NotNull final ParseTree child = node.getChild(index);
+
+                if (child instanceof ParserRuleContext)
+                {
+                    pending.push(child);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles given expression, whose operands are already compiled.
+     * Parameters get numbered in order of appearance, as expressions are
+     * compiled in post-order, and so do variables, after all parameters.
+     * @param context the expression.
+     * @param operands the compiled operands, replaced with the compiled expression.
+     * @param parameters the number of parameters compiled so far.
+     * @param variables the index of each variable compiled so far, by name.
+     * @param parameterCount the number of parameters of the whole expression.
+     * @return the number of parameters compiled, including this expression.
+     * @throws ParseCancellationException if the expression is incomplete.
+     */
+    protected int compile(
+        @NotNull final InterpreterParser.ExpressionContext context,
+        @NotNull final Deque<ExpressionNode> operands,
+        final int parameters,
+        @NotNull final Map<String, Integer> variables,
+        final int parameterCount)
+    {
+        int result = parameters;
+
+        if (context instanceof InterpreterParser.ParameterContext)
+        {
+            operands.push(new ExpressionNode.Parameter(result++));
+        }
+        else if (context instanceof InterpreterParser.VariableContext)
+        {
+            @Nullable final TerminalNode name = ((InterpreterParser.VariableContext) context).IDENTIFIER();
+
+            if (name == null || name instanceof ErrorNode)
+            {
+                throw new ParseCancellationException("Missing variable");
+            }
+
+            @Nullable Integer index = variables.get(name.getText());
+
+            if (index == null)
+            {
+                index = parameterCount + variables.size();
+                variables.put(name.getText(), index);
+            }
+
+            operands.push(new ExpressionNode.Variable(name.getText(), index));
+        }
+        else if (context instanceof InterpreterParser.LiteralContext)
+        {
+            @Nullable final TerminalNode number = ((InterpreterParser.LiteralContext) context).NUMBER();
+
+            if (number == null || number instanceof ErrorNode)
+            {
+                throw new ParseCancellationException("Missing number");
+            }
+
+            operands.push(ExpressionNode.Literal.parse(number.getText()));
+        }
+        else if (context instanceof InterpreterParser.NegationContext)
+        {
+            require(((InterpreterParser.NegationContext) context).expression() != null, operands, 1);
+
+            @NotNull final ExpressionNode operand = operands.pop();
+
+            if (operand instanceof ExpressionNode.Literal)
+            {
+                operands.push(((ExpressionNode.Literal) operand).negate());
+            }
+            else
+            {
+                operands.push(new ExpressionNode.Negation(operand));
+            }
+        }
+        else if (context instanceof InterpreterParser.MultiplicativeContext)
+        {
+            @NotNull final InterpreterParser.MultiplicativeContext operation =
+                (InterpreterParser.MultiplicativeContext) context;
+
+            require(operation.expression().size() == 2, operands, 2);
+
+            push(toOperator(operation.operator), operands);
+        }
+        else if (context instanceof InterpreterParser.AdditiveContext)
+        {
+            @NotNull final InterpreterParser.AdditiveContext operation =
+                (InterpreterParser.AdditiveContext) context;
+
+            require(operation.expression().size() == 2, operands, 2);
+
+            push(toOperator(operation.operator), operands);
+        }
+        else if (context instanceof InterpreterParser.ParenthesizedContext)
+        {
+            // the inner expression is already compiled.
+            require(((InterpreterParser.ParenthesizedContext) context).expression() != null, operands, 1);
+        }
+        else
+        {
+            throw new ParseCancellationException("Incomplete expression");
+        }
+
+        return result;
+    }
+
+    /**
+     * Replaces the two operands on top with the binary operation on them.
+     * @param operator the operator.
+     * @param operands the compiled operands.
+     */
+    protected void push(@NotNull final ExpressionNode.Operator operator, @NotNull final Deque<ExpressionNode> operands)
+    {
+        @NotNull final ExpressionNode right = operands.pop();
+        @NotNull final ExpressionNode left = operands.pop();
+
+        operands.push(new ExpressionNode.Binary(operator, left, right));
+    }
+
+    /**
+     * Checks the expression has all its operands, already compiled.
+     * @param complete whether the parse tree has all operands.
+     * @param operands the compiled operands.
+     * @param arity the number of operands.
+     * @throws ParseCancellationException otherwise.
+     */
+    protected void require(
+        final boolean complete, @NotNull final Deque<ExpressionNode> operands, final int arity)
+    {
+        if (!complete || operands.size() < arity)
+        {
+            throw new ParseCancellationException("Incomplete expression");
+        }
+    }
+
+    /**
+     * Converts given operator token.
+     * @param token the token.
+     * @return the operator.
+     * @throws ParseCancellationException if the token is missing.
+     */
+    @NotNull
+    protected ExpressionNode.Operator toOperator(@Nullable final Token token)
+    {
+        @NotNull final ExpressionNode.Operator result;
+
+        final int type = (token != null) ? token.getType() : Token.INVALID_TYPE;
+
+        switch (type)
+        {
+            case InterpreterLexer.PLUS:
+                result = ExpressionNode.Operator.ADD;
+                break;
+            case InterpreterLexer.MINUS:
+                result = ExpressionNode.Operator.SUBTRACT;
+                break;
+            case InterpreterLexer.TIMES:
+                result = ExpressionNode.Operator.MULTIPLY;
+                break;
+            case InterpreterLexer.DIVIDE:
+                result = ExpressionNode.Operator.DIVIDE;
+                break;
+            default:
+                throw new ParseCancellationException("Missing operator");
+        }
+
+        return result;
+    }
+}
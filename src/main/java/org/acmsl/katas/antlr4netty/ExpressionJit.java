@@ -0,0 +1,539 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionJit.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Compiles hot expression shapes into bytecode, keeping them in a bounded cache.
+ *
+ * Date: 2026/10/17
+ * Time: 11:45
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates {@link CompiledExpression}s, compiling the shapes evaluated more than a
+ * threshold into bytecode (see {@link ShapeCompiler}). Shapes are tracked in a bounded
+ * cache, looked up without locking: once full, tracking a new shape evicts the one
+ * looked up least recently, approximately, since lookups racing with the eviction
+ * aren't taken into account. Evicting a shape drops its generated class, which gets
+ * unloaded once no evaluation is running it.
+ * Generated code only knows {@code long} arithmetic: whenever it overflows, or divides
+ * inexactly, the expression is evaluated as usual, so outcomes never change.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:45
+ */
+@ThreadSafe
+public class ExpressionJit
+{
+    /**
+     * The default number of evaluations before compiling a shape.
+     */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    /**
+     * The default number of shapes tracked.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The literals of each thread's current evaluation, with parameters bound.
+     */
+    @NotNull
+    protected static final ThreadLocal<long[][]> BOUND_LITERALS =
+        new ThreadLocal<long[][]>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected long[][] initialValue()
+            {
+                return new long[][] { new long[0] };
+            }
+        };
+
+    /**
+     * The number of evaluations before compiling a shape.
+     */
+    private final int threshold;
+
+    /**
+     * The maximum number of shapes tracked, compiled or not.
+     */
+    private final int capacity;
+
+    /**
+     * The compiler.
+     */
+    @NotNull
+    private final ShapeCompiler compiler;
+
+    /**
+     * The shapes.
+     */
+    @NotNull
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The number of shapes compiled.
+     */
+    @NotNull
+    private final LongAdder compilations = new LongAdder();
+
+    /**
+     * The number of shapes evicted.
+     */
+    @NotNull
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * The number of evaluations run by generated code.
+     */
+    @NotNull
+    private final LongAdder compiledEvaluations = new LongAdder();
+
+    /**
+     * Creates a new instance, with default threshold and capacity.
+     */
+    public ExpressionJit()
+    {
+        this(DEFAULT_THRESHOLD, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param threshold the number of evaluations before compiling a shape.
+     * @param capacity the maximum number of shapes tracked, compiled or not.
+     */
+    public ExpressionJit(final int threshold, final int capacity)
+    {
+        this(threshold, capacity, new ShapeCompiler());
+    }
+
+    /**
+     * Creates a new instance.
+     * @param threshold the number of evaluations before compiling a shape.
+     * @param capacity the maximum number of shapes tracked, compiled or not.
+     * @param compiler the compiler.
+     */
+    public ExpressionJit(final int threshold, final int capacity, @NotNull final ShapeCompiler compiler)
+    {
+        if (threshold < 1)
+        {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.threshold = threshold;
+        this.capacity = capacity;
+        this.compiler = compiler;
+    }
+
+    /**
+     * Retrieves the number of evaluations before compiling a shape.
+     * @return such number.
+     */
+    public int getThreshold()
+    {
+        return this.threshold;
+    }
+
+    /**
+     * Retrieves the maximum number of shapes tracked, compiled or not.
+     * @return such number.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Evaluates given expression, with generated code if its shape is hot enough.
+     * @param expression the expression.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue evaluate(@NotNull final CompiledExpression expression, @NotNull final NumericValue result)
+    {
+        return evaluate(expression, CompiledExpression.NO_ARGUMENTS, result);
+    }
+
+    /**
+     * Evaluates given expression with given arguments, with generated code if its
+     * shape is hot enough, and all the arguments are {@code long}s.
+     * @param expression the expression.
+     * @param arguments the values of the parameters, in order of appearance, followed by the variables'.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws IllegalArgumentException if there are fewer arguments than parameters.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue evaluate(
+        @NotNull final CompiledExpression expression,
+        @NotNull final NumericValue[] arguments,
+        @NotNull final NumericValue result)
+    {
+        @Nullable final String shape = expression.getShape();
+
+        @Nullable final long[] literals = bind(expression, arguments);
+
+        if (shape == null || literals == null)
+        {
+            expression.evaluate(arguments, result);
+        }
+        else
+        {
+            @Nullable Entry entry = expression.getJitEntry();
+
+            if (entry == null || entry.owner != this || entry.evicted)
+            {
+                entry = lookup(shape);
+                expression.setJitEntry(entry);
+            }
+            else
+            {
+                // reusing the entry counts as looking it up, or hot shapes would get evicted first.
+                entry.lastLookup = System.nanoTime();
+            }
+
+            @Nullable CompiledShape compiled = entry.compiled;
+
+            if (compiled == null && entry.invocations.incrementAndGet() == this.threshold)
+            {
+                compiled = compile(entry);
+            }
+
+            if (compiled == null)
+            {
+                expression.evaluate(arguments, result);
+            }
+            else
+            {
+                try
+                {
+                    result.setLong(compiled.evaluate(literals));
+
+                    this.compiledEvaluations.increment();
+                }
+                catch (@NotNull final ArithmeticException notALong)
+                {
+                    expression.evaluate(arguments, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the literals of given expression, with its parameters bound to given arguments.
+     * @param expression the expression.
+     * @param arguments the arguments.
+     * @return the literals, or {@code null} if the expression has no shape,
+     * or any argument is not a {@code long}. If the expression has parameters,
+     * it's the current thread's array.
+     */
+    @Nullable
+    protected long[] bind(@NotNull final CompiledExpression expression, @NotNull final NumericValue[] arguments)
+    {
+        @Nullable long[] result = expression.getLiterals();
+
+        @Nullable final int[] bindings = expression.getBindings();
+
+        if (result != null && bindings != null)
+        {
+            @NotNull final long[][] holder = BOUND_LITERALS.get();
+
+            if (holder[0].length < result.length)
+            {
+                holder[0] = new long[result.length];
+            }
+
+            @NotNull final long[] bound = holder[0];
+
+            boolean longs = arguments.length >= expression.getArgumentCount();
+
+            for (int index = 0; longs && index < bindings.length; index++)
+            {
+                final int parameter = bindings[index];
+
+                if (parameter < 0)
+                {
+                    bound[index] = result[index];
+                }
+                else
+                {
+                    longs = arguments[parameter].isLong();
+                    bound[index] = arguments[parameter].getLong();
+                }
+            }
+
+            // decimals need BigDecimal arithmetic, and missing arguments an error.
+            result = longs ? bound : null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the generated code for given shape.
+     * @param shape the shape.
+     * @return such code, or {@code null} if it's not compiled.
+     */
+    @Nullable
+    public CompiledShape getCompiled(@NotNull final String shape)
+    {
+        @Nullable final Entry entry = this.entries.get(shape);
+
+        return (entry != null) ? entry.compiled : null;
+    }
+
+    /**
+     * Retrieves the number of shapes tracked.
+     * @return such number.
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Retrieves the number of shapes compiled so far.
+     * @return such number.
+     */
+    public long getCompilations()
+    {
+        return this.compilations.sum();
+    }
+
+    /**
+     * Retrieves the number of shapes evicted so far.
+     * @return such number.
+     */
+    public long getEvictions()
+    {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Retrieves the number of evaluations run by generated code so far.
+     * @return such number.
+     */
+    public long getCompiledEvaluations()
+    {
+        return this.compiledEvaluations.sum();
+    }
+
+    /**
+     * Retrieves the entry of given shape, tracking it if it's new,
+     * and evicting others if there's no room for it.
+     * @param shape the shape.
+     * @return such entry.
+     */
+    @NotNull
+    protected Entry lookup(@NotNull final String shape)
+    {
+        @Nullable Entry result = this.entries.get(shape);
+
+        if (result != null)
+        {
+            result.lastLookup = System.nanoTime();
+        }
+        else
+        {
+            @NotNull final Entry created = new Entry(this, shape);
+
+            result = this.entries.putIfAbsent(shape, created);
+
+            if (result == null)
+            {
+                result = created;
+
+                while (this.entries.size() > this.capacity && evictEldest(created))
+                {
+                    // concurrent insertions may have overfilled it by more than one.
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Evicts the entry looked up least recently, scanning all of them.
+     * It only runs once the cache is full, and a new shape comes in.
+     * @param spared the entry not to evict, just tracked.
+     * @return {@code false} if there was nothing to evict.
+     */
+    protected boolean evictEldest(@NotNull final Entry spared)
+    {
+        @Nullable Entry eldest = null;
+
+        for (@NotNull final Entry entry : this.entries.values())
+        {
+            if (entry != spared && (eldest == null || entry.lastLookup - eldest.lastLookup < 0))
+            {
+                eldest = entry;
+            }
+        }
+
+        final boolean result = eldest != null;
+
+        // another thread might be evicting it as well.
+        if (result && this.entries.remove(eldest.shape, eldest))
+        {
+            evicted(eldest);
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles the shape of given entry. Only one evaluation reaches the threshold,
+     * so it's compiled once.
+     * @param entry the entry.
+     * @return the generated code, or {@code null} if it cannot be generated.
+     */
+    @Nullable
+    protected CompiledShape compile(@NotNull final Entry entry)
+    {
+        @Nullable CompiledShape result;
+
+        try
+        {
+            result = this.compiler.compile(entry.shape);
+
+            this.compilations.increment();
+        }
+        catch (@NotNull final IllegalArgumentException tooLarge)
+        {
+            result = null;
+        }
+
+        entry.compiled = result;
+
+        if (entry.evicted)
+        {
+            // don't keep it alive through expressions still referring to the entry.
+            entry.compiled = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Drops the generated code of an evicted entry.
+     * @param entry the entry.
+     */
+    protected void evicted(@NotNull final Entry entry)
+    {
+        entry.evicted = true;
+        entry.compiled = null;
+
+        this.evictions.increment();
+    }
+
+    /**
+     * A tracked shape.
+     */
+    @ThreadSafe
+    protected static final class Entry
+    {
+        /**
+         * The instance tracking it.
+         */
+        @NotNull
+        protected final ExpressionJit owner;
+
+        /**
+         * The shape.
+         */
+        @NotNull
+        protected final String shape;
+
+        /**
+         * The number of evaluations so far, until it's compiled.
+         */
+        @NotNull
+        protected final AtomicInteger invocations = new AtomicInteger();
+
+        /**
+         * The generated code, once compiled and until evicted.
+         */
+        @Nullable
+        protected volatile CompiledShape compiled;
+
+        /**
+         * Whether it has been evicted.
+         */
+        protected volatile boolean evicted;
+
+        /**
+         * When it was last looked up, as in {@link System#nanoTime()}.
+         */
+        protected volatile long lastLookup = System.nanoTime();
+
+        /**
+         * Creates a new entry.
+         * @param owner the instance tracking it.
+         * @param shape the shape.
+         */
+        protected Entry(@NotNull final ExpressionJit owner, @NotNull final String shape)
+        {
+            this.owner = owner;
+            this.shape = shape;
+        }
+    }
+}
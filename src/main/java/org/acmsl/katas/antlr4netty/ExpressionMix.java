@@ -0,0 +1,275 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionMix.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Weighted mix of expressions to send to the server.
+ *
+ * Date: 2026/10/17
+ * Time: 10:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Weighted mix of kinds of expressions, to generate load resembling real traffic.
+ * Mixes are written as comma-separated {@code kind:weight} pairs, i.e.
+ * {@code integer:70,real:20,negative:10}.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:20
+ */
+@ThreadSafe
+public class ExpressionMix
+{
+    /**
+     * The kinds of expressions.
+     */
+    public enum Kind
+    {
+        /**
+         * Sums and differences of non-negative integers, i.e. {@code 1234 + 5678}.
+         */
+        INTEGER,
+
+        /**
+         * Sums and differences of reals, i.e. {@code -13.1 + 42.1}.
+         */
+        REAL,
+
+        /**
+         * Sums and differences of negative integers, i.e. {@code -12 - -34}.
+         */
+        NEGATIVE,
+
+        /**
+         * Malformed expressions, i.e. {@code 3 +}.
+         */
+        MALFORMED
+    }
+
+    /**
+     * The default mix.
+     */
+    @NotNull
+    public static final String DEFAULT_MIX = "integer:70,real:20,negative:10";
+
+    /**
+     * The weight of each kind, indexed by ordinal.
+     */
+    @NotNull
+    private final int[] weights;
+
+    /**
+     * The sum of all weights.
+     */
+    private final int total;
+
+    /**
+     * Creates a new mix with given weights, indexed by {@link Kind#ordinal()}.
+     * @param weights the weights.
+     */
+    protected ExpressionMix(@NotNull final int[] weights)
+    {
+        int sum = 0;
+
+        for (final int weight : weights)
+        {
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("Negative weight: " + weight);
+            }
+
+            sum += weight;
+        }
+
+        if (sum == 0)
+        {
+            throw new IllegalArgumentException("Empty expression mix");
+        }
+
+        this.weights = Arrays.copyOf(weights, weights.length);
+        this.total = sum;
+    }
+
+    /**
+     * Parses given mix.
+     * @param mix the mix, as comma-separated {@code kind:weight} pairs.
+     * @return the mix.
+     * @throws IllegalArgumentException if the mix is malformed.
+     */
+    @NotNull
+    public static ExpressionMix parse(@NotNull final String mix)
+    {
+        @NotNull final int[] weights = new int[Kind.values().length];
+
+        for (@NotNull final String pair : mix.split(","))
+        {
+            final int separator = pair.indexOf(':');
+
+            if (separator < 0)
+            {
+                throw new IllegalArgumentException("Invalid mix entry (expecting kind:weight): " + pair);
+            }
+
+            @NotNull final Kind kind = Kind.valueOf(pair.substring(0, separator).trim().toUpperCase(Locale.US));
+
+            weights[kind.ordinal()] += Integer.parseInt(pair.substring(separator + 1).trim());
+        }
+
+        return new ExpressionMix(weights);
+    }
+
+    /**
+     * Retrieves the weight of given kind.
+     * @param kind the kind.
+     * @return such weight.
+     */
+    public int getWeight(@NotNull final Kind kind)
+    {
+        return this.weights[kind.ordinal()];
+    }
+
+    /**
+     * Picks a kind, according to the weights.
+     * @param random the source of randomness.
+     * @return the kind.
+     */
+    @NotNull
+    public Kind nextKind(@NotNull final Random random)
+    {
+        int remaining = random.nextInt(this.total);
+
+        int index = 0;
+
+        while (remaining >= this.weights[index])
+        {
+            remaining -= this.weights[index];
+            index++;
+        }
+
+        return Kind.values()[index];
+    }
+
+    /**
+     * Generates an expression.
+     * @param random the source of randomness.
+     * @return the expression, without line terminator.
+     */
+    @NotNull
+    public String next(@NotNull final Random random)
+    {
+        @NotNull final String result;
+
+        @NotNull final String operator = random.nextBoolean() ? " + " : " - ";
+
+        switch (nextKind(random))
+        {
+            case REAL:
+                result =
+                    (random.nextInt(20001) - 10000) / 10.0 + operator + (random.nextInt(20001) - 10000) / 100.0;
+                break;
+            case NEGATIVE:
+                result = -(1 + random.nextInt(100000)) + operator + -(1 + random.nextInt(100000));
+                break;
+            case MALFORMED:
+                result = random.nextInt(100000) + operator;
+                break;
+            default:
+                result = random.nextInt(100000) + operator + random.nextInt(100000);
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates given number of requests, ready to be sent.
+     * @param random the source of randomness.
+     * @param count how many.
+     * @return the requests, as ASCII lines.
+     */
+    @NotNull
+    public byte[][] nextRequests(@NotNull final Random random, final int count)
+    {
+        @NotNull final byte[][] result = new byte[count][];
+
+        for (int index = 0; index < count; index++)
+        {
+            result[index] = (next(random) + "\n").getBytes(CharsetUtil.US_ASCII);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String toString()
+    {
+        @NotNull final StringBuilder result = new StringBuilder();
+
+        for (@NotNull final Kind kind : Kind.values())
+        {
+            if (getWeight(kind) > 0)
+            {
+                if (result.length() > 0)
+                {
+                    result.append(',');
+                }
+
+                result.append(kind.name().toLowerCase(Locale.US)).append(':').append(getWeight(kind));
+            }
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,621 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionNode.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Node of a compiled arithmetic expression.
+ *
+ * Date: 2026/10/17
+ * Time: 09:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * Node of a compiled arithmetic expression: an immutable tree, built once by
+ * {@link ExpressionCompiler} out of the ANTLR parse tree. Nodes don't evaluate
+ * their operands themselves: {@link CompiledExpression} runs them in post-order
+ * over an operand stack, so arbitrarily deep trees never recurse.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:10
+ */
+@ThreadSafe
+public abstract class ExpressionNode
+{
+    /**
+     * Creates a new node.
+     */
+    protected ExpressionNode()
+    {
+    }
+
+    /**
+     * Retrieves the number of operands.
+     * @return such number.
+     */
+    public abstract int getArity();
+
+    /**
+     * Retrieves given operand.
+     * @param index the operand index, from {@code 0} to {@link #getArity()} (exclusive).
+     * @return such operand.
+     */
+    @NotNull
+    public abstract ExpressionNode getOperand(final int index);
+
+    /**
+     * Applies this node to the operand stack: its operands, already evaluated,
+     * are on top, and get replaced by the outcome.
+     * @param stack the operand stack.
+     * @param size the number of operands in the stack.
+     * @param arguments the values of the parameters.
+     * @return the new number of operands in the stack.
+     * @throws ArithmeticException on division by zero.
+     */
+    protected abstract int evaluate(
+        @NotNull final NumericValue[] stack, final int size, @NotNull final NumericValue[] arguments);
+
+    /**
+     * The arithmetic operators.
+     */
+    public enum Operator
+    {
+        /**
+         * Addition.
+         */
+        ADD('+'),
+
+        /**
+         * Subtraction.
+         */
+        SUBTRACT('-'),
+
+        /**
+         * Multiplication.
+         */
+        MULTIPLY('*'),
+
+        /**
+         * Division.
+         */
+        DIVIDE('/');
+
+        /**
+         * The symbol.
+         */
+        private final char symbol;
+
+        /**
+         * Creates a new operator.
+         * @param symbol the symbol.
+         */
+        Operator(final char symbol)
+        {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Retrieves the symbol.
+         * @return such symbol.
+         */
+        public char getSymbol()
+        {
+            return this.symbol;
+        }
+
+        /**
+         * Applies the operator.
+         * @param left the left operand, which holds the outcome afterwards.
+         * @param right the right operand.
+         * @throws ArithmeticException on division by zero.
+         */
+        public void apply(@NotNull final NumericValue left, @NotNull final NumericValue right)
+        {
+            switch (this)
+            {
+                case ADD:
+                    left.add(right);
+                    break;
+                case SUBTRACT:
+                    left.subtract(right);
+                    break;
+                case MULTIPLY:
+                    left.multiply(right);
+                    break;
+                default:
+                    left.divide(right);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * A number.
+     */
+    @ThreadSafe
+    public static class Literal
+        extends ExpressionNode
+    {
+        /**
+         * The value, if it's an integer fitting in a {@code long}.
+         */
+        private final long longValue;
+
+        /**
+         * The value otherwise; {@code null} if it's a {@code long}.
+         */
+        @Nullable
+        private final BigDecimal decimalValue;
+
+        /**
+         * Creates a new integer literal.
+         * @param value the value.
+         */
+        public Literal(final long value)
+        {
+            this(value, null);
+        }
+
+        /**
+         * Creates a new literal.
+         * @param value the value.
+         */
+        public Literal(@NotNull final BigDecimal value)
+        {
+            this(0, value);
+        }
+
+        /**
+         * Creates a new literal.
+         * @param longValue the value, if it's a {@code long}.
+         * @param decimalValue the value otherwise.
+         */
+        protected Literal(final long longValue, @Nullable final BigDecimal decimalValue)
+        {
+            this.longValue = longValue;
+            this.decimalValue = decimalValue;
+        }
+
+        /**
+         * Parses given {@code NUMBER} token, keeping integers as {@code long}s
+         * when they fit.
+         * @param text the token text, optionally preceded by a {@code -}.
+         * @return the literal.
+         * @throws NumberFormatException if the text is not a number.
+         */
+        @NotNull
+        public static Literal parse(@NotNull final String text)
+        {
+            @NotNull Literal result;
+
+            try
+            {
+                result = new Literal(Long.parseLong(text));
+            }
+            catch (@NotNull final NumberFormatException notALong)
+            {
+                result = new Literal(new BigDecimal(text));
+            }
+
+            return result;
+        }
+
+        /**
+         * Builds the negated literal, folding an unary minus.
+         * @return such literal.
+         */
+        @NotNull
+        public Literal negate()
+        {
+            @NotNull final Literal result;
+
+            @Nullable final BigDecimal decimal = this.decimalValue;
+
+            if (decimal != null)
+            {
+                // -9223372036854775808 is only a decimal before being negated.
+                result = parse(decimal.negate().toString());
+            }
+            else if (this.longValue == Long.MIN_VALUE)
+            {
+                result = new Literal(BigDecimal.valueOf(this.longValue).negate());
+            }
+            else
+            {
+                result = new Literal(-this.longValue);
+            }
+
+            return result;
+        }
+
+        /**
+         * Checks whether the value is an integer fitting in a {@code long}.
+         * @return {@code true} in such case.
+         */
+        public boolean isLong()
+        {
+            return this.decimalValue == null;
+        }
+
+        /**
+         * Retrieves the value as a {@code long}.
+         * Only meaningful if {@link #isLong()}.
+         * @return such value.
+         */
+        public long getLong()
+        {
+            return this.longValue;
+        }
+
+        /**
+         * Retrieves the value.
+         * @param result the value to hold it.
+         * @return {@code result}, for convenience.
+         */
+        @NotNull
+        public NumericValue getValue(@NotNull final NumericValue result)
+        {
+            @Nullable final BigDecimal decimal = this.decimalValue;
+
+            return (decimal != null) ? result.setDecimal(decimal) : result.setLong(this.longValue);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getArity()
+        {
+            return 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public ExpressionNode getOperand(final int index)
+        {
+            throw new IndexOutOfBoundsException("Literals have no operands");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected int evaluate(
+            @NotNull final NumericValue[] stack, final int size, @NotNull final NumericValue[] arguments)
+        {
+            getValue(stack[size]);
+
+            return size + 1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public String toString()
+        {
+            @Nullable final BigDecimal decimal = this.decimalValue;
+
+            return (decimal != null) ? decimal.toString() : Long.toString(this.longValue);
+        }
+    }
+
+    /**
+     * A parameter, bound to an argument on each evaluation.
+     */
+    @ThreadSafe
+    public static class Parameter
+        extends ExpressionNode
+    {
+        /**
+         * The parameter index.
+         */
+        private final int index;
+
+        /**
+         * Creates a new parameter.
+         * @param index the parameter index, in order of appearance.
+         */
+        public Parameter(final int index)
+        {
+            this.index = index;
+        }
+
+        /**
+         * Retrieves the parameter index.
+         * @return such index.
+         */
+        public int getIndex()
+        {
+            return this.index;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getArity()
+        {
+            return 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public ExpressionNode getOperand(final int index)
+        {
+            throw new IndexOutOfBoundsException("Parameters have no operands");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected int evaluate(
+            @NotNull final NumericValue[] stack, final int size, @NotNull final NumericValue[] arguments)
+        {
+            stack[size].set(arguments[this.index]);
+
+            return size + 1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public String toString()
+        {
+            return "?";
+        }
+    }
+
+    /**
+     * A variable: a parameter bound to the value the session holds for its name.
+     */
+    @ThreadSafe
+    public static class Variable
+        extends Parameter
+    {
+        /**
+         * The name.
+         */
+        @NotNull
+        private final String name;
+
+        /**
+         * Creates a new variable.
+         * @param name the name.
+         * @param index the index of its value among the arguments, after the parameters.
+         */
+        public Variable(@NotNull final String name, final int index)
+        {
+            super(index);
+            this.name = name;
+        }
+
+        /**
+         * Retrieves the name.
+         * @return such name.
+         */
+        @NotNull
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public String toString()
+        {
+            return this.name;
+        }
+    }
+
+    /**
+     * An unary minus over a non-literal operand.
+     */
+    @ThreadSafe
+    public static class Negation
+        extends ExpressionNode
+    {
+        /**
+         * The operand.
+         */
+        @NotNull
+        private final ExpressionNode operand;
+
+        /**
+         * Creates a new negation.
+         * @param operand the operand.
+         */
+        public Negation(@NotNull final ExpressionNode operand)
+        {
+            this.operand = operand;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getArity()
+        {
+            return 1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public ExpressionNode getOperand(final int index)
+        {
+            if (index != 0)
+            {
+                throw new IndexOutOfBoundsException("No operand " + index);
+            }
+
+            return this.operand;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected int evaluate(
+            @NotNull final NumericValue[] stack, final int size, @NotNull final NumericValue[] arguments)
+        {
+            stack[size - 1].negate();
+
+            return size;
+        }
+    }
+
+    /**
+     * A binary operation.
+     */
+    @ThreadSafe
+    public static class Binary
+        extends ExpressionNode
+    {
+        /**
+         * The operator.
+         */
+        @NotNull
+        private final Operator operator;
+
+        /**
+         * The left operand.
+         */
+        @NotNull
+        private final ExpressionNode left;
+
+        /**
+         * The right operand.
+         */
+        @NotNull
+        private final ExpressionNode right;
+
+        /**
+         * Creates a new operation.
+         * @param operator the operator.
+         * @param left the left operand.
+         * @param right the right operand.
+         */
+        public Binary(
+            @NotNull final Operator operator,
+            @NotNull final ExpressionNode left,
+            @NotNull final ExpressionNode right)
+        {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * Retrieves the operator.
+         * @return such operator.
+         */
+        @NotNull
+        public Operator getOperator()
+        {
+            return this.operator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getArity()
+        {
+            return 2;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public ExpressionNode getOperand(final int index)
+        {
+            @NotNull final ExpressionNode result;
+
+            if (index == 0)
+            {
+                result = this.left;
+            }
+            else if (index == 1)
+            {
+                result = this.right;
+            }
+            else
+            {
+                throw new IndexOutOfBoundsException("No operand " + index);
+            }
+
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected int evaluate(
+            @NotNull final NumericValue[] stack, final int size, @NotNull final NumericValue[] arguments)
+        {
+            this.operator.apply(stack[size - 2], stack[size - 1]);
+
+            return size - 1;
+        }
+    }
+}
@@ -35,19 +35,42 @@
  */
 package org.acmsl.katas.antlr4netty;
 
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
 /*
  * Importing JetBrains annotations.
  */
+import org.antlr.v4.runtime.ANTLRErrorListener;
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /*
  * Importing checkthread.org annotations.
  */
 import org.checkthread.annotations.ThreadSafe;
 
+/*
+ * Importing JDK classes.
+ */
 import java.math.BigDecimal;
 
 /**
@@ -59,11 +82,267 @@ import java.math.BigDecimal;
 @ThreadSafe
 public class Interpreter
 {
+    /**
+     * The maximum nesting depth of an operation: parenthesized groups and
+     * unary minuses still open at any point. Unlike operator chains, which are
+     * parsed in a loop, each of them costs the ANTLR parser a few recursive
+     * calls, so the limit keeps the deepest operation well within the stack
+     * of any thread, and it's checked before parsing starts.
+     */
+    public static final int MAX_NESTING = 256;
+
+    /**
+     * The scanner for well-formed commands, shared since it's stateless.
+     */
+    @NotNull
+    protected static final CommandScanner FAST_PATH = new CommandScanner();
+
+    /**
+     * The lexer/parser pair of each thread, reset with new input on every evaluation.
+     */
+    @NotNull
+    protected static final ThreadLocal<ReusableParser> PARSERS =
+        new ThreadLocal<ReusableParser>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected ReusableParser initialValue()
+            {
+                return new ReusableParser();
+            }
+        };
+
+    /**
+     * The stream of each thread over the buffers being evaluated,
+     * reset on every evaluation.
+     */
+    @NotNull
+    protected static final ThreadLocal<ByteBufCharStream> STREAMS =
+        new ThreadLocal<ByteBufCharStream>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected ByteBufCharStream initialValue()
+            {
+                return new ByteBufCharStream(Unpooled.EMPTY_BUFFER);
+            }
+        };
+
+    /**
+     * The arguments of each thread's current prepared expression, grown on demand.
+     */
+    @NotNull
+    protected static final ThreadLocal<NumericValue[][]> ARGUMENTS =
+        new ThreadLocal<NumericValue[][]>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected NumericValue[][] initialValue()
+            {
+                return new NumericValue[][] { new NumericValue[0] };
+            }
+        };
+
+    /**
+     * The compiler of parse trees, shared since it's stateless.
+     */
+    @NotNull
+    protected static final ExpressionCompiler COMPILER = new ExpressionCompiler();
+
+    /**
+     * The lexer error listener bailing out on the first error, shared since it's stateless.
+     */
+    @NotNull
+    protected static final ANTLRErrorListener BAIL_LISTENER =
+        new BaseErrorListener()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void syntaxError(
+                @NotNull final Recognizer<?, ?> recognizer,
+                @Nullable final Object offendingSymbol,
+                final int line,
+                final int charPositionInLine,
+                @NotNull final String msg,
+                @Nullable final RecognitionException e)
+            {
+                throw new ParseCancellationException(msg, e);
+            }
+        };
+
+    /**
+     * Whether to try the {@link CommandScanner} before the ANTLR parser.
+     */
+    private final boolean fastPathEnabled;
+
+    /**
+     * Whether to reuse the current thread's lexer and parser.
+     */
+    private final boolean parserReuseEnabled;
+
+    /**
+     * How to drive the ANTLR parser.
+     */
+    @NotNull
+    private final ParseStrategy parseStrategy;
+
+    /**
+     * Where to record the latency of each stage, if anywhere.
+     */
+    @Nullable
+    private final InterpreterMetrics metrics;
+
+    /**
+     * What compiles hot expression shapes into bytecode, if anything.
+     */
+    @Nullable
+    private final ExpressionJit jit;
+
     /**
      * Creates a new instance to evaluate given operation.
      */
     public Interpreter()
     {
+        this(true);
+    }
+
+    /**
+     * Creates a new instance to evaluate given operation.
+     * @param fastPathEnabled whether to evaluate well-formed commands with
+     * the {@link CommandScanner}, falling back to the ANTLR parser otherwise.
+     */
+    public Interpreter(final boolean fastPathEnabled)
+    {
+        this(fastPathEnabled, true);
+    }
+
+    /**
+     * Creates a new instance to evaluate given operation.
+     * @param fastPathEnabled whether to evaluate well-formed commands with
+     * the {@link CommandScanner}, falling back to the ANTLR parser otherwise.
+     * @param parserReuseEnabled whether each thread reuses its own lexer and
+     * parser, instead of building new ones on every evaluation.
+     */
+    public Interpreter(final boolean fastPathEnabled, final boolean parserReuseEnabled)
+    {
+        this(fastPathEnabled, parserReuseEnabled, ParseStrategy.SLL_THEN_LL);
+    }
+
+    /**
+     * Creates a new instance to evaluate given operation.
+     * @param fastPathEnabled whether to evaluate well-formed commands with
+     * the {@link CommandScanner}, falling back to the ANTLR parser otherwise.
+     * @param parserReuseEnabled whether each thread reuses its own lexer and
+     * parser, instead of building new ones on every evaluation.
+     * @param parseStrategy how to drive the ANTLR parser.
+     */
+    public Interpreter(
+        final boolean fastPathEnabled,
+        final boolean parserReuseEnabled,
+        @NotNull final ParseStrategy parseStrategy)
+    {
+        this(fastPathEnabled, parserReuseEnabled, parseStrategy, null);
+    }
+
+    /**
+     * Creates a new instance to evaluate given operation.
+     * @param fastPathEnabled whether to evaluate well-formed commands with
+     * the {@link CommandScanner}, falling back to the ANTLR parser otherwise.
+     * @param parserReuseEnabled whether each thread reuses its own lexer and
+     * parser, instead of building new ones on every evaluation.
+     * @param parseStrategy how to drive the ANTLR parser.
+     * @param metrics where to record the latency of each stage, if anywhere.
+     */
+    public Interpreter(
+        final boolean fastPathEnabled,
+        final boolean parserReuseEnabled,
+        @NotNull final ParseStrategy parseStrategy,
+        @Nullable final InterpreterMetrics metrics)
+    {
+        this(fastPathEnabled, parserReuseEnabled, parseStrategy, metrics, null);
+    }
+
+    /**
+     * Creates a new instance to evaluate given operation.
+     * @param fastPathEnabled whether to evaluate well-formed commands with
+     * the {@link CommandScanner}, falling back to the ANTLR parser otherwise.
+     * @param parserReuseEnabled whether each thread reuses its own lexer and
+     * parser, instead of building new ones on every evaluation.
+     * @param parseStrategy how to drive the ANTLR parser.
+     * @param metrics where to record the latency of each stage, if anywhere.
+     * @param jit what compiles hot expression shapes into bytecode, if anything.
+     */
+    public Interpreter(
+        final boolean fastPathEnabled,
+        final boolean parserReuseEnabled,
+        @NotNull final ParseStrategy parseStrategy,
+        @Nullable final InterpreterMetrics metrics,
+        @Nullable final ExpressionJit jit)
+    {
+        this.fastPathEnabled = fastPathEnabled;
+        this.parserReuseEnabled = parserReuseEnabled;
+        this.parseStrategy = parseStrategy;
+        this.metrics = metrics;
+        this.jit = jit;
+    }
+
+    /**
+     * Checks whether the {@link CommandScanner} is tried first.
+     * @return {@code true} in such case.
+     */
+    public boolean isFastPathEnabled()
+    {
+        return this.fastPathEnabled;
+    }
+
+    /**
+     * Checks whether each thread reuses its own lexer and parser.
+     * @return {@code true} in such case.
+     */
+    public boolean isParserReuseEnabled()
+    {
+        return this.parserReuseEnabled;
+    }
+
+    /**
+     * Retrieves how the ANTLR parser is driven.
+     * @return such strategy.
+     */
+    @NotNull
+    public ParseStrategy getParseStrategy()
+    {
+        return this.parseStrategy;
+    }
+
+    /**
+     * Retrieves where the latency of each stage is recorded.
+     * @return such metrics, or {@code null} if not recorded.
+     */
+    @Nullable
+    public InterpreterMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Retrieves what compiles hot expression shapes into bytecode.
+     * @return such compiler, or {@code null} if expressions are always interpreted.
+     */
+    @Nullable
+    public ExpressionJit getJit()
+    {
+        return this.jit;
     }
 
     /**
@@ -71,10 +350,19 @@ public class Interpreter
      */
     @NotNull
     protected InterpreterParser setupParser(@NotNull final String input)
+    {
+        return setupParser(new ANTLRInputStream(input));
+    }
+
+    /**
+     * Processes given input.
+     */
+    @NotNull
+    protected InterpreterParser setupParser(@NotNull final CharStream input)
     {
         @NotNull final InterpreterParser result;
 
-        @NotNull final InterpreterLexer t_Lexer = new InterpreterLexer(new ANTLRInputStream(input));
+        @NotNull final InterpreterLexer t_Lexer = new InterpreterLexer(input);
 
         @NotNull final CommonTokenStream t_Tokens = new CommonTokenStream(t_Lexer);
 
@@ -91,44 +379,783 @@ public class Interpreter
     @NotNull
     public BigDecimal eval(@NotNull final String operation)
     {
-        InterpreterParser parser = setupParser(operation);
+        return eval(operation, null);
+    }
+
+    /**
+     * Evaluates the operation within given session, so it can refer to its variables,
+     * and assign them.
+     * @param operation the operation to evaluate.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @return the result of the operation.
+     */
+    @NotNull
+    public BigDecimal eval(@NotNull final String operation, @Nullable final Environment environment)
+    {
+        @Nullable BigDecimal result = evalFastPath(operation);
+
+        if (result == null)
+        {
+            result =
+                evalWithParser(new ANTLRInputStream(operation), environment, new NumericValue()).toBigDecimal();
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the operation contained in the readable bytes of given buffer,
+     * lexing them in place.
+     * The buffer's indexes are left untouched, and it's not released.
+     * @param operation the operation to evaluate, as ASCII bytes.
+     * @return the result of the operation.
+     */
+    @NotNull
+    public BigDecimal eval(@NotNull final ByteBuf operation)
+    {
+        @NotNull final ByteBufCharStream input = STREAMS.get().reset(operation);
+
+        @Nullable BigDecimal result = evalFastPath(input);
+
+        if (result == null)
+        {
+            result = evalWithParser(input, null, new NumericValue()).toBigDecimal();
+        }
+
+        return result;
+    }
 
-        ParseTree tree = parser.command();
+    /**
+     * Evaluates the operation contained in the readable bytes of given buffer,
+     * lexing them in place, and keeping integer outcomes as {@code long}s whenever
+     * possible.
+     * The buffer's indexes are left untouched, and it's not released.
+     * @param operation the operation to evaluate, as ASCII bytes.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     */
+    @NotNull
+    public NumericValue eval(@NotNull final ByteBuf operation, @NotNull final NumericValue result)
+    {
+        return eval(operation, null, result);
+    }
+
+    /**
+     * Evaluates the operation contained in the readable bytes of given buffer within
+     * given session, lexing them in place, and keeping integer outcomes as {@code long}s
+     * whenever possible.
+     * The buffer's indexes are left untouched, and it's not released.
+     * @param operation the operation to evaluate, as ASCII bytes.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     */
+    @NotNull
+    public NumericValue eval(
+        @NotNull final ByteBuf operation, @Nullable final Environment environment, @NotNull final NumericValue result)
+    {
+        @NotNull final ByteBufCharStream input = STREAMS.get().reset(operation);
+
+        if (!this.fastPathEnabled || !evalFastPath(input, result))
+        {
+            evalWithParser(input, environment, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the operation with the {@link CommandScanner}, if enabled.
+     * @param operation the operation to evaluate.
+     * @return the result, or {@code null} if the ANTLR parser is needed.
+     */
+    @Nullable
+    protected BigDecimal evalFastPath(@NotNull final CharSequence operation)
+    {
+        @Nullable final BigDecimal result;
+
+        if (this.fastPathEnabled)
+        {
+            final long start = (this.metrics != null) ? System.nanoTime() : 0;
+
+            result = FAST_PATH.evaluate(operation);
+
+            if (this.metrics != null)
+            {
+                this.metrics.recordSince(InterpreterMetrics.Stage.FAST_PATH, start);
+            }
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the operation with the {@link CommandScanner}.
+     * @param operation the operation to evaluate.
+     * @param result the value to hold the outcome.
+     * @return {@code false} if the ANTLR parser is needed.
+     */
+    protected boolean evalFastPath(@NotNull final CharSequence operation, @NotNull final NumericValue result)
+    {
+        final long start = (this.metrics != null) ? System.nanoTime() : 0;
+
+        final boolean evaluated = FAST_PATH.evaluate(operation, result);
+
+        if (this.metrics != null)
+        {
+            this.metrics.recordSince(InterpreterMetrics.Stage.FAST_PATH, start);
+        }
+
+        return evaluated;
+    }
+
+    /**
+     * Compiles given operation, so it can be evaluated many times.
+     * It can have parameters, written as {@code ?}.
+     * @param operation the operation.
+     * @return the compiled operation.
+     * @throws ParseCancellationException if the operation is malformed,
+     * and the parse strategy is {@link ParseStrategy#SLL_THEN_LL}.
+     */
+    @NotNull
+    public CompiledExpression compile(@NotNull final String operation)
+    {
+        return compile(new ANTLRInputStream(operation));
+    }
+
+    /**
+     * Compiles the operation contained in the readable bytes of given buffer,
+     * lexing them in place, so it can be evaluated many times.
+     * It can have parameters, written as {@code ?}.
+     * The buffer's indexes are left untouched, and it's not released.
+     * @param operation the operation, as ASCII bytes.
+     * @return the compiled operation.
+     * @throws ParseCancellationException if the operation is malformed,
+     * and the parse strategy is {@link ParseStrategy#SLL_THEN_LL}.
+     */
+    @NotNull
+    public CompiledExpression compile(@NotNull final ByteBuf operation)
+    {
+        return compile(STREAMS.get().reset(operation));
+    }
+
+    /**
+     * Compiles given operation with the ANTLR parser, reusing the current
+     * thread's one if enabled.
+     * @param input the operation.
+     * @return the compiled operation.
+     */
+    @NotNull
+    protected CompiledExpression compile(@NotNull final CharStream input)
+    {
+        @NotNull final CompiledExpression result;
+
+        if (this.parserReuseEnabled)
+        {
+            @NotNull final ReusableParser parser = PARSERS.get();
+
+            try
+            {
+                result = COMPILER.compile(parse(parser.reset(input), this.parseStrategy));
+            }
+            finally
+            {
+                parser.clear();
+            }
+        }
+        else
+        {
+            result = COMPILER.compile(parse(setupParser(input), this.parseStrategy));
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the operation with the ANTLR parser, reusing the current
+     * thread's one if enabled.
+     * @param operation the operation to evaluate.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     */
+    @NotNull
+    protected NumericValue evalWithParser(
+        @NotNull final CharStream operation,
+        @Nullable final Environment environment,
+        @NotNull final NumericValue result)
+    {
+        if (this.parserReuseEnabled)
+        {
+            @NotNull final ReusableParser parser = PARSERS.get();
+
+            try
+            {
+                eval(parser.reset(operation), environment, result);
+            }
+            finally
+            {
+                parser.clear();
+            }
+        }
+        else
+        {
+            eval(setupParser(operation), environment, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the operation, compiling its parse tree first.
+     * @param parser the parser, already set up.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws ParseCancellationException if the operation is malformed,
+     * and the parse strategy is {@link ParseStrategy#SLL_THEN_LL}, if it
+     * has parameters, or if it uses variables not in the session.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    protected NumericValue eval(
+        @NotNull final InterpreterParser parser,
+        @Nullable final Environment environment,
+        @NotNull final NumericValue result)
+    {
+        @NotNull final ParseTree tree = parse(parser, this.parseStrategy);
+
+        if (this.metrics != null)
+        {
+            final long start = System.nanoTime();
+
+            try
+            {
+                evaluate(
+                    compileUnbound(tree, environment != null), CompiledExpression.NO_ARGUMENTS, environment, result);
+            }
+            finally
+            {
+                this.metrics.recordSince(InterpreterMetrics.Stage.EVALUATE, start);
+            }
+        }
+        else
+        {
+            evaluate(
+                compileUnbound(tree, environment != null), CompiledExpression.NO_ARGUMENTS, environment, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles given parse tree, of an operation to be evaluated right away.
+     * @param tree the tree.
+     * @param session whether there's a session to bind variables to.
+     * @return the compiled operation.
+     * @throws ParseCancellationException if the operation has parameters,
+     * or variables without a session, since there's nothing to bind them to.
+     */
+    @NotNull
+    protected CompiledExpression compileUnbound(@NotNull final ParseTree tree, final boolean session)
+    {
+        @NotNull final CompiledExpression result = COMPILER.compile(tree);
+
+        if (result.getParameterCount() > 0)
+        {
+            throw new ParseCancellationException("Parameters are only allowed in prepared expressions");
+        }
+
+        if (!session && (result.getVariables().length > 0 || result.getTarget() != null))
+        {
+            throw new ParseCancellationException("Variables are only allowed in sessions");
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates given compiled operation, with bytecode generated for its shape
+     * once it's hot, if enabled.
+     * @param operation the operation.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue evaluate(@NotNull final CompiledExpression operation, @NotNull final NumericValue result)
+    {
+        return evaluate(operation, CompiledExpression.NO_ARGUMENTS, result);
+    }
+
+    /**
+     * Evaluates given compiled operation with given arguments, with bytecode generated
+     * for its shape once it's hot, if enabled.
+     * @param operation the operation.
+     * @param arguments the values of its parameters, in order of appearance.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws IllegalArgumentException if there are fewer arguments than parameters.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue evaluate(
+        @NotNull final CompiledExpression operation,
+        @NotNull final NumericValue[] arguments,
+        @NotNull final NumericValue result)
+    {
+        @Nullable final ExpressionJit compiler = this.jit;
 
         return
-            new InterpreterBaseVisitor<BigDecimal>()
-            {
-                /**
-                 * {@inheritDoc}
-                 */
-                @Override
-                public BigDecimal visitCommand(
-                    @org.antlr.v4.runtime.misc.NotNull final InterpreterParser.CommandContext ctx)
+            (compiler != null)
+            ? compiler.evaluate(operation, arguments, result)
+            : operation.evaluate(arguments, result);
+    }
+
+    /**
+     * Evaluates given compiled operation with given arguments within given session:
+     * its variables are bound to the session's values, and its outcome assigned
+     * to the session, if it's an assignment.
+     * @param operation the operation.
+     * @param arguments the values of its parameters, in order of appearance.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws IllegalArgumentException if there are fewer arguments than parameters.
+     * @throws ParseCancellationException if a variable is not defined in the session,
+     * there's no room for a new one, or the outcome to assign is beyond
+     * {@link NumericValue#MAX_PRECISION} or {@link NumericValue#MAX_SCALE}.
+     * @throws ArithmeticException on division by zero, or if a product is too large.
+     */
+    @NotNull
+    public NumericValue evaluate(
+        @NotNull final CompiledExpression operation,
+        @NotNull final NumericValue[] arguments,
+        @Nullable final Environment environment,
+        @NotNull final NumericValue result)
+    {
+        @NotNull final String[] variables = operation.getVariables();
+
+        @Nullable final String target = operation.getTarget();
+
+        if (environment == null && (variables.length > 0 || target != null))
+        {
+            throw new ParseCancellationException("Variables are only allowed in sessions");
+        }
+
+        @NotNull NumericValue[] values = arguments;
+
+        if (variables.length > 0)
+        {
+            final int parameterCount = operation.getParameterCount();
+
+            if (arguments.length < parameterCount)
+            {
+                throw new IllegalArgumentException(
+                    parameterCount + " arguments expected, but got " + arguments.length);
+            }
+
+            values = arguments(operation.getArgumentCount());
+
+            if (values != arguments)
+            {
+                for (int index = 0; index < parameterCount; index++)
+                {
+                    values[index].set(arguments[index]);
+                }
+            }
+
+            for (int index = 0; index < variables.length; index++)
+            {
+                if (!environment.get(variables[index], values[parameterCount + index]))
                 {
-                    @NotNull final BigDecimal result;
-
-                    @NotNull final BigDecimal left = new BigDecimal(ctx.getChild(0).getText());
-                    @NotNull final String operator = ctx.getChild(1).getText();
-
-                    if ("+".equals(operator))
-                    {
-                        @NotNull final BigDecimal right = new BigDecimal(ctx.getChild(2).getText());
-                        result = left.add(right);
-                    }
-                    else if ("-".equals(operator))
-                    {
-                        @NotNull final BigDecimal right = new BigDecimal(ctx.getChild(2).getText());
-                        result = left.subtract(right);
-                    }
-                    else
-                    {
-                        // the operator is missing -> implicit in right operand
-                        @NotNull final BigDecimal right = new BigDecimal(ctx.getChild(1).getText());
-                        result = left.add(right);
-                    }
-
-                    return result;
+                    throw new ParseCancellationException("Undefined variable: " + variables[index]);
                 }
-            }.visit(tree);
+            }
+        }
+
+        evaluate(operation, values, result);
+
+        // otherwise, repeated assignments could make a variable grow exponentially.
+        if (target != null && !result.isBounded())
+        {
+            throw new ParseCancellationException("Value too large to assign");
+        }
+
+        if (target != null && !environment.set(target, result))
+        {
+            throw new ParseCancellationException("Too many variables");
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates given compiled operation with the arguments contained in the readable
+     * bytes of given buffer: whitespace-separated numbers, each optionally negated,
+     * one per parameter.
+     * @param operation the operation.
+     * @param arguments the arguments, as ASCII bytes.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws ParseCancellationException if the arguments are malformed,
+     * or don't match the parameters in number.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue execute(
+        @NotNull final CompiledExpression operation,
+        @NotNull final ByteBuf arguments,
+        @NotNull final NumericValue result)
+    {
+        return execute(operation, arguments, null, result);
+    }
+
+    /**
+     * Evaluates given compiled operation within given session, with the arguments
+     * contained in the readable bytes of given buffer: whitespace-separated numbers,
+     * each optionally negated, one per parameter.
+     * @param operation the operation.
+     * @param arguments the arguments, as ASCII bytes.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     * @throws ParseCancellationException if the arguments are malformed,
+     * or don't match the parameters in number, or if a variable is not
+     * defined in the session.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    public NumericValue execute(
+        @NotNull final CompiledExpression operation,
+        @NotNull final ByteBuf arguments,
+        @Nullable final Environment environment,
+        @NotNull final NumericValue result)
+    {
+        final int count = operation.getParameterCount();
+
+        // with room for the variables, bound right after.
+        @NotNull final NumericValue[] values = arguments(operation.getArgumentCount());
+
+        if (!FAST_PATH.scanNumbers(STREAMS.get().reset(arguments), 0, values, count))
+        {
+            throw new ParseCancellationException("Expected " + count + " arguments");
+        }
+
+        return evaluate(operation, values, environment, result);
+    }
+
+    /**
+     * Retrieves the current thread's arguments, with room for given number of them.
+     * @param count the number of arguments.
+     * @return such arguments.
+     */
+    @NotNull
+    protected NumericValue[] arguments(final int count)
+    {
+        @NotNull final NumericValue[][] holder = ARGUMENTS.get();
+
+        if (holder[0].length < count)
+        {
+            @NotNull final NumericValue[] grown = new NumericValue[Math.max(count, holder[0].length * 2)];
+
+            System.arraycopy(holder[0], 0, grown, 0, holder[0].length);
+
+            for (int index = holder[0].length; index < grown.length; index++)
+            {
+                grown[index] = new NumericValue();
+            }
+
+            holder[0] = grown;
+        }
+
+        return holder[0];
+    }
+
+    /**
+     * Parses the command according to given strategy.
+     * @param parser the parser, already set up.
+     * @param strategy the strategy.
+     * @return the parse tree.
+     * @throws ParseCancellationException if the command is malformed,
+     * and the strategy is {@link ParseStrategy#SLL_THEN_LL}, or if it's
+     * nested deeper than {@link #MAX_NESTING}.
+     */
+    @NotNull
+    protected ParseTree parse(@NotNull final InterpreterParser parser, @NotNull final ParseStrategy strategy)
+    {
+        checkNesting(((Lexer) parser.getTokenStream().getTokenSource()).getInputStream());
+
+        return parseWith(parser, strategy);
+    }
+
+    /**
+     * Checks the operation isn't nested deeper than {@link #MAX_NESTING},
+     * scanning its characters from the current position, without consuming them.
+     * A unary minus stays open until its operand, a number, a name, or a
+     * parenthesized group, is complete.
+     * @param input the operation.
+     * @throws ParseCancellationException if it's nested too deeply.
+     */
+    protected static void checkNesting(@NotNull final CharStream input)
+    {
+        // the unary minuses still open outside any group, and inside each open one.
+        int outer = 0;
+        @Nullable int[] minuses = null;
+
+        int level = 0;
+        int depth = 0;
+        boolean operand = false;
+
+        for (int offset = 1; depth <= MAX_NESTING; offset++)
+        {
+            final int current = input.LA(offset);
+
+            if (current == CharStream.EOF)
+            {
+                break;
+            }
+            else if (current == '(')
+            {
+                if (minuses == null)
+                {
+                    minuses = new int[MAX_NESTING + 2];
+                }
+
+                level++;
+                depth++;
+                minuses[level] = 0;
+                operand = false;
+            }
+            else if (current == '-' && !operand)
+            {
+                depth++;
+
+                if (level == 0)
+                {
+                    outer++;
+                }
+                else
+                {
+                    minuses[level]++;
+                }
+            }
+            else if (   (current == ')' && level > 0)
+                     || Character.isLetterOrDigit(current)
+                     || current == '_' || current == '.' || current == '?')
+            {
+                if (current == ')')
+                {
+                    depth -= 1 + minuses[level];
+                    level--;
+                }
+
+                // an operand, or a whole group, completes the unary minuses before it.
+                if (level == 0)
+                {
+                    depth -= outer;
+                    outer = 0;
+                }
+                else
+                {
+                    depth -= minuses[level];
+                    minuses[level] = 0;
+                }
+
+                operand = true;
+            }
+            else if (!Character.isWhitespace(current))
+            {
+                operand = false;
+            }
+        }
+
+        if (depth > MAX_NESTING)
+        {
+            throw new ParseCancellationException("Expression nested deeper than " + MAX_NESTING);
+        }
+    }
+
+    /**
+     * Parses the command according to given strategy.
+     * @param parser the parser, already set up.
+     * @param strategy the strategy.
+     * @return the parse tree.
+     * @throws ParseCancellationException if the command is malformed,
+     * and the strategy is {@link ParseStrategy#SLL_THEN_LL}.
+     */
+    @NotNull
+    protected ParseTree parseWith(@NotNull final InterpreterParser parser, @NotNull final ParseStrategy strategy)
+    {
+        @NotNull ParseTree result;
+
+        final long start;
+
+        // the parser might be reused, so it's always configured from scratch.
+        @NotNull final Lexer lexer = (Lexer) parser.getTokenStream().getTokenSource();
+        lexer.removeErrorListeners();
+        parser.removeErrorListeners();
+
+        if (strategy == ParseStrategy.SLL_THEN_LL)
+        {
+            lexer.addErrorListener(BAIL_LISTENER);
+            parser.setErrorHandler(new BailErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+            start = lex(parser);
+
+            try
+            {
+                result = parser.command();
+            }
+            catch (@NotNull final ParseCancellationException sllFailed)
+            {
+                if (sllFailed.getCause() instanceof RecognitionException
+                    && ((RecognitionException) sllFailed.getCause()).getRecognizer() == lexer)
+                {
+                    // a lexer error is not a prediction issue: LL would fail the same way.
+                    throw sllFailed;
+                }
+
+                parser.reset();
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+                result = parser.command();
+            }
+        }
+        else
+        {
+            lexer.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+            start = lex(parser);
+
+            result = parser.command();
+        }
+
+        if (this.metrics != null)
+        {
+            this.metrics.recordSince(InterpreterMetrics.Stage.PARSE, start);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tokenizes the whole command upfront when recording metrics, so lexing
+     * gets timed apart from parsing. Otherwise, the parser pulls tokens lazily.
+     * @param parser the parser, already set up.
+     * @return the time lexing finished, in {@link System#nanoTime()} terms,
+     * or zero if there are no metrics.
+     */
+    protected long lex(@NotNull final InterpreterParser parser)
+    {
+        long result = 0;
+
+        if (this.metrics != null)
+        {
+            final long start = System.nanoTime();
+
+            ((BufferedTokenStream) parser.getTokenStream()).fill();
+
+            result = this.metrics.recordSince(InterpreterMetrics.Stage.LEX, start);
+        }
+
+        return result;
+    }
+
+    /**
+     * A lexer, token stream and parser chain, confined to one thread,
+     * which gets reset with new input instead of being rebuilt.
+     */
+    protected static class ReusableParser
+    {
+        /**
+         * The lexer.
+         */
+        @NotNull
+        private final InterpreterLexer lexer;
+
+        /**
+         * The token stream.
+         */
+        @NotNull
+        private final ReusableTokenStream tokens;
+
+        /**
+         * The parser.
+         */
+        @NotNull
+        private final InterpreterParser parser;
+
+        /**
+         * Creates a new, empty, chain.
+         */
+        public ReusableParser()
+        {
+            this.lexer = new InterpreterLexer(null);
+            this.tokens = new ReusableTokenStream(this.lexer);
+            this.parser = new InterpreterParser(this.tokens);
+        }
+
+        /**
+         * Resets the chain to read given input.
+         * @param input the new input.
+         * @return the parser, ready to use.
+         */
+        @NotNull
+        public InterpreterParser reset(@NotNull final CharStream input)
+        {
+            this.lexer.setInputStream(input);
+            this.tokens.setTokenSource(this.lexer);
+            this.parser.setTokenStream(this.tokens);
+
+            return this.parser;
+        }
+
+        /**
+         * Drops any reference to the last input, its tokens and parse tree,
+         * so they don't outlive the evaluation.
+         */
+        public void clear()
+        {
+            this.parser.reset();
+            this.lexer.setInputStream(null);
+            this.tokens.setTokenSource(this.lexer);
+        }
+    }
+
+    /**
+     * A {@link CommonTokenStream} which can be fully reset through
+     * {@link #setTokenSource}: ANTLR 4.3 forgets to clear its
+     * {@code fetchedEOF} flag there, and would never fetch tokens again.
+     */
+    protected static class ReusableTokenStream
+        extends CommonTokenStream
+    {
+        /**
+         * Creates a new stream.
+         * @param tokenSource the token source.
+         */
+        public ReusableTokenStream(@NotNull final TokenSource tokenSource)
+        {
+            super(tokenSource);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setTokenSource(@NotNull final TokenSource tokenSource)
+        {
+            super.setTokenSource(tokenSource);
+            this.fetchedEOF = false;
+        }
     }
 }
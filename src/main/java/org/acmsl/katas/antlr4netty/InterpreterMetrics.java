@@ -0,0 +1,465 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: InterpreterMetrics.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Per-stage latencies, counters and gauges of the server.
+ *
+ * Date: 2026/10/17
+ * Time: 12:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Per-stage latencies, counters and gauges of the server, recorded without
+ * locks nor allocation, so they can stay on in production.
+ * They're exposed over JMX (see {@link #register(int)}) and, in text, by
+ * {@link #render()}, which the metrics HTTP endpoint serves.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 12:40
+ */
+@ThreadSafe
+public class InterpreterMetrics
+    implements InterpreterMetricsMXBean
+{
+    /**
+     * The stages of a request.
+     */
+    public enum Stage
+    {
+        /**
+         * Splitting the inbound bytes into frames.
+         */
+        DECODE,
+
+        /**
+         * Scanning and evaluating well-formed expressions with {@link CommandScanner}.
+         */
+        FAST_PATH,
+
+        /**
+         * Tokenizing expressions with the ANTLR lexer.
+         */
+        LEX,
+
+        /**
+         * Parsing tokens with the ANTLR parser.
+         */
+        PARSE,
+
+        /**
+         * Evaluating parse trees.
+         */
+        EVALUATE,
+
+        /**
+         * Writing the response.
+         */
+        ENCODE,
+
+        /**
+         * The whole request, once framed: evaluation and response.
+         */
+        REQUEST
+    }
+
+    /**
+     * The percentiles reported for each stage.
+     */
+    @NotNull
+    protected static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    /**
+     * The JMX domain.
+     */
+    @NotNull
+    public static final String JMX_DOMAIN = "org.acmsl.katas.antlr4netty";
+
+    /**
+     * The latencies of each stage, in nanoseconds.
+     */
+    @NotNull
+    private final Map<Stage, ConcurrentLatencyHistogram> latencies;
+
+    /**
+     * The number of connections opened.
+     */
+    @NotNull
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * The number of connections closed.
+     */
+    @NotNull
+    private final LongAdder closed = new LongAdder();
+
+    /**
+     * The number of requests received.
+     */
+    @NotNull
+    private final LongAdder received = new LongAdder();
+
+    /**
+     * The number of requests answered.
+     */
+    @NotNull
+    private final LongAdder answered = new LongAdder();
+
+    /**
+     * The number of malformed requests.
+     */
+    @NotNull
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * The number of requests rejected by admission control.
+     */
+    @NotNull
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * The number of connections rejected by admission control.
+     */
+    @NotNull
+    private final LongAdder rejectedConnections = new LongAdder();
+
+    /**
+     * Creates a new instance.
+     */
+    public InterpreterMetrics()
+    {
+        this.latencies = new EnumMap<Stage, ConcurrentLatencyHistogram>(Stage.class);
+
+        for (@NotNull final Stage stage : Stage.values())
+        {
+            this.latencies.put(stage, new ConcurrentLatencyHistogram());
+        }
+    }
+
+    /**
+     * Records the latency of given stage.
+     * @param stage the stage.
+     * @param nanos the latency, in nanoseconds.
+     */
+    public void record(@NotNull final Stage stage, final long nanos)
+    {
+        this.latencies.get(stage).record(nanos);
+    }
+
+    /**
+     * Records the latency of given stage, started at given time.
+     * @param stage the stage.
+     * @param start when the stage started, in {@link System#nanoTime()} terms.
+     * @return the current time, so the next stage can start from it.
+     */
+    public long recordSince(@NotNull final Stage stage, final long start)
+    {
+        final long result = System.nanoTime();
+
+        record(stage, result - start);
+
+        return result;
+    }
+
+    /**
+     * Annotates a connection rejected by admission control.
+     */
+    public void connectionRejected()
+    {
+        this.rejectedConnections.increment();
+    }
+
+    /**
+     * Annotates a new connection.
+     */
+    public void connectionOpened()
+    {
+        this.opened.increment();
+    }
+
+    /**
+     * Annotates a closed connection.
+     */
+    public void connectionClosed()
+    {
+        this.closed.increment();
+    }
+
+    /**
+     * Annotates a request has been received, and framed.
+     */
+    public void requestReceived()
+    {
+        this.received.increment();
+    }
+
+    /**
+     * Annotates a request has been answered.
+     */
+    public void requestAnswered()
+    {
+        this.answered.increment();
+    }
+
+    /**
+     * Annotates a request has been rejected by admission control, and answered as such.
+     */
+    public void requestRejected()
+    {
+        this.rejected.increment();
+    }
+
+    /**
+     * Annotates a malformed request, or expression within a batch.
+     */
+    public void malformed()
+    {
+        this.errors.increment();
+    }
+
+    /**
+     * Retrieves the latencies recorded so far for given stage.
+     * @param stage the stage.
+     * @return such latencies, in nanoseconds.
+     */
+    @NotNull
+    public LatencyHistogram getLatencies(@NotNull final Stage stage)
+    {
+        return this.latencies.get(stage).snapshot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getConnections()
+    {
+        return Math.max(0, this.opened.sum() - this.closed.sum());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInFlight()
+    {
+        return Math.max(0, this.received.sum() - this.answered.sum() - this.rejected.sum());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRequests()
+    {
+        return this.answered.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getErrors()
+    {
+        return this.errors.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRejected()
+    {
+        return this.rejected.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRejectedConnections()
+    {
+        return this.rejectedConnections.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public Map<String, Double> getLatencies()
+    {
+        @NotNull final Map<String, Double> result = new TreeMap<String, Double>();
+
+        for (@NotNull final Stage stage : Stage.values())
+        {
+            @NotNull final LatencyHistogram histogram = getLatencies(stage);
+
+            @NotNull final String prefix = stage.name().toLowerCase(Locale.US) + ".";
+
+            result.put(prefix + "count", (double) histogram.getCount());
+
+            for (final double percentile : PERCENTILES)
+            {
+                result.put(prefix + "p" + format(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+
+            result.put(prefix + "max", histogram.getMax() / 1000.0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Renders all metrics as text, one {@code name{labels} value} sample per line,
+     * as scraped by Prometheus and similar tools. Latencies are in seconds.
+     * @return such text.
+     */
+    @NotNull
+    public String render()
+    {
+        @NotNull final StringBuilder result = new StringBuilder();
+
+        result.append("# TYPE interpreter_connections gauge\n");
+        result.append("interpreter_connections ").append(getConnections()).append('\n');
+        result.append("# TYPE interpreter_in_flight gauge\n");
+        result.append("interpreter_in_flight ").append(getInFlight()).append('\n');
+        result.append("# TYPE interpreter_requests_total counter\n");
+        result.append("interpreter_requests_total ").append(getRequests()).append('\n');
+        result.append("# TYPE interpreter_errors_total counter\n");
+        result.append("interpreter_errors_total ").append(getErrors()).append('\n');
+        result.append("# TYPE interpreter_rejected_total counter\n");
+        result.append("interpreter_rejected_total ").append(getRejected()).append('\n');
+        result.append("# TYPE interpreter_rejected_connections_total counter\n");
+        result.append("interpreter_rejected_connections_total ").append(getRejectedConnections()).append('\n');
+        result.append("# TYPE interpreter_stage_seconds summary\n");
+
+        for (@NotNull final Stage stage : Stage.values())
+        {
+            @NotNull final LatencyHistogram histogram = getLatencies(stage);
+
+            @NotNull final String stageName = stage.name().toLowerCase(Locale.US);
+
+            for (final double percentile : PERCENTILES)
+            {
+                result
+                    .append("interpreter_stage_seconds{stage=\"").append(stageName)
+                    .append("\",quantile=\"").append(percentile / 100).append("\"} ")
+                    .append(seconds(histogram.getValueAtPercentile(percentile))).append('\n');
+            }
+
+            result
+                .append("interpreter_stage_seconds_sum{stage=\"").append(stageName).append("\"} ")
+                .append(seconds((long) (histogram.getMean() * histogram.getCount()))).append('\n');
+            result
+                .append("interpreter_stage_seconds_count{stage=\"").append(stageName).append("\"} ")
+                .append(histogram.getCount()).append('\n');
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Registers these metrics in the platform's MBean server, named after given port.
+     * @param port the port of the server.
+     * @return the name they got.
+     * @throws JMException if they cannot be registered, i.e. if some other
+     * MBean, such as another server's metrics, already took such name.
+     */
+    @NotNull
+    public ObjectName register(final int port)
+        throws JMException
+    {
+        @NotNull final ObjectName result = new ObjectName(JMX_DOMAIN + ":type=InterpreterMetrics,port=" + port);
+
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, result);
+
+        return result;
+    }
+
+    /**
+     * Unregisters the metrics registered with given name.
+     * @param name the name, as returned by {@link #register(int)}.
+     */
+    public void unregister(@NotNull final ObjectName name)
+    {
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+        catch (@NotNull final JMException alreadyGone)
+        {
+            // nothing to do.
+        }
+    }
+
+    /**
+     * Formats given percentile for metric names, i.e. {@code 99.9} as {@code 99.9} and {@code 50} as {@code 50}.
+     * @param percentile the percentile.
+     * @return the formatted value.
+     */
+    @NotNull
+    protected String format(final double percentile)
+    {
+        return (percentile == Math.rint(percentile)) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    /**
+     * Converts given nanoseconds into seconds.
+     * @param nanos the nanoseconds.
+     * @return the seconds.
+     */
+    protected double seconds(final long nanos)
+    {
+        return nanos / 1e9;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: InterpreterMetricsMXBean.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: JMX view of InterpreterMetrics.
+ *
+ * Date: 2026/10/17
+ * Time: 12:45
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Map;
+
+/**
+ * JMX view of {@link InterpreterMetrics}.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 12:45
+ */
+public interface InterpreterMetricsMXBean
+{
+    /**
+     * Retrieves the number of open connections.
+     * @return such number.
+     */
+    long getConnections();
+
+    /**
+     * Retrieves the number of requests received but not answered yet.
+     * @return such number.
+     */
+    long getInFlight();
+
+    /**
+     * Retrieves the number of requests answered.
+     * @return such number.
+     */
+    long getRequests();
+
+    /**
+     * Retrieves the number of malformed requests.
+     * @return such number.
+     */
+    long getErrors();
+
+    /**
+     * Retrieves the number of requests rejected by admission control.
+     * @return such number.
+     */
+    long getRejected();
+
+    /**
+     * Retrieves the number of connections rejected by admission control.
+     * @return such number.
+     */
+    long getRejectedConnections();
+
+    /**
+     * Retrieves the latency percentiles of each stage, in microseconds, keyed
+     * by stage and statistic, i.e. {@code parse.p99}.
+     * @return such percentiles.
+     */
+    @NotNull
+    Map<String, Double> getLatencies();
+}
@@ -39,13 +39,21 @@ package org.acmsl.katas.antlr4netty;
  * Importing Netty classes.
  */
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 
@@ -53,6 +61,7 @@ import io.netty.util.concurrent.GenericFutureListener;
  * Importing JetBrains annotations.
  */
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /*
  * Importing checkthread.org annotations.
@@ -62,12 +71,22 @@ import org.checkthread.annotations.ThreadSafe;
 /*
  * Importing JDK classes.
  */
+import java.net.InetAddress;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * Netty-based server to perform simple calculations.
+ * Each connection speaks either the line-based text protocol, or the
+ * {@link BinaryProtocol binary protocol}, as chosen by a {@link ProtocolSelector}.
+ * Unless disabled, per-stage latencies and counters are kept in
+ * {@link InterpreterMetrics}, exposed over JMX and, optionally, over
+ * HTTP on a local port.
  * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
  * @since 3.0
  * Created: 2014/07/16 08:05
@@ -76,30 +95,259 @@ import java.util.concurrent.TimeoutException;
 public class InterpreterServer
 {
     /**
-     * Creates a new instance.
+     * The maximum length of a single expression, in bytes.
+     */
+    public static final int MAX_FRAME_LENGTH = 8192;
+
+    /**
+     * The settings.
+     */
+    @NotNull
+    private final ServerSettings settings;
+
+    /**
+     * The cache of responses, if any.
+     */
+    @Nullable
+    private final ResultCache cache;
+
+    /**
+     * The prepared expressions, if enabled.
+     */
+    @Nullable
+    private final PreparedExpressions prepared;
+
+    /**
+     * The coalescer of identical expressions in flight, if enabled.
+     */
+    @Nullable
+    private final RequestCoalescer coalescer;
+
+    /**
+     * The named accumulators, if enabled.
+     */
+    @Nullable
+    private final Accumulators accumulators;
+
+    /**
+     * The transport.
+     */
+    @NotNull
+    private final ServerTransport transport;
+
+    /**
+     * The metrics, if any.
+     */
+    @Nullable
+    private final InterpreterMetrics metrics;
+
+    /**
+     * The admission control, if any.
+     */
+    @Nullable
+    private final AdmissionController admission;
+
+    /**
+     * Creates a new instance, with default settings.
      */
     public InterpreterServer()
     {
+        this(new ServerSettings());
+    }
+
+    /**
+     * Creates a new instance.
+     * @param settings the settings.
+     */
+    public InterpreterServer(@NotNull final ServerSettings settings)
+    {
+        this.settings = settings;
+        this.cache = buildCache(settings);
+        this.prepared = buildPrepared(settings);
+        this.coalescer = settings.isCoalescingEnabled() ? new RequestCoalescer() : null;
+        this.accumulators =
+            (settings.getAccumulatorsCapacity() > 0) ? new Accumulators(settings.getAccumulatorsCapacity()) : null;
+        this.transport = ServerTransport.select(settings.isNativeTransport());
+        this.metrics = settings.isMetricsEnabled() ? new InterpreterMetrics() : null;
+        this.admission = buildAdmission(settings);
+    }
+
+    /**
+     * Retrieves the settings.
+     * @return such settings.
+     */
+    @NotNull
+    public ServerSettings getSettings()
+    {
+        return this.settings;
+    }
+
+    /**
+     * Retrieves the transport, according to {@link ServerSettings#isNativeTransport()}
+     * and the platform.
+     * @return such transport.
+     */
+    @NotNull
+    public ServerTransport getTransport()
+    {
+        return this.transport;
+    }
+
+    /**
+     * Describes how the server runs, for its startup report, including the
+     * settings it cannot honor on this platform, and ignores.
+     * @return such description.
+     */
+    @NotNull
+    public String describe()
+    {
+        @NotNull final StringBuilder result = new StringBuilder();
+
+        @NotNull final ServerTransport serverTransport = getTransport();
+
+        result.append(serverTransport).append(" transport");
+
+        if (getSettings().isReusePort() && serverTransport.getReusePortOption() == null)
+        {
+            result.append(", SO_REUSEPORT not supported");
+        }
+
+        if (getSettings().getEvaluationThreads() > 0)
+        {
+            result.append(", ").append(getSettings().getEvaluationThreads()).append(" evaluation threads");
+
+            if (getSettings().isVirtualThreads() && buildVirtualThreadFactory() == null)
+            {
+                result.append(", virtual threads not supported");
+            }
+            else if (getSettings().isVirtualThreads())
+            {
+                result.append(" (virtual)");
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Retrieves the cache of responses, shared by all connections.
+     * @return such cache, or {@code null} if there's none.
+     */
+    @Nullable
+    public ResultCache getCache()
+    {
+        return this.cache;
+    }
+
+    /**
+     * Retrieves the prepared expressions, shared by all connections.
+     * @return such registry, or {@code null} if expressions cannot be prepared.
+     */
+    @Nullable
+    public PreparedExpressions getPrepared()
+    {
+        return this.prepared;
+    }
+
+    /**
+     * Retrieves the coalescer of identical expressions in flight, shared by all connections.
+     * @return such coalescer, or {@code null} if each expression is evaluated on its own.
+     */
+    @Nullable
+    public RequestCoalescer getCoalescer()
+    {
+        return this.coalescer;
+    }
+
+    /**
+     * Retrieves the named accumulators, shared by all connections.
+     * @return such registry, or {@code null} if there are no accumulators.
+     */
+    @Nullable
+    public Accumulators getAccumulators()
+    {
+        return this.accumulators;
+    }
+
+    /**
+     * Retrieves the admission control, shared by all connections.
+     * @return such control, or {@code null} if there's none.
+     */
+    @Nullable
+    public AdmissionController getAdmission()
+    {
+        return this.admission;
+    }
+
+    /**
+     * Retrieves the metrics, shared by all connections.
+     * @return such metrics, or {@code null} if they're disabled.
+     */
+    @Nullable
+    public InterpreterMetrics getMetrics()
+    {
+        return this.metrics;
     }
 
     /**
      * Launches the server to accept incoming requests on given port.
+     * Connections are persistent: each one carries any number of
+     * newline-delimited expressions, and responses are written back
+     * in the same order. If {@link ServerSettings#getEvaluationThreads()} is
+     * positive, expressions are evaluated off the I/O threads, each connection
+     * sticking to one evaluation thread so its responses keep their order.
+     * Reading from a connection gets suspended while its responses pile up
+     * above the write-buffer watermarks, or it has too many unanswered requests
+     * (see {@link BackpressureHandler}). With admission control, connections
+     * above the limit get closed right away, and requests above the limit get
+     * a "busy" response instead of being evaluated (see {@link AdmissionController}).
+     * Metrics, if enabled, are registered over JMX and served over HTTP
+     * while the server is up; failing to bind the HTTP port fails the startup.
      * @param port the port.
      * @return the {@link ChannelFuture} when the server stops accepting connections.
+     * @throws IllegalArgumentException if the low write-buffer watermark is above the high one.
      */
     @NotNull
     public ChannelFuture listen(final int port)
     {
         @NotNull final ChannelFuture result;
 
-        @NotNull final NioEventLoopGroup bossGroup = new NioEventLoopGroup();
-        @NotNull final NioEventLoopGroup workerGroup = new NioEventLoopGroup();
+        @NotNull final ServerSettings settings = getSettings();
+
+        if (settings.getWriteBufferLowWaterMark() > settings.getWriteBufferHighWaterMark())
+        {
+            throw new IllegalArgumentException(
+                "Low write-buffer watermark " + settings.getWriteBufferLowWaterMark()
+                + " above the high one " + settings.getWriteBufferHighWaterMark());
+        }
+
+        @NotNull final ServerTransport transport = getTransport();
+
+        @NotNull final EventLoopGroup bossGroup = transport.newEventLoopGroup(settings.getBossThreads());
+        @NotNull final EventLoopGroup workerGroup = transport.newEventLoopGroup(settings.getWorkerThreads());
+
+        @Nullable final EventExecutorGroup evaluationGroup = buildEvaluationGroup(settings);
+
+        @Nullable final InterpreterMetrics metrics = getMetrics();
+
+        @Nullable final AdmissionController admission = getAdmission();
+
+        @NotNull final InterpreterServerChannelHandler handler =
+            new InterpreterServerChannelHandler(
+                new Interpreter(true, true, ParseStrategy.SLL_THEN_LL, metrics, buildJit(settings)),
+                getCache(),
+                getPrepared(),
+                getCoalescer(),
+                getAccumulators());
+
+        @NotNull final BinaryInterpreterServerChannelHandler binaryHandler =
+            new BinaryInterpreterServerChannelHandler(metrics);
 
         ServerBootstrap bootstrap = new ServerBootstrap();
 
         bootstrap
             .group(bossGroup, workerGroup)
-            .channel(NioServerSocketChannel.class)
+            .channel(transport.getServerChannelClass())
             .childHandler(
                 new ChannelInitializer<SocketChannel>()
                 {
@@ -110,14 +358,305 @@ public class InterpreterServer
                     protected void initChannel(@NotNull final SocketChannel ch)
                         throws Exception
                     {
-                        ch.pipeline().addLast(new InterpreterServerChannelHandler());
+                        if (admission != null && !admit(ch, admission, metrics))
+                        {
+                            return;
+                        }
+
+                        configureWatermarks(ch.config(), settings);
+
+                        ch.pipeline().addLast(
+                            new ProtocolSelector(
+                                handler,
+                                binaryHandler,
+                                evaluationGroup,
+                                metrics,
+                                settings.getMaxInFlight(),
+                                admission));
+
+                        if (metrics != null)
+                        {
+                            metrics.connectionOpened();
+
+                            ch.closeFuture().addListener(
+                                new ChannelFutureListener()
+                                {
+                                    /**
+                                     * {@inheritDoc}
+                                     */
+                                    @Override
+                                    public void operationComplete(@NotNull final ChannelFuture future)
+                                    {
+                                        metrics.connectionClosed();
+                                    }
+                                });
+                        }
                     }
                 })
-            .option(ChannelOption.SO_BACKLOG, 128)
+            .option(ChannelOption.SO_BACKLOG, settings.getBacklog())
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
-            .childOption(ChannelOption.SO_KEEPALIVE, true);
+            .childOption(ChannelOption.SO_KEEPALIVE, true)
+            .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .childOption(ChannelOption.TCP_NODELAY, settings.isTcpNoDelay());
 
-        result = wrap(bootstrap.bind(port), bossGroup, workerGroup);
+        if (settings.getReceiveBufferSize() > 0)
+        {
+            bootstrap.childOption(ChannelOption.SO_RCVBUF, settings.getReceiveBufferSize());
+        }
+
+        if (settings.getSendBufferSize() > 0)
+        {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, settings.getSendBufferSize());
+        }
+
+        if (settings.isReusePort())
+        {
+            @Nullable final ChannelOption<Boolean> reusePort = transport.getReusePortOption();
+
+            // otherwise, it's ignored, as reported by describe().
+            if (reusePort != null)
+            {
+                bootstrap.option(reusePort, true);
+            }
+        }
+
+        @NotNull ChannelFuture bound = bootstrap.bind(port);
+
+        if (metrics != null)
+        {
+            bound = exposeMetrics(metrics, port, bound, bossGroup, workerGroup);
+        }
+
+        result = wrap(bound, bossGroup, workerGroup, evaluationGroup);
+
+        return result;
+    }
+
+    /**
+     * Admits given connection, or closes it if there are too many.
+     * @param channel the connection.
+     * @param admission the admission control.
+     * @param metrics where to annotate rejections, if anywhere.
+     * @return {@code true} if admitted.
+     */
+    protected static boolean admit(
+        @NotNull final Channel channel,
+        @NotNull final AdmissionController admission,
+        @Nullable final InterpreterMetrics metrics)
+    {
+        final boolean result = admission.tryOpenConnection();
+
+        if (result)
+        {
+            channel.closeFuture().addListener(
+                new ChannelFutureListener()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public void operationComplete(@NotNull final ChannelFuture future)
+                    {
+                        admission.connectionClosed();
+                    }
+                });
+        }
+        else
+        {
+            if (metrics != null)
+            {
+                metrics.connectionRejected();
+            }
+
+            channel.close();
+        }
+
+        return result;
+    }
+
+    /**
+     * Sets the write-buffer watermarks of a connection, in the order that keeps
+     * the low one below the high one at all times, as Netty requires.
+     * @param config the configuration of the connection.
+     * @param settings the settings.
+     */
+    protected static void configureWatermarks(
+        @NotNull final ChannelConfig config, @NotNull final ServerSettings settings)
+    {
+        final int high = settings.getWriteBufferHighWaterMark();
+        final int low = settings.getWriteBufferLowWaterMark();
+
+        if (high >= config.getWriteBufferLowWaterMark())
+        {
+            config.setWriteBufferHighWaterMark(high);
+            config.setWriteBufferLowWaterMark(low);
+        }
+        else
+        {
+            config.setWriteBufferLowWaterMark(low);
+            config.setWriteBufferHighWaterMark(high);
+        }
+    }
+
+    /**
+     * Exposes given metrics over JMX and HTTP, as configured, until the server channel closes.
+     * @param metrics the metrics.
+     * @param port the port of the server.
+     * @param bound the binding of the server channel.
+     * @param bossGroup the boss group.
+     * @param workerGroup the worker group.
+     * @return the binding of both the server channel and the HTTP one, if any:
+     * if the latter fails, or the metrics cannot be registered over JMX, so does
+     * the startup, closing the server channel.
+     */
+    @NotNull
+    protected ChannelFuture exposeMetrics(
+        @NotNull final InterpreterMetrics metrics,
+        final int port,
+        @NotNull final ChannelFuture bound,
+        @NotNull final EventLoopGroup bossGroup,
+        @NotNull final EventLoopGroup workerGroup)
+    {
+        @NotNull final ChannelFuture result;
+
+        @NotNull final ServerSettings settings = getSettings();
+
+        @NotNull final Channel serverChannel = bound.channel();
+
+        @Nullable ObjectName registered = null;
+
+        @Nullable ChannelFuture registrationFailed = null;
+
+        if (settings.isMetricsJmx())
+        {
+            try
+            {
+                registered = metrics.register(port);
+            }
+            catch (@NotNull final JMException cannotRegister)
+            {
+                // i.e. another server in this JVM already exposes its metrics under such port.
+                registrationFailed = serverChannel.newFailedFuture(cannotRegister);
+            }
+        }
+
+        @Nullable final ObjectName jmxName = registered;
+
+        @Nullable final Channel httpChannel;
+
+        if (registrationFailed != null)
+        {
+            httpChannel = null;
+            result = bothBound(bound, registrationFailed);
+        }
+        else if (settings.getMetricsPort() > 0)
+        {
+            @NotNull final ChannelFuture httpBound =
+                new ServerBootstrap()
+                    .group(bossGroup, workerGroup)
+                    .channel(getTransport().getServerChannelClass())
+                    .childHandler(
+                        new ChannelInitializer<SocketChannel>()
+                        {
+                            /**
+                             * {@inheritDoc}
+                             */
+                            @Override
+                            protected void initChannel(@NotNull final SocketChannel ch)
+                                throws Exception
+                            {
+                                ch.pipeline()
+                                    .addLast(new HttpServerCodec())
+                                    .addLast(new HttpObjectAggregator(MAX_FRAME_LENGTH))
+                                    .addLast(new MetricsHttpHandler(metrics));
+                            }
+                        })
+                    .bind(InetAddress.getLoopbackAddress(), settings.getMetricsPort());
+
+            httpChannel = httpBound.channel();
+
+            result = bothBound(bound, httpBound);
+        }
+        else
+        {
+            httpChannel = null;
+            result = bound;
+        }
+
+        serverChannel.closeFuture().addListener(
+            new ChannelFutureListener()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void operationComplete(@NotNull final ChannelFuture future)
+                {
+                    if (httpChannel != null)
+                    {
+                        httpChannel.close();
+                    }
+
+                    if (jmxName != null)
+                    {
+                        metrics.unregister(jmxName);
+                    }
+                }
+            });
+
+        return result;
+    }
+
+    /**
+     * Joins the binding of the server channel with the binding of another one.
+     * @param bound the binding of the server channel.
+     * @param otherBound the other binding.
+     * @return the future succeeding once both do, or failing with the first failure,
+     * in which case the server channel gets closed.
+     */
+    @NotNull
+    protected ChannelFuture bothBound(@NotNull final ChannelFuture bound, @NotNull final ChannelFuture otherBound)
+    {
+        @NotNull final ChannelPromise result = bound.channel().newPromise();
+
+        bound.addListener(
+            new ChannelFutureListener()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void operationComplete(@NotNull final ChannelFuture future)
+                {
+                    if (!future.isSuccess())
+                    {
+                        result.setFailure(future.cause());
+                    }
+                    else
+                    {
+                        otherBound.addListener(
+                            new ChannelFutureListener()
+                            {
+                                /**
+                                 * {@inheritDoc}
+                                 */
+                                @Override
+                                public void operationComplete(@NotNull final ChannelFuture other)
+                                {
+                                    if (other.isSuccess())
+                                    {
+                                        result.setSuccess();
+                                    }
+                                    else
+                                    {
+                                        result.setFailure(other.cause());
+                                        bound.channel().close();
+                                    }
+                                }
+                            });
+                    }
+                }
+            });
 
         return result;
     }
@@ -128,13 +667,15 @@ public class InterpreterServer
      * @param target the original channel future.
      * @param bossGroup the boss group.
      * @param workerGroup the worker group.
+     * @param evaluationGroup the evaluation group, if any.
      * @return the wrapped future.
      */
     @NotNull
     protected ChannelFuture wrap(
         @NotNull final ChannelFuture target,
-        @NotNull final NioEventLoopGroup bossGroup,
-        @NotNull final NioEventLoopGroup workerGroup)
+        @NotNull final EventLoopGroup bossGroup,
+        @NotNull final EventLoopGroup workerGroup,
+        @Nullable final EventExecutorGroup evaluationGroup)
     {
         return
             new ChannelFuture()
@@ -200,6 +741,10 @@ public class InterpreterServer
                     }
                     finally
                     {
+                        if (evaluationGroup != null)
+                        {
+                            evaluationGroup.shutdownGracefully();
+                        }
                         workerGroup.shutdownGracefully();
                         bossGroup.shutdownGracefully();
                     }
@@ -363,13 +908,19 @@ public class InterpreterServer
 
     /**
      * Runs the interpreter from the command line.
-     * @param args the arguments.
+     * @param args the arguments: the port, followed by any {@code --name=value}
+     * option overriding {@code kata.name} system properties (see {@link ServerSettings}).
      */
     public static void main(@NotNull final String[] args)
     {
         final int port = Integer.parseInt(args[0]);
 
-        @NotNull ChannelFuture future = new InterpreterServer().listen(port);
+        @NotNull final InterpreterServer server =
+            new InterpreterServer(ServerSettings.fromArguments(Arrays.copyOfRange(args, 1, args.length)));
+
+        System.out.println("Listening on port " + port + " (" + server.describe() + ")");
+
+        @NotNull ChannelFuture future = server.listen(port);
 
         try
         {
@@ -384,4 +935,169 @@ public class InterpreterServer
             System.err.println("Error: " + interrupted.getMessage());
         }
     }
+
+    /**
+     * Builds the result cache, according to given settings.
+     * @param settings the settings.
+     * @return the cache, or {@code null} if it's disabled.
+     */
+    @Nullable
+    protected static ResultCache buildCache(@NotNull final ServerSettings settings)
+    {
+        @Nullable final ResultCache result;
+
+        if (settings.getCacheCapacity() > 0)
+        {
+            result =
+                new ResultCache(
+                    settings.getCacheCapacity(), settings.getCacheEviction(), ResultCache.DEFAULT_STRIPES);
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the registry of prepared expressions, according to given settings.
+     * @param settings the settings.
+     * @return the registry, or {@code null} if it's disabled.
+     */
+    @Nullable
+    protected static PreparedExpressions buildPrepared(@NotNull final ServerSettings settings)
+    {
+        @Nullable final PreparedExpressions result;
+
+        if (settings.getPreparedCapacity() > 0)
+        {
+            result = new PreparedExpressions(settings.getPreparedCapacity());
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the compiler of hot expression shapes, according to given settings.
+     * @param settings the settings.
+     * @return the compiler, or {@code null} if it's disabled.
+     */
+    @Nullable
+    protected static ExpressionJit buildJit(@NotNull final ServerSettings settings)
+    {
+        @Nullable final ExpressionJit result;
+
+        if (settings.getJitThreshold() > 0)
+        {
+            result = new ExpressionJit(settings.getJitThreshold(), settings.getJitCapacity());
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the admission control, according to given settings.
+     * @param settings the settings.
+     * @return the control, or {@code null} if there are no limits.
+     */
+    @Nullable
+    protected static AdmissionController buildAdmission(@NotNull final ServerSettings settings)
+    {
+        @Nullable final AdmissionController result;
+
+        if (settings.getAdmissionMaxConnections() > 0
+            || settings.getAdmissionMaxInFlight() > 0
+            || settings.getAdmissionTargetLatency() > 0)
+        {
+            result =
+                new AdmissionController(
+                    settings.getAdmissionMaxConnections(),
+                    settings.getAdmissionMaxInFlight(),
+                    TimeUnit.MICROSECONDS.toNanos(settings.getAdmissionTargetLatency()));
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the group evaluating expressions off the I/O threads, according to given settings.
+     * @param settings the settings.
+     * @return the group, or {@code null} if expressions are evaluated on the I/O threads.
+     */
+    @Nullable
+    protected EventExecutorGroup buildEvaluationGroup(@NotNull final ServerSettings settings)
+    {
+        @Nullable final EventExecutorGroup result;
+
+        if (settings.getEvaluationThreads() > 0)
+        {
+            result =
+                new DefaultEventExecutorGroup(
+                    settings.getEvaluationThreads(), buildEvaluationThreadFactory(settings.isVirtualThreads()));
+        }
+        else
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the factory of evaluation threads. Either way, they back a fixed-size
+     * group, each connection sticking to one of them; virtual ones just don't
+     * take a platform thread while they're idle.
+     * @param virtual whether to create virtual threads, if the JVM supports them;
+     * otherwise, platform threads are created instead, as reported by {@link #describe()}.
+     * @return the thread factory.
+     */
+    @NotNull
+    protected ThreadFactory buildEvaluationThreadFactory(final boolean virtual)
+    {
+        @Nullable ThreadFactory result = virtual ? buildVirtualThreadFactory() : null;
+
+        if (result == null)
+        {
+            result = new DefaultThreadFactory("interpreter-evaluation");
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds a factory of virtual threads.
+     * @return such factory, or {@code null} if the JVM doesn't support them.
+     */
+    @Nullable
+    protected static ThreadFactory buildVirtualThreadFactory()
+    {
+        @Nullable ThreadFactory result;
+
+        try
+        {
+            // Thread.ofVirtual().factory(), only available since Java 21.
+            @NotNull final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+            result = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        }
+        catch (@NotNull final ReflectiveOperationException unsupported)
+        {
+            result = null;
+        }
+
+        return result;
+    }
 }
@@ -39,31 +39,70 @@ package org.acmsl.katas.antlr4netty;
  * Importing Netty classes.
  */
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
-import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 /*
  * Importing JetBrains annotations.
  */
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /*
  * Importing checkthread.org annotations.
  */
+import org.checkthread.annotations.NotThreadSafe;
 import org.checkthread.annotations.ThreadSafe;
 
 /*
  * Importing JDK classes.
  */
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
 
 /**
  * Gets spawned on incoming connections and calculates the input.
+ * Expects each inbound message to be a single expression, already framed
+ * (i.e. by a {@link io.netty.handler.codec.LineBasedFrameDecoder}), and
+ * keeps the connection open so clients can pipeline requests.
+ * Malformed expressions get {@link #ERROR_RESPONSE} back.
+ * A frame can also carry a batch of expressions separated by
+ * {@link #BATCH_SEPARATOR}, answered with a single line holding all the
+ * results, in order, separated the same way.
+ * Expressions can be prepared once, with {@code prepare <expression>}, and
+ * then evaluated many times, with {@code execute <handle> <argument>...},
+ * binding its {@code ?} parameters to the arguments, in order. Prepare
+ * responds with the handle; executing an unknown or evicted handle gets
+ * {@link #UNPREPARED_RESPONSE} back.
+ * Each connection is a session: {@code name = <expression>} stores the outcome
+ * under given name, and later expressions (including prepared ones, when executed)
+ * can refer to it, until the connection gets closed.
+ * {@code stream [N]} turns the connection into a stream: from then on, a
+ * {@link StreamingChannelHandler} folds each input into a running aggregate
+ * instead of answering it, sending snapshots on demand, or every {@code N} inputs.
+ * Server-wide named {@link Accumulators} get updated with {@code add <name> <expression>},
+ * which responds with the outcome of the expression, and read with {@code sum <name>}.
+ * With a {@link RequestCoalescer}, requests joining the evaluation of the same
+ * expression already in flight get its response once it completes, without blocking
+ * the event loop meanwhile; later responses on the same connection are held back
+ * until then, so they keep the order of their requests.
+ * Responses are written straight into buffers from the channel's allocator,
+ * using a {@link DigitWriter}, so that answering integer expressions
+ * generates no garbage once the pool is warm.
  * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
  * @since 3.0
  * Created: 2014/07/17 07:22
@@ -73,65 +112,1452 @@ import java.math.BigDecimal;
 public class InterpreterServerChannelHandler
     extends ChannelHandlerAdapter
 {
+    /**
+     * The result of malformed expressions.
+     */
+    @NotNull
+    public static final String ERROR_RESULT = "error";
+
+    /**
+     * The response to malformed expressions.
+     */
+    @NotNull
+    public static final String ERROR_RESPONSE = ERROR_RESULT + "\n";
+
+    /**
+     * The response to expressions rejected because the server is overloaded.
+     */
+    @NotNull
+    public static final String BUSY_RESPONSE = "busy\n";
+
+    /**
+     * The result of executing expressions not prepared, or already evicted.
+     */
+    @NotNull
+    public static final String UNPREPARED_RESULT = "unprepared";
+
+    /**
+     * The response to executing expressions not prepared, or already evicted.
+     */
+    @NotNull
+    public static final String UNPREPARED_RESPONSE = UNPREPARED_RESULT + "\n";
+
+    /**
+     * The command preparing an expression.
+     */
+    @NotNull
+    public static final String PREPARE_COMMAND = "prepare";
+
+    /**
+     * The command executing a prepared expression.
+     */
+    @NotNull
+    public static final String EXECUTE_COMMAND = "execute";
+
+    /**
+     * The command adding the outcome of an expression to an accumulator.
+     */
+    @NotNull
+    public static final String ADD_COMMAND = "add";
+
+    /**
+     * The command reading the total of an accumulator.
+     */
+    @NotNull
+    public static final String SUM_COMMAND = "sum";
+
+    /**
+     * The command starting a stream.
+     */
+    @NotNull
+    public static final String STREAM_COMMAND = "stream";
+
+    /**
+     * The name of the {@link StreamingChannelHandler} in the pipeline.
+     */
+    @NotNull
+    public static final String STREAMING = "streaming";
+
+    /**
+     * The response to {@link #STREAM_COMMAND}.
+     */
+    @NotNull
+    public static final String STREAMING_RESPONSE = STREAMING + "\n";
+
+    /**
+     * The separator of expressions, and of their results, in batch frames.
+     */
+    public static final char BATCH_SEPARATOR = ';';
+
+    /**
+     * The bytes of {@link #ERROR_RESPONSE}, shared by all connections.
+     */
+    @NotNull
+    protected static final ByteBuf ERROR_BUFFER =
+        Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(ERROR_RESPONSE, CharsetUtil.US_ASCII));
+
+    /**
+     * The bytes of {@link #BUSY_RESPONSE}, shared by all connections.
+     */
+    @NotNull
+    protected static final ByteBuf BUSY_BUFFER =
+        Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(BUSY_RESPONSE, CharsetUtil.US_ASCII));
+
+    /**
+     * The bytes of {@link #UNPREPARED_RESPONSE}, shared by all connections.
+     */
+    @NotNull
+    protected static final ByteBuf UNPREPARED_BUFFER =
+        Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(UNPREPARED_RESPONSE, CharsetUtil.US_ASCII));
+
+    /**
+     * The key of the variables of the session, in the channel's attributes.
+     */
+    @NotNull
+    protected static final AttributeKey<Environment> SESSION =
+        AttributeKey.valueOf(InterpreterServerChannelHandler.class, "session");
+
+    /**
+     * The bytes of {@link #STREAMING_RESPONSE}, shared by all connections.
+     */
+    @NotNull
+    protected static final ByteBuf STREAMING_BUFFER =
+        Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(STREAMING_RESPONSE, CharsetUtil.US_ASCII));
+
+    /**
+     * The key of the responses held back behind coalesced ones, in the channel's attributes.
+     */
+    @NotNull
+    protected static final AttributeKey<ResponseQueue> PENDING =
+        AttributeKey.valueOf(InterpreterServerChannelHandler.class, "pending");
+
+    /**
+     * The maximum number of digits of the snapshot interval of streams, so it fits in an {@code int}.
+     */
+    protected static final int MAX_INTERVAL_DIGITS = 9;
+
+    /**
+     * The maximum number of digits of a handle, so it fits in a {@code long}.
+     */
+    protected static final int MAX_HANDLE_DIGITS = 18;
+
+    /**
+     * The initial capacity of response buffers, enough for any {@code long}
+     * and the line terminator.
+     */
+    protected static final int RESPONSE_CAPACITY = 24;
+
+    /**
+     * The writer of outcomes.
+     */
+    @NotNull
+    protected static final DigitWriter DIGITS = new DigitWriter();
+
+    /**
+     * The value holding each thread's current outcome.
+     */
+    @NotNull
+    protected static final ThreadLocal<NumericValue> RESULTS =
+        new ThreadLocal<NumericValue>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @NotNull
+            @Override
+            protected NumericValue initialValue()
+            {
+                return new NumericValue();
+            }
+        };
+
+    /**
+     * The interpreter, shared by all connections since it's thread-safe.
+     */
+    @NotNull
+    private final Interpreter interpreter;
+
+    /**
+     * The cache of responses, if any.
+     */
+    @Nullable
+    private final ResultCache cache;
+
+    /**
+     * The prepared expressions, if enabled.
+     */
+    @Nullable
+    private final PreparedExpressions prepared;
+
+    /**
+     * The coalescer of identical expressions in flight, if enabled.
+     */
+    @Nullable
+    private final RequestCoalescer coalescer;
+
+    /**
+     * The accumulators, if any.
+     */
+    @Nullable
+    private final Accumulators accumulators;
+
+    /**
+     * Creates a new handler.
+     */
+    public InterpreterServerChannelHandler()
+    {
+        this(new Interpreter());
+    }
+
+    /**
+     * Creates a new handler using given interpreter.
+     * @param interpreter the interpreter.
+     */
+    public InterpreterServerChannelHandler(@NotNull final Interpreter interpreter)
+    {
+        this(interpreter, null);
+    }
+
+    /**
+     * Creates a new handler using given interpreter and cache.
+     * @param interpreter the interpreter.
+     * @param cache the cache of responses, or {@code null} to evaluate every expression.
+     */
+    public InterpreterServerChannelHandler(
+        @NotNull final Interpreter interpreter, @Nullable final ResultCache cache)
+    {
+        this(interpreter, cache, null);
+    }
+
+    /**
+     * Creates a new handler using given interpreter, cache and prepared expressions.
+     * @param interpreter the interpreter.
+     * @param cache the cache of responses, or {@code null} to evaluate every expression.
+     * @param prepared the prepared expressions, or {@code null} to reject commands.
+     */
+    public InterpreterServerChannelHandler(
+        @NotNull final Interpreter interpreter,
+        @Nullable final ResultCache cache,
+        @Nullable final PreparedExpressions prepared)
+    {
+        this(interpreter, cache, prepared, null);
+    }
+
+    /**
+     * Creates a new handler using given interpreter, cache, prepared expressions and coalescer.
+     * @param interpreter the interpreter.
+     * @param cache the cache of responses, or {@code null} to evaluate every expression.
+     * @param prepared the prepared expressions, or {@code null} to reject commands.
+     * @param coalescer the coalescer of identical expressions in flight, or {@code null}
+     * to evaluate each one on its own.
+     */
+    public InterpreterServerChannelHandler(
+        @NotNull final Interpreter interpreter,
+        @Nullable final ResultCache cache,
+        @Nullable final PreparedExpressions prepared,
+        @Nullable final RequestCoalescer coalescer)
+    {
+        this(interpreter, cache, prepared, coalescer, null);
+    }
+
+    /**
+     * Creates a new handler using given interpreter, cache, prepared expressions,
+     * coalescer and accumulators.
+     * @param interpreter the interpreter.
+     * @param cache the cache of responses, or {@code null} to evaluate every expression.
+     * @param prepared the prepared expressions, or {@code null} to reject commands.
+     * @param coalescer the coalescer of identical expressions in flight, or {@code null}
+     * to evaluate each one on its own.
+     * @param accumulators the accumulators, or {@code null} to reject their commands.
+     */
+    public InterpreterServerChannelHandler(
+        @NotNull final Interpreter interpreter,
+        @Nullable final ResultCache cache,
+        @Nullable final PreparedExpressions prepared,
+        @Nullable final RequestCoalescer coalescer,
+        @Nullable final Accumulators accumulators)
+    {
+        this.interpreter = interpreter;
+        this.cache = cache;
+        this.prepared = prepared;
+        this.coalescer = coalescer;
+        this.accumulators = accumulators;
+    }
+
+    /**
+     * Retrieves the interpreter.
+     * @return such instance.
+     */
+    @NotNull
+    public Interpreter getInterpreter()
+    {
+        return this.interpreter;
+    }
+
+    /**
+     * Retrieves the cache of responses.
+     * @return such cache, or {@code null} if there's none.
+     */
+    @Nullable
+    public ResultCache getCache()
+    {
+        return this.cache;
+    }
+
+    /**
+     * Retrieves the prepared expressions.
+     * @return such registry, or {@code null} if commands are rejected.
+     */
+    @Nullable
+    public PreparedExpressions getPrepared()
+    {
+        return this.prepared;
+    }
+
+    /**
+     * Retrieves the coalescer of identical expressions in flight.
+     * @return such coalescer, or {@code null} if each expression is evaluated on its own.
+     */
+    @Nullable
+    public RequestCoalescer getCoalescer()
+    {
+        return this.coalescer;
+    }
+
+    /**
+     * Retrieves the accumulators.
+     * @return such registry, or {@code null} if their commands are rejected.
+     */
+    @Nullable
+    public Accumulators getAccumulators()
+    {
+        return this.accumulators;
+    }
+
     /**
      * {@inheritDoc}
+     * <p>Responses are written but not flushed: pipelined requests arriving
+     * in the same read get flushed together in {@link #channelReadComplete}.
+     * Writes use the channel's void promise, so write failures reach
+     * {@link #exceptionCaught} instead of allocating a future per response.</p>
      */
     @Override
     public void channelRead(
         @NotNull final ChannelHandlerContext ctx, @NotNull final Object msg)
         throws Exception
     {
-        @NotNull final String input;
-
         @NotNull final ByteBuf buffer = (ByteBuf) msg;
 
-        @NotNull final byte[] aux = new byte[buffer.readableBytes()];
+        @Nullable final InterpreterMetrics metrics = getInterpreter().getMetrics();
+
+        final long start = (metrics != null) ? System.nanoTime() : 0;
+
+        try
+        {
+            // blank lines carry no expression, and get no response.
+            if (isBatch(buffer))
+            {
+                write(ctx, respondBatch(ctx, buffer));
+            }
+            else if (isStream(buffer))
+            {
+                write(ctx, stream(ctx, buffer));
+            }
+            else if (!isBlank(buffer))
+            {
+                @Nullable final ByteBuf response = respond(ctx, buffer);
 
-        for (int index = 0; index < aux.length; index++)
+                // coalesced requests get answered once their evaluation completes.
+                if (response != null)
+                {
+                    write(ctx, response);
+                }
+            }
+        }
+        finally
         {
-            aux[index] = buffer.readByte();
+            ReferenceCountUtil.release(msg);
+
+            if (metrics != null)
+            {
+                metrics.recordSince(InterpreterMetrics.Stage.REQUEST, start);
+                metrics.requestAnswered();
+            }
         }
+    }
+
+    /**
+     * Starts streaming, installing a {@link StreamingChannelHandler} right before
+     * this handler, as {@link #STREAMING}.
+     * @param ctx the context.
+     * @param input the command: {@link #STREAM_COMMAND}, optionally followed by
+     * the number of inputs between snapshots.
+     * @return the response.
+     */
+    @NotNull
+    protected ByteBuf stream(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf input)
+    {
+        @NotNull final ByteBuf result;
+
+        final int end = input.writerIndex();
+
+        int position = skipWhitespace(input, input.readerIndex(), end) + STREAM_COMMAND.length();
+
+        position = skipWhitespace(input, position, end);
+
+        final int intervalStart = position;
 
-        ReferenceCountUtil.release(msg);
+        int interval = 0;
 
-        input = new String(aux, CharsetUtil.UTF_8);
+        while (position < end && isDigit(input.getByte(position)))
+        {
+            interval = interval * 10 + (input.getByte(position) - '0');
+            position++;
+        }
 
-        @NotNull final BigDecimal output = calculate(input);
+        if (   (position - intervalStart > MAX_INTERVAL_DIGITS)
+            || (skipWhitespace(input, position, end) < end))
+        {
+            result = errorResponse();
+        }
+        else
+        {
+            // in the same executor, so the handler keeps seeing each connection from one thread.
+            ctx.pipeline().addBefore(
+                ctx.executor(), ctx.name(), STREAMING, new StreamingChannelHandler(this, interval));
 
-        @NotNull final ByteBuf out = Unpooled.copiedBuffer(("" + output + "\n").getBytes(CharsetUtil.UTF_8));
+            result = STREAMING_BUFFER.duplicate();
+        }
 
-        ctx.writeAndFlush(out);
+        return result;
     }
 
     /**
-     * Performs the arithmetic calculations expressed in given input,
-     * according to Interpreter grammar.
-     * @param input the input.
-     * @return the outcome of the calculation.
+     * Builds the response to given expression, looking it up in the cache first, if any,
+     * and joining the evaluation of the same expression already in flight, if coalescing.
+     * Commands, and expressions involving variables, are neither cached nor coalesced,
+     * since their outcome depends on the session.
+     * @param ctx the context.
+     * @param input the expression.
+     * @return the response, or {@code null} if it joined an evaluation in flight,
+     * and gets written once that one completes (see {@link #follow}).
      */
-    @NotNull
-    public BigDecimal calculate(@NotNull final String input)
+    @Nullable
+    protected ByteBuf respond(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf input)
     {
-        return new Interpreter().eval(input);
+        @Nullable final ByteBuf result;
+
+        final boolean stateful = isStateful(input);
+
+        @Nullable final ResultCache resultCache = stateful ? null : getCache();
+
+        @Nullable final RequestCoalescer requestCoalescer = stateful ? null : getCoalescer();
+
+        @Nullable final ResultCache.Key key =
+            (resultCache != null || requestCoalescer != null) ? ResultCache.keyOf(input) : null;
+
+        @Nullable final byte[] cached = (resultCache != null) ? resultCache.get(key) : null;
+
+        if (cached != null)
+        {
+            result = ctx.alloc().ioBuffer(cached.length).writeBytes(cached);
+        }
+        else if (requestCoalescer != null)
+        {
+            @NotNull final RequestCoalescer.Evaluation evaluation = requestCoalescer.join(key);
+
+            if (evaluation.isLed())
+            {
+                @Nullable byte[] response = null;
+
+                try
+                {
+                    result = evaluate(ctx, input, key);
+
+                    response = new byte[result.readableBytes()];
+                    result.getBytes(result.readerIndex(), response);
+                }
+                finally
+                {
+                    requestCoalescer.complete(evaluation, response);
+                }
+            }
+            else
+            {
+                follow(ctx, input, key, evaluation);
+
+                result = null;
+            }
+        }
+        else
+        {
+            result = evaluate(ctx, input, key);
+        }
+
+        return result;
     }
 
     /**
-     * {@inheritDoc}
+     * Answers given expression with the response of the evaluation in flight it joined,
+     * once it completes, without blocking the current thread. Its place among the
+     * connection's responses is reserved right away, so later responses are held back
+     * until it's written.
+     * @param ctx the context.
+     * @param input the expression, retained until answered, in case the evaluation fails.
+     * @param key the expression's key.
+     * @param evaluation the evaluation in flight.
      */
-    @Override
-    public void channelReadComplete(final ChannelHandlerContext ctx) throws Exception
+    protected void follow(
+        @NotNull final ChannelHandlerContext ctx,
+        @NotNull final ByteBuf input,
+        @NotNull final ResultCache.Key key,
+        @NotNull final RequestCoalescer.Evaluation evaluation)
     {
-        ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        @NotNull final ResponseQueue queue = pending(ctx);
+
+        @NotNull final ResponseQueue.Slot slot = queue.reserve();
+
+        input.retain();
+
+        evaluation.listen(
+            new RequestCoalescer.Listener()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void completed(@Nullable final byte[] response)
+                {
+                    @NotNull final EventExecutor executor = ctx.executor();
+
+                    if (executor.inEventLoop())
+                    {
+                        answer(ctx, input, key, slot, response);
+                    }
+                    else
+                    {
+                        // the connection's state is confined to its own executor.
+                        executor.execute(
+                            new Runnable()
+                            {
+                                /**
+                                 * {@inheritDoc}
+                                 */
+                                @Override
+                                public void run()
+                                {
+                                    answer(ctx, input, key, slot, response);
+                                }
+                            });
+                    }
+                }
+            });
     }
 
     /**
-     * {@inheritDoc}
+     * Writes the response to an expression that joined an evaluation in flight,
+     * along with the responses held back behind it.
+     * @param ctx the context.
+     * @param input the expression, released once answered.
+     * @param key the expression's key.
+     * @param slot the place reserved for the response.
+     * @param response the response of the evaluation, or {@code null} if it failed,
+     * in which case the expression gets evaluated here.
      */
-    @Override
-    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause)
-        throws Exception
+    protected void answer(
+        @NotNull final ChannelHandlerContext ctx,
+        @NotNull final ByteBuf input,
+        @NotNull final ResultCache.Key key,
+        @NotNull final ResponseQueue.Slot slot,
+        @Nullable final byte[] response)
     {
-        cause.printStackTrace();
-        ctx.close();
+        try
+        {
+            slot.setResponse(
+                (response != null)
+                ? ctx.alloc().ioBuffer(response.length).writeBytes(response)
+                : evaluate(ctx, input, key));
+        }
+        finally
+        {
+            input.release();
+        }
+
+        pending(ctx).drain(ctx);
+        ctx.flush();
+    }
+
+    /**
+     * Writes given response, unless earlier ones on the same connection are
+     * still pending, in which case it's held back behind them.
+     * @param ctx the context.
+     * @param response the response.
+     */
+    protected void write(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf response)
+    {
+        // only coalescing holds responses back.
+        @Nullable final ResponseQueue queue = (getCoalescer() != null) ? ctx.channel().attr(PENDING).get() : null;
+
+        if (queue == null || queue.isEmpty())
+        {
+            ctx.write(response, ctx.voidPromise());
+        }
+        else
+        {
+            queue.reserve().setResponse(response);
+        }
+    }
+
+    /**
+     * Retrieves the responses of given context's connection held back behind
+     * coalesced ones, creating the queue the first time.
+     * @param ctx the context.
+     * @return the queue.
+     */
+    @NotNull
+    protected ResponseQueue pending(@NotNull final ChannelHandlerContext ctx)
+    {
+        @NotNull final Attribute<ResponseQueue> attribute = ctx.channel().attr(PENDING);
+
+        @Nullable ResponseQueue result = attribute.get();
+
+        if (result == null)
+        {
+            result = new ResponseQueue();
+            attribute.set(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the response to given expression by evaluating it, and caches it, if there's a cache.
+     * @param ctx the context.
+     * @param input the expression.
+     * @param key the expression's key, or {@code null} if it's not to be cached.
+     * @return the response.
+     */
+    @NotNull
+    protected ByteBuf evaluate(
+        @NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf input, @Nullable final ResultCache.Key key)
+    {
+        @NotNull final ByteBuf result;
+
+        @NotNull final NumericValue value = RESULTS.get();
+
+        @NotNull final Outcome outcome = tryProcess(input, isStateful(input) ? environment(ctx) : null, value);
+
+        if (outcome == Outcome.UNPREPARED)
+        {
+            result = UNPREPARED_BUFFER.duplicate();
+        }
+        else if (outcome == Outcome.ERROR)
+        {
+            result = errorResponse();
+        }
+        else
+        {
+            result = encode(ctx.alloc(), value);
+
+            @Nullable final ResultCache resultCache = getCache();
+
+            if (key != null && resultCache != null)
+            {
+                @NotNull final byte[] response = new byte[result.readableBytes()];
+                result.getBytes(result.readerIndex(), response);
+
+                resultCache.put(key, response);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given frame is a batch of expressions.
+     * @param input the frame.
+     * @return {@code true} in such case.
+     */
+    protected boolean isBatch(@NotNull final ByteBuf input)
+    {
+        return input.indexOf(input.readerIndex(), input.writerIndex(), (byte) BATCH_SEPARATOR) >= 0;
+    }
+
+    /**
+     * Builds the single response to a batch of expressions, evaluating them
+     * in a tight loop on the current thread's parser. Blank expressions
+     * are malformed, so results keep matching expressions by position.
+     * Batches are neither cached nor coalesced.
+     * @param ctx the context.
+     * @param input the batch.
+     * @return the response.
+     */
+    @NotNull
+    protected ByteBuf respondBatch(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf input)
+    {
+        @NotNull final ByteBuf result = ctx.alloc().ioBuffer();
+
+        @NotNull final NumericValue value = RESULTS.get();
+
+        @Nullable final Environment environment = isStateful(input) ? environment(ctx) : null;
+
+        final int end = input.writerIndex();
+
+        int start = input.readerIndex();
+
+        while (start <= end)
+        {
+            int separator = input.indexOf(start, end, (byte) BATCH_SEPARATOR);
+
+            if (separator < 0)
+            {
+                separator = end;
+            }
+
+            if (start > input.readerIndex())
+            {
+                result.writeByte(BATCH_SEPARATOR);
+            }
+
+            evaluateBatchItem(input.slice(start, separator - start), environment, value, result);
+
+            start = separator + 1;
+        }
+
+        result.writeByte('\n');
+
+        return result;
+    }
+
+    /**
+     * Evaluates an expression of a batch, writing its result.
+     * @param item the expression.
+     * @param environment the variables of the session, or {@code null} if the batch uses none.
+     * @param value the value to hold the outcome.
+     * @param output the buffer to write the result to.
+     */
+    protected void evaluateBatchItem(
+        @NotNull final ByteBuf item,
+        @Nullable final Environment environment,
+        @NotNull final NumericValue value,
+        @NotNull final ByteBuf output)
+    {
+        @NotNull final Outcome outcome = isBlank(item) ? Outcome.ERROR : tryProcess(item, environment, value);
+
+        if (outcome == Outcome.VALUE)
+        {
+            DIGITS.write(value, output);
+        }
+        else if (outcome == Outcome.UNPREPARED)
+        {
+            DIGITS.writeAscii(UNPREPARED_RESULT, output);
+        }
+        else
+        {
+            malformed();
+            DIGITS.writeAscii(ERROR_RESULT, output);
+        }
+    }
+
+    /**
+     * Evaluates given expression, or runs given command, telling how it went
+     * instead of throwing.
+     * @param input the expression or command.
+     * @param environment the variables of the session, or {@code null} if the input uses none.
+     * @param value the value to hold the outcome, if any.
+     * @return {@link Outcome#VALUE} if {@code value} holds the outcome.
+     */
+    @NotNull
+    protected Outcome tryProcess(
+        @NotNull final ByteBuf input, @Nullable final Environment environment, @NotNull final NumericValue value)
+    {
+        @NotNull Outcome result;
+
+        try
+        {
+            process(input, environment, value);
+            result = Outcome.VALUE;
+        }
+        catch (@NotNull final NoSuchElementException unknownHandle)
+        {
+            result = Outcome.UNPREPARED;
+        }
+        catch (@NotNull final ParseCancellationException malformed)
+        {
+            result = Outcome.ERROR;
+        }
+        catch (@NotNull final NumberFormatException malformed)
+        {
+            // ParseStrategy.LL recovers from errors, leaving tokens that are not numbers.
+            result = Outcome.ERROR;
+        }
+        catch (@NotNull final ArithmeticException divisionByZero)
+        {
+            result = Outcome.ERROR;
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates given expression, or runs given command.
+     * @param input the expression or command.
+     * @param environment the variables of the session, or {@code null} if the input uses none.
+     * @param value the value to hold the outcome.
+     * @return {@code value}, for convenience.
+     * @throws NoSuchElementException if the command executes an expression not prepared.
+     */
+    @NotNull
+    protected NumericValue process(
+        @NotNull final ByteBuf input, @Nullable final Environment environment, @NotNull final NumericValue value)
+    {
+        return isCommand(input) ? command(input, environment, value) : calculate(input, environment, value);
+    }
+
+    /**
+     * Retrieves the variables of the session of given context's connection,
+     * creating them the first time.
+     * @param ctx the context.
+     * @return the variables.
+     */
+    @NotNull
+    protected Environment environment(@NotNull final ChannelHandlerContext ctx)
+    {
+        @NotNull final Attribute<Environment> attribute = ctx.channel().attr(SESSION);
+
+        @Nullable Environment result = attribute.get();
+
+        if (result == null)
+        {
+            // connections are served by a single thread, so there's no race.
+            result = new Environment();
+            attribute.set(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given frame can depend on, or change, the session:
+     * it has names (variables, or command keywords) or assignments.
+     * @param input the frame.
+     * @return {@code true} in such case.
+     */
+    protected boolean isStateful(@NotNull final ByteBuf input)
+    {
+        boolean result = false;
+
+        for (int index = input.readerIndex(); !result && index < input.writerIndex(); index++)
+        {
+            final byte current = input.getByte(index);
+
+            result = isLetter(current) || current == '_' || current == '=';
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given frame is a command, rather than an expression:
+     * it starts with the {@link #PREPARE_COMMAND}, {@link #EXECUTE_COMMAND},
+     * {@link #ADD_COMMAND} or {@link #SUM_COMMAND} keyword, followed by what
+     * can start its argument: an expression, a handle, or a name, respectively.
+     * Otherwise, keywords are just variable names, as in {@code sum = 1 + 2}
+     * or {@code sum + 1}. A minus after {@link #PREPARE_COMMAND} starts its
+     * expression.
+     * @param input the frame.
+     * @return {@code true} in such case.
+     */
+    protected boolean isCommand(@NotNull final ByteBuf input)
+    {
+        final boolean result;
+
+        if (startsWith(input, PREPARE_COMMAND))
+        {
+            final int next = argument(input, PREPARE_COMMAND);
+
+            result = next >= 0 && next != '=' && next != '+' && next != '*' && next != '/' && next != ')';
+        }
+        else if (startsWith(input, EXECUTE_COMMAND))
+        {
+            result = isDigit((byte) argument(input, EXECUTE_COMMAND));
+        }
+        else if (startsWith(input, ADD_COMMAND))
+        {
+            result = isNameStart(argument(input, ADD_COMMAND));
+        }
+        else if (startsWith(input, SUM_COMMAND))
+        {
+            result = isNameStart(argument(input, SUM_COMMAND));
+        }
+        else
+        {
+            result = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given frame is the {@link #STREAM_COMMAND}: the keyword,
+     * alone or followed by a number. Otherwise, it's just a variable name,
+     * as in {@code stream = 4} or {@code stream + 1}.
+     * @param input the frame.
+     * @return {@code true} in such case.
+     */
+    protected boolean isStream(@NotNull final ByteBuf input)
+    {
+        final boolean result;
+
+        if (startsWith(input, STREAM_COMMAND))
+        {
+            final int next = argument(input, STREAM_COMMAND);
+
+            result = next < 0 || isDigit((byte) next);
+        }
+        else
+        {
+            result = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given frame is just given keyword, with no argument.
+     * @param input the frame.
+     * @param keyword the keyword.
+     * @return {@code true} in such case.
+     */
+    protected boolean isKeyword(@NotNull final ByteBuf input, @NotNull final String keyword)
+    {
+        return startsWith(input, keyword) && argument(input, keyword) < 0;
+    }
+
+    /**
+     * Retrieves the first character of the argument after given keyword.
+     * @param input the frame, starting with the keyword.
+     * @param keyword the keyword.
+     * @return such character, or {@code -1} if there's nothing after the keyword.
+     */
+    protected int argument(@NotNull final ByteBuf input, @NotNull final String keyword)
+    {
+        final int end = input.writerIndex();
+
+        final int position =
+            skipWhitespace(input, skipWhitespace(input, input.readerIndex(), end) + keyword.length(), end);
+
+        return (position < end) ? input.getByte(position) : -1;
+    }
+
+    /**
+     * Checks whether given character can start a name, as in the grammar's {@code IDENTIFIER}.
+     * @param current the character, or {@code -1} if there's none.
+     * @return {@code true} in such case.
+     */
+    protected static boolean isNameStart(final int current)
+    {
+        return current == '_' || (current >= 0 && isLetter((byte) current));
+    }
+
+    /**
+     * Checks whether given frame starts with given keyword, as a whole word.
+     * @param input the frame.
+     * @param keyword the keyword, in ASCII letters.
+     * @return {@code true} in such case.
+     */
+    protected boolean startsWith(@NotNull final ByteBuf input, @NotNull final String keyword)
+    {
+        final int end = input.writerIndex();
+
+        final int start = skipWhitespace(input, input.readerIndex(), end);
+
+        int position = start;
+
+        while (position < end && isLetter(input.getByte(position)))
+        {
+            position++;
+        }
+
+        return (position == end || isWhitespace(input.getByte(position))) && matches(input, start, position, keyword);
+    }
+
+    /**
+     * Runs given command: {@link #PREPARE_COMMAND}, {@link #EXECUTE_COMMAND},
+     * {@link #ADD_COMMAND} or {@link #SUM_COMMAND}.
+     * @param input the command.
+     * @param environment the variables of the session, for executed expressions to refer to.
+     * @param value the value to hold the outcome: the handle of prepared expressions,
+     * the result of executed or added ones, or the total of an accumulator.
+     * @return {@code value}, for convenience.
+     * @throws ParseCancellationException if the command is unknown or malformed,
+     * if it's disabled, or if there's no room for a new accumulator.
+     * @throws NoSuchElementException if the command executes an expression not prepared.
+     * @throws ArithmeticException on division by zero.
+     */
+    @NotNull
+    protected NumericValue command(
+        @NotNull final ByteBuf input, @Nullable final Environment environment, @NotNull final NumericValue value)
+    {
+        final int end = input.writerIndex();
+
+        final int start = skipWhitespace(input, input.readerIndex(), end);
+
+        int position = start;
+
+        while (position < end && isLetter(input.getByte(position)))
+        {
+            position++;
+        }
+
+        if (matches(input, start, position, PREPARE_COMMAND))
+        {
+            value.setLong(prepared().prepare(getInterpreter().compile(input.slice(position, end - position))));
+        }
+        else if (matches(input, start, position, EXECUTE_COMMAND))
+        {
+            position = skipWhitespace(input, position, end);
+
+            final int handleStart = position;
+
+            long handle = 0;
+
+            while (position < end && isDigit(input.getByte(position)))
+            {
+                handle = handle * 10 + (input.getByte(position) - '0');
+                position++;
+            }
+
+            final int digits = position - handleStart;
+
+            if (   (digits == 0)
+                || (digits > MAX_HANDLE_DIGITS)
+                || (position < end && !isWhitespace(input.getByte(position))))
+            {
+                throw new ParseCancellationException("Malformed handle");
+            }
+
+            getInterpreter().execute(
+                prepared().get(handle), input.slice(position, end - position), environment, value);
+        }
+        else if (matches(input, start, position, ADD_COMMAND))
+        {
+            @NotNull final Accumulators registry = accumulators();
+
+            position = skipWhitespace(input, position, end);
+
+            final int nameEnd = scanName(input, position, end);
+
+            @NotNull final String name = input.toString(position, nameEnd - position, CharsetUtil.US_ASCII);
+
+            getInterpreter().eval(input.slice(nameEnd, end - nameEnd), environment, value);
+
+            if (!registry.add(name, value))
+            {
+                throw new ParseCancellationException("Too many accumulators");
+            }
+        }
+        else if (matches(input, start, position, SUM_COMMAND))
+        {
+            @NotNull final Accumulators registry = accumulators();
+
+            position = skipWhitespace(input, position, end);
+
+            final int nameEnd = scanName(input, position, end);
+
+            if (skipWhitespace(input, nameEnd, end) < end)
+            {
+                throw new ParseCancellationException("Malformed accumulator");
+            }
+
+            registry.sum(input.toString(position, nameEnd - position, CharsetUtil.US_ASCII), value);
+        }
+        else
+        {
+            throw new ParseCancellationException("Unknown command");
+        }
+
+        return value;
+    }
+
+    /**
+     * Retrieves the prepared expressions, for their commands.
+     * @return such registry.
+     * @throws ParseCancellationException if there's none.
+     */
+    @NotNull
+    protected PreparedExpressions prepared()
+    {
+        @Nullable final PreparedExpressions result = getPrepared();
+
+        if (result == null)
+        {
+            throw new ParseCancellationException("Prepared expressions are disabled");
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the accumulators, for their commands.
+     * @return such registry.
+     * @throws ParseCancellationException if there's none.
+     */
+    @NotNull
+    protected Accumulators accumulators()
+    {
+        @Nullable final Accumulators result = getAccumulators();
+
+        if (result == null)
+        {
+            throw new ParseCancellationException("Accumulators are disabled");
+        }
+
+        return result;
+    }
+
+    /**
+     * Scans the name of an accumulator, as the grammar's {@code IDENTIFIER}
+     * would, followed by whitespace or the end of the frame.
+     * @param input the buffer.
+     * @param start the start of the name.
+     * @param end the end of the frame (exclusive).
+     * @return the end of the name (exclusive).
+     * @throws ParseCancellationException if there's no name.
+     */
+    protected int scanName(@NotNull final ByteBuf input, final int start, final int end)
+    {
+        int result = start;
+
+        while (   result < end
+               && (   isLetter(input.getByte(result))
+                   || input.getByte(result) == '_'
+                   || (result > start && isDigit(input.getByte(result)))))
+        {
+            result++;
+        }
+
+        if (result == start || (result < end && !isWhitespace(input.getByte(result))))
+        {
+            throw new ParseCancellationException("Malformed accumulator");
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given range of the buffer holds given keyword.
+     * @param input the buffer.
+     * @param start the start of the range.
+     * @param end the end of the range (exclusive).
+     * @param keyword the keyword, in ASCII.
+     * @return {@code true} in such case.
+     */
+    protected boolean matches(
+        @NotNull final ByteBuf input, final int start, final int end, @NotNull final String keyword)
+    {
+        boolean result = end - start == keyword.length();
+
+        for (int index = 0; result && index < keyword.length(); index++)
+        {
+            result = input.getByte(start + index) == keyword.charAt(index);
+        }
+
+        return result;
+    }
+
+    /**
+     * Encodes given outcome as a response.
+     * @param allocator the allocator of the response buffer.
+     * @param output the outcome.
+     * @return the response.
+     */
+    @NotNull
+    protected ByteBuf encode(@NotNull final ByteBufAllocator allocator, @NotNull final NumericValue output)
+    {
+        @Nullable final InterpreterMetrics metrics = getInterpreter().getMetrics();
+
+        final long start = (metrics != null) ? System.nanoTime() : 0;
+
+        @NotNull final ByteBuf result = allocator.ioBuffer(RESPONSE_CAPACITY);
+
+        DIGITS.write(output, result);
+        result.writeByte('\n');
+
+        if (metrics != null)
+        {
+            metrics.recordSince(InterpreterMetrics.Stage.ENCODE, start);
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the response to malformed expressions.
+     * @return a view of {@link #ERROR_BUFFER}.
+     */
+    @NotNull
+    protected ByteBuf errorResponse()
+    {
+        malformed();
+
+        return ERROR_BUFFER.duplicate();
+    }
+
+    /**
+     * Annotates a malformed expression in the metrics, if any.
+     */
+    protected void malformed()
+    {
+        @Nullable final InterpreterMetrics metrics = getInterpreter().getMetrics();
+
+        if (metrics != null)
+        {
+            metrics.malformed();
+        }
+    }
+
+    /**
+     * Checks whether given buffer contains only whitespace.
+     * @param buffer the buffer.
+     * @return {@code true} in such case.
+     */
+    protected static boolean isBlank(@NotNull final ByteBuf buffer)
+    {
+        return skipWhitespace(buffer, buffer.readerIndex(), buffer.writerIndex()) == buffer.writerIndex();
+    }
+
+    /**
+     * Skips whitespace in given buffer.
+     * @param buffer the buffer.
+     * @param start the start position.
+     * @param end the end position (exclusive).
+     * @return the position of the first non-whitespace byte, or {@code end}.
+     */
+    protected static int skipWhitespace(@NotNull final ByteBuf buffer, final int start, final int end)
+    {
+        int result = start;
+
+        while (result < end && isWhitespace(buffer.getByte(result)))
+        {
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether given byte is whitespace.
+     * @param current the byte.
+     * @return {@code true} in such case.
+     */
+    protected static boolean isWhitespace(final byte current)
+    {
+        return current == ' ' || current == '\t' || current == '\r' || current == '\n' || current == '\f';
+    }
+
+    /**
+     * Checks whether given byte is an ASCII letter.
+     * @param current the byte.
+     * @return {@code true} in such case.
+     */
+    protected static boolean isLetter(final byte current)
+    {
+        return (current >= 'a' && current <= 'z') || (current >= 'A' && current <= 'Z');
+    }
+
+    /**
+     * Checks whether given byte is an ASCII digit.
+     * @param current the byte.
+     * @return {@code true} in such case.
+     */
+    protected static boolean isDigit(final byte current)
+    {
+        return current >= '0' && current <= '9';
+    }
+
+    /**
+     * Performs the arithmetic calculations expressed in given input,
+     * according to Interpreter grammar.
+     * @param input the input.
+     * @return the outcome of the calculation.
+     */
+    @NotNull
+    public BigDecimal calculate(@NotNull final String input)
+    {
+        return getInterpreter().eval(input);
+    }
+
+    /**
+     * Performs the arithmetic calculations expressed in the readable bytes
+     * of given buffer, according to Interpreter grammar.
+     * @param input the input.
+     * @return the outcome of the calculation.
+     */
+    @NotNull
+    public BigDecimal calculate(@NotNull final ByteBuf input)
+    {
+        return getInterpreter().eval(input);
+    }
+
+    /**
+     * Performs the arithmetic calculations expressed in the readable bytes
+     * of given buffer, according to Interpreter grammar, without promoting
+     * integer outcomes to {@link BigDecimal} unless necessary.
+     * @param input the input.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     */
+    @NotNull
+    public NumericValue calculate(@NotNull final ByteBuf input, @NotNull final NumericValue result)
+    {
+        return calculate(input, null, result);
+    }
+
+    /**
+     * Performs the arithmetic calculations expressed in the readable bytes
+     * of given buffer, according to Interpreter grammar, within given session.
+     * @param input the input.
+     * @param environment the variables of the session, or {@code null} if there's none.
+     * @param result the value to hold the outcome.
+     * @return {@code result}, for convenience.
+     */
+    @NotNull
+    public NumericValue calculate(
+        @NotNull final ByteBuf input, @Nullable final Environment environment, @NotNull final NumericValue result)
+    {
+        return getInterpreter().eval(input, environment, result);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelReadComplete(final ChannelHandlerContext ctx) throws Exception
+    {
+        ctx.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause)
+        throws Exception
+    {
+        cause.printStackTrace();
+        ctx.close();
+    }
+
+    /**
+     * How processing an expression or command went.
+     */
+    protected enum Outcome
+    {
+        /**
+         * It yielded a value.
+         */
+        VALUE,
+
+        /**
+         * It executed an expression not prepared, or already evicted.
+         */
+        UNPREPARED,
+
+        /**
+         * It was malformed, or failed to evaluate.
+         */
+        ERROR
+    }
+
+    /**
+     * The responses of a connection, in request order, while some of them
+     * wait for evaluations in flight. Confined to the connection's executor.
+     */
+    @NotThreadSafe
+    protected static class ResponseQueue
+    {
+        /**
+         * The responses, in request order.
+         */
+        @NotNull
+        private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+
+        /**
+         * Checks whether there are no responses held back.
+         * @return {@code true} in such case.
+         */
+        public boolean isEmpty()
+        {
+            return this.slots.isEmpty();
+        }
+
+        /**
+         * Reserves the place of the next response.
+         * @return such place.
+         */
+        @NotNull
+        public Slot reserve()
+        {
+            @NotNull final Slot result = new Slot();
+
+            this.slots.add(result);
+
+            return result;
+        }
+
+        /**
+         * Writes the responses ready at the head of the queue, up to the first
+         * one still pending. Responses to closed connections are just released.
+         * @param ctx the context.
+         */
+        public void drain(@NotNull final ChannelHandlerContext ctx)
+        {
+            while (!this.slots.isEmpty() && this.slots.peek().getResponse() != null)
+            {
+                @NotNull final ByteBuf response = this.slots.poll().getResponse();
+
+                if (ctx.channel().isActive())
+                {
+                    ctx.write(response, ctx.voidPromise());
+                }
+                else
+                {
+                    response.release();
+                }
+            }
+        }
+
+        /**
+         * The place of a response.
+         */
+        @NotThreadSafe
+        protected static class Slot
+        {
+            /**
+             * The response, once ready.
+             */
+            @Nullable
+            private ByteBuf response;
+
+            /**
+             * Retrieves the response.
+             * @return such response, or {@code null} if it's not ready.
+             */
+            @Nullable
+            public ByteBuf getResponse()
+            {
+                return this.response;
+            }
+
+            /**
+             * Specifies the response.
+             * @param response the response.
+             */
+            public void setResponse(@NotNull final ByteBuf response)
+            {
+                this.response = response;
+            }
+        }
     }
 }
@@ -0,0 +1,282 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: LatencyHistogram.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Log-linear histogram of latencies.
+ *
+ * Date: 2026/10/17
+ * Time: 10:05
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/**
+ * Histogram of latencies, or any other non-negative {@code long} values, with
+ * log-linear buckets: exact below {@link #SUB_BUCKETS}, and split into
+ * {@code SUB_BUCKETS / 2} linear buckets per power of two above it, so every
+ * recorded value is known within a relative error under 1/64.
+ * Recording never allocates. Each recording thread should use its own instance,
+ * and {@link #add(LatencyHistogram) add} them up afterwards.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:05
+ */
+@NotThreadSafe
+public class LatencyHistogram
+{
+    /**
+     * The number of exact buckets; also twice the number of buckets per power of two above them.
+     */
+    public static final int SUB_BUCKETS = 128;
+
+    /**
+     * The number of bits of {@link #SUB_BUCKETS}, minus one.
+     */
+    protected static final int SUB_BUCKET_BITS = 6;
+
+    /**
+     * The total number of buckets, enough for any non-negative {@code long}.
+     */
+    protected static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - (SUB_BUCKET_BITS + 1)) * (SUB_BUCKETS / 2);
+
+    /**
+     * The counts per bucket.
+     */
+    @NotNull
+    private final long[] counts = new long[BUCKETS];
+
+    /**
+     * The number of recorded values.
+     */
+    private long count;
+
+    /**
+     * The sum of recorded values.
+     */
+    private long sum;
+
+    /**
+     * The smallest recorded value.
+     */
+    private long min = Long.MAX_VALUE;
+
+    /**
+     * The largest recorded value.
+     */
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+    }
+
+    /**
+     * Records given value.
+     * @param value the value; negative ones count as zero.
+     */
+    public void record(final long value)
+    {
+        final long actual = Math.max(0, value);
+
+        this.counts[indexOf(actual)]++;
+        this.count++;
+        this.sum += actual;
+        this.min = Math.min(this.min, actual);
+        this.max = Math.max(this.max, actual);
+    }
+
+    /**
+     * Adds the values recorded in given histogram to this one.
+     * @param other the other histogram.
+     */
+    public void add(@NotNull final LatencyHistogram other)
+    {
+        for (int index = 0; index < BUCKETS; index++)
+        {
+            this.counts[index] += other.counts[index];
+        }
+
+        this.count += other.count;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Adds values recorded elsewhere, bucket by bucket.
+     * @param bucketCounts the count of each bucket, as {@link #indexOf(long)} assigns them.
+     * @param sum the sum of such values.
+     * @param min the smallest of such values.
+     * @param max the largest of such values.
+     */
+    protected void add(@NotNull final long[] bucketCounts, final long sum, final long min, final long max)
+    {
+        long added = 0;
+
+        for (int index = 0; index < BUCKETS; index++)
+        {
+            this.counts[index] += bucketCounts[index];
+            added += bucketCounts[index];
+        }
+
+        if (added > 0)
+        {
+            this.count += added;
+            this.sum += sum;
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+        }
+    }
+
+    /**
+     * Retrieves the number of recorded values.
+     * @return such count.
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Retrieves the smallest recorded value.
+     * @return such value, or zero if the histogram is empty.
+     */
+    public long getMin()
+    {
+        return (this.count > 0) ? this.min : 0;
+    }
+
+    /**
+     * Retrieves the largest recorded value.
+     * @return such value, or zero if the histogram is empty.
+     */
+    public long getMax()
+    {
+        return this.max;
+    }
+
+    /**
+     * Retrieves the mean of the recorded values.
+     * @return such mean, or zero if the histogram is empty.
+     */
+    public double getMean()
+    {
+        return (this.count > 0) ? (double) this.sum / this.count : 0;
+    }
+
+    /**
+     * Retrieves the value at given percentile: the highest value of the
+     * bucket reaching such percentile, capped by the largest recorded value.
+     * @param percentile the percentile, from 0 to 100.
+     * @return such value, or zero if the histogram is empty.
+     */
+    public long getValueAtPercentile(final double percentile)
+    {
+        long result = 0;
+
+        if (this.count > 0)
+        {
+            final long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * this.count));
+
+            long seen = 0;
+
+            int index = 0;
+
+            while (seen + this.counts[index] < rank)
+            {
+                seen += this.counts[index];
+                index++;
+            }
+
+            result = Math.min(this.max, highestValueOf(index));
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the bucket of given value.
+     * @param value the value, non-negative.
+     * @return the bucket index.
+     */
+    protected static int indexOf(final long value)
+    {
+        final int result;
+
+        if (value < SUB_BUCKETS)
+        {
+            result = (int) value;
+        }
+        else
+        {
+            final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+            // (value >>> shift) falls in [SUB_BUCKETS / 2, SUB_BUCKETS).
+            result = SUB_BUCKETS + (shift - 1) * (SUB_BUCKETS / 2) + (int) (value >>> shift) - SUB_BUCKETS / 2;
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the highest value falling in given bucket.
+     * @param index the bucket index.
+     * @return such value.
+     */
+    protected static long highestValueOf(final int index)
+    {
+        final long result;
+
+        if (index < SUB_BUCKETS)
+        {
+            result = index;
+        }
+        else
+        {
+            final int shift = (index - SUB_BUCKETS) / (SUB_BUCKETS / 2) + 1;
+
+            final long subBucket = (index - SUB_BUCKETS) % (SUB_BUCKETS / 2) + SUB_BUCKETS / 2;
+
+            result = ((subBucket + 1) << shift) - 1;
+        }
+
+        return result;
+    }
+}
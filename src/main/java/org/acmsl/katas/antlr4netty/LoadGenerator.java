@@ -0,0 +1,718 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: LoadGenerator.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Generates closed- or open-loop load against the server, and reports latencies.
+ *
+ * Date: 2026/10/17
+ * Time: 10:50
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates load against an {@link InterpreterServer}, over many concurrent
+ * text connections, and reports throughput and latency percentiles.
+ * Load is either closed-loop (a fixed number of requests in flight, one per
+ * connection) or open-loop (a fixed arrival rate, with latencies measured
+ * from the moment each request was due, to correct coordinated omission).
+ * <p>Usage: {@code LoadGenerator [--name=value]...}, with the options in {@link LoadSettings}, i.e.
+ * {@code --port=8765 --connections=64 --mode=open --rate=50000 --duration=30 --mix=integer:90,real:10}.</p>
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:50
+ */
+@ThreadSafe
+public class LoadGenerator
+{
+    /**
+     * How many requests each connection generates upfront, and cycles through.
+     */
+    protected static final int REQUESTS_PER_CONNECTION = 1024;
+
+    /**
+     * The shortest period between open-loop sends, in nanoseconds; due requests
+     * are sent together.
+     */
+    protected static final long MIN_SEND_PERIOD = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * How long to wait for in-flight responses once the measurement ends, in milliseconds.
+     */
+    protected static final long DRAIN_TIMEOUT = 2000;
+
+    /**
+     * The settings.
+     */
+    @NotNull
+    private final LoadSettings settings;
+
+    /**
+     * Creates a generator with given settings.
+     * @param settings the settings.
+     */
+    public LoadGenerator(@NotNull final LoadSettings settings)
+    {
+        this.settings = settings;
+    }
+
+    /**
+     * Retrieves the settings.
+     * @return such settings.
+     */
+    @NotNull
+    public LoadSettings getSettings()
+    {
+        return this.settings;
+    }
+
+    /**
+     * Runs the load: connects, warms up, measures, and disconnects.
+     * @return the outcome of the measurement.
+     * @throws InterruptedException if the run gets interrupted.
+     */
+    @NotNull
+    public Report run()
+        throws InterruptedException
+    {
+        @NotNull final LoadSettings settings = getSettings();
+
+        @NotNull final NioEventLoopGroup group = new NioEventLoopGroup(settings.getThreads());
+
+        @NotNull final List<Connection> connections = new ArrayList<Connection>(settings.getConnections());
+
+        @NotNull final List<Channel> channels = new ArrayList<Channel>(settings.getConnections());
+
+        try
+        {
+            @NotNull final Random random = new Random(settings.getSeed());
+
+            // the measurement window is fixed upfront, so connections never need to be told.
+            final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            final long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmup());
+            final long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDuration());
+
+            final long interval =
+                (settings.getMode() == LoadSettings.Mode.OPEN)
+                ? Math.max(1, TimeUnit.SECONDS.toNanos(settings.getConnections()) / Math.max(1, settings.getRate()))
+                : 0;
+
+            for (int index = 0; index < settings.getConnections(); index++)
+            {
+                @NotNull final Connection connection =
+                    new Connection(
+                        settings.getMix().nextRequests(random, REQUESTS_PER_CONNECTION),
+                        // spreads the connections' schedules evenly across the interval.
+                        start + index * interval / settings.getConnections(),
+                        interval,
+                        measureFrom,
+                        measureUntil);
+
+                connections.add(connection);
+                channels.add(connect(group, connection));
+            }
+
+            final long remaining = measureUntil - System.nanoTime();
+
+            if (remaining > 0)
+            {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+
+            // no new requests are due by now; let in-flight ones complete.
+            for (@NotNull final Connection connection : connections)
+            {
+                connection.awaitDrained(DRAIN_TIMEOUT);
+            }
+
+            for (@NotNull final Channel channel : channels)
+            {
+                channel.close().sync();
+            }
+
+            @NotNull final Report result = new Report(settings, TimeUnit.SECONDS.toNanos(settings.getDuration()));
+
+            for (@NotNull final Connection connection : connections)
+            {
+                result.add(connection);
+            }
+
+            return result;
+        }
+        finally
+        {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * Opens a connection to the server.
+     * @param group the event loop group.
+     * @param connection the handler of the connection.
+     * @return the channel.
+     * @throws InterruptedException if the connection gets interrupted.
+     */
+    @NotNull
+    protected Channel connect(@NotNull final NioEventLoopGroup group, @NotNull final Connection connection)
+        throws InterruptedException
+    {
+        @NotNull final Bootstrap bootstrap = new Bootstrap();
+
+        bootstrap
+            .group(group)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .remoteAddress(getSettings().getHost(), getSettings().getPort())
+            .handler(
+                new ChannelInitializer<SocketChannel>()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public void initChannel(@NotNull final SocketChannel channel)
+                        throws Exception
+                    {
+                        channel.pipeline().addLast(new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH));
+                        channel.pipeline().addLast(connection);
+                    }
+                });
+
+        return bootstrap.connect().sync().channel();
+    }
+
+    /**
+     * Runs the load generator.
+     * @param args the options, in the form {@code --name=value}.
+     * @throws InterruptedException if the run gets interrupted.
+     */
+    public static void main(@NotNull final String[] args)
+        throws InterruptedException
+    {
+        @NotNull final LoadSettings settings = LoadSettings.fromArguments(args);
+
+        System.out.println(
+            "Sending " + settings.getMix() + " over " + settings.getConnections() + " connections to "
+            + settings.getHost() + ":" + settings.getPort() + ", "
+            + ((settings.getMode() == LoadSettings.Mode.OPEN)
+               ? "open loop at " + settings.getRate() + " requests/s"
+               : "closed loop")
+            + ", for " + settings.getDuration() + " s after a " + settings.getWarmup() + " s warm-up");
+
+        new LoadGenerator(settings).run().print(System.out);
+    }
+
+    /**
+     * Drives a single connection, and records the latencies of its responses.
+     * All its methods run in the connection's event loop, except for
+     * {@link #awaitDrained(long)}.
+     */
+    @NotThreadSafe
+    protected static class Connection
+        extends SimpleChannelInboundHandler<ByteBuf>
+    {
+        /**
+         * The requests to cycle through.
+         */
+        @NotNull
+        private final byte[][] requests;
+
+        /**
+         * When the first request is due, in {@link System#nanoTime()} terms.
+         */
+        private final long start;
+
+        /**
+         * The interval between requests in open-loop mode, in nanoseconds, or 0 in closed-loop mode.
+         */
+        private final long interval;
+
+        /**
+         * When the measurement starts.
+         */
+        private final long measureFrom;
+
+        /**
+         * When the measurement ends.
+         */
+        private final long measureUntil;
+
+        /**
+         * The latencies of the responses to requests due within the measurement.
+         */
+        @NotNull
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * When each in-flight request was due, oldest first, as a ring.
+         */
+        @NotNull
+        private long[] inFlight = new long[64];
+
+        /**
+         * The position of the oldest in-flight request in {@link #inFlight}.
+         */
+        private int head;
+
+        /**
+         * The number of in-flight requests.
+         */
+        private int pending;
+
+        /**
+         * The number of requests sent so far.
+         */
+        private long sent;
+
+        /**
+         * The number of error responses within the measurement.
+         */
+        private long errors;
+
+        /**
+         * The periodic task sending open-loop requests.
+         */
+        @Nullable
+        private ScheduledFuture<?> sender;
+
+        /**
+         * Whether no more requests will be sent.
+         */
+        private boolean stopped;
+
+        /**
+         * Whether no more requests will be sent, and none is in flight.
+         */
+        private volatile boolean drained;
+
+        /**
+         * Creates a new connection handler.
+         * @param requests the requests to cycle through.
+         * @param start when the first request is due.
+         * @param interval the interval between requests, or 0 for closed-loop mode.
+         * @param measureFrom when the measurement starts.
+         * @param measureUntil when the measurement ends.
+         */
+        public Connection(
+            @NotNull final byte[][] requests,
+            final long start,
+            final long interval,
+            final long measureFrom,
+            final long measureUntil)
+        {
+            this.requests = requests;
+            this.start = start;
+            this.interval = interval;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        /**
+         * Retrieves the latencies recorded within the measurement.
+         * @return such histogram.
+         */
+        @NotNull
+        public LatencyHistogram getHistogram()
+        {
+            return this.histogram;
+        }
+
+        /**
+         * Retrieves the number of error responses within the measurement.
+         * @return such count.
+         */
+        public long getErrors()
+        {
+            return this.errors;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void channelActive(@NotNull final ChannelHandlerContext ctx)
+            throws Exception
+        {
+            final long delay = Math.max(0, this.start - System.nanoTime());
+
+            if (this.interval > 0)
+            {
+                this.sender =
+                    ctx.executor().scheduleAtFixedRate(
+                        new Runnable()
+                        {
+                            /**
+                             * {@inheritDoc}
+                             */
+                            @Override
+                            public void run()
+                            {
+                                sendDue(ctx);
+                            }
+                        },
+                        delay,
+                        Math.max(this.interval, MIN_SEND_PERIOD),
+                        TimeUnit.NANOSECONDS);
+            }
+            else
+            {
+                ctx.executor().schedule(
+                    new Runnable()
+                    {
+                        /**
+                         * {@inheritDoc}
+                         */
+                        @Override
+                        public void run()
+                        {
+                            send(ctx, System.nanoTime());
+                            ctx.flush();
+                        }
+                    },
+                    delay,
+                    TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Sends the open-loop requests due by now, each one stamped with when it was due.
+         * @param ctx the context.
+         */
+        protected void sendDue(@NotNull final ChannelHandlerContext ctx)
+        {
+            final long now = Math.min(System.nanoTime(), this.measureUntil);
+
+            boolean wrote = false;
+
+            for (long due = this.start + this.sent * this.interval; due <= now; due += this.interval)
+            {
+                send(ctx, due);
+                wrote = true;
+            }
+
+            if (wrote)
+            {
+                ctx.flush();
+            }
+
+            if (now >= this.measureUntil)
+            {
+                stop();
+            }
+        }
+
+        /**
+         * Writes the next request, without flushing it.
+         * @param ctx the context.
+         * @param due when the request was due.
+         */
+        protected void send(@NotNull final ChannelHandlerContext ctx, final long due)
+        {
+            if (this.pending == this.inFlight.length)
+            {
+                @NotNull final long[] larger = new long[this.inFlight.length * 2];
+
+                for (int index = 0; index < this.pending; index++)
+                {
+                    larger[index] = this.inFlight[(this.head + index) % this.inFlight.length];
+                }
+
+                this.inFlight = larger;
+                this.head = 0;
+            }
+
+            this.inFlight[(this.head + this.pending) % this.inFlight.length] = due;
+            this.pending++;
+
+            ctx.write(
+                ctx.alloc().ioBuffer().writeBytes(this.requests[(int) (this.sent % this.requests.length)]),
+                ctx.voidPromise());
+
+            this.sent++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void messageReceived(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf msg)
+            throws Exception
+        {
+            final long now = System.nanoTime();
+
+            final long due = this.inFlight[this.head];
+
+            this.head = (this.head + 1) % this.inFlight.length;
+            this.pending--;
+
+            if (due >= this.measureFrom && due < this.measureUntil)
+            {
+                this.histogram.record(now - due);
+
+                if (isError(msg))
+                {
+                    this.errors++;
+                }
+            }
+
+            if (this.interval == 0 && !this.stopped)
+            {
+                if (now < this.measureUntil)
+                {
+                    send(ctx, now);
+                    ctx.flush();
+                }
+                else
+                {
+                    stop();
+                }
+            }
+
+            this.drained = this.stopped && this.pending == 0;
+        }
+
+        /**
+         * Stops sending requests.
+         */
+        protected void stop()
+        {
+            @Nullable final ScheduledFuture<?> task = this.sender;
+
+            if (task != null)
+            {
+                task.cancel(false);
+            }
+
+            this.stopped = true;
+            this.drained = this.pending == 0;
+        }
+
+        /**
+         * Checks whether given response is an error.
+         * @param response the response, without line terminator.
+         * @return {@code true} in such case.
+         */
+        protected boolean isError(@NotNull final ByteBuf response)
+        {
+            return
+                   response.readableBytes() >= InterpreterServerChannelHandler.ERROR_RESULT.length()
+                && response.getByte(response.readerIndex()) == InterpreterServerChannelHandler.ERROR_RESULT.charAt(0);
+        }
+
+        /**
+         * Waits until no requests are in flight, or given timeout expires.
+         * @param timeout the timeout, in milliseconds.
+         * @throws InterruptedException if the wait gets interrupted.
+         */
+        public void awaitDrained(final long timeout)
+            throws InterruptedException
+        {
+            final long deadline = System.currentTimeMillis() + timeout;
+
+            while (!this.drained && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(1);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause)
+            throws Exception
+        {
+            cause.printStackTrace();
+            ctx.close();
+        }
+    }
+
+    /**
+     * The outcome of a run.
+     */
+    @NotThreadSafe
+    public static class Report
+    {
+        /**
+         * The settings of the run.
+         */
+        @NotNull
+        private final LoadSettings settings;
+
+        /**
+         * The length of the measurement, in nanoseconds.
+         */
+        private final long duration;
+
+        /**
+         * The latencies, in nanoseconds.
+         */
+        @NotNull
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        /**
+         * The number of error responses.
+         */
+        private long errors;
+
+        /**
+         * Creates an empty report.
+         * @param settings the settings of the run.
+         * @param duration the length of the measurement, in nanoseconds.
+         */
+        public Report(@NotNull final LoadSettings settings, final long duration)
+        {
+            this.settings = settings;
+            this.duration = duration;
+        }
+
+        /**
+         * Adds the outcome of given connection.
+         * @param connection the connection.
+         */
+        protected void add(@NotNull final Connection connection)
+        {
+            this.latencies.add(connection.getHistogram());
+            this.errors += connection.getErrors();
+        }
+
+        /**
+         * Retrieves the latencies.
+         * @return such histogram, in nanoseconds.
+         */
+        @NotNull
+        public LatencyHistogram getLatencies()
+        {
+            return this.latencies;
+        }
+
+        /**
+         * Retrieves the number of responses within the measurement.
+         * @return such count.
+         */
+        public long getResponses()
+        {
+            return this.latencies.getCount();
+        }
+
+        /**
+         * Retrieves the number of error responses within the measurement.
+         * @return such count.
+         */
+        public long getErrors()
+        {
+            return this.errors;
+        }
+
+        /**
+         * Retrieves the throughput.
+         * @return the responses per second.
+         */
+        public double getThroughput()
+        {
+            return getResponses() * (double) TimeUnit.SECONDS.toNanos(1) / this.duration;
+        }
+
+        /**
+         * Prints the report.
+         * @param output where to print it.
+         */
+        public void print(@NotNull final PrintStream output)
+        {
+            @NotNull final LatencyHistogram histogram = getLatencies();
+
+            output.println(
+                String.format(
+                    Locale.US,
+                    "Throughput: %.1f requests/s (%d responses, %d errors)%n"
+                    + "Latency (us): p50=%.1f p99=%.1f p99.9=%.1f max=%.1f mean=%.1f",
+                    getThroughput(),
+                    getResponses(),
+                    getErrors(),
+                    micros(histogram.getValueAtPercentile(50)),
+                    micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)),
+                    micros(histogram.getMax()),
+                    histogram.getMean() / 1000));
+
+            if (this.settings.getMode() == LoadSettings.Mode.OPEN
+                && getThroughput() < 0.95 * this.settings.getRate())
+            {
+                output.println("Warning: the server could not keep up with the requested rate");
+            }
+        }
+
+        /**
+         * Converts given nanoseconds into microseconds.
+         * @param nanos the nanoseconds.
+         * @return the microseconds.
+         */
+        protected double micros(final long nanos)
+        {
+            return nanos / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: LoadSettings.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Settings of the load generator.
+ *
+ * Date: 2026/10/17
+ * Time: 10:35
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Settings of the {@link LoadGenerator}, read from "kata.load.*" system properties
+ * or from {@code --name=value} command-line options.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:35
+ */
+@NotThreadSafe
+public class LoadSettings
+{
+    /**
+     * How requests are paced.
+     */
+    public enum Mode
+    {
+        /**
+         * Each connection sends its next request as soon as it gets the previous response.
+         */
+        CLOSED,
+
+        /**
+         * Requests are sent at a fixed rate, whatever the responses, and latencies
+         * are measured from the moment each request was due, so queueing delays
+         * are not hidden (coordinated omission).
+         */
+        OPEN
+    }
+
+    /**
+     * The prefix of all properties.
+     */
+    public static final String PROPERTY_PREFIX = ServerSettings.PROPERTY_PREFIX + "load.";
+
+    /**
+     * The system property with the server host.
+     */
+    public static final String HOST_PROPERTY = PROPERTY_PREFIX + "host";
+
+    /**
+     * The system property with the server port.
+     */
+    public static final String PORT_PROPERTY = PROPERTY_PREFIX + "port";
+
+    /**
+     * The system property with the number of connections.
+     */
+    public static final String CONNECTIONS_PROPERTY = PROPERTY_PREFIX + "connections";
+
+    /**
+     * The system property with the {@link Mode}.
+     */
+    public static final String MODE_PROPERTY = PROPERTY_PREFIX + "mode";
+
+    /**
+     * The system property with the rate, in requests per second, of the open-loop mode.
+     */
+    public static final String RATE_PROPERTY = PROPERTY_PREFIX + "rate";
+
+    /**
+     * The system property with the length of the measurement, in seconds.
+     */
+    public static final String DURATION_PROPERTY = PROPERTY_PREFIX + "duration";
+
+    /**
+     * The system property with the length of the warm-up, in seconds.
+     */
+    public static final String WARMUP_PROPERTY = PROPERTY_PREFIX + "warmup";
+
+    /**
+     * The system property with the {@link ExpressionMix}.
+     */
+    public static final String MIX_PROPERTY = PROPERTY_PREFIX + "mix";
+
+    /**
+     * The system property with the number of I/O threads (0 for Netty's default).
+     */
+    public static final String THREADS_PROPERTY = PROPERTY_PREFIX + "threads";
+
+    /**
+     * The system property with the seed of the generated expressions.
+     */
+    public static final String SEED_PROPERTY = PROPERTY_PREFIX + "seed";
+
+    /**
+     * The server host.
+     */
+    @NotNull
+    private String host = "localhost";
+
+    /**
+     * The server port.
+     */
+    private int port = 8765;
+
+    /**
+     * The number of connections.
+     */
+    private int connections = 16;
+
+    /**
+     * The mode.
+     */
+    @NotNull
+    private Mode mode = Mode.CLOSED;
+
+    /**
+     * The rate of the open-loop mode, in requests per second.
+     */
+    private int rate = 10000;
+
+    /**
+     * The length of the measurement, in seconds.
+     */
+    private int duration = 10;
+
+    /**
+     * The length of the warm-up, in seconds.
+     */
+    private int warmup = 2;
+
+    /**
+     * The mix of expressions.
+     */
+    @NotNull
+    private ExpressionMix mix = ExpressionMix.parse(ExpressionMix.DEFAULT_MIX);
+
+    /**
+     * The number of I/O threads.
+     */
+    private int threads = 0;
+
+    /**
+     * The seed of the generated expressions.
+     */
+    private long seed = 42;
+
+    /**
+     * Creates a new instance, with default settings.
+     */
+    public LoadSettings()
+    {
+    }
+
+    /**
+     * Builds the settings from system properties, overridden by given command-line
+     * options, in the form {@code --name=value}, where {@code name} is the property
+     * name without the {@link #PROPERTY_PREFIX} (i.e. {@code --connections=64}).
+     * @param options the command-line options.
+     * @return such settings.
+     * @throws IllegalArgumentException if any option is malformed.
+     */
+    @NotNull
+    public static LoadSettings fromArguments(@NotNull final String[] options)
+    {
+        return from(ServerSettings.toProperties(options, PROPERTY_PREFIX));
+    }
+
+    /**
+     * Builds the settings from given properties, using defaults for missing ones.
+     * @param properties the properties.
+     * @return such settings.
+     */
+    @NotNull
+    public static LoadSettings from(@NotNull final Properties properties)
+    {
+        @NotNull final LoadSettings result = new LoadSettings();
+
+        result.setHost(properties.getProperty(HOST_PROPERTY, result.getHost()).trim());
+        result.setPort(ServerSettings.getInt(properties, PORT_PROPERTY, result.getPort()));
+        result.setConnections(ServerSettings.getInt(properties, CONNECTIONS_PROPERTY, result.getConnections()));
+        result.setMode(
+            Mode.valueOf(properties.getProperty(MODE_PROPERTY, result.getMode().name()).trim().toUpperCase(Locale.US)));
+        result.setRate(ServerSettings.getInt(properties, RATE_PROPERTY, result.getRate()));
+        result.setDuration(ServerSettings.getInt(properties, DURATION_PROPERTY, result.getDuration()));
+        result.setWarmup(ServerSettings.getInt(properties, WARMUP_PROPERTY, result.getWarmup()));
+        result.setMix(ExpressionMix.parse(properties.getProperty(MIX_PROPERTY, result.getMix().toString())));
+        result.setThreads(ServerSettings.getInt(properties, THREADS_PROPERTY, result.getThreads()));
+        result.setSeed(Long.parseLong(properties.getProperty(SEED_PROPERTY, "" + result.getSeed()).trim()));
+
+        return result;
+    }
+
+    /**
+     * Retrieves the server host.
+     * @return such value.
+     */
+    @NotNull
+    public String getHost()
+    {
+        return this.host;
+    }
+
+    /**
+     * Specifies the server host.
+     * @param host such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setHost(@NotNull final String host)
+    {
+        this.host = host;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the server port.
+     * @return such value.
+     */
+    public int getPort()
+    {
+        return this.port;
+    }
+
+    /**
+     * Specifies the server port.
+     * @param port such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setPort(final int port)
+    {
+        this.port = port;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the number of connections.
+     * @return such value.
+     */
+    public int getConnections()
+    {
+        return this.connections;
+    }
+
+    /**
+     * Specifies the number of connections.
+     * @param count such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setConnections(final int count)
+    {
+        this.connections = count;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the mode.
+     * @return such value.
+     */
+    @NotNull
+    public Mode getMode()
+    {
+        return this.mode;
+    }
+
+    /**
+     * Specifies the mode.
+     * @param mode such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setMode(@NotNull final Mode mode)
+    {
+        this.mode = mode;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the rate of the open-loop mode, in requests per second.
+     * @return such value.
+     */
+    public int getRate()
+    {
+        return this.rate;
+    }
+
+    /**
+     * Specifies the rate of the open-loop mode, in requests per second.
+     * @param rate such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setRate(final int rate)
+    {
+        this.rate = rate;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the length of the measurement, in seconds.
+     * @return such value.
+     */
+    public int getDuration()
+    {
+        return this.duration;
+    }
+
+    /**
+     * Specifies the length of the measurement, in seconds.
+     * @param seconds such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setDuration(final int seconds)
+    {
+        this.duration = seconds;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the length of the warm-up, in seconds.
+     * @return such value.
+     */
+    public int getWarmup()
+    {
+        return this.warmup;
+    }
+
+    /**
+     * Specifies the length of the warm-up, in seconds.
+     * @param seconds such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setWarmup(final int seconds)
+    {
+        this.warmup = seconds;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the mix of expressions.
+     * @return such value.
+     */
+    @NotNull
+    public ExpressionMix getMix()
+    {
+        return this.mix;
+    }
+
+    /**
+     * Specifies the mix of expressions.
+     * @param mix such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setMix(@NotNull final ExpressionMix mix)
+    {
+        this.mix = mix;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the number of I/O threads (0 for Netty's default).
+     * @return such value.
+     */
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * Specifies the number of I/O threads (0 for Netty's default).
+     * @param threads such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setThreads(final int threads)
+    {
+        this.threads = threads;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the seed of the generated expressions.
+     * @return such value.
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    /**
+     * Specifies the seed of the generated expressions.
+     * @param seed such value.
+     * @return this instance.
+     */
+    @NotNull
+    public LoadSettings setSeed(final long seed)
+    {
+        this.seed = seed;
+
+        return this;
+    }
+}
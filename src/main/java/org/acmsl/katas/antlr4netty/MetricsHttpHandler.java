@@ -0,0 +1,191 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: MetricsHttpHandler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Serves InterpreterMetrics over HTTP.
+ *
+ * Date: 2026/10/17
+ * Time: 13:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/**
+ * Serves {@link InterpreterMetrics#render() metrics} as text on
+ * {@code GET} {@link #PATH}, answering anything else with {@code 404}.
+ * Meant to be bound to the loopback interface only, for local scrapers.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 13:20
+ */
+@ThreadSafe
+@Sharable
+public class MetricsHttpHandler
+    extends SimpleChannelInboundHandler<FullHttpRequest>
+{
+    /**
+     * The path serving metrics.
+     */
+    @NotNull
+    public static final String PATH = "/metrics";
+
+    /**
+     * The content type of metrics.
+     */
+    @NotNull
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * The metrics.
+     */
+    @NotNull
+    private final InterpreterMetrics metrics;
+
+    /**
+     * Creates a new handler.
+     * @param metrics the metrics to serve.
+     */
+    public MetricsHttpHandler(@NotNull final InterpreterMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves the metrics.
+     * @return such metrics.
+     */
+    @NotNull
+    public InterpreterMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void messageReceived(
+        @NotNull final ChannelHandlerContext ctx, @NotNull final FullHttpRequest request)
+        throws Exception
+    {
+        @NotNull final FullHttpResponse response;
+
+        if (HttpMethod.GET.equals(request.getMethod()) && isMetricsPath(request.getUri()))
+        {
+            response = respond(ctx, HttpResponseStatus.OK, getMetrics().render());
+        }
+        else
+        {
+            response = respond(ctx, HttpResponseStatus.NOT_FOUND, "Not found: try GET " + PATH + "\n");
+        }
+
+        if (HttpHeaders.isKeepAlive(request))
+        {
+            HttpHeaders.setKeepAlive(response, true);
+            ctx.writeAndFlush(response);
+        }
+        else
+        {
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Checks whether given URI points to {@link #PATH}, ignoring any query string.
+     * @param uri the URI.
+     * @return {@code true} in such case.
+     */
+    protected boolean isMetricsPath(@NotNull final String uri)
+    {
+        final int query = uri.indexOf('?');
+
+        return PATH.equals((query < 0) ? uri : uri.substring(0, query));
+    }
+
+    /**
+     * Builds a text response.
+     * @param ctx the context.
+     * @param status the status.
+     * @param text the body.
+     * @return the response.
+     */
+    @NotNull
+    protected FullHttpResponse respond(
+        @NotNull final ChannelHandlerContext ctx,
+        @NotNull final HttpResponseStatus status,
+        @NotNull final String text)
+    {
+        @NotNull final ByteBuf content = ctx.alloc().buffer(text.length());
+        content.writeBytes(text.getBytes(CharsetUtil.UTF_8));
+
+        @NotNull final FullHttpResponse result = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+
+        result.headers().set(HttpHeaders.Names.CONTENT_TYPE, CONTENT_TYPE);
+        HttpHeaders.setContentLength(result, content.readableBytes());
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause)
+        throws Exception
+    {
+        cause.printStackTrace();
+        ctx.close();
+    }
+}
@@ -0,0 +1,484 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: NumericValue.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Mutable number, kept as a long while it fits, and as a BigDecimal otherwise.
+ *
+ * Date: 2026/10/17
+ * Time: 22:05
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Mutable number, kept as a {@code long} while it's an integer that fits,
+ * and promoted to an exact {@link BigDecimal} for reals or when an operation
+ * overflows. Either way, {@link #toString()} matches {@link BigDecimal#toString()}
+ * of the same value, as built by {@link Interpreter}.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 22:05
+ */
+@NotThreadSafe
+public class NumericValue
+{
+    /**
+     * The maximum number of digits of a product. Values kept in sessions can be
+     * referred to once per couple of bytes, so without a bound a single frame
+     * multiplying them could take seconds, and lots of memory.
+     */
+    public static final int MAX_PRECISION = 1000;
+
+    /**
+     * The maximum absolute scale of a product, since aligning scales far apart,
+     * to add them, takes time and memory proportional to the gap.
+     */
+    public static final int MAX_SCALE = 1000;
+
+    /**
+     * The value, while it fits in a {@code long}.
+     */
+    private long longValue;
+
+    /**
+     * The value, once promoted; {@code null} while it's a {@code long}.
+     */
+    @Nullable
+    private BigDecimal decimalValue;
+
+    /**
+     * Creates a new value, initially zero.
+     */
+    public NumericValue()
+    {
+    }
+
+    /**
+     * Sets given integer value.
+     * @param value the value.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue setLong(final long value)
+    {
+        this.longValue = value;
+        this.decimalValue = null;
+
+        return this;
+    }
+
+    /**
+     * Sets given value.
+     * @param value the value.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue setDecimal(@NotNull final BigDecimal value)
+    {
+        this.longValue = 0;
+        this.decimalValue = value;
+
+        return this;
+    }
+
+    /**
+     * Copies given value.
+     * @param value the value.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue set(@NotNull final NumericValue value)
+    {
+        this.longValue = value.longValue;
+        this.decimalValue = value.decimalValue;
+
+        return this;
+    }
+
+    /**
+     * Checks whether the value is held as a {@code long}.
+     * @return {@code true} in such case.
+     */
+    public boolean isLong()
+    {
+        return this.decimalValue == null;
+    }
+
+    /**
+     * Retrieves the value as a {@code long}.
+     * Only meaningful if {@link #isLong()}.
+     * @return such value.
+     */
+    public long getLong()
+    {
+        return this.longValue;
+    }
+
+    /**
+     * Retrieves the value as a {@link BigDecimal}.
+     * @return such value.
+     */
+    @NotNull
+    public BigDecimal toBigDecimal()
+    {
+        @Nullable final BigDecimal result = this.decimalValue;
+
+        return (result != null) ? result : BigDecimal.valueOf(this.longValue);
+    }
+
+    /**
+     * Adds given integer.
+     * @param other the integer to add.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue add(final long other)
+    {
+        if (isLong())
+        {
+            try
+            {
+                this.longValue = Math.addExact(this.longValue, other);
+            }
+            catch (@NotNull final ArithmeticException overflow)
+            {
+                setDecimal(BigDecimal.valueOf(this.longValue).add(BigDecimal.valueOf(other)));
+            }
+        }
+        else
+        {
+            add(BigDecimal.valueOf(other));
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds given number.
+     * @param other the number to add.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue add(@NotNull final BigDecimal other)
+    {
+        return setDecimal(toBigDecimal().add(other));
+    }
+
+    /**
+     * Adds given value.
+     * @param other the value to add.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue add(@NotNull final NumericValue other)
+    {
+        @Nullable final BigDecimal decimal = other.decimalValue;
+
+        return (decimal != null) ? add(decimal) : add(other.longValue);
+    }
+
+    /**
+     * Subtracts given integer.
+     * @param other the integer to subtract.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue subtract(final long other)
+    {
+        if (isLong())
+        {
+            try
+            {
+                this.longValue = Math.subtractExact(this.longValue, other);
+            }
+            catch (@NotNull final ArithmeticException overflow)
+            {
+                setDecimal(BigDecimal.valueOf(this.longValue).subtract(BigDecimal.valueOf(other)));
+            }
+        }
+        else
+        {
+            subtract(BigDecimal.valueOf(other));
+        }
+
+        return this;
+    }
+
+    /**
+     * Subtracts given number.
+     * @param other the number to subtract.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue subtract(@NotNull final BigDecimal other)
+    {
+        return setDecimal(toBigDecimal().subtract(other));
+    }
+
+    /**
+     * Subtracts given value.
+     * @param other the value to subtract.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue subtract(@NotNull final NumericValue other)
+    {
+        @Nullable final BigDecimal decimal = other.decimalValue;
+
+        return (decimal != null) ? subtract(decimal) : subtract(other.longValue);
+    }
+
+    /**
+     * Multiplies by given integer.
+     * @param other the integer to multiply by.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue multiply(final long other)
+    {
+        if (isLong())
+        {
+            try
+            {
+                this.longValue = Math.multiplyExact(this.longValue, other);
+            }
+            catch (@NotNull final ArithmeticException overflow)
+            {
+                setDecimal(BigDecimal.valueOf(this.longValue).multiply(BigDecimal.valueOf(other)));
+            }
+        }
+        else
+        {
+            multiply(BigDecimal.valueOf(other));
+        }
+
+        return this;
+    }
+
+    /**
+     * Multiplies by given number.
+     * @param other the number to multiply by.
+     * @return this instance.
+     * @throws ArithmeticException if the product would take more than {@link #MAX_PRECISION}
+     * digits, or its scale would be beyond {@link #MAX_SCALE}, checked before computing it.
+     */
+    @NotNull
+    public NumericValue multiply(@NotNull final BigDecimal other)
+    {
+        @NotNull final BigDecimal multiplicand = toBigDecimal();
+
+        // the product takes, at most, as many digits as both factors together.
+        final long scale = (long) multiplicand.scale() + other.scale();
+
+        if (   multiplicand.precision() + other.precision() > MAX_PRECISION
+            || scale > MAX_SCALE
+            || scale < -MAX_SCALE)
+        {
+            throw new ArithmeticException("Product too large");
+        }
+
+        return setDecimal(multiplicand.multiply(other));
+    }
+
+    /**
+     * Checks whether the value is within {@link #MAX_PRECISION} and {@link #MAX_SCALE}.
+     * @return {@code true} in such case.
+     */
+    public boolean isBounded()
+    {
+        @Nullable final BigDecimal decimal = this.decimalValue;
+
+        return
+               decimal == null
+            || (   decimal.precision() <= MAX_PRECISION
+                && decimal.scale() <= MAX_SCALE
+                && decimal.scale() >= -MAX_SCALE);
+    }
+
+    /**
+     * Multiplies by given value.
+     * @param other the value to multiply by.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue multiply(@NotNull final NumericValue other)
+    {
+        @Nullable final BigDecimal decimal = other.decimalValue;
+
+        return (decimal != null) ? multiply(decimal) : multiply(other.longValue);
+    }
+
+    /**
+     * Divides by given integer. The quotient stays a {@code long} only when
+     * the division is exact.
+     * @param other the integer to divide by.
+     * @return this instance.
+     * @throws ArithmeticException if {@code other} is zero.
+     */
+    @NotNull
+    public NumericValue divide(final long other)
+    {
+        if (other == 0)
+        {
+            throw new ArithmeticException("Division by zero");
+        }
+
+        if (   isLong()
+            && this.longValue % other == 0
+            && (this.longValue != Long.MIN_VALUE || other != -1))
+        {
+            this.longValue /= other;
+        }
+        else
+        {
+            divide(BigDecimal.valueOf(other));
+        }
+
+        return this;
+    }
+
+    /**
+     * Divides by given number: exactly when the quotient has a finite
+     * expansion, or rounded to {@link MathContext#DECIMAL128} otherwise.
+     * @param other the number to divide by.
+     * @return this instance.
+     * @throws ArithmeticException if {@code other} is zero.
+     */
+    @NotNull
+    public NumericValue divide(@NotNull final BigDecimal other)
+    {
+        @NotNull final BigDecimal dividend = toBigDecimal();
+
+        @NotNull BigDecimal quotient;
+
+        try
+        {
+            quotient = dividend.divide(other);
+        }
+        catch (@NotNull final ArithmeticException nonTerminating)
+        {
+            if (other.signum() == 0)
+            {
+                throw nonTerminating;
+            }
+
+            quotient = dividend.divide(other, MathContext.DECIMAL128);
+        }
+
+        return setDecimal(quotient);
+    }
+
+    /**
+     * Divides by given value.
+     * @param other the value to divide by.
+     * @return this instance.
+     * @throws ArithmeticException if {@code other} is zero.
+     */
+    @NotNull
+    public NumericValue divide(@NotNull final NumericValue other)
+    {
+        @Nullable final BigDecimal decimal = other.decimalValue;
+
+        return (decimal != null) ? divide(decimal) : divide(other.longValue);
+    }
+
+    /**
+     * Negates the value.
+     * @return this instance.
+     */
+    @NotNull
+    public NumericValue negate()
+    {
+        if (!isLong())
+        {
+            setDecimal(toBigDecimal().negate());
+        }
+        else if (this.longValue == Long.MIN_VALUE)
+        {
+            setDecimal(BigDecimal.valueOf(this.longValue).negate());
+        }
+        else
+        {
+            this.longValue = -this.longValue;
+        }
+
+        return this;
+    }
+
+    /**
+     * Compares this value with given one numerically, regardless of scale,
+     * as {@link BigDecimal#compareTo(BigDecimal)} does.
+     * @param other the value to compare with.
+     * @return a negative number, zero, or a positive number, if this value is
+     * less than, equal to, or greater than {@code other}.
+     */
+    public int compareTo(@NotNull final NumericValue other)
+    {
+        final int result;
+
+        if (isLong() && other.isLong())
+        {
+            result = Long.compare(this.longValue, other.longValue);
+        }
+        else
+        {
+            result = toBigDecimal().compareTo(other.toBigDecimal());
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String toString()
+    {
+        @Nullable final BigDecimal decimal = this.decimalValue;
+
+        return (decimal != null) ? decimal.toString() : Long.toString(this.longValue);
+    }
+}
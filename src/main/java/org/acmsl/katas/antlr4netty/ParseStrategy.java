@@ -0,0 +1,59 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ParseStrategy.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: How Interpreter drives the ANTLR parser.
+ *
+ * Date: 2026/10/17
+ * Time: 21:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/**
+ * How {@link Interpreter} drives the ANTLR parser.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 21:40
+ */
+public enum ParseStrategy
+{
+    /**
+     * ANTLR defaults: full LL prediction, error recovery,
+     * and syntax errors reported on the console.
+     */
+    LL,
+
+    /**
+     * {@code SLL} prediction bailing out on the first error, retrying
+     * with full {@code LL} prediction only if that fails. Malformed input
+     * fails fast, with no recovery nor console output, throwing a
+     * {@link org.antlr.v4.runtime.misc.ParseCancellationException}.
+     */
+    SLL_THEN_LL
+}
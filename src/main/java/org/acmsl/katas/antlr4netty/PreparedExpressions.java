@@ -0,0 +1,506 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: PreparedExpressions.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Bounded, striped registry of prepared expressions, by handle.
+ *
+ * Date: 2026/10/17
+ * Time: 09:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded registry of {@link CompiledExpression}s, so clients can prepare an expression
+ * once and evaluate it many times, binding its parameters, without lexing or parsing it again.
+ * Each preparation gets a new handle, never reused. The registry is shared by all
+ * connections: expressions are spread over independently locked stripes, by handle,
+ * and each stripe evicts its least recently used expression once full.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:10
+ */
+@ThreadSafe
+public class PreparedExpressions
+{
+    /**
+     * The default maximum number of prepared expressions.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The default number of stripes.
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * The maximum number of prepared expressions.
+     */
+    private final int capacity;
+
+    /**
+     * The stripes.
+     */
+    @NotNull
+    private final Stripe[] stripes;
+
+    /**
+     * The last handle given.
+     */
+    @NotNull
+    private final AtomicLong handles = new AtomicLong();
+
+    /**
+     * The number of expressions evicted.
+     */
+    @NotNull
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new registry, with default capacity.
+     */
+    public PreparedExpressions()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new registry, with default stripes.
+     * @param capacity the maximum number of prepared expressions.
+     */
+    public PreparedExpressions(final int capacity)
+    {
+        this(capacity, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a new registry.
+     * @param capacity the maximum number of prepared expressions.
+     * @param stripes the desired number of stripes; it gets rounded down to a
+     * power of two, no greater than the capacity.
+     */
+    public PreparedExpressions(final int capacity, final int stripes)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+
+        final int count = Integer.highestOneBit(Math.max(1, Math.min(stripes, capacity)));
+
+        this.stripes = new Stripe[count];
+
+        for (int index = 0; index < count; index++)
+        {
+            // the first stripes take the remainder, so the total matches the capacity.
+            final int stripeCapacity = capacity / count + ((index < capacity % count) ? 1 : 0);
+
+            this.stripes[index] = new Stripe(stripeCapacity, this.evictions);
+        }
+    }
+
+    /**
+     * Retrieves the maximum number of prepared expressions.
+     * @return such number.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Prepares given expression.
+     * @param expression the expression.
+     * @return its handle, always positive.
+     */
+    public long prepare(@NotNull final CompiledExpression expression)
+    {
+        final long result = this.handles.incrementAndGet();
+
+        @NotNull final Stripe stripe = stripeFor(result);
+
+        synchronized (stripe)
+        {
+            stripe.put(result, expression);
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the expression prepared with given handle.
+     * @param handle the handle.
+     * @return such expression.
+     * @throws NoSuchElementException if the handle is unknown, or its expression was evicted.
+     */
+    @NotNull
+    public CompiledExpression get(final long handle)
+    {
+        @Nullable final CompiledExpression result;
+
+        @NotNull final Stripe stripe = stripeFor(handle);
+
+        synchronized (stripe)
+        {
+            result = stripe.get(handle);
+        }
+
+        if (result == null)
+        {
+            throw new NoSuchElementException("Unprepared expression: " + handle);
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the stripe for given handle.
+     * @param handle the handle.
+     * @return such stripe.
+     */
+    @NotNull
+    protected Stripe stripeFor(final long handle)
+    {
+        // handles are consecutive, so they take turns.
+        return this.stripes[(int) handle & (this.stripes.length - 1)];
+    }
+
+    /**
+     * Retrieves the number of prepared expressions.
+     * @return such number.
+     */
+    public int size()
+    {
+        int result = 0;
+
+        for (@NotNull final Stripe stripe : this.stripes)
+        {
+            synchronized (stripe)
+            {
+                result += stripe.size();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the number of expressions evicted so far.
+     * @return such number.
+     */
+    public long getEvictions()
+    {
+        return this.evictions.sum();
+    }
+
+    /**
+     * A bounded LRU map from handles to expressions, guarded by its own monitor.
+     * Handles are kept as primitives, in an open-addressing table, so looking
+     * them up doesn't box them; recency is a doubly-linked list of entry indexes.
+     */
+    protected static class Stripe
+    {
+        /**
+         * The multiplier to spread handles over the table (Fibonacci hashing).
+         */
+        protected static final int SPREAD = 0x9E3779B9;
+
+        /**
+         * The maximum number of entries.
+         */
+        private final int capacity;
+
+        /**
+         * The handle of each entry.
+         */
+        @NotNull
+        private final long[] handles;
+
+        /**
+         * The expression of each entry.
+         */
+        @NotNull
+        private final CompiledExpression[] expressions;
+
+        /**
+         * The entry used before each one, or -1.
+         */
+        @NotNull
+        private final int[] previous;
+
+        /**
+         * The entry used after each one, or -1.
+         */
+        @NotNull
+        private final int[] next;
+
+        /**
+         * The table: each slot holds an entry index plus one, or zero if empty.
+         */
+        @NotNull
+        private final int[] slots;
+
+        /**
+         * The shift to turn a spread handle into a slot.
+         */
+        private final int shift;
+
+        /**
+         * The number of entries.
+         */
+        private int size;
+
+        /**
+         * The least recently used entry, or -1.
+         */
+        private int eldest = -1;
+
+        /**
+         * The most recently used entry, or -1.
+         */
+        private int newest = -1;
+
+        /**
+         * The shared eviction counter.
+         */
+        @NotNull
+        private final LongAdder evictions;
+
+        /**
+         * Creates a new stripe.
+         * @param capacity the maximum number of entries.
+         * @param evictions the eviction counter.
+         */
+        protected Stripe(final int capacity, @NotNull final LongAdder evictions)
+        {
+            this.capacity = capacity;
+            this.handles = new long[capacity];
+            this.expressions = new CompiledExpression[capacity];
+            this.previous = new int[capacity];
+            this.next = new int[capacity];
+
+            // at most half full, so probe sequences stay short.
+            final int length = Integer.highestOneBit(capacity) << 2;
+
+            this.slots = new int[length];
+            this.shift = Integer.numberOfLeadingZeros(length) + 1;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Retrieves the number of entries.
+         * @return such number.
+         */
+        public int size()
+        {
+            return this.size;
+        }
+
+        /**
+         * Retrieves the expression of given handle, making it the most recently used.
+         * @param handle the handle.
+         * @return such expression, or {@code null} if there's none.
+         */
+        @Nullable
+        public CompiledExpression get(final long handle)
+        {
+            @Nullable CompiledExpression result = null;
+
+            final int slot = locate(handle);
+
+            if (this.slots[slot] != 0)
+            {
+                final int entry = this.slots[slot] - 1;
+
+                unlink(entry);
+                append(entry);
+
+                result = this.expressions[entry];
+            }
+
+            return result;
+        }
+
+        /**
+         * Adds given expression, evicting the least recently used one if full.
+         * @param handle its handle, not in the stripe yet.
+         * @param expression the expression.
+         */
+        public void put(final long handle, @NotNull final CompiledExpression expression)
+        {
+            final int entry;
+
+            if (this.size < this.capacity)
+            {
+                entry = this.size++;
+            }
+            else
+            {
+                entry = this.eldest;
+
+                unlink(entry);
+                remove(locate(this.handles[entry]));
+
+                this.evictions.increment();
+            }
+
+            this.handles[entry] = handle;
+            this.expressions[entry] = expression;
+            this.slots[locate(handle)] = entry + 1;
+
+            append(entry);
+        }
+
+        /**
+         * Retrieves the preferred slot of given handle.
+         * @param handle the handle.
+         * @return such slot.
+         */
+        protected int home(final long handle)
+        {
+            return (Long.hashCode(handle) * SPREAD) >>> this.shift;
+        }
+
+        /**
+         * Finds the slot of given handle.
+         * @param handle the handle.
+         * @return its slot, or the empty one where it would go.
+         */
+        protected int locate(final long handle)
+        {
+            final int mask = this.slots.length - 1;
+
+            int result = home(handle);
+
+            while (this.slots[result] != 0 && this.handles[this.slots[result] - 1] != handle)
+            {
+                result = (result + 1) & mask;
+            }
+
+            return result;
+        }
+
+        /**
+         * Empties given slot, moving back the entries probed past it, so
+         * lookups never stop short of them.
+         * @param slot the slot.
+         */
+        protected void remove(final int slot)
+        {
+            final int mask = this.slots.length - 1;
+
+            int hole = slot;
+            int current = (slot + 1) & mask;
+
+            while (this.slots[current] != 0)
+            {
+                final int home = home(this.handles[this.slots[current] - 1]);
+
+                // it can move back only if the hole lies between its home and its slot.
+                if (((current - home) & mask) >= ((current - hole) & mask))
+                {
+                    this.slots[hole] = this.slots[current];
+                    hole = current;
+                }
+
+                current = (current + 1) & mask;
+            }
+
+            this.slots[hole] = 0;
+        }
+
+        /**
+         * Takes given entry out of the recency list.
+         * @param entry the entry.
+         */
+        protected void unlink(final int entry)
+        {
+            final int before = this.previous[entry];
+            final int after = this.next[entry];
+
+            if (before < 0)
+            {
+                this.eldest = after;
+            }
+            else
+            {
+                this.next[before] = after;
+            }
+
+            if (after < 0)
+            {
+                this.newest = before;
+            }
+            else
+            {
+                this.previous[after] = before;
+            }
+        }
+
+        /**
+         * Adds given entry to the recency list, as the most recently used.
+         * @param entry the entry.
+         */
+        protected void append(final int entry)
+        {
+            this.previous[entry] = this.newest;
+            this.next[entry] = -1;
+
+            if (this.newest < 0)
+            {
+                this.eldest = entry;
+            }
+            else
+            {
+                this.next[this.newest] = entry;
+            }
+
+            this.newest = entry;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ProtocolSelector.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Picks the protocol of each connection from its first byte.
+ *
+ * Date: 2026/10/17
+ * Time: 18:05
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.List;
+
+/**
+ * Picks the protocol of each connection from its first byte: connections
+ * starting with {@link BinaryProtocol#MAGIC} speak the binary protocol,
+ * and any other byte starts a text expression.
+ * Once the protocol is known, it installs the matching framing, a
+ * {@link BackpressureHandler}, an {@link AdmissionHandler} if there's admission
+ * control, and the handler in its place, as {@link #FRAMING}, {@link #BACKPRESSURE},
+ * {@link #ADMISSION} and {@link #INTERPRETER}, and removes itself, passing
+ * on whatever it had already read.
+ * Text framing drops blank lines, so every frame gets exactly one response.
+ * When given {@link InterpreterMetrics}, the framing annotates every frame
+ * as a received request, and records how long it took to cut it.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:05
+ */
+@NotThreadSafe
+public class ProtocolSelector
+    extends ByteToMessageDecoder
+{
+    /**
+     * The name of the framing handler, once installed.
+     */
+    @NotNull
+    public static final String FRAMING = "framing";
+
+    /**
+     * The name of the interpreter handler, once installed.
+     */
+    @NotNull
+    public static final String INTERPRETER = "interpreter";
+
+    /**
+     * The name of the backpressure handler, once installed.
+     */
+    @NotNull
+    public static final String BACKPRESSURE = "backpressure";
+
+    /**
+     * The name of the admission handler, once installed.
+     */
+    @NotNull
+    public static final String ADMISSION = "admission";
+
+    /**
+     * The handler of text connections.
+     */
+    @NotNull
+    private final ChannelHandler textHandler;
+
+    /**
+     * The handler of binary connections.
+     */
+    @NotNull
+    private final ChannelHandler binaryHandler;
+
+    /**
+     * The group evaluating requests off the I/O event loop, if any.
+     */
+    @Nullable
+    private final EventExecutorGroup evaluationGroup;
+
+    /**
+     * Where to record framing latencies and received requests, if anywhere.
+     */
+    @Nullable
+    private final InterpreterMetrics metrics;
+
+    /**
+     * The maximum number of unanswered requests per connection.
+     */
+    private final int maxInFlight;
+
+    /**
+     * The admission control, if any.
+     */
+    @Nullable
+    private final AdmissionController admission;
+
+    /**
+     * Creates a new selector.
+     * @param textHandler the handler of text connections.
+     * @param binaryHandler the handler of binary connections.
+     * @param evaluationGroup the group to evaluate requests in, or {@code null}
+     * to evaluate them in the I/O event loop.
+     */
+    public ProtocolSelector(
+        @NotNull final ChannelHandler textHandler,
+        @NotNull final ChannelHandler binaryHandler,
+        @Nullable final EventExecutorGroup evaluationGroup)
+    {
+        this(textHandler, binaryHandler, evaluationGroup, null);
+    }
+
+    /**
+     * Creates a new selector.
+     * @param textHandler the handler of text connections.
+     * @param binaryHandler the handler of binary connections.
+     * @param evaluationGroup the group to evaluate requests in, or {@code null}
+     * to evaluate them in the I/O event loop.
+     * @param metrics where to record framing latencies and received requests, if anywhere.
+     */
+    public ProtocolSelector(
+        @NotNull final ChannelHandler textHandler,
+        @NotNull final ChannelHandler binaryHandler,
+        @Nullable final EventExecutorGroup evaluationGroup,
+        @Nullable final InterpreterMetrics metrics)
+    {
+        this(textHandler, binaryHandler, evaluationGroup, metrics, 0);
+    }
+
+    /**
+     * Creates a new selector.
+     * @param textHandler the handler of text connections.
+     * @param binaryHandler the handler of binary connections.
+     * @param evaluationGroup the group to evaluate requests in, or {@code null}
+     * to evaluate them in the I/O event loop.
+     * @param metrics where to record framing latencies and received requests, if anywhere.
+     * @param maxInFlight the maximum number of unanswered requests per connection
+     * before reading from it gets suspended, or 0 for no limit.
+     */
+    public ProtocolSelector(
+        @NotNull final ChannelHandler textHandler,
+        @NotNull final ChannelHandler binaryHandler,
+        @Nullable final EventExecutorGroup evaluationGroup,
+        @Nullable final InterpreterMetrics metrics,
+        final int maxInFlight)
+    {
+        this(textHandler, binaryHandler, evaluationGroup, metrics, maxInFlight, null);
+    }
+
+    /**
+     * Creates a new selector.
+     * @param textHandler the handler of text connections.
+     * @param binaryHandler the handler of binary connections.
+     * @param evaluationGroup the group to evaluate requests in, or {@code null}
+     * to evaluate them in the I/O event loop.
+     * @param metrics where to record framing latencies and received requests, if anywhere.
+     * @param maxInFlight the maximum number of unanswered requests per connection
+     * before reading from it gets suspended, or 0 for no limit.
+     * @param admission the server-wide admission control, if any.
+     */
+    public ProtocolSelector(
+        @NotNull final ChannelHandler textHandler,
+        @NotNull final ChannelHandler binaryHandler,
+        @Nullable final EventExecutorGroup evaluationGroup,
+        @Nullable final InterpreterMetrics metrics,
+        final int maxInFlight,
+        @Nullable final AdmissionController admission)
+    {
+        this.textHandler = textHandler;
+        this.binaryHandler = binaryHandler;
+        this.evaluationGroup = evaluationGroup;
+        this.metrics = metrics;
+        this.maxInFlight = maxInFlight;
+        this.admission = admission;
+    }
+
+    /**
+     * Retrieves the handler of text connections.
+     * @return such handler.
+     */
+    @NotNull
+    public ChannelHandler getTextHandler()
+    {
+        return this.textHandler;
+    }
+
+    /**
+     * Retrieves the handler of binary connections.
+     * @return such handler.
+     */
+    @NotNull
+    public ChannelHandler getBinaryHandler()
+    {
+        return this.binaryHandler;
+    }
+
+    /**
+     * Retrieves the group evaluating requests off the I/O event loop.
+     * @return such group, or {@code null} if there's none.
+     */
+    @Nullable
+    public EventExecutorGroup getEvaluationGroup()
+    {
+        return this.evaluationGroup;
+    }
+
+    /**
+     * Retrieves where framing latencies and received requests are recorded.
+     * @return such metrics, or {@code null} if not recorded.
+     */
+    @Nullable
+    public InterpreterMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Retrieves the maximum number of unanswered requests per connection.
+     * @return such number, or 0 if there's no limit.
+     */
+    public int getMaxInFlight()
+    {
+        return this.maxInFlight;
+    }
+
+    /**
+     * Retrieves the server-wide admission control.
+     * @return such control, or {@code null} if there's none.
+     */
+    @Nullable
+    public AdmissionController getAdmission()
+    {
+        return this.admission;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void decode(
+        @NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf in, @NotNull final List<Object> out)
+        throws Exception
+    {
+        if (in.isReadable())
+        {
+            @NotNull final ChannelPipeline pipeline = ctx.pipeline();
+
+            if (in.getByte(in.readerIndex()) == BinaryProtocol.MAGIC)
+            {
+                in.skipBytes(1);
+
+                pipeline.addAfter(
+                    ctx.name(),
+                    FRAMING,
+                    new BinaryFrameDecoder(
+                        BinaryProtocol.MAX_FRAME_LENGTH,
+                        0,
+                        BinaryProtocol.LENGTH_FIELD_LENGTH,
+                        0,
+                        BinaryProtocol.LENGTH_FIELD_LENGTH,
+                        getMetrics()));
+                addInterpreter(pipeline, getBinaryHandler(), BinaryInterpreterServerChannelHandler.BUSY_BUFFER);
+            }
+            else
+            {
+                pipeline.addAfter(
+                    ctx.name(),
+                    FRAMING,
+                    new TextFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH, getMetrics()));
+                addInterpreter(pipeline, getTextHandler(), InterpreterServerChannelHandler.BUSY_BUFFER);
+            }
+
+            // the remaining bytes, if any, are passed on to the new framing.
+            pipeline.remove(this);
+        }
+    }
+
+    /**
+     * Adds given handler after the framing, the backpressure handler and the
+     * admission handler, if any, in the evaluation group, if any.
+     * @param pipeline the pipeline.
+     * @param handler the handler.
+     * @param busyResponse the response to requests not admitted.
+     */
+    protected void addInterpreter(
+        @NotNull final ChannelPipeline pipeline,
+        @NotNull final ChannelHandler handler,
+        @NotNull final ByteBuf busyResponse)
+    {
+        // backpressure and admission stay in the I/O event loop, so their counters need no synchronization.
+        pipeline.addAfter(FRAMING, BACKPRESSURE, new BackpressureHandler(getMaxInFlight()));
+
+        @NotNull String previous = BACKPRESSURE;
+
+        @Nullable final AdmissionController admissionControl = getAdmission();
+
+        if (admissionControl != null)
+        {
+            pipeline.addAfter(
+                BACKPRESSURE, ADMISSION, new AdmissionHandler(admissionControl, busyResponse, getMetrics()));
+            previous = ADMISSION;
+        }
+
+        @Nullable final EventExecutorGroup group = getEvaluationGroup();
+
+        if (group != null)
+        {
+            pipeline.addAfter(group, previous, INTERPRETER, handler);
+        }
+        else
+        {
+            pipeline.addAfter(previous, INTERPRETER, handler);
+        }
+    }
+
+    /**
+     * Annotates a frame in given metrics, if any.
+     * @param metrics the metrics.
+     * @param frame the frame, or {@code null} if there were not enough bytes yet.
+     * @param start when framing started, in {@link System#nanoTime()} terms.
+     */
+    protected static void annotate(
+        @Nullable final InterpreterMetrics metrics, @Nullable final Object frame, final long start)
+    {
+        if (metrics != null && frame != null)
+        {
+            metrics.recordSince(InterpreterMetrics.Stage.DECODE, start);
+            metrics.requestReceived();
+        }
+    }
+
+    /**
+     * A {@link LineBasedFrameDecoder} dropping blank lines, and annotating
+     * every other line in the metrics, if any.
+     */
+    @NotThreadSafe
+    protected static class TextFrameDecoder
+        extends LineBasedFrameDecoder
+    {
+        /**
+         * The metrics, if any.
+         */
+        @Nullable
+        private final InterpreterMetrics metrics;
+
+        /**
+         * Creates a new decoder.
+         * @param maxLength the maximum length of lines.
+         * @param metrics the metrics, if any.
+         */
+        public TextFrameDecoder(final int maxLength, @Nullable final InterpreterMetrics metrics)
+        {
+            super(maxLength);
+            this.metrics = metrics;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        protected Object decode(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf buffer)
+            throws Exception
+        {
+            final long start = (this.metrics != null) ? System.nanoTime() : 0;
+
+            @Nullable Object result = super.decode(ctx, buffer);
+
+            // blank lines carry no expression, and get no response.
+            if (result != null && InterpreterServerChannelHandler.isBlank((ByteBuf) result))
+            {
+                ReferenceCountUtil.release(result);
+                result = null;
+            }
+
+            annotate(this.metrics, result, start);
+
+            return result;
+        }
+    }
+
+    /**
+     * A {@link LengthFieldBasedFrameDecoder} annotating every frame in the metrics, if any.
+     */
+    @NotThreadSafe
+    protected static class BinaryFrameDecoder
+        extends LengthFieldBasedFrameDecoder
+    {
+        /**
+         * The metrics, if any.
+         */
+        @Nullable
+        private final InterpreterMetrics metrics;
+
+        /**
+         * Creates a new decoder.
+         * @param maxFrameLength the maximum length of frames.
+         * @param lengthFieldOffset the offset of the length field.
+         * @param lengthFieldLength the length of the length field.
+         * @param lengthAdjustment the compensation value to add to the value of the length field.
+         * @param initialBytesToStrip the number of first bytes to strip out from the frame.
+         * @param metrics the metrics, if any.
+         */
+        public BinaryFrameDecoder(
+            final int maxFrameLength,
+            final int lengthFieldOffset,
+            final int lengthFieldLength,
+            final int lengthAdjustment,
+            final int initialBytesToStrip,
+            @Nullable final InterpreterMetrics metrics)
+        {
+            super(maxFrameLength, lengthFieldOffset, lengthFieldLength, lengthAdjustment, initialBytesToStrip);
+            this.metrics = metrics;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        protected Object decode(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf in)
+            throws Exception
+        {
+            final long start = (this.metrics != null) ? System.nanoTime() : 0;
+
+            @Nullable final Object result = super.decode(ctx, in);
+
+            annotate(this.metrics, result, start);
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: RequestCoalescer.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Coalesces concurrent evaluations of the same expression.
+ *
+ * Date: 2026/10/17
+ * Time: 15:05
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent evaluations of the same normalized expression (see
+ * {@link ResultCache#keyOf(io.netty.buffer.ByteBuf)}): the first request leads
+ * the evaluation, and the ones arriving while it's in flight get its response
+ * instead of evaluating the expression again. Nobody waits for it: followers
+ * {@link Evaluation#listen listen} for the response, and get notified when it completes,
+ * so event-loop threads never block on another one's evaluation.
+ * Nothing is kept once the evaluation completes, so it's no cache: it only
+ * saves the work of bursts of identical requests.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 15:05
+ */
+@ThreadSafe
+public class RequestCoalescer
+{
+    /**
+     * The evaluations in flight.
+     */
+    @NotNull
+    private final ConcurrentHashMap<ResultCache.Key, Evaluation> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The number of evaluations led.
+     */
+    @NotNull
+    private final LongAdder led = new LongAdder();
+
+    /**
+     * The number of requests answered with the response of another one.
+     */
+    @NotNull
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Creates a new instance.
+     */
+    public RequestCoalescer()
+    {
+    }
+
+    /**
+     * Joins the evaluation of given expression in flight, or starts a new one.
+     * @param key the expression.
+     * @return the evaluation: if the current thread leads it, it must
+     * {@link #complete} it; otherwise, it must {@link Evaluation#listen} to it.
+     */
+    @NotNull
+    public Evaluation join(@NotNull final ResultCache.Key key)
+    {
+        @NotNull final Evaluation candidate = new Evaluation(key, Thread.currentThread());
+
+        @Nullable Evaluation result = this.inFlight.putIfAbsent(key, candidate);
+
+        if (result == null)
+        {
+            result = candidate;
+
+            this.led.increment();
+        }
+        else
+        {
+            this.coalesced.increment();
+        }
+
+        return result;
+    }
+
+    /**
+     * Completes an evaluation led by the current thread, handing its response to
+     * the requests listening to it. Later requests start a new evaluation.
+     * @param evaluation the evaluation.
+     * @param response the response, or {@code null} if listening requests should
+     * evaluate the expression themselves.
+     */
+    public void complete(@NotNull final Evaluation evaluation, @Nullable final byte[] response)
+    {
+        this.inFlight.remove(evaluation.key, evaluation);
+
+        evaluation.complete(response);
+    }
+
+    /**
+     * Retrieves the number of evaluations in flight.
+     * @return such number.
+     */
+    public int size()
+    {
+        return this.inFlight.size();
+    }
+
+    /**
+     * Retrieves the number of evaluations led so far.
+     * @return such number.
+     */
+    public long getLed()
+    {
+        return this.led.sum();
+    }
+
+    /**
+     * Retrieves the number of requests answered so far with the response of another one.
+     * @return such number.
+     */
+    public long getCoalesced()
+    {
+        return this.coalesced.sum();
+    }
+
+    /**
+     * Gets notified when an evaluation completes.
+     */
+    public interface Listener
+    {
+        /**
+         * Receives the response of the evaluation, in the thread completing it.
+         * @param response the response, or {@code null} if the listener should
+         * evaluate the expression itself.
+         */
+        void completed(@Nullable byte[] response);
+    }
+
+    /**
+     * An evaluation in flight, guarded by its own monitor.
+     */
+    @ThreadSafe
+    public static final class Evaluation
+    {
+        /**
+         * The expression.
+         */
+        @NotNull
+        private final ResultCache.Key key;
+
+        /**
+         * The thread leading the evaluation.
+         */
+        @NotNull
+        private final Thread leader;
+
+        /**
+         * The listeners, until it completes.
+         */
+        @Nullable
+        private List<Listener> listeners;
+
+        /**
+         * The response.
+         */
+        @Nullable
+        private byte[] response;
+
+        /**
+         * Whether it's completed.
+         */
+        private boolean completed;
+
+        /**
+         * Creates a new evaluation.
+         * @param key the expression.
+         * @param leader the thread leading it.
+         */
+        protected Evaluation(@NotNull final ResultCache.Key key, @NotNull final Thread leader)
+        {
+            this.key = key;
+            this.leader = leader;
+        }
+
+        /**
+         * Checks whether the current thread leads this evaluation.
+         * @return {@code true} in such case.
+         */
+        public boolean isLed()
+        {
+            return this.leader == Thread.currentThread();
+        }
+
+        /**
+         * Completes this evaluation, notifying its listeners outside the monitor.
+         * @param response the response, or {@code null} if it failed.
+         */
+        protected void complete(@Nullable final byte[] response)
+        {
+            @Nullable final List<Listener> notified;
+
+            synchronized (this)
+            {
+                this.response = response;
+                this.completed = true;
+
+                notified = this.listeners;
+                this.listeners = null;
+            }
+
+            if (notified != null)
+            {
+                for (@NotNull final Listener listener : notified)
+                {
+                    listener.completed(response);
+                }
+            }
+        }
+
+        /**
+         * Gets given listener notified once this evaluation completes,
+         * right away if it already has.
+         * @param listener the listener.
+         */
+        public void listen(@NotNull final Listener listener)
+        {
+            final boolean done;
+
+            @Nullable final byte[] outcome;
+
+            synchronized (this)
+            {
+                done = this.completed;
+                outcome = this.response;
+
+                if (!done)
+                {
+                    if (this.listeners == null)
+                    {
+                        this.listeners = new ArrayList<>(2);
+                    }
+
+                    this.listeners.add(listener);
+                }
+            }
+
+            if (done)
+            {
+                listener.completed(outcome);
+            }
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ResultCache.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Bounded, striped cache of encoded responses, keyed by normalized expression.
+ *
+ * Date: 2026/10/17
+ * Time: 22:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of encoded responses, keyed by whitespace-normalized expression.
+ * Entries are spread over independently locked stripes, so threads looking up
+ * different expressions rarely contend; each stripe evicts on its own.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 22:40
+ */
+@ThreadSafe
+public class ResultCache
+{
+    /**
+     * The default number of stripes.
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * How entries get evicted once a stripe is full.
+     */
+    public enum EvictionPolicy
+    {
+        /**
+         * Evicts the least recently used entry.
+         */
+        LRU,
+
+        /**
+         * Evicts the oldest entry, regardless of its use.
+         */
+        FIFO
+    }
+
+    /**
+     * The stripes.
+     */
+    @NotNull
+    private final Stripe[] stripes;
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int capacity;
+
+    /**
+     * The eviction policy.
+     */
+    @NotNull
+    private final EvictionPolicy evictionPolicy;
+
+    /**
+     * The number of hits.
+     */
+    @NotNull
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The number of misses.
+     */
+    @NotNull
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The number of evictions.
+     */
+    @NotNull
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new LRU cache.
+     * @param capacity the maximum number of entries.
+     */
+    public ResultCache(final int capacity)
+    {
+        this(capacity, EvictionPolicy.LRU, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a new cache.
+     * @param capacity the maximum number of entries.
+     * @param evictionPolicy the eviction policy.
+     * @param stripes the desired number of stripes; it gets rounded down to a
+     * power of two, no greater than the capacity.
+     */
+    public ResultCache(final int capacity, @NotNull final EvictionPolicy evictionPolicy, final int stripes)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.evictionPolicy = evictionPolicy;
+
+        final int count = Integer.highestOneBit(Math.max(1, Math.min(stripes, capacity)));
+
+        this.stripes = new Stripe[count];
+
+        for (int index = 0; index < count; index++)
+        {
+            // the first stripes take the remainder, so the total matches the capacity.
+            final int stripeCapacity = capacity / count + ((index < capacity % count) ? 1 : 0);
+
+            this.stripes[index] = new Stripe(stripeCapacity, evictionPolicy == EvictionPolicy.LRU, this.evictions);
+        }
+    }
+
+    /**
+     * Builds the key for the expression in the readable bytes of given buffer:
+     * leading and trailing whitespace is dropped, and inner whitespace runs
+     * collapse to a single space (they can't be dropped: {@code 1 2} and
+     * {@code 12} mean different things).
+     * @param input the expression.
+     * @return the key.
+     */
+    @NotNull
+    public static Key keyOf(@NotNull final ByteBuf input)
+    {
+        final int start = input.readerIndex();
+        final int end = input.writerIndex();
+
+        @NotNull final byte[] normalized = new byte[end - start];
+
+        int length = 0;
+        boolean pendingSpace = false;
+
+        for (int index = start; index < end; index++)
+        {
+            final byte current = input.getByte(index);
+
+            if (isWhitespace(current))
+            {
+                pendingSpace = length > 0;
+            }
+            else
+            {
+                if (pendingSpace)
+                {
+                    normalized[length++] = ' ';
+                    pendingSpace = false;
+                }
+
+                normalized[length++] = current;
+            }
+        }
+
+        return new Key(Arrays.copyOf(normalized, length));
+    }
+
+    /**
+     * Checks whether given byte is whitespace, according to Interpreter grammar.
+     * @param value the byte.
+     * @return {@code true} in such case.
+     */
+    protected static boolean isWhitespace(final byte value)
+    {
+        return value == ' ' || value == '\t' || value == '\r' || value == '\n' || value == '\f';
+    }
+
+    /**
+     * Retrieves the cached response for given key.
+     * @param key the key.
+     * @return the response, or {@code null} if it's not cached.
+     */
+    @Nullable
+    public byte[] get(@NotNull final Key key)
+    {
+        @Nullable final byte[] result;
+
+        @NotNull final Stripe stripe = stripeFor(key);
+
+        synchronized (stripe)
+        {
+            result = stripe.get(key);
+        }
+
+        if (result == null)
+        {
+            this.misses.increment();
+        }
+        else
+        {
+            this.hits.increment();
+        }
+
+        return result;
+    }
+
+    /**
+     * Caches given response.
+     * @param key the key.
+     * @param response the encoded response. It must not be modified afterwards.
+     */
+    public void put(@NotNull final Key key, @NotNull final byte[] response)
+    {
+        @NotNull final Stripe stripe = stripeFor(key);
+
+        synchronized (stripe)
+        {
+            stripe.put(key, response);
+        }
+    }
+
+    /**
+     * Retrieves the stripe for given key.
+     * @param key the key.
+     * @return such stripe.
+     */
+    @NotNull
+    protected Stripe stripeFor(@NotNull final Key key)
+    {
+        final int hash = key.hashCode();
+
+        // spread the hash bits, as the stripe count is a power of two.
+        return this.stripes[(hash ^ (hash >>> 16)) & (this.stripes.length - 1)];
+    }
+
+    /**
+     * Retrieves the number of cached entries.
+     * @return such number.
+     */
+    public int size()
+    {
+        int result = 0;
+
+        for (@NotNull final Stripe stripe : this.stripes)
+        {
+            synchronized (stripe)
+            {
+                result += stripe.size();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the maximum number of entries.
+     * @return such number.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Retrieves the eviction policy.
+     * @return such policy.
+     */
+    @NotNull
+    public EvictionPolicy getEvictionPolicy()
+    {
+        return this.evictionPolicy;
+    }
+
+    /**
+     * Retrieves the number of hits so far.
+     * @return such number.
+     */
+    public long getHits()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * Retrieves the number of misses so far.
+     * @return such number.
+     */
+    public long getMisses()
+    {
+        return this.misses.sum();
+    }
+
+    /**
+     * Retrieves the number of evictions so far.
+     * @return such number.
+     */
+    public long getEvictions()
+    {
+        return this.evictions.sum();
+    }
+
+    /**
+     * A normalized expression.
+     */
+    public static final class Key
+    {
+        /**
+         * The normalized bytes.
+         */
+        @NotNull
+        private final byte[] bytes;
+
+        /**
+         * The cached hash code.
+         */
+        private final int hash;
+
+        /**
+         * Creates a new key.
+         * @param bytes the normalized bytes.
+         */
+        protected Key(@NotNull final byte[] bytes)
+        {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode()
+        {
+            return this.hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(@Nullable final Object other)
+        {
+            return
+                   (this == other)
+                || (   (other instanceof Key)
+                    && (this.hash == ((Key) other).hash)
+                    && Arrays.equals(this.bytes, ((Key) other).bytes));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public String toString()
+        {
+            return new String(this.bytes, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * A bounded map, guarded by its own monitor.
+     */
+    protected static class Stripe
+        extends LinkedHashMap<Key, byte[]>
+    {
+        /**
+         * The serial version id.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximum number of entries.
+         */
+        private final int capacity;
+
+        /**
+         * The shared eviction counter.
+         */
+        @NotNull
+        private final transient LongAdder evictions;
+
+        /**
+         * Creates a new stripe.
+         * @param capacity the maximum number of entries.
+         * @param accessOrder whether to keep entries in access order (LRU) or insertion order (FIFO).
+         * @param evictions the eviction counter.
+         */
+        protected Stripe(final int capacity, final boolean accessOrder, @NotNull final LongAdder evictions)
+        {
+            super(16, 0.75f, accessOrder);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected boolean removeEldestEntry(@NotNull final Map.Entry<Key, byte[]> eldest)
+        {
+            final boolean result = size() > this.capacity;
+
+            if (result)
+            {
+                this.evictions.increment();
+            }
+
+            return result;
+        }
+    }
+}
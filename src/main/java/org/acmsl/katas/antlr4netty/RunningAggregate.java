@@ -0,0 +1,213 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: RunningAggregate.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Running sum, count, minimum and maximum of a stream of values.
+ *
+ * Date: 2026/10/17
+ * Time: 18:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/**
+ * Running sum, count, minimum and maximum of a stream of values, updated
+ * in place as each one arrives. The sum stays a {@code long} while it fits,
+ * and becomes an exact {@link java.math.BigDecimal} otherwise, as {@link NumericValue} does.
+ * Inputs that could not be evaluated are only counted, as errors.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:20
+ */
+@NotThreadSafe
+public class RunningAggregate
+{
+    /**
+     * The separator of the fields of snapshots.
+     */
+    public static final char SEPARATOR = InterpreterServerChannelHandler.BATCH_SEPARATOR;
+
+    /**
+     * The sum of the values.
+     */
+    @NotNull
+    private final NumericValue sum = new NumericValue();
+
+    /**
+     * The minimum value, once there's any.
+     */
+    @NotNull
+    private final NumericValue min = new NumericValue();
+
+    /**
+     * The maximum value, once there's any.
+     */
+    @NotNull
+    private final NumericValue max = new NumericValue();
+
+    /**
+     * The number of values.
+     */
+    private long count;
+
+    /**
+     * The number of inputs that could not be evaluated.
+     */
+    private long errors;
+
+    /**
+     * Creates a new, empty aggregate.
+     */
+    public RunningAggregate()
+    {
+    }
+
+    /**
+     * Retrieves the sum of the values.
+     * @return such sum.
+     */
+    @NotNull
+    public NumericValue getSum()
+    {
+        return this.sum;
+    }
+
+    /**
+     * Retrieves the minimum value. Only meaningful if there's any.
+     * @return such value.
+     */
+    @NotNull
+    public NumericValue getMin()
+    {
+        return this.min;
+    }
+
+    /**
+     * Retrieves the maximum value. Only meaningful if there's any.
+     * @return such value.
+     */
+    @NotNull
+    public NumericValue getMax()
+    {
+        return this.max;
+    }
+
+    /**
+     * Retrieves the number of values.
+     * @return such number.
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Retrieves the number of inputs that could not be evaluated.
+     * @return such number.
+     */
+    public long getErrors()
+    {
+        return this.errors;
+    }
+
+    /**
+     * Adds given value.
+     * @param value the value.
+     */
+    public void add(@NotNull final NumericValue value)
+    {
+        if (this.count == 0)
+        {
+            this.min.set(value);
+            this.max.set(value);
+        }
+        else if (value.compareTo(this.min) < 0)
+        {
+            this.min.set(value);
+        }
+        else if (value.compareTo(this.max) > 0)
+        {
+            this.max.set(value);
+        }
+
+        this.sum.add(value);
+        this.count++;
+    }
+
+    /**
+     * Annotates an input that could not be evaluated.
+     */
+    public void error()
+    {
+        this.errors++;
+    }
+
+    /**
+     * Writes a snapshot of the aggregate: {@code sum;count;min;max;errors},
+     * with empty minimum and maximum while there are no values.
+     * @param digits the writer of the numbers.
+     * @param output the buffer to write to.
+     */
+    public void write(@NotNull final DigitWriter digits, @NotNull final ByteBuf output)
+    {
+        digits.write(this.sum, output);
+        output.writeByte(SEPARATOR);
+        digits.write(this.count, output);
+        output.writeByte(SEPARATOR);
+
+        if (this.count > 0)
+        {
+            digits.write(this.min, output);
+        }
+
+        output.writeByte(SEPARATOR);
+
+        if (this.count > 0)
+        {
+            digits.write(this.max, output);
+        }
+
+        output.writeByte(SEPARATOR);
+        digits.write(this.errors, output);
+    }
+}
@@ -0,0 +1,1075 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ServerSettings.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tunable settings of InterpreterServer.
+ *
+ * Date: 2026/10/17
+ * Time: 23:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Properties;
+
+/**
+ * Tunable settings of {@link InterpreterServer}. Defaults can be overridden
+ * through system properties, read by {@link #fromSystemProperties()}, and
+ * through command-line options, read by {@link #fromArguments(String[])}.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:10
+ */
+@NotThreadSafe
+public class ServerSettings
+{
+    /**
+     * The system property with the capacity of the result cache (0 disables it).
+     */
+    public static final String CACHE_CAPACITY_PROPERTY = "kata.cache.capacity";
+
+    /**
+     * The system property with the eviction policy of the result cache.
+     */
+    public static final String CACHE_EVICTION_PROPERTY = "kata.cache.eviction";
+
+    /**
+     * The system property with the number of threads evaluating expressions
+     * (0 evaluates them on the I/O threads).
+     */
+    public static final String EVALUATION_THREADS_PROPERTY = "kata.evaluation.threads";
+
+    /**
+     * The system property telling whether the evaluation threads should be virtual, if supported.
+     * They're still a fixed number, each connection sticking to one of them.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "kata.evaluation.virtual";
+
+    /**
+     * The system property telling whether to use the native transport, if available.
+     */
+    public static final String NATIVE_TRANSPORT_PROPERTY = "kata.transport.native";
+
+    /**
+     * The system property with the number of threads accepting connections (0 for Netty's default).
+     */
+    public static final String BOSS_THREADS_PROPERTY = "kata.boss.threads";
+
+    /**
+     * The system property with the number of I/O threads (0 for Netty's default).
+     */
+    public static final String WORKER_THREADS_PROPERTY = "kata.worker.threads";
+
+    /**
+     * The system property with the accept backlog.
+     */
+    public static final String BACKLOG_PROPERTY = "kata.backlog";
+
+    /**
+     * The system property telling whether to disable Nagle's algorithm.
+     */
+    public static final String TCP_NODELAY_PROPERTY = "kata.tcp.nodelay";
+
+    /**
+     * The system property telling whether to enable {@code SO_REUSEPORT}, if supported.
+     */
+    public static final String REUSE_PORT_PROPERTY = "kata.reuseport";
+
+    /**
+     * The system property with the socket receive buffer size (0 for the OS default).
+     */
+    public static final String RECEIVE_BUFFER_PROPERTY = "kata.rcvbuf";
+
+    /**
+     * The system property with the socket send buffer size (0 for the OS default).
+     */
+    public static final String SEND_BUFFER_PROPERTY = "kata.sndbuf";
+
+    /**
+     * The system property with the outbound buffer size, per connection, above which
+     * reading from it gets suspended.
+     */
+    public static final String WRITE_BUFFER_HIGH_PROPERTY = "kata.write.buffer.high";
+
+    /**
+     * The system property with the outbound buffer size, per connection, below which
+     * reading from it gets resumed.
+     */
+    public static final String WRITE_BUFFER_LOW_PROPERTY = "kata.write.buffer.low";
+
+    /**
+     * The system property with the maximum number of unanswered requests per connection
+     * before reading from it gets suspended (0 for no limit).
+     */
+    public static final String MAX_IN_FLIGHT_PROPERTY = "kata.max.in.flight";
+
+    /**
+     * The system property with the maximum number of concurrent connections (0 for no limit).
+     */
+    public static final String ADMISSION_MAX_CONNECTIONS_PROPERTY = "kata.admission.max.connections";
+
+    /**
+     * The system property with the maximum number of requests being evaluated
+     * server-wide (0 for no limit).
+     */
+    public static final String ADMISSION_MAX_IN_FLIGHT_PROPERTY = "kata.admission.max.in.flight";
+
+    /**
+     * The system property with the latency, in microseconds, the adaptive limit on
+     * requests being evaluated aims at (0 keeps the limit fixed).
+     */
+    public static final String ADMISSION_TARGET_LATENCY_PROPERTY = "kata.admission.target.latency";
+
+    /**
+     * The system property with the number of evaluations of an expression shape
+     * before compiling it into bytecode (0 disables it).
+     */
+    public static final String JIT_THRESHOLD_PROPERTY = "kata.jit.threshold";
+
+    /**
+     * The system property with the maximum number of expression shapes tracked
+     * for compilation into bytecode.
+     */
+    public static final String JIT_CAPACITY_PROPERTY = "kata.jit.capacity";
+
+    /**
+     * The system property with the maximum number of prepared expressions
+     * (0 disables preparing them).
+     */
+    public static final String PREPARED_CAPACITY_PROPERTY = "kata.prepared.capacity";
+
+    /**
+     * The system property telling whether identical expressions in flight are
+     * evaluated only once.
+     */
+    public static final String COALESCING_ENABLED_PROPERTY = "kata.coalescing.enabled";
+
+    /**
+     * The system property with the maximum number of named accumulators
+     * (0 disables them).
+     */
+    public static final String ACCUMULATORS_CAPACITY_PROPERTY = "kata.accumulators.capacity";
+
+    /**
+     * The system property telling whether to record latencies and counters.
+     */
+    public static final String METRICS_ENABLED_PROPERTY = "kata.metrics.enabled";
+
+    /**
+     * The system property with the local port serving metrics over HTTP (0 disables it).
+     */
+    public static final String METRICS_PORT_PROPERTY = "kata.metrics.port";
+
+    /**
+     * The system property telling whether to register metrics over JMX.
+     */
+    public static final String METRICS_JMX_PROPERTY = "kata.metrics.jmx";
+
+    /**
+     * The prefix of all properties.
+     */
+    public static final String PROPERTY_PREFIX = "kata.";
+
+    /**
+     * The prefix of command-line options.
+     */
+    public static final String OPTION_PREFIX = "--";
+
+    /**
+     * The capacity of the result cache.
+     */
+    private int cacheCapacity = 0;
+
+    /**
+     * The eviction policy of the result cache.
+     */
+    @NotNull
+    private ResultCache.EvictionPolicy cacheEviction = ResultCache.EvictionPolicy.LRU;
+
+    /**
+     * The number of evaluation threads.
+     */
+    private int evaluationThreads = 0;
+
+    /**
+     * Whether evaluation threads are virtual.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Whether to use the native transport, if available.
+     */
+    private boolean nativeTransport = true;
+
+    /**
+     * The number of threads accepting connections.
+     */
+    private int bossThreads = 0;
+
+    /**
+     * The number of I/O threads.
+     */
+    private int workerThreads = 0;
+
+    /**
+     * The accept backlog.
+     */
+    private int backlog = 128;
+
+    /**
+     * Whether to disable Nagle's algorithm.
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * Whether to enable {@code SO_REUSEPORT}.
+     */
+    private boolean reusePort = false;
+
+    /**
+     * The socket receive buffer size.
+     */
+    private int receiveBufferSize = 0;
+
+    /**
+     * The socket send buffer size.
+     */
+    private int sendBufferSize = 0;
+
+    /**
+     * The high write-buffer watermark.
+     */
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * The low write-buffer watermark.
+     */
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * The maximum number of unanswered requests per connection.
+     */
+    private int maxInFlight = 1024;
+
+    /**
+     * The maximum number of concurrent connections.
+     */
+    private int admissionMaxConnections = 0;
+
+    /**
+     * The maximum number of requests being evaluated server-wide.
+     */
+    private int admissionMaxInFlight = 0;
+
+    /**
+     * The latency the adaptive limit aims at, in microseconds.
+     */
+    private int admissionTargetLatency = 0;
+
+    /**
+     * The number of evaluations of an expression shape before compiling it.
+     */
+    private int jitThreshold = 0;
+
+    /**
+     * The maximum number of expression shapes tracked for compilation.
+     */
+    private int jitCapacity = ExpressionJit.DEFAULT_CAPACITY;
+
+    /**
+     * The maximum number of prepared expressions.
+     */
+    private int preparedCapacity = PreparedExpressions.DEFAULT_CAPACITY;
+
+    /**
+     * Whether identical expressions in flight are evaluated only once.
+     */
+    private boolean coalescingEnabled = false;
+
+    /**
+     * The maximum number of named accumulators.
+     */
+    private int accumulatorsCapacity = Accumulators.DEFAULT_CAPACITY;
+
+    /**
+     * Whether to record latencies and counters.
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * The local port serving metrics over HTTP.
+     */
+    private int metricsPort = 0;
+
+    /**
+     * Whether to register metrics over JMX.
+     */
+    private boolean metricsJmx = true;
+
+    /**
+     * Creates a new instance, with default settings.
+     */
+    public ServerSettings()
+    {
+    }
+
+    /**
+     * Builds the settings from system properties, using defaults for missing ones.
+     * @return such settings.
+     */
+    @NotNull
+    public static ServerSettings fromSystemProperties()
+    {
+        return from(System.getProperties());
+    }
+
+    /**
+     * Builds the settings from system properties, overridden by given command-line
+     * options, in the form {@code --name=value}, where {@code name} is the property
+     * name without the {@link #PROPERTY_PREFIX} (i.e. {@code --worker.threads=8}).
+     * @param options the command-line options.
+     * @return such settings.
+     * @throws IllegalArgumentException if any option is malformed.
+     */
+    @NotNull
+    public static ServerSettings fromArguments(@NotNull final String[] options)
+    {
+        return from(toProperties(options, PROPERTY_PREFIX));
+    }
+
+    /**
+     * Builds properties from system properties, overridden by given command-line
+     * options, in the form {@code --name=value}, each one becoming the property
+     * {@code name} with given prefix.
+     * @param options the command-line options.
+     * @param prefix the prefix of the properties.
+     * @return such properties.
+     * @throws IllegalArgumentException if any option is malformed.
+     */
+    @NotNull
+    public static Properties toProperties(@NotNull final String[] options, @NotNull final String prefix)
+    {
+        @NotNull final Properties result = new Properties();
+
+        result.putAll(System.getProperties());
+
+        for (@NotNull final String option : options)
+        {
+            final int separator = option.indexOf('=');
+
+            if (!option.startsWith(OPTION_PREFIX) || separator < 0)
+            {
+                throw new IllegalArgumentException("Invalid option (expecting --name=value): " + option);
+            }
+
+            result.setProperty(
+                prefix + option.substring(OPTION_PREFIX.length(), separator),
+                option.substring(separator + 1));
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the settings from given properties, using defaults for missing ones.
+     * @param properties the properties.
+     * @return such settings.
+     */
+    @NotNull
+    public static ServerSettings from(@NotNull final Properties properties)
+    {
+        @NotNull final ServerSettings result = new ServerSettings();
+
+        result.setCacheCapacity(getInt(properties, CACHE_CAPACITY_PROPERTY, result.getCacheCapacity()));
+        result.setCacheEviction(
+            ResultCache.EvictionPolicy.valueOf(
+                properties.getProperty(CACHE_EVICTION_PROPERTY, result.getCacheEviction().name())));
+        result.setEvaluationThreads(getInt(properties, EVALUATION_THREADS_PROPERTY, result.getEvaluationThreads()));
+        result.setVirtualThreads(getBoolean(properties, VIRTUAL_THREADS_PROPERTY, result.isVirtualThreads()));
+        result.setNativeTransport(getBoolean(properties, NATIVE_TRANSPORT_PROPERTY, result.isNativeTransport()));
+        result.setBossThreads(getInt(properties, BOSS_THREADS_PROPERTY, result.getBossThreads()));
+        result.setWorkerThreads(getInt(properties, WORKER_THREADS_PROPERTY, result.getWorkerThreads()));
+        result.setBacklog(getInt(properties, BACKLOG_PROPERTY, result.getBacklog()));
+        result.setTcpNoDelay(getBoolean(properties, TCP_NODELAY_PROPERTY, result.isTcpNoDelay()));
+        result.setReusePort(getBoolean(properties, REUSE_PORT_PROPERTY, result.isReusePort()));
+        result.setReceiveBufferSize(getInt(properties, RECEIVE_BUFFER_PROPERTY, result.getReceiveBufferSize()));
+        result.setSendBufferSize(getInt(properties, SEND_BUFFER_PROPERTY, result.getSendBufferSize()));
+        result.setWriteBufferHighWaterMark(
+            getInt(properties, WRITE_BUFFER_HIGH_PROPERTY, result.getWriteBufferHighWaterMark()));
+        result.setWriteBufferLowWaterMark(
+            getInt(properties, WRITE_BUFFER_LOW_PROPERTY, result.getWriteBufferLowWaterMark()));
+        result.setMaxInFlight(getInt(properties, MAX_IN_FLIGHT_PROPERTY, result.getMaxInFlight()));
+        result.setAdmissionMaxConnections(
+            getInt(properties, ADMISSION_MAX_CONNECTIONS_PROPERTY, result.getAdmissionMaxConnections()));
+        result.setAdmissionMaxInFlight(
+            getInt(properties, ADMISSION_MAX_IN_FLIGHT_PROPERTY, result.getAdmissionMaxInFlight()));
+        result.setAdmissionTargetLatency(
+            getInt(properties, ADMISSION_TARGET_LATENCY_PROPERTY, result.getAdmissionTargetLatency()));
+        result.setJitThreshold(getInt(properties, JIT_THRESHOLD_PROPERTY, result.getJitThreshold()));
+        result.setJitCapacity(getInt(properties, JIT_CAPACITY_PROPERTY, result.getJitCapacity()));
+        result.setPreparedCapacity(getInt(properties, PREPARED_CAPACITY_PROPERTY, result.getPreparedCapacity()));
+        result.setCoalescingEnabled(
+            getBoolean(properties, COALESCING_ENABLED_PROPERTY, result.isCoalescingEnabled()));
+        result.setAccumulatorsCapacity(
+            getInt(properties, ACCUMULATORS_CAPACITY_PROPERTY, result.getAccumulatorsCapacity()));
+        result.setMetricsEnabled(getBoolean(properties, METRICS_ENABLED_PROPERTY, result.isMetricsEnabled()));
+        result.setMetricsPort(getInt(properties, METRICS_PORT_PROPERTY, result.getMetricsPort()));
+        result.setMetricsJmx(getBoolean(properties, METRICS_JMX_PROPERTY, result.isMetricsJmx()));
+
+        return result;
+    }
+
+    /**
+     * Reads an integer property.
+     * @param properties the properties.
+     * @param name the property name.
+     * @param defaultValue the value if it's missing.
+     * @return the value.
+     * @throws NumberFormatException if the value is not an integer.
+     */
+    protected static int getInt(@NotNull final Properties properties, @NotNull final String name, final int defaultValue)
+    {
+        @Nullable final String value = properties.getProperty(name);
+
+        return (value != null) ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Reads a boolean property.
+     * @param properties the properties.
+     * @param name the property name.
+     * @param defaultValue the value if it's missing.
+     * @return the value.
+     */
+    protected static boolean getBoolean(
+        @NotNull final Properties properties, @NotNull final String name, final boolean defaultValue)
+    {
+        @Nullable final String value = properties.getProperty(name);
+
+        return (value != null) ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Retrieves the capacity of the result cache.
+     * @return such capacity, or 0 if it's disabled.
+     */
+    public int getCacheCapacity()
+    {
+        return this.cacheCapacity;
+    }
+
+    /**
+     * Specifies the capacity of the result cache.
+     * @param capacity such capacity, or 0 to disable it.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setCacheCapacity(final int capacity)
+    {
+        this.cacheCapacity = capacity;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the eviction policy of the result cache.
+     * @return such policy.
+     */
+    @NotNull
+    public ResultCache.EvictionPolicy getCacheEviction()
+    {
+        return this.cacheEviction;
+    }
+
+    /**
+     * Specifies the eviction policy of the result cache.
+     * @param policy such policy.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setCacheEviction(@NotNull final ResultCache.EvictionPolicy policy)
+    {
+        this.cacheEviction = policy;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the number of threads evaluating expressions.
+     * @return such number, or 0 if they're evaluated on the I/O threads.
+     */
+    public int getEvaluationThreads()
+    {
+        return this.evaluationThreads;
+    }
+
+    /**
+     * Specifies the number of threads evaluating expressions.
+     * @param threads such number, or 0 to evaluate them on the I/O threads.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setEvaluationThreads(final int threads)
+    {
+        this.evaluationThreads = threads;
+
+        return this;
+    }
+
+    /**
+     * Checks whether evaluation threads are virtual, if the JVM supports them.
+     * There are still {@link #getEvaluationThreads()} of them, each connection
+     * sticking to one so its responses keep their order: it's not a thread per evaluation.
+     * @return {@code true} in such case.
+     */
+    public boolean isVirtualThreads()
+    {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Specifies whether evaluation threads are virtual, if the JVM supports them.
+     * There are still {@link #getEvaluationThreads()} of them.
+     * @param virtual such flag.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setVirtualThreads(final boolean virtual)
+    {
+        this.virtualThreads = virtual;
+
+        return this;
+    }
+
+    /**
+     * Checks whether to use the native transport, if available.
+     * @return {@code true} in such case.
+     */
+    public boolean isNativeTransport()
+    {
+        return this.nativeTransport;
+    }
+
+    /**
+     * Specifies whether to use the native transport, if available.
+     * @param preferNative such flag.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setNativeTransport(final boolean preferNative)
+    {
+        this.nativeTransport = preferNative;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the number of threads accepting connections.
+     * @return such number, or 0 for Netty's default.
+     */
+    public int getBossThreads()
+    {
+        return this.bossThreads;
+    }
+
+    /**
+     * Specifies the number of threads accepting connections.
+     * @param threads such number, or 0 for Netty's default.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setBossThreads(final int threads)
+    {
+        this.bossThreads = threads;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the number of I/O threads.
+     * @return such number, or 0 for Netty's default.
+     */
+    public int getWorkerThreads()
+    {
+        return this.workerThreads;
+    }
+
+    /**
+     * Specifies the number of I/O threads.
+     * @param threads such number, or 0 for Netty's default.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setWorkerThreads(final int threads)
+    {
+        this.workerThreads = threads;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the accept backlog.
+     * @return such size.
+     */
+    public int getBacklog()
+    {
+        return this.backlog;
+    }
+
+    /**
+     * Specifies the accept backlog.
+     * @param size such size.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setBacklog(final int size)
+    {
+        this.backlog = size;
+
+        return this;
+    }
+
+    /**
+     * Checks whether Nagle's algorithm is disabled.
+     * @return {@code true} in such case.
+     */
+    public boolean isTcpNoDelay()
+    {
+        return this.tcpNoDelay;
+    }
+
+    /**
+     * Specifies whether to disable Nagle's algorithm.
+     * @param noDelay such flag.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setTcpNoDelay(final boolean noDelay)
+    {
+        this.tcpNoDelay = noDelay;
+
+        return this;
+    }
+
+    /**
+     * Checks whether to enable {@code SO_REUSEPORT}, if the transport supports it.
+     * @return {@code true} in such case.
+     */
+    public boolean isReusePort()
+    {
+        return this.reusePort;
+    }
+
+    /**
+     * Specifies whether to enable {@code SO_REUSEPORT}, if the transport supports it.
+     * @param reuse such flag.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setReusePort(final boolean reuse)
+    {
+        this.reusePort = reuse;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the socket receive buffer size.
+     * @return such size, or 0 for the OS default.
+     */
+    public int getReceiveBufferSize()
+    {
+        return this.receiveBufferSize;
+    }
+
+    /**
+     * Specifies the socket receive buffer size.
+     * @param size such size, or 0 for the OS default.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setReceiveBufferSize(final int size)
+    {
+        this.receiveBufferSize = size;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the socket send buffer size.
+     * @return such size, or 0 for the OS default.
+     */
+    public int getSendBufferSize()
+    {
+        return this.sendBufferSize;
+    }
+
+    /**
+     * Specifies the socket send buffer size.
+     * @param size such size, or 0 for the OS default.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setSendBufferSize(final int size)
+    {
+        this.sendBufferSize = size;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the outbound buffer size, per connection, above which reading from it gets suspended.
+     * @return such size, in bytes.
+     */
+    public int getWriteBufferHighWaterMark()
+    {
+        return this.writeBufferHighWaterMark;
+    }
+
+    /**
+     * Specifies the outbound buffer size, per connection, above which reading from it gets suspended.
+     * @param size such size, in bytes.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setWriteBufferHighWaterMark(final int size)
+    {
+        this.writeBufferHighWaterMark = size;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the outbound buffer size, per connection, below which reading from it gets resumed.
+     * @return such size, in bytes.
+     */
+    public int getWriteBufferLowWaterMark()
+    {
+        return this.writeBufferLowWaterMark;
+    }
+
+    /**
+     * Specifies the outbound buffer size, per connection, below which reading from it gets resumed.
+     * @param size such size, in bytes.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setWriteBufferLowWaterMark(final int size)
+    {
+        this.writeBufferLowWaterMark = size;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of unanswered requests per connection
+     * before reading from it gets suspended.
+     * @return such number, or 0 for no limit.
+     */
+    public int getMaxInFlight()
+    {
+        return this.maxInFlight;
+    }
+
+    /**
+     * Specifies the maximum number of unanswered requests per connection
+     * before reading from it gets suspended.
+     * @param max such number, or 0 for no limit.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setMaxInFlight(final int max)
+    {
+        this.maxInFlight = max;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of concurrent connections.
+     * @return such number, or 0 for no limit.
+     */
+    public int getAdmissionMaxConnections()
+    {
+        return this.admissionMaxConnections;
+    }
+
+    /**
+     * Specifies the maximum number of concurrent connections; others get closed right away.
+     * @param max such number, or 0 for no limit.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setAdmissionMaxConnections(final int max)
+    {
+        this.admissionMaxConnections = max;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of requests being evaluated server-wide.
+     * @return such number, or 0 for no limit.
+     */
+    public int getAdmissionMaxInFlight()
+    {
+        return this.admissionMaxInFlight;
+    }
+
+    /**
+     * Specifies the maximum number of requests being evaluated server-wide;
+     * others get a "busy" response right away.
+     * @param max such number, or 0 for no limit.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setAdmissionMaxInFlight(final int max)
+    {
+        this.admissionMaxInFlight = max;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the latency the adaptive limit on requests being evaluated aims at.
+     * @return such latency, in microseconds, or 0 if the limit is fixed.
+     */
+    public int getAdmissionTargetLatency()
+    {
+        return this.admissionTargetLatency;
+    }
+
+    /**
+     * Specifies the latency the adaptive limit on requests being evaluated aims at,
+     * up to {@link #getAdmissionMaxInFlight()}, if set.
+     * @param micros such latency, in microseconds, or 0 to keep the limit fixed.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setAdmissionTargetLatency(final int micros)
+    {
+        this.admissionTargetLatency = micros;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the number of evaluations of an expression shape before compiling it
+     * into bytecode.
+     * @return such number, or 0 if expressions are always interpreted.
+     */
+    public int getJitThreshold()
+    {
+        return this.jitThreshold;
+    }
+
+    /**
+     * Specifies the number of evaluations of an expression shape before compiling it
+     * into bytecode (see {@link ExpressionJit}).
+     * @param threshold such number, or 0 to always interpret expressions.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setJitThreshold(final int threshold)
+    {
+        this.jitThreshold = threshold;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of expression shapes tracked for compilation into bytecode.
+     * @return such number.
+     */
+    public int getJitCapacity()
+    {
+        return this.jitCapacity;
+    }
+
+    /**
+     * Specifies the maximum number of expression shapes tracked for compilation into
+     * bytecode; the least recently used ones get evicted, and their classes unloaded.
+     * @param capacity such number.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setJitCapacity(final int capacity)
+    {
+        this.jitCapacity = capacity;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of prepared expressions.
+     * @return such number, or 0 if expressions cannot be prepared.
+     */
+    public int getPreparedCapacity()
+    {
+        return this.preparedCapacity;
+    }
+
+    /**
+     * Specifies the maximum number of prepared expressions (see {@link PreparedExpressions});
+     * the least recently used ones get evicted.
+     * @param capacity such number, or 0 to reject preparing expressions.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setPreparedCapacity(final int capacity)
+    {
+        this.preparedCapacity = capacity;
+
+        return this;
+    }
+
+    /**
+     * Checks whether identical expressions in flight are evaluated only once.
+     * @return {@code true} in such case.
+     */
+    public boolean isCoalescingEnabled()
+    {
+        return this.coalescingEnabled;
+    }
+
+    /**
+     * Specifies whether identical expressions in flight are evaluated only once
+     * (see {@link RequestCoalescer}).
+     * @param enabled such condition.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setCoalescingEnabled(final boolean enabled)
+    {
+        this.coalescingEnabled = enabled;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of named accumulators.
+     * @return such number, or 0 if there are no accumulators.
+     */
+    public int getAccumulatorsCapacity()
+    {
+        return this.accumulatorsCapacity;
+    }
+
+    /**
+     * Specifies the maximum number of named accumulators (see {@link Accumulators}).
+     * @param capacity such number, or 0 to reject their commands.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setAccumulatorsCapacity(final int capacity)
+    {
+        this.accumulatorsCapacity = capacity;
+
+        return this;
+    }
+
+    /**
+     * Checks whether latencies and counters are recorded.
+     * @return {@code true} in such case.
+     */
+    public boolean isMetricsEnabled()
+    {
+        return this.metricsEnabled;
+    }
+
+    /**
+     * Specifies whether to record latencies and counters.
+     * @param enabled such flag.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setMetricsEnabled(final boolean enabled)
+    {
+        this.metricsEnabled = enabled;
+
+        return this;
+    }
+
+    /**
+     * Retrieves the local port serving metrics over HTTP.
+     * @return such port, or 0 if they're not served.
+     */
+    public int getMetricsPort()
+    {
+        return this.metricsPort;
+    }
+
+    /**
+     * Specifies the local port serving metrics over HTTP, if they're enabled.
+     * @param port such port, or 0 not to serve them.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setMetricsPort(final int port)
+    {
+        this.metricsPort = port;
+
+        return this;
+    }
+
+    /**
+     * Checks whether metrics are registered over JMX.
+     * @return {@code true} in such case.
+     */
+    public boolean isMetricsJmx()
+    {
+        return this.metricsJmx;
+    }
+
+    /**
+     * Specifies whether to register metrics over JMX, if they're enabled.
+     * @param jmx such flag.
+     * @return this instance.
+     */
+    @NotNull
+    public ServerSettings setMetricsJmx(final boolean jmx)
+    {
+        this.metricsJmx = jmx;
+
+        return this;
+    }
+}
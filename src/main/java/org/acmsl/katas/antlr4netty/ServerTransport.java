@@ -0,0 +1,333 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ServerTransport.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Netty transport the server runs on: native epoll if available, NIO otherwise.
+ *
+ * Date: 2026/10/17
+ * Time: 23:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.lang.reflect.Constructor;
+
+/**
+ * Netty transport the server runs on. The native epoll transport is looked up
+ * reflectively, so it's used whenever its module is on the classpath and the
+ * platform supports it, and NIO is used otherwise.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:30
+ */
+@ThreadSafe
+public abstract class ServerTransport
+{
+    /**
+     * The NIO transport, always available.
+     */
+    @NotNull
+    public static final ServerTransport NIO = new NioTransport();
+
+    /**
+     * Selects the transport to use.
+     * @param preferNative whether to use the native transport, if available.
+     * @return the native transport if preferred and available, or {@link #NIO} otherwise.
+     */
+    @NotNull
+    public static ServerTransport select(final boolean preferNative)
+    {
+        @Nullable ServerTransport result = null;
+
+        if (preferNative)
+        {
+            result = EpollTransport.load();
+        }
+
+        if (result == null)
+        {
+            result = NIO;
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the transport name.
+     * @return such name.
+     */
+    @NotNull
+    public abstract String getName();
+
+    /**
+     * Creates a new event loop group.
+     * @param threads the number of threads, or 0 for Netty's default.
+     * @return the group.
+     */
+    @NotNull
+    public abstract EventLoopGroup newEventLoopGroup(final int threads);
+
+    /**
+     * Retrieves the server channel class.
+     * @return such class.
+     */
+    @NotNull
+    public abstract Class<? extends ServerChannel> getServerChannelClass();
+
+    /**
+     * Retrieves the {@code SO_REUSEPORT} option.
+     * @return such option, or {@code null} if the transport doesn't support it.
+     */
+    @Nullable
+    public abstract ChannelOption<Boolean> getReusePortOption();
+
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String toString()
+    {
+        return getName();
+    }
+
+    /**
+     * The NIO transport.
+     */
+    protected static class NioTransport
+        extends ServerTransport
+    {
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public String getName()
+        {
+            return "nio";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public EventLoopGroup newEventLoopGroup(final int threads)
+        {
+            return new NioEventLoopGroup(threads);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass()
+        {
+            return NioServerSocketChannel.class;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        public ChannelOption<Boolean> getReusePortOption()
+        {
+            // not exposed by NIO.
+            return null;
+        }
+    }
+
+    /**
+     * The native epoll transport, bound reflectively.
+     */
+    protected static class EpollTransport
+        extends ServerTransport
+    {
+        /**
+         * The package of the epoll transport.
+         */
+        protected static final String EPOLL_PACKAGE = "io.netty.channel.epoll.";
+
+        /**
+         * The event loop group constructor.
+         */
+        @NotNull
+        private final Constructor<? extends EventLoopGroup> groupConstructor;
+
+        /**
+         * The server channel class.
+         */
+        @NotNull
+        private final Class<? extends ServerChannel> serverChannelClass;
+
+        /**
+         * The {@code SO_REUSEPORT} option.
+         */
+        @Nullable
+        private final ChannelOption<Boolean> reusePortOption;
+
+        /**
+         * Creates a new instance.
+         * @param groupConstructor the event loop group constructor.
+         * @param serverChannelClass the server channel class.
+         * @param reusePortOption the {@code SO_REUSEPORT} option.
+         */
+        protected EpollTransport(
+            @NotNull final Constructor<? extends EventLoopGroup> groupConstructor,
+            @NotNull final Class<? extends ServerChannel> serverChannelClass,
+            @Nullable final ChannelOption<Boolean> reusePortOption)
+        {
+            this.groupConstructor = groupConstructor;
+            this.serverChannelClass = serverChannelClass;
+            this.reusePortOption = reusePortOption;
+        }
+
+        /**
+         * Loads the epoll transport.
+         * @return such transport, or {@code null} if it's not on the classpath or not supported.
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        protected static ServerTransport load()
+        {
+            @Nullable ServerTransport result = null;
+
+            try
+            {
+                @NotNull final Class<?> epoll = Class.forName(EPOLL_PACKAGE + "Epoll");
+
+                if (Boolean.TRUE.equals(epoll.getMethod("isAvailable").invoke(null)))
+                {
+                    @Nullable ChannelOption<Boolean> reusePort = null;
+
+                    try
+                    {
+                        reusePort =
+                            (ChannelOption<Boolean>)
+                                Class.forName(EPOLL_PACKAGE + "EpollChannelOption").getField("SO_REUSEPORT").get(null);
+                    }
+                    catch (@NotNull final NoSuchFieldException unsupported)
+                    {
+                        // older epoll transports lack SO_REUSEPORT.
+                    }
+
+                    result =
+                        new EpollTransport(
+                            Class.forName(EPOLL_PACKAGE + "EpollEventLoopGroup")
+                                .asSubclass(EventLoopGroup.class)
+                                .getConstructor(int.class),
+                            Class.forName(EPOLL_PACKAGE + "EpollServerSocketChannel").asSubclass(ServerChannel.class),
+                            reusePort);
+                }
+            }
+            catch (@NotNull final ReflectiveOperationException notAvailable)
+            {
+                result = null;
+            }
+            catch (@NotNull final LinkageError notAvailable)
+            {
+                // the native library couldn't be loaded.
+                result = null;
+            }
+
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public String getName()
+        {
+            return "epoll";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public EventLoopGroup newEventLoopGroup(final int threads)
+        {
+            try
+            {
+                return this.groupConstructor.newInstance(threads);
+            }
+            catch (@NotNull final ReflectiveOperationException cannotInstantiate)
+            {
+                throw new IllegalStateException("Cannot create epoll event loop group", cannotInstantiate);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @NotNull
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass()
+        {
+            return this.serverChannelClass;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        public ChannelOption<Boolean> getReusePortOption()
+        {
+            return this.reusePortOption;
+        }
+    }
+}
@@ -0,0 +1,651 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ShapeCompiler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Generates a JVM class per expression shape.
+ *
+ * Date: 2026/10/17
+ * Time: 11:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+import org.checkthread.annotations.ThreadSafe;
+
+/*
+ * Importing JDK classes.
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a JVM class per expression shape, implementing {@link CompiledShape} as
+ * straight-line {@code long} arithmetic over {@link Math}'s exact operations, so
+ * HotSpot can inline and optimize it like hand-written code.
+ * A shape is the post-order of an expression tree, with one character per node:
+ * {@code n} (an integer literal), {@code ~} (unary minus), or the operator symbol
+ * (see {@link CompiledExpression#getShape()}).
+ * Each class is defined by its own class loader, so it gets unloaded as soon
+ * as its {@link CompiledShape} instance is no longer referenced.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:10
+ */
+@ThreadSafe
+public class ShapeCompiler
+{
+    /**
+     * The maximum number of nodes of a shape, keeping methods well below the
+     * 64KB bytecode limit, and within what HotSpot compiles eagerly.
+     */
+    public static final int MAX_NODES = 1024;
+
+    /**
+     * The shape symbol for integer literals.
+     */
+    public static final char LITERAL = 'n';
+
+    /**
+     * The shape symbol for unary minus.
+     */
+    public static final char NEGATION = '~';
+
+    /**
+     * The internal name of the generated classes' package.
+     */
+    @NotNull
+    protected static final String PACKAGE = "org/acmsl/katas/antlr4netty/";
+
+    /**
+     * The internal name of {@link Math}.
+     */
+    @NotNull
+    protected static final String MATH = "java/lang/Math";
+
+    /**
+     * The class file major version: Java 8, for {@link Math}'s exact operations.
+     */
+    protected static final int MAJOR_VERSION = 52;
+
+    /**
+     * Access flags: {@code ACC_PUBLIC}.
+     */
+    protected static final int ACC_PUBLIC = 0x0001;
+
+    /**
+     * Access flags: {@code ACC_PUBLIC | ACC_FINAL | ACC_SUPER}.
+     */
+    protected static final int ACC_PUBLIC_FINAL_SUPER = 0x0031;
+
+    /**
+     * Opcode: {@code aload_0}.
+     */
+    protected static final int ALOAD_0 = 0x2A;
+
+    /**
+     * Opcode: {@code aload_1}.
+     */
+    protected static final int ALOAD_1 = 0x2B;
+
+    /**
+     * Opcode: {@code sipush}.
+     */
+    protected static final int SIPUSH = 0x11;
+
+    /**
+     * Opcode: {@code laload}.
+     */
+    protected static final int LALOAD = 0x2F;
+
+    /**
+     * Opcode: {@code invokespecial}.
+     */
+    protected static final int INVOKESPECIAL = 0xB7;
+
+    /**
+     * Opcode: {@code invokestatic}.
+     */
+    protected static final int INVOKESTATIC = 0xB8;
+
+    /**
+     * Opcode: {@code return}.
+     */
+    protected static final int RETURN = 0xB1;
+
+    /**
+     * Opcode: {@code lreturn}.
+     */
+    protected static final int LRETURN = 0xAD;
+
+    /**
+     * The sequence numbering generated classes.
+     */
+    @NotNull
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    /**
+     * Creates a new compiler.
+     */
+    public ShapeCompiler()
+    {
+    }
+
+    /**
+     * Divides exactly, as {@link NumericValue#divide(long)} does while staying a {@code long}.
+     * Called by generated classes.
+     * @param dividend the dividend.
+     * @param divisor the divisor.
+     * @return the quotient.
+     * @throws ArithmeticException if the divisor is zero, the division is not exact,
+     * or it overflows.
+     */
+    public static long divideExact(final long dividend, final long divisor)
+    {
+        if (   divisor == 0
+            || dividend % divisor != 0
+            || (dividend == Long.MIN_VALUE && divisor == -1))
+        {
+            throw new ArithmeticException("No exact long quotient");
+        }
+
+        return dividend / divisor;
+    }
+
+    /**
+     * Generates, loads and instantiates the class for given shape.
+     * @param shape the shape.
+     * @return the instance.
+     * @throws IllegalArgumentException if the shape is not well-formed, or too large.
+     */
+    @NotNull
+    public CompiledShape compile(@NotNull final String shape)
+    {
+        @NotNull final CompiledShape result;
+
+        @NotNull final String name = PACKAGE + "GeneratedShape" + SEQUENCE.incrementAndGet();
+
+        @NotNull final byte[] bytes = generate(name, shape);
+
+        @NotNull final ShapeClassLoader loader = new ShapeClassLoader(ShapeCompiler.class.getClassLoader());
+
+        try
+        {
+            result =
+                (CompiledShape) loader.define(name.replace('/', '.'), bytes).getDeclaredConstructor().newInstance();
+        }
+        catch (@NotNull final ReflectiveOperationException unexpected)
+        {
+            throw new IllegalStateException("Cannot instantiate the class of " + shape, unexpected);
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates the class file for given shape.
+     * @param name the internal name of the class.
+     * @param shape the shape.
+     * @return the class file.
+     * @throws IllegalArgumentException if the shape is not well-formed, or too large.
+     */
+    @NotNull
+    public byte[] generate(@NotNull final String name, @NotNull final String shape)
+    {
+        if (shape.length() > MAX_NODES)
+        {
+            throw new IllegalArgumentException("Shape too large: " + shape.length() + " nodes");
+        }
+
+        @NotNull final ConstantPool pool = new ConstantPool();
+
+        final int thisClass = pool.classRef(name);
+        final int superClass = pool.classRef("java/lang/Object");
+        final int shapeInterface = pool.classRef(PACKAGE + "CompiledShape");
+        final int code = pool.utf8("Code");
+        final int constructorName = pool.utf8("<init>");
+        final int constructorType = pool.utf8("()V");
+        final int objectConstructor = pool.methodRef("java/lang/Object", "<init>", "()V");
+        final int evaluateName = pool.utf8("evaluate");
+        final int evaluateType = pool.utf8("([J)J");
+
+        @NotNull final ByteArrayOutputStream evaluate = new ByteArrayOutputStream();
+
+        final int maxStack = generateEvaluate(shape, pool, evaluate);
+
+        @NotNull final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @NotNull final DataOutputStream output = new DataOutputStream(bytes);
+
+        try
+        {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(MAJOR_VERSION);
+            pool.writeTo(output);
+            output.writeShort(ACC_PUBLIC_FINAL_SUPER);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(1);
+            output.writeShort(shapeInterface);
+            // no fields
+            output.writeShort(0);
+            output.writeShort(2);
+
+            writeMethod(
+                output,
+                constructorName,
+                constructorType,
+                code,
+                1,
+                1,
+                new byte[]
+                {
+                    (byte) ALOAD_0,
+                    (byte) INVOKESPECIAL, (byte) (objectConstructor >> 8), (byte) objectConstructor,
+                    (byte) RETURN
+                });
+
+            writeMethod(output, evaluateName, evaluateType, code, maxStack, 2, evaluate.toByteArray());
+
+            // no class attributes
+            output.writeShort(0);
+            output.flush();
+        }
+        catch (@NotNull final IOException impossible)
+        {
+            throw new IllegalStateException(impossible);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Generates the bytecode of {@code long evaluate(long[] literals)}.
+     * @param shape the shape.
+     * @param pool the constant pool.
+     * @param code where to write the bytecode.
+     * @return the maximum operand stack size, in slots.
+     * @throws IllegalArgumentException if the shape is not well-formed.
+     */
+    protected int generateEvaluate(
+        @NotNull final String shape, @NotNull final ConstantPool pool, @NotNull final ByteArrayOutputStream code)
+    {
+        int size = 0;
+
+        int maxSize = 0;
+
+        int literals = 0;
+
+        for (int index = 0; index < shape.length(); index++)
+        {
+            final char symbol = shape.charAt(index);
+
+            if (symbol == LITERAL)
+            {
+                code.write(ALOAD_1);
+                code.write(SIPUSH);
+                code.write(literals >> 8);
+                code.write(literals);
+                code.write(LALOAD);
+
+                literals++;
+                size++;
+            }
+            else if (symbol == NEGATION)
+            {
+                require(size >= 1, shape);
+                invokeStatic(code, pool.methodRef(MATH, "negateExact", "(J)J"));
+            }
+            else
+            {
+                require(size >= 2, shape);
+                invokeStatic(code, binaryOperation(symbol, shape, pool));
+                size--;
+            }
+
+            maxSize = Math.max(maxSize, size);
+        }
+
+        require(size == 1, shape);
+
+        code.write(LRETURN);
+
+        // each long takes two slots.
+        return 2 * maxSize;
+    }
+
+    /**
+     * Retrieves the method implementing given binary operator.
+     * @param symbol the operator symbol.
+     * @param shape the shape, for error reporting.
+     * @param pool the constant pool.
+     * @return the index of the method reference.
+     * @throws IllegalArgumentException if the symbol is unknown.
+     */
+    protected int binaryOperation(final char symbol, @NotNull final String shape, @NotNull final ConstantPool pool)
+    {
+        final int result;
+
+        switch (symbol)
+        {
+            case '+':
+                result = pool.methodRef(MATH, "addExact", "(JJ)J");
+                break;
+            case '-':
+                result = pool.methodRef(MATH, "subtractExact", "(JJ)J");
+                break;
+            case '*':
+                result = pool.methodRef(MATH, "multiplyExact", "(JJ)J");
+                break;
+            case '/':
+                result = pool.methodRef(PACKAGE + "ShapeCompiler", "divideExact", "(JJ)J");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown symbol '" + symbol + "' in shape " + shape);
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes an {@code invokestatic}.
+     * @param code the bytecode.
+     * @param method the index of the method reference.
+     */
+    protected void invokeStatic(@NotNull final ByteArrayOutputStream code, final int method)
+    {
+        code.write(INVOKESTATIC);
+        code.write(method >> 8);
+        code.write(method);
+    }
+
+    /**
+     * Checks a shape is well-formed.
+     * @param condition the condition to hold.
+     * @param shape the shape.
+     * @throws IllegalArgumentException otherwise.
+     */
+    protected void require(final boolean condition, @NotNull final String shape)
+    {
+        if (!condition)
+        {
+            throw new IllegalArgumentException("Malformed shape: " + shape);
+        }
+    }
+
+    /**
+     * Writes a public method with a {@code Code} attribute, and no exception handlers.
+     * As the code never branches, it needs no {@code StackMapTable}.
+     * @param output the class file.
+     * @param name the index of the method name.
+     * @param descriptor the index of the method descriptor.
+     * @param codeAttribute the index of the {@code Code} attribute name.
+     * @param maxStack the maximum operand stack size.
+     * @param maxLocals the number of local variable slots.
+     * @param code the bytecode.
+     * @throws IOException never, as the output is in memory.
+     */
+    protected void writeMethod(
+        @NotNull final DataOutputStream output,
+        final int name,
+        final int descriptor,
+        final int codeAttribute,
+        final int maxStack,
+        final int maxLocals,
+        @NotNull final byte[] code)
+        throws IOException
+    {
+        output.writeShort(ACC_PUBLIC);
+        output.writeShort(name);
+        output.writeShort(descriptor);
+        output.writeShort(1);
+        output.writeShort(codeAttribute);
+        // max_stack, max_locals, code_length, code, exception_table_length, attributes_count
+        output.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        output.writeShort(maxStack);
+        output.writeShort(maxLocals);
+        output.writeInt(code.length);
+        output.write(code);
+        output.writeShort(0);
+        output.writeShort(0);
+    }
+
+    /**
+     * The constant pool of a class being generated, without duplicate entries.
+     */
+    @NotThreadSafe
+    protected static class ConstantPool
+    {
+        /**
+         * Constant tag: {@code CONSTANT_Utf8}.
+         */
+        protected static final int UTF8 = 1;
+
+        /**
+         * Constant tag: {@code CONSTANT_Class}.
+         */
+        protected static final int CLASS = 7;
+
+        /**
+         * Constant tag: {@code CONSTANT_Methodref}.
+         */
+        protected static final int METHOD_REF = 10;
+
+        /**
+         * Constant tag: {@code CONSTANT_NameAndType}.
+         */
+        protected static final int NAME_AND_TYPE = 12;
+
+        /**
+         * The entries so far.
+         */
+        @NotNull
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        /**
+         * The entries, as written.
+         */
+        @NotNull
+        private final DataOutputStream entries = new DataOutputStream(this.bytes);
+
+        /**
+         * The index of each entry, by tag and content.
+         */
+        @NotNull
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+        /**
+         * The index of the next entry (the pool is one-based).
+         */
+        private int next = 1;
+
+        /**
+         * Adds a {@code CONSTANT_Utf8}, if not there yet.
+         * @param value the text, in ASCII.
+         * @return its index.
+         */
+        public int utf8(@NotNull final String value)
+        {
+            @NotNull final String key = UTF8 + ":" + value;
+
+            @Nullable Integer result = this.indexes.get(key);
+
+            if (result == null)
+            {
+                result = add(key);
+
+                try
+                {
+                    this.entries.writeByte(UTF8);
+                    this.entries.writeUTF(value);
+                }
+                catch (@NotNull final IOException impossible)
+                {
+                    throw new IllegalStateException(impossible);
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Adds a {@code CONSTANT_Class}, if not there yet.
+         * @param internalName the internal class name.
+         * @return its index.
+         */
+        public int classRef(@NotNull final String internalName)
+        {
+            return reference(CLASS, internalName, utf8(internalName), -1);
+        }
+
+        /**
+         * Adds a {@code CONSTANT_Methodref}, if not there yet.
+         * @param owner the internal name of the declaring class.
+         * @param name the method name.
+         * @param descriptor the method descriptor.
+         * @return its index.
+         */
+        public int methodRef(@NotNull final String owner, @NotNull final String name, @NotNull final String descriptor)
+        {
+            final int ownerIndex = classRef(owner);
+
+            final int nameAndType =
+                reference(NAME_AND_TYPE, name + ":" + descriptor, utf8(name), utf8(descriptor));
+
+            return reference(METHOD_REF, owner + "." + name + ":" + descriptor, ownerIndex, nameAndType);
+        }
+
+        /**
+         * Adds an entry referring to one or two others, if not there yet.
+         * @param tag the tag.
+         * @param content the content, to detect duplicates.
+         * @param first the first index.
+         * @param second the second index, or {@code -1} if there's only one.
+         * @return its index.
+         */
+        protected int reference(final int tag, @NotNull final String content, final int first, final int second)
+        {
+            @NotNull final String key = tag + ":" + content;
+
+            @Nullable Integer result = this.indexes.get(key);
+
+            if (result == null)
+            {
+                result = add(key);
+
+                try
+                {
+                    this.entries.writeByte(tag);
+                    this.entries.writeShort(first);
+
+                    if (second >= 0)
+                    {
+                        this.entries.writeShort(second);
+                    }
+                }
+                catch (@NotNull final IOException impossible)
+                {
+                    throw new IllegalStateException(impossible);
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Reserves the index of a new entry.
+         * @param key the entry key.
+         * @return the index.
+         */
+        protected int add(@NotNull final String key)
+        {
+            final int result = this.next++;
+
+            this.indexes.put(key, result);
+
+            return result;
+        }
+
+        /**
+         * Writes the pool count and entries.
+         * @param output the class file.
+         * @throws IOException never, as the output is in memory.
+         */
+        public void writeTo(@NotNull final DataOutputStream output)
+            throws IOException
+        {
+            this.entries.flush();
+
+            output.writeShort(this.next);
+            output.write(this.bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Class loader defining a single generated class, so it can be unloaded on its own.
+     */
+    @ThreadSafe
+    protected static class ShapeClassLoader
+        extends ClassLoader
+    {
+        /**
+         * Creates a new loader.
+         * @param parent the loader of the classes generated code refers to.
+         */
+        public ShapeClassLoader(@Nullable final ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        /**
+         * Defines given class.
+         * @param name the binary class name.
+         * @param bytes the class file.
+         * @return the class.
+         */
+        @NotNull
+        public Class<?> define(@NotNull final String name, @NotNull final byte[] bytes)
+        {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: StreamingChannelHandler.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Folds the expressions of a streaming connection into a running aggregate.
+ *
+ * Date: 2026/10/17
+ * Time: 18:35
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing checkthread.org annotations.
+ */
+import org.checkthread.annotations.NotThreadSafe;
+
+/**
+ * Folds the expressions of a streaming connection into a {@link RunningAggregate},
+ * instead of answering each one. {@link InterpreterServerChannelHandler} installs it
+ * right before itself, in the same executor, on {@code stream [N]}, and it stays
+ * until {@link #STOP_COMMAND}.
+ * Every frame is evaluated by the interpreter handler, within the connection's session,
+ * and batches contribute each of their expressions. {@link #SNAPSHOT_COMMAND} gets
+ * a snapshot of the aggregate back, and so does every {@code N}th input, if given.
+ * Frames absorbed into the aggregate get an empty response, so that
+ * {@link BackpressureHandler} and {@link AdmissionHandler} still see every frame
+ * answered exactly once.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:35
+ */
+@NotThreadSafe
+public class StreamingChannelHandler
+    extends ChannelHandlerAdapter
+{
+    /**
+     * The command to get a snapshot of the aggregate.
+     */
+    public static final String SNAPSHOT_COMMAND = "snapshot";
+
+    /**
+     * The command to get a last snapshot of the aggregate, and stop streaming.
+     */
+    public static final String STOP_COMMAND = "stop";
+
+    /**
+     * The initial capacity of snapshot buffers.
+     */
+    protected static final int SNAPSHOT_CAPACITY = 64;
+
+    /**
+     * The interpreter handler.
+     */
+    @NotNull
+    private final InterpreterServerChannelHandler interpreter;
+
+    /**
+     * The number of inputs between automatic snapshots, or zero if they're only sent on demand.
+     */
+    private final int snapshotInterval;
+
+    /**
+     * The aggregate.
+     */
+    @NotNull
+    private final RunningAggregate aggregate = new RunningAggregate();
+
+    /**
+     * The value to hold the outcome of each input.
+     */
+    @NotNull
+    private final NumericValue value = new NumericValue();
+
+    /**
+     * The number of inputs since the last snapshot.
+     */
+    private int inputs;
+
+    /**
+     * Creates a new handler.
+     * @param interpreter the interpreter handler, to evaluate the inputs.
+     * @param snapshotInterval the number of inputs between automatic snapshots,
+     * or zero if they're only sent on demand.
+     */
+    public StreamingChannelHandler(
+        @NotNull final InterpreterServerChannelHandler interpreter, final int snapshotInterval)
+    {
+        if (snapshotInterval < 0)
+        {
+            throw new IllegalArgumentException("snapshot interval must not be negative: " + snapshotInterval);
+        }
+
+        this.interpreter = interpreter;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Retrieves the interpreter handler.
+     * @return such handler.
+     */
+    @NotNull
+    public InterpreterServerChannelHandler getInterpreter()
+    {
+        return this.interpreter;
+    }
+
+    /**
+     * Retrieves the number of inputs between automatic snapshots.
+     * @return such number, or zero if they're only sent on demand.
+     */
+    public int getSnapshotInterval()
+    {
+        return this.snapshotInterval;
+    }
+
+    /**
+     * Retrieves the aggregate.
+     * @return such aggregate.
+     */
+    @NotNull
+    public RunningAggregate getAggregate()
+    {
+        return this.aggregate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelRead(@NotNull final ChannelHandlerContext ctx, @NotNull final Object msg)
+        throws Exception
+    {
+        @NotNull final ByteBuf buffer = (ByteBuf) msg;
+
+        @NotNull final InterpreterServerChannelHandler handler = getInterpreter();
+
+        try
+        {
+            // blank lines carry no input, and get no response.
+            if (!InterpreterServerChannelHandler.isBlank(buffer))
+            {
+                @Nullable ByteBuf response = null;
+
+                if (handler.isKeyword(buffer, SNAPSHOT_COMMAND))
+                {
+                    response = snapshot(ctx);
+                }
+                else if (handler.isKeyword(buffer, STOP_COMMAND))
+                {
+                    response = snapshot(ctx);
+                    ctx.pipeline().remove(this);
+                }
+                else
+                {
+                    fold(ctx, buffer);
+
+                    if (this.snapshotInterval > 0 && this.inputs >= this.snapshotInterval)
+                    {
+                        response = snapshot(ctx);
+                    }
+                }
+
+                // behind the responses held back by the interpreter handler, if any.
+                handler.write(ctx, (response != null) ? response : Unpooled.EMPTY_BUFFER);
+            }
+        }
+        finally
+        {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    /**
+     * Evaluates the expressions in given frame, and adds their outcomes to the aggregate.
+     * @param ctx the context.
+     * @param input the frame: an expression, or a batch of them.
+     */
+    protected void fold(@NotNull final ChannelHandlerContext ctx, @NotNull final ByteBuf input)
+    {
+        @NotNull final InterpreterServerChannelHandler handler = getInterpreter();
+
+        @Nullable final Environment environment = handler.isStateful(input) ? handler.environment(ctx) : null;
+
+        final int end = input.writerIndex();
+
+        int start = input.readerIndex();
+
+        while (start <= end)
+        {
+            int separator = input.indexOf(start, end, (byte) InterpreterServerChannelHandler.BATCH_SEPARATOR);
+
+            if (separator < 0)
+            {
+                separator = end;
+            }
+
+            foldItem(input.slice(start, separator - start), environment);
+
+            start = separator + 1;
+        }
+    }
+
+    /**
+     * Evaluates an expression, and adds its outcome to the aggregate.
+     * @param item the expression.
+     * @param environment the variables of the session, or {@code null} if the frame uses none.
+     */
+    protected void foldItem(@NotNull final ByteBuf item, @Nullable final Environment environment)
+    {
+        @NotNull final InterpreterServerChannelHandler handler = getInterpreter();
+
+        if (   !InterpreterServerChannelHandler.isBlank(item)
+            && handler.tryProcess(item, environment, this.value) == InterpreterServerChannelHandler.Outcome.VALUE)
+        {
+            this.aggregate.add(this.value);
+        }
+        else
+        {
+            handler.malformed();
+            this.aggregate.error();
+        }
+
+        this.inputs++;
+    }
+
+    /**
+     * Builds a snapshot of the aggregate.
+     * @param ctx the context.
+     * @return the snapshot, as a response.
+     */
+    @NotNull
+    protected ByteBuf snapshot(@NotNull final ChannelHandlerContext ctx)
+    {
+        @NotNull final ByteBuf result = ctx.alloc().ioBuffer(SNAPSHOT_CAPACITY);
+
+        this.aggregate.write(InterpreterServerChannelHandler.DIGITS, result);
+        result.writeByte('\n');
+
+        this.inputs = 0;
+
+        return result;
+    }
+}
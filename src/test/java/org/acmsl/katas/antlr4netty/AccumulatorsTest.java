@@ -0,0 +1,315 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: AccumulatorsTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for Accumulators.
+ *
+ * Date: 2026/10/17
+ * Time: 19:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link Accumulators} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 19:30
+ */
+public class AccumulatorsTest
+{
+    /**
+     * Checks whether totals stay exact, even when cells overflow.
+     */
+    @Test
+    public void totals_are_exact()
+    {
+        @NotNull final Accumulators instance = new Accumulators(4, 2);
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertEquals("0", instance.sum("hits", value).toString());
+        Assert.assertEquals(0, instance.size());
+
+        Assert.assertTrue(instance.add("hits", value.setLong(Long.MAX_VALUE)));
+        Assert.assertTrue(instance.add("hits", value.setLong(Long.MAX_VALUE)));
+        Assert.assertTrue(instance.add("hits", value.setDecimal(new BigDecimal("0.50"))));
+        Assert.assertTrue(instance.add("hits", value.setLong(-1)));
+
+        Assert.assertEquals(
+            BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).add(new BigDecimal("-0.50")),
+            instance.sum("hits", value).toBigDecimal());
+
+        Assert.assertTrue(instance.add("misses", value.setLong(3)));
+        Assert.assertTrue(instance.sum("misses", value).isLong());
+        Assert.assertEquals(3L, value.getLong());
+        Assert.assertEquals(2, instance.size());
+    }
+
+    /**
+     * Checks whether new accumulators beyond the capacity are refused, while existing ones keep adding.
+     */
+    @Test
+    public void accumulators_beyond_the_capacity_are_refused()
+    {
+        @NotNull final Accumulators instance = new Accumulators(1, 1);
+
+        @NotNull final NumericValue value = new NumericValue().setLong(1);
+
+        Assert.assertTrue(instance.add("a", value));
+        Assert.assertFalse(instance.add("b", value));
+        Assert.assertTrue(instance.add("a", value));
+        Assert.assertEquals(2L, instance.sum("a", value).getLong());
+        Assert.assertEquals(1, instance.size());
+    }
+
+    /**
+     * Checks whether concurrent updates are never lost.
+     * @throws InterruptedException if the test gets interrupted.
+     */
+    @Test
+    public void concurrent_updates_are_not_lost()
+        throws InterruptedException
+    {
+        @NotNull final Accumulators instance = new Accumulators(4, 4);
+
+        @NotNull final Thread[] threads = new Thread[8];
+
+        for (int index = 0; index < threads.length; index++)
+        {
+            threads[index] =
+                new Thread()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public void run()
+                    {
+                        @NotNull final NumericValue one = new NumericValue().setLong(1);
+
+                        @NotNull final NumericValue tenth = new NumericValue().setDecimal(new BigDecimal("0.1"));
+
+                        for (int count = 0; count < 10000; count++)
+                        {
+                            instance.add("total", one);
+                            instance.add("total", tenth);
+                        }
+                    }
+                };
+
+            threads[index].start();
+        }
+
+        for (@NotNull final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Assert.assertEquals(
+            0, new BigDecimal("88000").compareTo(instance.sum("total", new NumericValue()).toBigDecimal()));
+    }
+
+    /**
+     * Checks whether totals read while cells overflow never count a value twice, or miss it.
+     * @throws InterruptedException if the test gets interrupted.
+     */
+    @Test
+    public void totals_read_while_cells_overflow_are_consistent()
+        throws InterruptedException
+    {
+        @NotNull final Accumulators instance = new Accumulators(4, 2);
+
+        // every other update overflows its cell.
+        final long step = Long.MAX_VALUE / 2 + 1;
+
+        @NotNull final Thread[] threads = new Thread[4];
+
+        for (int index = 0; index < threads.length; index++)
+        {
+            threads[index] =
+                new Thread()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public void run()
+                    {
+                        @NotNull final NumericValue value = new NumericValue().setLong(step);
+
+                        for (int count = 0; count < 20000; count++)
+                        {
+                            instance.add("total", value);
+                        }
+                    }
+                };
+
+            threads[index].start();
+        }
+
+        @NotNull final BigDecimal expected = BigDecimal.valueOf(step).multiply(BigDecimal.valueOf(threads.length * 20000L));
+
+        @NotNull final AtomicReference<String> failure = new AtomicReference<>();
+
+        @NotNull final Thread reader =
+            new Thread()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run()
+                {
+                    @NotNull final NumericValue value = new NumericValue();
+
+                    @NotNull BigDecimal previous = BigDecimal.ZERO;
+
+                    while (failure.get() == null && previous.compareTo(expected) < 0)
+                    {
+                        @NotNull final BigDecimal total = instance.sum("total", value).toBigDecimal();
+
+                        // adding positive steps only, each total is a multiple of the step between the previous one and the end.
+                        if (   total.compareTo(previous) < 0
+                            || total.compareTo(expected) > 0
+                            || total.remainder(BigDecimal.valueOf(step)).signum() != 0)
+                        {
+                            failure.set(previous + " then " + total);
+                        }
+
+                        previous = total;
+                    }
+                }
+            };
+
+        reader.start();
+
+        for (@NotNull final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        reader.join();
+
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(0, expected.compareTo(instance.sum("total", new NumericValue()).toBigDecimal()));
+    }
+
+    /**
+     * Checks whether a total read while an overflowing cell moves into its decimal cell
+     * counts the moving value exactly once.
+     * @throws InterruptedException if the test gets interrupted.
+     */
+    @Test(timeout = 5000)
+    public void totals_read_while_a_cell_moves_count_it_once()
+        throws InterruptedException
+    {
+        @NotNull final AtomicReference<BigDecimal> read = new AtomicReference<>();
+
+        @NotNull final Accumulators.Accumulator instance =
+            new Accumulators.Accumulator(1)
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void add(@NotNull final BigDecimal value)
+                {
+                    @NotNull final Accumulators.Accumulator accumulator = this;
+
+                    @NotNull final Thread reader =
+                        new Thread()
+                        {
+                            /**
+                             * {@inheritDoc}
+                             */
+                            @Override
+                            public void run()
+                            {
+                                read.set(accumulator.sum(new NumericValue()).toBigDecimal());
+                            }
+                        };
+
+                    reader.start();
+
+                    try
+                    {
+                        // gives the reader the chance to read while the value is moving.
+                        reader.join(200);
+                    }
+                    catch (@NotNull final InterruptedException interrupted)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    super.add(value);
+                }
+            };
+
+        instance.add(Long.MAX_VALUE);
+        instance.add(1L);
+
+        @NotNull final BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE);
+
+        while (read.get() == null)
+        {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(0, expected.compareTo(read.get()));
+        Assert.assertEquals(0, expected.compareTo(instance.sum(new NumericValue()).toBigDecimal()));
+    }
+
+    /**
+     * Checks whether the default stripes are a power of two, about twice the processors.
+     */
+    @Test
+    public void default_stripes_follow_the_processors()
+    {
+        Assert.assertEquals(2, Accumulators.defaultStripes(1));
+        Assert.assertEquals(8, Accumulators.defaultStripes(3));
+        Assert.assertEquals(Accumulators.MAX_STRIPES, Accumulators.defaultStripes(1000));
+    }
+}
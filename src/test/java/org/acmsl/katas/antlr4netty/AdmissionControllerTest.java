@@ -0,0 +1,147 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: AdmissionControllerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for AdmissionController.
+ *
+ * Date: 2026/10/17
+ * Time: 17:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AdmissionController} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 17:30
+ */
+public class AdmissionControllerTest
+{
+    /**
+     * Checks whether fixed limits are enforced, and freed on release.
+     */
+    @Test
+    public void enforces_fixed_limits()
+    {
+        @NotNull final AdmissionController instance = new AdmissionController(1, 2);
+
+        Assert.assertTrue(instance.tryOpenConnection());
+        Assert.assertFalse(instance.tryOpenConnection());
+        instance.connectionClosed();
+        Assert.assertTrue(instance.tryOpenConnection());
+
+        Assert.assertTrue(instance.tryAcquire());
+        Assert.assertTrue(instance.tryAcquire());
+        Assert.assertFalse(instance.tryAcquire());
+        instance.release(1000);
+        Assert.assertTrue(instance.tryAcquire());
+        Assert.assertEquals(2, instance.getInFlight());
+        Assert.assertEquals(2, instance.getLimit());
+    }
+
+    /**
+     * Checks whether no limits admit everything.
+     */
+    @Test
+    public void no_limits_admit_everything()
+    {
+        @NotNull final AdmissionController instance = new AdmissionController(0, 0);
+
+        for (int index = 0; index < 10000; index++)
+        {
+            Assert.assertTrue(instance.tryAcquire());
+            Assert.assertTrue(instance.tryOpenConnection());
+        }
+
+        Assert.assertFalse(instance.isAdaptive());
+    }
+
+    /**
+     * Checks whether the adaptive limit shrinks while latency is above target,
+     * and grows back when it's below.
+     */
+    @Test
+    public void adaptive_limit_follows_latency()
+    {
+        final long target = 1000000;
+
+        @NotNull final AdmissionController instance = new AdmissionController(0, 100, target);
+
+        Assert.assertTrue(instance.isAdaptive());
+        Assert.assertEquals(64, instance.getLimit());
+
+        for (int index = 0; index < 1000; index++)
+        {
+            Assert.assertTrue(instance.tryAcquire());
+            instance.release(2 * target);
+        }
+
+        final int shrunk = instance.getLimit();
+
+        Assert.assertTrue("limit: " + shrunk, shrunk < 20);
+
+        for (int index = 0; index < 5000; index++)
+        {
+            Assert.assertTrue(instance.tryAcquire());
+            instance.release(target / 2);
+        }
+
+        Assert.assertTrue("limit: " + instance.getLimit(), instance.getLimit() > shrunk);
+        Assert.assertTrue(instance.getLimit() <= 100);
+    }
+
+    /**
+     * Checks whether the adaptive limit never goes below one.
+     */
+    @Test
+    public void adaptive_limit_keeps_admitting_one()
+    {
+        @NotNull final AdmissionController instance = new AdmissionController(0, 0, 1);
+
+        for (int index = 0; index < 10000; index++)
+        {
+            Assert.assertTrue(instance.tryAcquire());
+            instance.release(1000);
+        }
+
+        Assert.assertEquals(1, instance.getLimit());
+        Assert.assertEquals(AdmissionController.DEFAULT_ADAPTIVE_MAX, instance.getMaxInFlight());
+    }
+}
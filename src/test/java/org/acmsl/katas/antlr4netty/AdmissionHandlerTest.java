@@ -0,0 +1,161 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: AdmissionHandlerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for AdmissionHandler.
+ *
+ * Date: 2026/10/17
+ * Time: 17:45
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AdmissionHandler} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 17:45
+ */
+public class AdmissionHandlerTest
+{
+    /**
+     * Checks whether frames above the limit get a busy response, without reaching the interpreter.
+     */
+    @Test
+    public void frames_above_the_limit_get_busy_responses()
+    {
+        @NotNull final AdmissionController controller = new AdmissionController(0, 1);
+
+        @NotNull final InterpreterMetrics metrics = new InterpreterMetrics();
+
+        @NotNull final AdmissionHandler instance =
+            new AdmissionHandler(controller, InterpreterServerChannelHandler.BUSY_BUFFER, metrics);
+
+        // an interpreter keeping frames unanswered, as if still evaluating them.
+        @NotNull final EmbeddedChannel channel = new EmbeddedChannel(instance, new ChannelHandlerAdapter());
+
+        channel.writeInbound(Unpooled.copiedBuffer("1 + 1", CharsetUtil.US_ASCII));
+        channel.writeInbound(Unpooled.copiedBuffer("2 + 2", CharsetUtil.US_ASCII));
+
+        @NotNull final ByteBuf admitted = channel.readInbound();
+        Assert.assertEquals("1 + 1", admitted.toString(CharsetUtil.US_ASCII));
+        admitted.release();
+        Assert.assertNull(channel.readInbound());
+
+        @NotNull final ByteBuf busy = channel.readOutbound();
+        Assert.assertEquals(InterpreterServerChannelHandler.BUSY_RESPONSE, busy.toString(CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(1, instance.getPending());
+        Assert.assertEquals(1, controller.getInFlight());
+        Assert.assertEquals(1, metrics.getRejected());
+
+        // the interpreter answers the admitted frame.
+        channel.writeOutbound(Unpooled.copiedBuffer("2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(0, instance.getPending());
+        Assert.assertEquals(0, controller.getInFlight());
+
+        channel.writeInbound(Unpooled.copiedBuffer("3 + 3", CharsetUtil.US_ASCII));
+
+        @NotNull final ByteBuf readmitted = channel.readInbound();
+        Assert.assertEquals("3 + 3", readmitted.toString(CharsetUtil.US_ASCII));
+        readmitted.release();
+
+        // closing the connection releases the frames left unanswered.
+        channel.finish();
+
+        Assert.assertEquals(0, controller.getInFlight());
+
+        ((ByteBuf) channel.readOutbound()).release();
+    }
+
+    /**
+     * Checks whether the queue of admission times grows beyond its initial capacity.
+     */
+    @Test
+    public void tracks_many_pending_frames()
+    {
+        @NotNull final AdmissionController controller = new AdmissionController(0, 0);
+
+        @NotNull final AdmissionHandler instance =
+            new AdmissionHandler(controller, InterpreterServerChannelHandler.BUSY_BUFFER, null);
+
+        @NotNull final EmbeddedChannel channel = new EmbeddedChannel(instance, new ChannelHandlerAdapter()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void channelRead(@NotNull final ChannelHandlerContext ctx, @NotNull final Object msg)
+            {
+                ((ByteBuf) msg).release();
+            }
+        });
+
+        final int frames = 5 * AdmissionHandler.INITIAL_CAPACITY;
+
+        for (int index = 0; index < frames; index++)
+        {
+            channel.writeInbound(Unpooled.buffer(1).writeByte(index));
+        }
+
+        Assert.assertEquals(frames, instance.getPending());
+
+        for (int index = 0; index < frames; index++)
+        {
+            channel.writeOutbound(Unpooled.buffer(1).writeByte(index));
+            ((ByteBuf) channel.readOutbound()).release();
+        }
+
+        Assert.assertEquals(0, instance.getPending());
+        Assert.assertEquals(0, controller.getInFlight());
+
+        channel.finish();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BackpressureHandlerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for BackpressureHandler.
+ *
+ * Date: 2026/10/17
+ * Time: 15:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BackpressureHandler} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 15:40
+ */
+public class BackpressureHandlerTest
+{
+    /**
+     * Checks whether reading gets suspended once too many requests are unanswered,
+     * and resumed when half of them are answered.
+     */
+    @Test
+    public void suspends_reading_while_too_many_requests_are_in_flight()
+    {
+        @NotNull final BackpressureHandler instance = new BackpressureHandler(4);
+
+        @NotNull final EmbeddedChannel channel = new EmbeddedChannel(instance);
+
+        for (int index = 0; index < 3; index++)
+        {
+            channel.writeInbound(Unpooled.buffer(1).writeByte(index));
+        }
+
+        Assert.assertTrue(channel.config().isAutoRead());
+
+        channel.writeInbound(Unpooled.buffer(1).writeByte(3));
+
+        Assert.assertEquals(4, instance.getInFlight());
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        channel.writeOutbound(Unpooled.buffer(1).writeByte(0));
+
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        channel.writeOutbound(Unpooled.buffer(1).writeByte(1));
+
+        Assert.assertEquals(2, instance.getInFlight());
+        Assert.assertTrue(channel.config().isAutoRead());
+
+        channel.finish();
+        releaseAll(channel);
+    }
+
+    /**
+     * Checks whether reading gets suspended while the outbound buffer is above
+     * the high watermark, and resumed once it's flushed.
+     */
+    @Test
+    public void suspends_reading_while_the_channel_is_not_writable()
+    {
+        @NotNull final BackpressureHandler instance = new BackpressureHandler(0);
+
+        @NotNull final EmbeddedChannel channel = new EmbeddedChannel(instance);
+        channel.config().setWriteBufferLowWaterMark(4);
+        channel.config().setWriteBufferHighWaterMark(8);
+
+        channel.writeInbound(Unpooled.buffer(1).writeByte(0));
+        channel.write(Unpooled.buffer(16).writerIndex(16));
+
+        Assert.assertFalse(channel.isWritable());
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        channel.flush();
+
+        Assert.assertTrue(channel.isWritable());
+        Assert.assertTrue(channel.config().isAutoRead());
+
+        channel.finish();
+        releaseAll(channel);
+    }
+
+    /**
+     * Releases all messages left in given channel.
+     * @param channel the channel.
+     */
+    protected void releaseAll(@NotNull final EmbeddedChannel channel)
+    {
+        for (Object message = channel.readInbound(); message != null; message = channel.readInbound())
+        {
+            ((ByteBuf) message).release();
+        }
+
+        for (Object message = channel.readOutbound(); message != null; message = channel.readOutbound())
+        {
+            ((ByteBuf) message).release();
+        }
+    }
+}
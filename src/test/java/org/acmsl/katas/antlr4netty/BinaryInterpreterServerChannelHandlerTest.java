@@ -0,0 +1,148 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BinaryInterpreterServerChannelHandlerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for BinaryInterpreterServerChannelHandler class.
+ *
+ * Date: 2026/10/17
+ * Time: 18:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * Tests for {@link BinaryInterpreterServerChannelHandler} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:30
+ */
+public class BinaryInterpreterServerChannelHandlerTest
+{
+    /**
+     * Checks whether requests get their outcomes, and malformed ones get errors
+     * without closing the connection.
+     */
+    @Test
+    public void answers_requests_and_errors()
+    {
+        @NotNull final BinaryProtocol protocol = new BinaryProtocol();
+
+        @NotNull final EmbeddedChannel channel = new EmbeddedChannel(new BinaryInterpreterServerChannelHandler());
+
+        channel.writeInbound(
+            frame(
+                protocol,
+                BinaryProtocol.SUBTRACT,
+                new NumericValue().setDecimal(new BigDecimal("42.1")),
+                new NumericValue().setLong(13)));
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { BinaryProtocol.ADD, BinaryProtocol.INTEGER }));
+        channel.writeInbound(
+            frame(
+                protocol,
+                BinaryProtocol.ADD,
+                new NumericValue().setLong(Long.MAX_VALUE),
+                new NumericValue().setLong(1)));
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertTrue(readResponse(protocol, channel, value));
+        Assert.assertEquals("29.1", value.toString());
+        Assert.assertFalse(readResponse(protocol, channel, value));
+        Assert.assertTrue(readResponse(protocol, channel, value));
+        Assert.assertEquals("9223372036854775808", value.toString());
+        Assert.assertTrue(channel.isOpen());
+
+        channel.finish();
+    }
+
+    /**
+     * Builds a request frame, without its length prefix.
+     * @param protocol the protocol.
+     * @param opcode the opcode.
+     * @param left the first operand.
+     * @param right the second operand.
+     * @return the frame.
+     */
+    @NotNull
+    protected ByteBuf frame(
+        @NotNull final BinaryProtocol protocol,
+        final byte opcode,
+        @NotNull final NumericValue left,
+        @NotNull final NumericValue right)
+    {
+        @NotNull final ByteBuf result = Unpooled.buffer();
+
+        protocol.writeRequest(opcode, left, right, result);
+
+        return result.skipBytes(BinaryProtocol.LENGTH_FIELD_LENGTH);
+    }
+
+    /**
+     * Reads the next response written to given channel.
+     * @param protocol the protocol.
+     * @param channel the channel.
+     * @param value the value to hold the outcome.
+     * @return {@code false} if the response is an error.
+     */
+    protected boolean readResponse(
+        @NotNull final BinaryProtocol protocol, @NotNull final EmbeddedChannel channel, @NotNull final NumericValue value)
+    {
+        @NotNull final ByteBuf buffer = channel.readOutbound();
+
+        Assert.assertEquals(buffer.readableBytes() - BinaryProtocol.LENGTH_FIELD_LENGTH, buffer.readUnsignedShort());
+
+        final boolean result = protocol.readResponse(buffer, value);
+
+        buffer.release();
+
+        return result;
+    }
+}
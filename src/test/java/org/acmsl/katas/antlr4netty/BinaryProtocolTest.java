@@ -0,0 +1,295 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BinaryProtocolTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for BinaryProtocol class.
+ *
+ * Date: 2026/10/17
+ * Time: 18:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for {@link BinaryProtocol} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:20
+ */
+public class BinaryProtocolTest
+{
+    /**
+     * Checks whether varints and zig-zag encoding round-trip, using as few bytes as expected.
+     */
+    @Test
+    public void varints_round_trip()
+    {
+        @NotNull final BinaryProtocol instance = new BinaryProtocol();
+
+        @NotNull final long[] values = { 0, 1, -1, 63, -64, 64, 300, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        for (final long value : values)
+        {
+            @NotNull final ByteBuf buffer = Unpooled.buffer();
+
+            instance.writeVarint(instance.zigZag(value), buffer);
+
+            Assert.assertEquals(value, instance.unZigZag(instance.readVarint(buffer)));
+            Assert.assertFalse(buffer.isReadable());
+        }
+
+        @NotNull final ByteBuf small = Unpooled.buffer();
+        instance.writeVarint(instance.zigZag(-64), small);
+        Assert.assertEquals(1, small.readableBytes());
+
+        @NotNull final ByteBuf largest = Unpooled.buffer();
+        instance.writeVarint(-1L, largest);
+        Assert.assertEquals(10, largest.readableBytes());
+    }
+
+    /**
+     * Checks whether operands round-trip, keeping integers as {@code long}s.
+     */
+    @Test
+    public void operands_round_trip()
+    {
+        @NotNull final BinaryProtocol instance = new BinaryProtocol();
+
+        @NotNull final NumericValue[] values =
+            {
+                new NumericValue().setLong(-42),
+                new NumericValue().setDecimal(new BigDecimal("-13.10")),
+                new NumericValue().setDecimal(new BigDecimal("123456789012345678901234567890.5")),
+                new NumericValue().setDecimal(new BigDecimal("1E+3"))
+            };
+
+        for (@NotNull final NumericValue value : values)
+        {
+            @NotNull final ByteBuf buffer = Unpooled.buffer();
+
+            instance.writeOperand(value, buffer);
+
+            @NotNull final NumericValue read = instance.readOperand(buffer, new NumericValue());
+
+            Assert.assertEquals(value.isLong(), read.isLong());
+            Assert.assertEquals(value.toString(), read.toString());
+            Assert.assertFalse(buffer.isReadable());
+        }
+    }
+
+    /**
+     * Checks whether binary requests yield what the same expressions yield as text.
+     */
+    @Test
+    public void requests_match_text_semantics()
+    {
+        @NotNull final BinaryProtocol instance = new BinaryProtocol();
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final Random random = new Random(12);
+
+        @NotNull final String[] operands =
+            { "0", "7", "-3", "13.1", "-42.10", "9223372036854775807", "-9223372036854775808", "0.0001" };
+
+        for (int index = 0; index < 1000; index++)
+        {
+            @NotNull final String left = operands[random.nextInt(operands.length)];
+            @NotNull final String right = operands[random.nextInt(operands.length)];
+
+            final boolean add = random.nextBoolean();
+
+            @NotNull final ByteBuf request = Unpooled.buffer();
+
+            instance.writeRequest(
+                add ? BinaryProtocol.ADD : BinaryProtocol.SUBTRACT, toValue(left), toValue(right), request);
+
+            Assert.assertEquals(request.readableBytes() - BinaryProtocol.LENGTH_FIELD_LENGTH, request.readUnsignedShort());
+
+            @NotNull final String expression = left + (add ? " + " : " - ") + right;
+
+            Assert.assertEquals(
+                expression,
+                interpreter.eval(expression).toString(),
+                instance.evaluate(request, new NumericValue(), new NumericValue()).toString());
+        }
+    }
+
+    /**
+     * Checks whether responses, including errors, round-trip.
+     */
+    @Test
+    public void responses_round_trip()
+    {
+        @NotNull final BinaryProtocol instance = new BinaryProtocol();
+
+        @NotNull final ByteBuf buffer = Unpooled.buffer();
+
+        instance.writeResponse(new NumericValue().setLong(6912), buffer);
+        instance.writeError(buffer);
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertEquals(buffer.readableBytes() - 5, buffer.readUnsignedShort());
+        Assert.assertTrue(instance.readResponse(buffer, value));
+        Assert.assertEquals("6912", value.toString());
+
+        Assert.assertEquals(1, buffer.readUnsignedShort());
+        Assert.assertFalse(instance.readResponse(buffer, value));
+        Assert.assertFalse(buffer.isReadable());
+    }
+
+    /**
+     * Checks whether malformed requests are rejected.
+     */
+    @Test
+    public void malformed_requests_are_rejected()
+    {
+        @NotNull final BinaryProtocol instance = new BinaryProtocol();
+
+        @NotNull final byte[][] requests =
+            {
+                {},
+                { BinaryProtocol.ADD },
+                { BinaryProtocol.ADD, BinaryProtocol.INTEGER, 2 },
+                { BinaryProtocol.ADD, BinaryProtocol.INTEGER, 2, BinaryProtocol.INTEGER },
+                { BinaryProtocol.ADD, BinaryProtocol.INTEGER, 2, BinaryProtocol.INTEGER, (byte) 0x80 },
+                { BinaryProtocol.ADD, BinaryProtocol.INTEGER, 2, 9, 2 },
+                { BinaryProtocol.ADD, BinaryProtocol.INTEGER, 2, BinaryProtocol.DECIMAL, 2, 5, 1 },
+                { '*', BinaryProtocol.INTEGER, 2, BinaryProtocol.INTEGER, 2 },
+                { BinaryProtocol.ADD, BinaryProtocol.INTEGER, 2, BinaryProtocol.INTEGER, 2, 0 }
+            };
+
+        for (@NotNull final byte[] request : requests)
+        {
+            try
+            {
+                instance.evaluate(Unpooled.wrappedBuffer(request), new NumericValue(), new NumericValue());
+                Assert.fail("Malformed request accepted: " + Arrays.toString(request));
+            }
+            catch (@NotNull final CorruptedFrameException expected)
+            {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Checks whether decimal operands with scales beyond the limit are rejected
+     * right away, before aligning them to the other operand.
+     */
+    @Test(timeout = 5000)
+    public void hostile_scales_are_rejected()
+    {
+        @NotNull final BinaryProtocol instance = new BinaryProtocol();
+
+        for (final long scale : new long[] { -10000000L, BinaryProtocol.MAX_SCALE + 1, -BinaryProtocol.MAX_SCALE - 1 })
+        {
+            @NotNull final ByteBuf request = Unpooled.buffer();
+
+            request.writeByte(BinaryProtocol.ADD);
+            request.writeByte(BinaryProtocol.INTEGER);
+            instance.writeVarint(instance.zigZag(1), request);
+            request.writeByte(BinaryProtocol.DECIMAL);
+            instance.writeVarint(instance.zigZag(scale), request);
+            instance.writeVarint(1, request);
+            request.writeByte(1);
+
+            try
+            {
+                instance.evaluate(request, new NumericValue(), new NumericValue());
+                Assert.fail("Hostile scale accepted: " + scale);
+            }
+            catch (@NotNull final CorruptedFrameException expected)
+            {
+                // expected
+            }
+        }
+
+        @NotNull final ByteBuf request = Unpooled.buffer();
+
+        request.writeByte(BinaryProtocol.ADD);
+        request.writeByte(BinaryProtocol.INTEGER);
+        instance.writeVarint(instance.zigZag(1), request);
+        request.writeByte(BinaryProtocol.DECIMAL);
+        instance.writeVarint(instance.zigZag(-BinaryProtocol.MAX_SCALE), request);
+        instance.writeVarint(1, request);
+        request.writeByte(1);
+
+        Assert.assertEquals(
+            BigDecimal.ONE.add(BigDecimal.ONE.scaleByPowerOfTen(BinaryProtocol.MAX_SCALE)),
+            instance.evaluate(request, new NumericValue(), new NumericValue()).toBigDecimal());
+    }
+
+    /**
+     * Converts given text into a value, as the text protocol reads it.
+     * @param text the text.
+     * @return the value.
+     */
+    @NotNull
+    protected NumericValue toValue(@NotNull final String text)
+    {
+        @NotNull final NumericValue result = new NumericValue();
+
+        if (text.indexOf('.') < 0)
+        {
+            result.setLong(Long.parseLong(text));
+        }
+        else
+        {
+            result.setDecimal(new BigDecimal(text));
+        }
+
+        return result;
+    }
+}
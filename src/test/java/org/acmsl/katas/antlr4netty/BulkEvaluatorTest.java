@@ -0,0 +1,169 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: BulkEvaluatorTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for BulkEvaluator.
+ *
+ * Date: 2026/10/17
+ * Time: 13:55
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Importing JDK classes.
+ */
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for {@link BulkEvaluator} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 13:55
+ */
+public class BulkEvaluatorTest
+{
+    /**
+     * The folder for input and output files.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks whether each line gets its result, in order, including
+     * malformed, blank and unterminated ones.
+     * @throws IOException if the files cannot be used.
+     */
+    @Test
+    public void results_match_lines_in_order()
+        throws IOException
+    {
+        @NotNull final Path input = this.folder.newFile("input").toPath();
+        @NotNull final Path output = this.folder.newFile("output").toPath();
+
+        Files.write(input, "1 + 2\n3 +\n\n2 * (3 - 1)\r\n1 / 0\n-7".getBytes(StandardCharsets.US_ASCII));
+
+        @NotNull final ForkJoinPool pool = new ForkJoinPool(3);
+
+        try
+        {
+            final long lines = new BulkEvaluator(new Interpreter(), pool, 4).evaluate(input, output);
+
+            Assert.assertEquals(6, lines);
+            Assert.assertEquals(
+                "3\nerror\n\n4\nerror\n-7\n", new String(Files.readAllBytes(output), StandardCharsets.US_ASCII));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks whether evaluating in parallel chunks agrees with evaluating line by line,
+     * whatever the chunk size.
+     * @throws IOException if the files cannot be used.
+     */
+    @Test
+    public void parallel_evaluation_agrees_with_sequential_evaluation()
+        throws IOException
+    {
+        @NotNull final Random random = new Random(20261017L);
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final StringBuilder text = new StringBuilder();
+
+        @NotNull final List<String> expected = new ArrayList<>();
+
+        for (int index = 0; index < 20000; index++)
+        {
+            @NotNull final String line =
+                random.nextInt(50) == 0
+                ? "(" + index
+                : random.nextInt(1000) + " * " + (random.nextInt(100) - 50) + " - " + random.nextInt(10);
+
+            text.append(line).append('\n');
+
+            @NotNull String result;
+
+            try
+            {
+                result = interpreter.eval(line).toString();
+            }
+            catch (@NotNull final RuntimeException malformed)
+            {
+                result = InterpreterServerChannelHandler.ERROR_RESULT;
+            }
+
+            expected.add(result);
+        }
+
+        @NotNull final Path input = this.folder.newFile("input").toPath();
+
+        Files.write(input, text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        @NotNull final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try
+        {
+            for (final int chunkSize : new int[] { 1, 100, 4096, BulkEvaluator.DEFAULT_CHUNK_SIZE })
+            {
+                @NotNull final Path output = this.folder.newFile("output" + chunkSize).toPath();
+
+                new BulkEvaluator(interpreter, pool, chunkSize).evaluate(input, output);
+
+                Assert.assertEquals(expected, Files.readAllLines(output, StandardCharsets.US_ASCII));
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ByteBufCharStreamTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ByteBufCharStream class.
+ *
+ * Date: 2026/10/17
+ * Time: 20:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ByteBufCharStream} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 20:40
+ */
+public class ByteBufCharStreamTest
+{
+    /**
+     * Checks whether the stream only sees the readable bytes, and leaves the buffer untouched.
+     */
+    @Test
+    public void stream_reads_only_readable_bytes_in_place()
+    {
+        @NotNull final ByteBuf buffer = Unpooled.copiedBuffer("xx12+3", CharsetUtil.US_ASCII);
+        buffer.readerIndex(2);
+
+        @NotNull final ByteBufCharStream stream = new ByteBufCharStream(buffer);
+
+        Assert.assertEquals(4, stream.size());
+        Assert.assertEquals('1', stream.LA(1));
+        Assert.assertEquals(IntStream.EOF, stream.LA(-1));
+
+        stream.consume();
+        stream.consume();
+
+        Assert.assertEquals('+', stream.LA(1));
+        Assert.assertEquals('2', stream.LA(-1));
+        Assert.assertEquals('3', stream.LA(2));
+        Assert.assertEquals(IntStream.EOF, stream.LA(3));
+        Assert.assertEquals("12", stream.getText(Interval.of(0, 1)));
+        Assert.assertEquals("12+3", stream.toString());
+
+        Assert.assertEquals(2, buffer.readerIndex());
+        Assert.assertEquals(4, buffer.readableBytes());
+
+        buffer.release();
+    }
+
+    /**
+     * Checks whether seeking is clamped to the stream boundaries.
+     */
+    @Test
+    public void seek_is_clamped()
+    {
+        @NotNull final ByteBuf buffer = Unpooled.copiedBuffer("1-2", CharsetUtil.US_ASCII);
+
+        @NotNull final ByteBufCharStream stream = new ByteBufCharStream(buffer);
+
+        stream.seek(10);
+        Assert.assertEquals(3, stream.index());
+        Assert.assertEquals(IntStream.EOF, stream.LA(1));
+
+        stream.seek(-1);
+        Assert.assertEquals(0, stream.index());
+        Assert.assertEquals('1', stream.LA(1));
+
+        buffer.release();
+    }
+
+    /**
+     * Checks whether a reset stream reads the new buffer from the start.
+     */
+    @Test
+    public void reset_reads_the_new_buffer()
+    {
+        @NotNull final ByteBuf first = Unpooled.copiedBuffer("1-2", CharsetUtil.US_ASCII);
+        @NotNull final ByteBuf second = Unpooled.copiedBuffer("40 + 2", CharsetUtil.US_ASCII);
+
+        @NotNull final ByteBufCharStream stream = new ByteBufCharStream(first);
+        stream.consume();
+
+        Assert.assertSame(stream, stream.reset(second));
+        Assert.assertEquals(0, stream.index());
+        Assert.assertEquals(6, stream.size());
+        Assert.assertEquals('4', stream.LA(1));
+        Assert.assertEquals("40 + 2", stream.toString());
+
+        first.release();
+        second.release();
+    }
+}
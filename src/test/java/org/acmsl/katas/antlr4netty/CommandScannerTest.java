@@ -0,0 +1,279 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: CommandScannerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Differential tests between CommandScanner and the ANTLR parser.
+ *
+ * Date: 2026/10/17
+ * Time: 21:10
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Differential tests between {@link CommandScanner} and the ANTLR parser.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 21:10
+ */
+public class CommandScannerTest
+{
+    /**
+     * The whitespace characters the lexer skips.
+     */
+    private static final String WHITESPACE = " \t\r\n\u000C";
+
+    /**
+     * Checks whether the scanner agrees with the parser on hand-picked well-formed commands.
+     */
+    @Test
+    public void scanner_agrees_with_parser_on_well_formed_commands()
+    {
+        @NotNull final String[] inputs =
+            {
+                "1+2", "4-0", "3 + 5", "-13+42", "-13.1+42.1", "85.6-19.5", "3-5", "3--5", "3+-5",
+                "3 -5", "-0.0+0", "007+1.50", "\t12 \r\n- 29\u000C", "0.10-0.1",
+                "123456789012345678+1", "1234567890123456789.5-0.25", "99999999999999999999999+1",
+                "9223372036854775807+1", "9223372036854775807 - -1", "-9223372036854775808-1",
+                "-9223372036854775808+0", "9223372036854775808-1", "-9223372036854775809+1",
+                "000000000009223372036854775807+0", "-0+0", "-0 - 0", "5 - 2.50"
+            };
+
+        for (@NotNull final String input : inputs)
+        {
+            assertAgrees(input);
+        }
+    }
+
+    /**
+     * Checks whether the scanner agrees with the parser on randomly generated well-formed commands.
+     */
+    @Test
+    public void scanner_agrees_with_parser_on_random_well_formed_commands()
+    {
+        @NotNull final Random random = new Random(20141017L);
+
+        for (int iteration = 0; iteration < 5000; iteration++)
+        {
+            @NotNull final StringBuilder input = new StringBuilder();
+
+            appendWhitespace(input, random);
+            appendNumber(input, random, random.nextBoolean());
+            appendWhitespace(input, random);
+
+            final int op = random.nextInt(3);
+
+            if (op == 0)
+            {
+                input.append('+');
+            }
+            else if (op == 1)
+            {
+                input.append('-');
+                // a '-' followed by a digit would be lexed as a sign instead.
+                input.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length())));
+            }
+
+            appendWhitespace(input, random);
+            // without operator, the right operand must carry its own sign or be separated
+            appendNumber(input, random, op == 2 ? true : random.nextBoolean());
+            appendWhitespace(input, random);
+
+            assertAgrees(input.toString());
+        }
+    }
+
+    /**
+     * Checks whether, on random input, the scanner never accepts anything the parser
+     * would evaluate differently.
+     */
+    @Test
+    public void scanner_never_disagrees_with_parser_on_random_input()
+    {
+        @NotNull final Random random = new Random(20140715L);
+
+        @NotNull final String alphabet = "0123456789.+-*/() \t";
+
+        @NotNull final Interpreter parser = new Interpreter(false);
+
+        @NotNull final CommandScanner scanner = new CommandScanner();
+
+        for (int iteration = 0; iteration < 20000; iteration++)
+        {
+            @NotNull final StringBuilder input = new StringBuilder();
+
+            final int length = 1 + random.nextInt(10);
+
+            for (int index = 0; index < length; index++)
+            {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            @Nullable final BigDecimal fast = scanner.evaluate(input);
+
+            if (fast != null)
+            {
+                Assert.assertEquals("[" + input + "]", parser.eval(input.toString()).toString(), fast.toString());
+            }
+        }
+    }
+
+    /**
+     * Checks whether integer operands are operated on as {@code long}s, unless they overflow.
+     */
+    @Test
+    public void scanner_keeps_integers_as_longs_while_they_fit()
+    {
+        @NotNull final CommandScanner scanner = new CommandScanner();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertTrue(scanner.evaluate("-13 + 42", value));
+        Assert.assertTrue(value.isLong());
+        Assert.assertEquals(29L, value.getLong());
+
+        Assert.assertTrue(scanner.evaluate("9223372036854775807 + 1", value));
+        Assert.assertFalse(value.isLong());
+        Assert.assertEquals("9223372036854775808", value.toString());
+
+        Assert.assertTrue(scanner.evaluate("1.5 + 1", value));
+        Assert.assertFalse(value.isLong());
+        Assert.assertEquals("2.5", value.toString());
+    }
+
+    /**
+     * Checks whether the scanner rejects input outside the strict command shape.
+     */
+    @Test
+    public void scanner_rejects_anything_but_the_command_shape()
+    {
+        @NotNull final CommandScanner scanner = new CommandScanner();
+
+        @NotNull final String[] inputs =
+            { "", " ", "3", "1.", "1.+2", ".5+1", "1.5.5", "3-+5", "1 -- 2", "+1+2", "1+2 3", "3 5", "1 2 3", "1*2", "1/2", "(1+2)", "-(1)+2", "1+a", "1\u00A0+2" };
+
+        for (@NotNull final String input : inputs)
+        {
+            Assert.assertNull("[" + input + "]", scanner.evaluate(input));
+        }
+    }
+
+    /**
+     * Checks whether the interpreter falls back to the parser for inputs the scanner rejects.
+     */
+    @Test
+    public void interpreter_falls_back_to_parser()
+    {
+        @NotNull final Interpreter fast = new Interpreter(true, true, ParseStrategy.LL);
+        @NotNull final Interpreter slow = new Interpreter(false, true, ParseStrategy.LL);
+
+        for (@NotNull final String input : new String[] { "1+2 3", "1 2 3", "3 - 5 )", "1+2*3", "-(1+2)" })
+        {
+            Assert.assertEquals(slow.eval(input).toString(), fast.eval(input).toString());
+        }
+    }
+
+    /**
+     * Checks the scanner accepts given input and agrees with the parser,
+     * including the scale of the outcome.
+     * @param input the input.
+     */
+    protected void assertAgrees(@NotNull final String input)
+    {
+        @Nullable final BigDecimal fast = new CommandScanner().evaluate(input);
+
+        Assert.assertNotNull("[" + input + "]", fast);
+        Assert.assertEquals("[" + input + "]", new Interpreter(false).eval(input).toString(), fast.toString());
+    }
+
+    /**
+     * Appends random whitespace, possibly none.
+     * @param input the input being built.
+     * @param random the random generator.
+     */
+    protected void appendWhitespace(@NotNull final StringBuilder input, @NotNull final Random random)
+    {
+        final int count = random.nextInt(3);
+
+        for (int index = 0; index < count; index++)
+        {
+            input.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length())));
+        }
+    }
+
+    /**
+     * Appends a random {@code NUMBER}, sometimes a large one.
+     * @param input the input being built.
+     * @param random the random generator.
+     * @param negative whether the number is negative.
+     */
+    protected void appendNumber(@NotNull final StringBuilder input, @NotNull final Random random, final boolean negative)
+    {
+        if (negative)
+        {
+            input.append('-');
+        }
+
+        final int integerDigits = 1 + random.nextInt(random.nextInt(10) == 0 ? 25 : 4);
+
+        for (int index = 0; index < integerDigits; index++)
+        {
+            input.append((char) ('0' + random.nextInt(10)));
+        }
+
+        if (random.nextBoolean())
+        {
+            input.append('.');
+
+            final int fractionDigits = 1 + random.nextInt(4);
+
+            for (int index = 0; index < fractionDigits; index++)
+            {
+                input.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: CompiledExpressionTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for CompiledExpression class.
+ *
+ * Date: 2026/10/17
+ * Time: 10:05
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * Tests for {@link CompiledExpression} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:05
+ */
+public class CompiledExpressionTest
+{
+    /**
+     * Checks whether a compiled expression can be evaluated many times.
+     */
+    @Test
+    public void compiled_expressions_can_be_reevaluated()
+    {
+        @NotNull final CompiledExpression expression = new Interpreter().compile("(1 + 2) * -3 / 2");
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        for (int round = 0; round < 3; round++)
+        {
+            Assert.assertEquals("-4.5", expression.evaluate(value).toString());
+        }
+
+        Assert.assertEquals(new BigDecimal("-4.5"), expression.evaluate());
+    }
+
+    /**
+     * Checks whether integer outcomes are kept as {@code long}s.
+     */
+    @Test
+    public void integer_outcomes_stay_in_longs()
+    {
+        @NotNull final NumericValue value = new Interpreter().compile("6 * 7 - 84 / 2").evaluate(new NumericValue());
+
+        Assert.assertTrue(value.isLong());
+        Assert.assertEquals(0L, value.getLong());
+    }
+
+    /**
+     * Checks whether parameters get bound to the arguments of each evaluation, in order.
+     */
+    @Test
+    public void parameters_get_bound_to_arguments()
+    {
+        @NotNull final CompiledExpression expression = new Interpreter().compile("? - ? * (3 - ?)");
+
+        @NotNull final NumericValue[] arguments = { new NumericValue(), new NumericValue(), new NumericValue() };
+
+        Assert.assertEquals(3, expression.getParameterCount());
+        Assert.assertEquals("nnnn-*-", expression.getShape());
+        Assert.assertArrayEquals(new int[] { 0, 1, -1, 2 }, expression.getBindings());
+
+        arguments[0].setLong(10);
+        arguments[1].setLong(2);
+        arguments[2].setLong(1);
+
+        Assert.assertEquals("6", expression.evaluate(arguments, new NumericValue()).toString());
+
+        arguments[2].setDecimal(new BigDecimal("0.5"));
+
+        Assert.assertEquals("5.0", expression.evaluate(arguments, new NumericValue()).toString());
+
+        try
+        {
+            expression.evaluate(new NumericValue());
+            Assert.fail("Unbound parameters");
+        }
+        catch (@NotNull final IllegalArgumentException expected)
+        {
+            // arguments are mandatory
+        }
+    }
+
+    /**
+     * Checks whether left-nested trees only need two operands in the stack,
+     * however deep they are.
+     */
+    @Test
+    public void deep_left_nested_trees_evaluate_in_constant_space()
+    {
+        @NotNull ExpressionNode root = new ExpressionNode.Literal(0);
+
+        for (int index = 1; index <= 1000000; index++)
+        {
+            root = new ExpressionNode.Binary(ExpressionNode.Operator.ADD, root, new ExpressionNode.Literal(index));
+        }
+
+        @NotNull final CompiledExpression expression = new CompiledExpression(root);
+
+        Assert.assertEquals(2000001, expression.getSize());
+        Assert.assertEquals(2, expression.getDepth());
+        Assert.assertEquals("500000500000", expression.evaluate(new NumericValue()).toString());
+    }
+
+    /**
+     * Checks whether right-nested trees grow the operand stack instead of recursing.
+     */
+    @Test
+    public void deep_right_nested_trees_do_not_overflow_the_stack()
+    {
+        @NotNull ExpressionNode root = new ExpressionNode.Literal(1);
+
+        for (int index = 0; index < 1000000; index++)
+        {
+            root =
+                new ExpressionNode.Negation(
+                    new ExpressionNode.Binary(ExpressionNode.Operator.SUBTRACT, new ExpressionNode.Literal(1), root));
+        }
+
+        @NotNull final CompiledExpression expression = new CompiledExpression(root);
+
+        Assert.assertEquals(1000001, expression.getDepth());
+        // -(1 - x) = x - 1, applied a million times over 1.
+        Assert.assertEquals("-999999", expression.evaluate(new NumericValue()).toString());
+    }
+}
@@ -0,0 +1,152 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ConcurrentLatencyHistogramTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ConcurrentLatencyHistogram.
+ *
+ * Date: 2026/10/17
+ * Time: 13:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for {@link ConcurrentLatencyHistogram} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 13:40
+ */
+public class ConcurrentLatencyHistogramTest
+{
+    /**
+     * Checks whether snapshots of an empty histogram are empty.
+     */
+    @Test
+    public void starts_empty()
+    {
+        @NotNull final LatencyHistogram snapshot = new ConcurrentLatencyHistogram().snapshot();
+
+        Assert.assertEquals(0, snapshot.getCount());
+        Assert.assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    /**
+     * Checks whether values recorded by concurrent threads all make it to the snapshot.
+     * @throws InterruptedException if the test gets interrupted.
+     */
+    @Test
+    public void merges_values_recorded_by_concurrent_threads()
+        throws InterruptedException
+    {
+        @NotNull final ConcurrentLatencyHistogram instance = new ConcurrentLatencyHistogram();
+
+        final int threads = 4;
+        final int values = 10000;
+
+        @NotNull final CountDownLatch start = new CountDownLatch(1);
+        @NotNull final Thread[] recorders = new Thread[threads];
+
+        for (int index = 0; index < threads; index++)
+        {
+            final int offset = index * values;
+
+            recorders[index] =
+                new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            start.await();
+                        }
+                        catch (@NotNull final InterruptedException interrupted)
+                        {
+                            return;
+                        }
+
+                        for (int value = 1; value <= values; value++)
+                        {
+                            instance.record(offset + value);
+                        }
+                    }
+                };
+            recorders[index].start();
+        }
+
+        start.countDown();
+
+        for (@NotNull final Thread recorder : recorders)
+        {
+            recorder.join();
+        }
+
+        @NotNull final LatencyHistogram snapshot = instance.snapshot();
+
+        Assert.assertEquals(threads * values, snapshot.getCount());
+        Assert.assertEquals(1, snapshot.getMin());
+        Assert.assertEquals(threads * values, snapshot.getMax());
+        Assert.assertEquals((threads * values + 1) / 2.0, snapshot.getMean(), 0.0001);
+        Assert.assertEquals(threads * values / 2.0, snapshot.getValueAtPercentile(50), threads * values / 100.0);
+    }
+
+    /**
+     * Checks whether snapshots are independent from later recordings.
+     */
+    @Test
+    public void snapshots_are_independent()
+    {
+        @NotNull final ConcurrentLatencyHistogram instance = new ConcurrentLatencyHistogram();
+
+        instance.record(10);
+
+        @NotNull final LatencyHistogram snapshot = instance.snapshot();
+
+        instance.record(20);
+
+        Assert.assertEquals(1, snapshot.getCount());
+        Assert.assertEquals(2, instance.snapshot().getCount());
+        Assert.assertEquals(20, instance.snapshot().getMax());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: DigitWriterTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for DigitWriter class.
+ *
+ * Date: 2026/10/17
+ * Time: 23:50
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Tests for {@link DigitWriter} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:50
+ */
+public class DigitWriterTest
+{
+    /**
+     * Checks whether integers are written as {@link Long#toString(long)} does.
+     */
+    @Test
+    public void writes_integers_as_strings_do()
+    {
+        @NotNull final DigitWriter instance = new DigitWriter();
+
+        @NotNull final Random random = new Random(11);
+
+        @NotNull final long[] values =
+            {
+                0, 1, -1, 9, 10, -10, 99, 100, 6912, -6912,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+            };
+
+        for (final long value : values)
+        {
+            Assert.assertEquals(Long.toString(value), write(instance, value));
+        }
+
+        for (int index = 0; index < 10000; index++)
+        {
+            final long value = random.nextLong() >> random.nextInt(64);
+
+            Assert.assertEquals(Long.toString(value), write(instance, value));
+            Assert.assertEquals(Long.toString(value).length(), instance.length(value));
+        }
+    }
+
+    /**
+     * Checks whether values are written as {@link NumericValue#toString()} renders them.
+     */
+    @Test
+    public void writes_values_as_they_render()
+    {
+        @NotNull final DigitWriter instance = new DigitWriter();
+
+        @NotNull final NumericValue[] values =
+            {
+                new NumericValue().setLong(-42),
+                new NumericValue().setDecimal(new BigDecimal("29.0")),
+                new NumericValue().setLong(Long.MAX_VALUE).add(1)
+            };
+
+        for (@NotNull final NumericValue value : values)
+        {
+            @NotNull final ByteBuf output = Unpooled.buffer(1);
+
+            instance.write(value, output);
+
+            Assert.assertEquals(value.toString(), output.toString(CharsetUtil.US_ASCII));
+        }
+    }
+
+    /**
+     * Checks whether integers are appended after existing content.
+     */
+    @Test
+    public void appends_to_existing_content()
+    {
+        @NotNull final DigitWriter instance = new DigitWriter();
+
+        @NotNull final ByteBuf output = Unpooled.buffer(2);
+
+        instance.writeAscii("3;", output);
+        instance.write(-6, output);
+        output.writeByte('\n');
+
+        Assert.assertEquals("3;-6\n", output.toString(CharsetUtil.US_ASCII));
+    }
+
+    /**
+     * Writes given integer into a new buffer.
+     * @param instance the writer.
+     * @param value the value.
+     * @return the written text.
+     */
+    @NotNull
+    protected String write(@NotNull final DigitWriter instance, final long value)
+    {
+        @NotNull final ByteBuf output = Unpooled.buffer(1);
+
+        instance.write(value, output);
+
+        return output.toString(CharsetUtil.US_ASCII);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: EnvironmentTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for Environment.
+ *
+ * Date: 2026/10/17
+ * Time: 17:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * Tests for {@link Environment} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 17:40
+ */
+public class EnvironmentTest
+{
+    /**
+     * Checks whether variables keep integer values as {@code long}s, and decimal ones exactly.
+     */
+    @Test
+    public void variables_keep_their_values()
+    {
+        @NotNull final Environment instance = new Environment();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertFalse(instance.get("x", value));
+
+        value.setLong(3);
+        Assert.assertTrue(instance.set("x", value));
+
+        value.setDecimal(new BigDecimal("1.50"));
+        Assert.assertTrue(instance.set("y", value));
+
+        Assert.assertTrue(instance.get("x", value));
+        Assert.assertTrue(value.isLong());
+        Assert.assertEquals(3L, value.getLong());
+
+        Assert.assertTrue(instance.get("y", value));
+        Assert.assertEquals("1.50", value.toString());
+
+        value.setLong(-7);
+        Assert.assertTrue(instance.set("y", value));
+        Assert.assertTrue(instance.get("y", value));
+        Assert.assertTrue(value.isLong());
+        Assert.assertEquals(-7L, value.getLong());
+
+        Assert.assertEquals(2, instance.size());
+    }
+
+    /**
+     * Checks whether variables survive the table growing.
+     */
+    @Test
+    public void tables_grow_with_the_variables()
+    {
+        @NotNull final Environment instance = new Environment();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        for (int index = 0; index < 200; index++)
+        {
+            if (index % 3 == 0)
+            {
+                value.setDecimal(BigDecimal.valueOf(index, 1));
+            }
+            else
+            {
+                value.setLong(index);
+            }
+
+            Assert.assertTrue(instance.set("v" + index, value));
+        }
+
+        Assert.assertEquals(200, instance.size());
+
+        for (int index = 0; index < 200; index++)
+        {
+            Assert.assertTrue(instance.get("v" + index, value));
+            Assert.assertEquals(
+                (index % 3 == 0) ? BigDecimal.valueOf(index, 1) : BigDecimal.valueOf(index),
+                value.toBigDecimal());
+        }
+    }
+
+    /**
+     * Checks whether new variables beyond the maximum are refused, while existing ones can change.
+     */
+    @Test
+    public void variables_beyond_the_maximum_are_refused()
+    {
+        @NotNull final Environment instance = new Environment(2);
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        value.setLong(1);
+
+        Assert.assertTrue(instance.set("a", value));
+        Assert.assertTrue(instance.set("b", value));
+        Assert.assertFalse(instance.set("c", value));
+        Assert.assertFalse(instance.get("c", value));
+
+        value.setLong(2);
+
+        Assert.assertTrue(instance.set("a", value));
+        Assert.assertTrue(instance.get("a", value));
+        Assert.assertEquals(2L, value.getLong());
+        Assert.assertEquals(2, instance.size());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionCompilerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ExpressionCompiler class.
+ *
+ * Date: 2026/10/17
+ * Time: 10:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExpressionCompiler} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 10:20
+ */
+public class ExpressionCompilerTest
+{
+    /**
+     * Checks whether the compiled tree follows precedence and associativity.
+     */
+    @Test
+    public void compiled_trees_follow_precedence_and_associativity()
+    {
+        @NotNull final ExpressionNode root = compile("1 - 2 * 3 - 4").getRoot();
+
+        Assert.assertTrue(root instanceof ExpressionNode.Binary);
+        Assert.assertEquals(ExpressionNode.Operator.SUBTRACT, ((ExpressionNode.Binary) root).getOperator());
+        Assert.assertEquals("4", root.getOperand(1).toString());
+
+        @NotNull final ExpressionNode left = root.getOperand(0);
+
+        Assert.assertEquals(ExpressionNode.Operator.SUBTRACT, ((ExpressionNode.Binary) left).getOperator());
+        Assert.assertEquals("1", left.getOperand(0).toString());
+        Assert.assertEquals(ExpressionNode.Operator.MULTIPLY, ((ExpressionNode.Binary) left.getOperand(1)).getOperator());
+    }
+
+    /**
+     * Checks whether parentheses leave no node behind.
+     */
+    @Test
+    public void parentheses_are_compiled_away()
+    {
+        Assert.assertEquals(3, compile("((((1)) + ((2))))").getSize());
+    }
+
+    /**
+     * Checks whether unary minus is folded into literals, even at the {@code long} boundary.
+     */
+    @Test
+    public void negated_literals_are_folded()
+    {
+        @NotNull final CompiledExpression literal = compile("-9223372036854775808");
+
+        Assert.assertEquals(1, literal.getSize());
+        Assert.assertTrue(literal.evaluate(new NumericValue()).isLong());
+
+        Assert.assertEquals(1, compile("--5.5").getSize());
+        Assert.assertEquals(4, compile("-(1 + 2)").getSize());
+    }
+
+    /**
+     * Checks whether left-nested parse trees, as deep as the expression is long,
+     * compile without recursion.
+     */
+    @Test
+    public void deep_parse_trees_compile_without_recursion()
+    {
+        @NotNull final StringBuilder input = new StringBuilder("1");
+
+        for (int index = 0; index < 100000; index++)
+        {
+            input.append("-1");
+        }
+
+        @NotNull final CompiledExpression expression = compile(input.toString());
+
+        Assert.assertEquals(200001, expression.getSize());
+        Assert.assertEquals(-99999L, expression.evaluate(new NumericValue()).getLong());
+    }
+
+    /**
+     * Checks whether variables get bound right after the parameters, once per name,
+     * and assignments keep their target.
+     */
+    @Test
+    public void variables_are_bound_after_parameters()
+    {
+        @NotNull final CompiledExpression expression = compile("total = ? * rate + rate - ?");
+
+        Assert.assertEquals("total", expression.getTarget());
+        Assert.assertEquals(2, expression.getParameterCount());
+        Assert.assertArrayEquals(new String[] { "rate" }, expression.getVariables());
+        Assert.assertEquals(3, expression.getArgumentCount());
+        Assert.assertNull(compile("rate * 2").getTarget());
+    }
+
+    /**
+     * Compiles given input.
+     * @param input the input.
+     * @return the compiled expression.
+     */
+    @NotNull
+    protected CompiledExpression compile(@NotNull final String input)
+    {
+        @NotNull final InterpreterParser parser =
+            new InterpreterParser(new CommonTokenStream(new InterpreterLexer(new ANTLRInputStream(input))));
+
+        return new ExpressionCompiler().compile(parser.command());
+    }
+}
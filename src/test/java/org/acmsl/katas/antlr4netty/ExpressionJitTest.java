@@ -0,0 +1,314 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionJitTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ExpressionJit class.
+ *
+ * Date: 2026/10/17
+ * Time: 12:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Tests for {@link ExpressionJit} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 12:40
+ */
+public class ExpressionJitTest
+{
+    /**
+     * Checks whether shapes get compiled once they reach the threshold.
+     */
+    @Test
+    public void shapes_get_compiled_at_the_threshold()
+    {
+        @NotNull final ExpressionJit jit = new ExpressionJit(3, 16);
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        for (int index = 0; index < 2; index++)
+        {
+            jit.evaluate(interpreter.compile(index + " * 2 + 1"), value);
+        }
+
+        Assert.assertNull(jit.getCompiled("nn*n+"));
+        Assert.assertEquals(0, jit.getCompiledEvaluations());
+
+        Assert.assertEquals("11", jit.evaluate(interpreter.compile("5 * 2 + 1"), value).toString());
+
+        Assert.assertNotNull(jit.getCompiled("nn*n+"));
+        Assert.assertEquals(1, jit.getCompilations());
+        Assert.assertEquals(1, jit.getCompiledEvaluations());
+        Assert.assertTrue(value.isLong());
+    }
+
+    /**
+     * Checks whether evaluating the same compiled expression repeatedly counts towards the threshold.
+     */
+    @Test
+    public void reevaluated_expressions_get_compiled()
+    {
+        @NotNull final ExpressionJit jit = new ExpressionJit(10, 16);
+
+        @NotNull final CompiledExpression expression = new Interpreter().compile("-(1 - 4) * 5");
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        for (int index = 0; index < 20; index++)
+        {
+            Assert.assertEquals(15L, jit.evaluate(expression, value).getLong());
+        }
+
+        Assert.assertEquals(1, jit.getCompilations());
+        Assert.assertEquals(11, jit.getCompiledEvaluations());
+    }
+
+    /**
+     * Checks whether prepared expressions run generated code with their {@code long}
+     * arguments bound, and fall back to interpreting on decimal ones.
+     */
+    @Test
+    public void parameters_get_bound_in_generated_code()
+    {
+        @NotNull final ExpressionJit jit = new ExpressionJit(2, 16);
+
+        @NotNull final CompiledExpression expression = new Interpreter().compile("? * 2 + ?");
+
+        @NotNull final NumericValue[] arguments = { new NumericValue(), new NumericValue() };
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        for (int index = 0; index < 10; index++)
+        {
+            arguments[0].setLong(index);
+            arguments[1].setLong(-index);
+
+            Assert.assertEquals(index, jit.evaluate(expression, arguments, value).getLong());
+        }
+
+        Assert.assertEquals(9, jit.getCompiledEvaluations());
+
+        arguments[1].setDecimal(new BigDecimal("0.5"));
+
+        Assert.assertEquals("18.5", jit.evaluate(expression, arguments, value).toString());
+        Assert.assertEquals(9, jit.getCompiledEvaluations());
+    }
+
+    /**
+     * Checks whether generated code gives the same outcomes as interpreting, on random
+     * expressions prone to overflow, inexact division and division by zero.
+     */
+    @Test
+    public void compiled_shapes_agree_with_interpretation()
+    {
+        @NotNull final Random random = new Random(20141017L);
+
+        @NotNull final Interpreter interpreted = new Interpreter(false);
+
+        @NotNull final Interpreter compiled =
+            new Interpreter(false, true, ParseStrategy.SLL_THEN_LL, null, new ExpressionJit(1, 64));
+
+        @NotNull final String[] operands = { "0", "1", "-1", "3", "7", "9223372036854775807", "-9223372036854775808", "2.5" };
+
+        @NotNull final String[] operators = { " + ", " - ", " * ", " / " };
+
+        for (int iteration = 0; iteration < 5000; iteration++)
+        {
+            @NotNull final StringBuilder input = new StringBuilder();
+
+            final int terms = 1 + random.nextInt(4);
+
+            for (int index = 0; index < terms; index++)
+            {
+                if (index > 0)
+                {
+                    input.append(operators[random.nextInt(operators.length)]);
+                }
+
+                if (random.nextInt(4) == 0)
+                {
+                    input.append('-');
+                }
+
+                input.append('(').append(operands[random.nextInt(operands.length)]).append(')');
+            }
+
+            Assert.assertEquals(
+                "[" + input + "]", outcomeOf(interpreted, input.toString()), outcomeOf(compiled, input.toString()));
+        }
+
+        Assert.assertTrue(compiled.getJit().getCompiledEvaluations() > 0);
+    }
+
+    /**
+     * Checks whether shapes get evicted beyond the capacity, and their classes unloaded.
+     * @throws InterruptedException if interrupted while waiting for the collector.
+     */
+    @Test
+    public void evicted_shapes_get_unloaded()
+        throws InterruptedException
+    {
+        @NotNull final ExpressionJit jit = new ExpressionJit(1, 2);
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        jit.evaluate(interpreter.compile("1 + 2"), value);
+
+        @Nullable CompiledShape compiled = jit.getCompiled("nn+");
+
+        Assert.assertNotNull(compiled);
+
+        @NotNull final WeakReference<Class<?>> generated = new WeakReference<Class<?>>(compiled.getClass());
+
+        compiled = null;
+
+        jit.evaluate(interpreter.compile("1 - 2"), value);
+        jit.evaluate(interpreter.compile("1 * 2"), value);
+
+        Assert.assertEquals(2, jit.size());
+        Assert.assertEquals(1, jit.getEvictions());
+        Assert.assertNull(jit.getCompiled("nn+"));
+
+        for (int attempt = 0; attempt < 20 && generated.get() != null; attempt++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assert.assertNull(generated.get());
+    }
+
+    /**
+     * Checks whether, once full, the shape looked up least recently is the one evicted.
+     */
+    @Test
+    public void least_recently_looked_up_shapes_get_evicted()
+    {
+        @NotNull final ExpressionJit jit = new ExpressionJit(1, 2);
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        jit.evaluate(interpreter.compile("1 + 2"), value);
+        jit.evaluate(interpreter.compile("1 - 2"), value);
+        jit.evaluate(interpreter.compile("3 + 4"), value);
+        jit.evaluate(interpreter.compile("1 * 2"), value);
+
+        Assert.assertEquals(2, jit.size());
+        Assert.assertEquals(1, jit.getEvictions());
+        Assert.assertNull(jit.getCompiled("nn-"));
+        Assert.assertNotNull(jit.getCompiled("nn+"));
+        Assert.assertNotNull(jit.getCompiled("nn*"));
+        Assert.assertEquals("12", jit.evaluate(interpreter.compile("3 * 4"), value).toString());
+    }
+
+    /**
+     * Checks whether evaluating an expression bound to its shape keeps such shape
+     * from being evicted.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Test
+    public void shapes_evaluated_through_bound_expressions_do_not_get_evicted()
+        throws InterruptedException
+    {
+        @NotNull final ExpressionJit jit = new ExpressionJit(10, 2);
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        @NotNull final CompiledExpression hot = interpreter.compile("1 + 2");
+
+        jit.evaluate(hot, value);
+        Thread.sleep(1);
+        jit.evaluate(interpreter.compile("1 - 2"), value);
+        Thread.sleep(1);
+
+        for (int index = 0; index < 100; index++)
+        {
+            Assert.assertEquals("3", jit.evaluate(hot, value).toString());
+        }
+
+        Thread.sleep(1);
+        jit.evaluate(interpreter.compile("1 * 2"), value);
+
+        Assert.assertEquals(2, jit.size());
+        Assert.assertEquals(1, jit.getEvictions());
+        Assert.assertNotNull(jit.getCompiled("nn+"));
+        Assert.assertNull(jit.getCompiled("nn-"));
+    }
+
+    /**
+     * Evaluates given input, describing the outcome.
+     * @param interpreter the interpreter.
+     * @param input the input.
+     * @return the outcome, or the exception thrown.
+     */
+    @NotNull
+    protected String outcomeOf(@NotNull final Interpreter interpreter, @NotNull final String input)
+    {
+        @NotNull String result;
+
+        try
+        {
+            result = interpreter.eval(input).toString();
+        }
+        catch (@NotNull final ArithmeticException failed)
+        {
+            result = failed.getMessage();
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ExpressionMixTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ExpressionMix class.
+ *
+ * Date: 2026/10/17
+ * Time: 11:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Random;
+
+/**
+ * Tests for {@link ExpressionMix} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:40
+ */
+public class ExpressionMixTest
+{
+    /**
+     * Checks whether mixes are parsed, and printed back.
+     */
+    @Test
+    public void mixes_are_parsed()
+    {
+        @NotNull final ExpressionMix instance = ExpressionMix.parse("integer:3, Real:1,malformed:0");
+
+        Assert.assertEquals(3, instance.getWeight(ExpressionMix.Kind.INTEGER));
+        Assert.assertEquals(1, instance.getWeight(ExpressionMix.Kind.REAL));
+        Assert.assertEquals(0, instance.getWeight(ExpressionMix.Kind.NEGATIVE));
+        Assert.assertEquals("integer:3,real:1", instance.toString());
+    }
+
+    /**
+     * Checks whether malformed mixes are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void malformed_mixes_are_rejected()
+    {
+        ExpressionMix.parse("integer=3");
+    }
+
+    /**
+     * Checks whether generated expressions follow the weights, and evaluate as their kind expects.
+     */
+    @Test
+    public void generated_expressions_follow_the_mix()
+    {
+        @NotNull final ExpressionMix instance = ExpressionMix.parse("integer:2,real:1,negative:1,malformed:0");
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final Random random = new Random(14);
+
+        @NotNull final int[] kinds = new int[ExpressionMix.Kind.values().length];
+
+        for (int index = 0; index < 4000; index++)
+        {
+            kinds[instance.nextKind(random).ordinal()]++;
+
+            // every generated expression is well-formed, since malformed ones weigh nothing.
+            Assert.assertNotNull(interpreter.eval(instance.next(random)));
+        }
+
+        Assert.assertEquals(2000, kinds[ExpressionMix.Kind.INTEGER.ordinal()], 150);
+        Assert.assertEquals(1000, kinds[ExpressionMix.Kind.REAL.ordinal()], 150);
+        Assert.assertEquals(1000, kinds[ExpressionMix.Kind.NEGATIVE.ordinal()], 150);
+        Assert.assertEquals(0, kinds[ExpressionMix.Kind.MALFORMED.ordinal()]);
+    }
+}
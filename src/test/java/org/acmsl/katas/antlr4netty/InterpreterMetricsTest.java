@@ -0,0 +1,205 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: InterpreterMetricsTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for InterpreterMetrics.
+ *
+ * Date: 2026/10/17
+ * Time: 13:50
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMX;
+import javax.management.ObjectName;
+
+/**
+ * Tests for {@link InterpreterMetrics} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 13:50
+ */
+public class InterpreterMetricsTest
+{
+    /**
+     * Checks whether gauges follow connections and requests.
+     */
+    @Test
+    public void gauges_follow_connections_and_requests()
+    {
+        @NotNull final InterpreterMetrics instance = new InterpreterMetrics();
+
+        instance.connectionOpened();
+        instance.connectionOpened();
+        instance.connectionClosed();
+        instance.requestReceived();
+        instance.requestReceived();
+        instance.requestAnswered();
+        instance.malformed();
+
+        Assert.assertEquals(1, instance.getConnections());
+        Assert.assertEquals(1, instance.getInFlight());
+        Assert.assertEquals(1, instance.getRequests());
+        Assert.assertEquals(1, instance.getErrors());
+    }
+
+    /**
+     * Checks whether the interpreter records the fast path, or lexing, parsing and evaluation apart.
+     */
+    @Test
+    public void interpreter_records_each_stage()
+    {
+        @NotNull final InterpreterMetrics instance = new InterpreterMetrics();
+
+        @NotNull final Interpreter fast = new Interpreter(true, true, ParseStrategy.SLL_THEN_LL, instance);
+        @NotNull final Interpreter parsing = new Interpreter(false, true, ParseStrategy.SLL_THEN_LL, instance);
+
+        Assert.assertEquals(
+            "8", fast.eval(Unpooled.copiedBuffer("3 + 5", CharsetUtil.US_ASCII), new NumericValue()).toString());
+        Assert.assertEquals(
+            "-2", parsing.eval(Unpooled.copiedBuffer("3 -5", CharsetUtil.US_ASCII), new NumericValue()).toString());
+
+        Assert.assertEquals(1, instance.getLatencies(InterpreterMetrics.Stage.FAST_PATH).getCount());
+        Assert.assertEquals(1, instance.getLatencies(InterpreterMetrics.Stage.LEX).getCount());
+        Assert.assertEquals(1, instance.getLatencies(InterpreterMetrics.Stage.PARSE).getCount());
+        Assert.assertEquals(1, instance.getLatencies(InterpreterMetrics.Stage.EVALUATE).getCount());
+    }
+
+    /**
+     * Checks whether rendered metrics include counters and stage latencies.
+     */
+    @Test
+    public void renders_counters_and_latencies()
+    {
+        @NotNull final InterpreterMetrics instance = new InterpreterMetrics();
+
+        instance.requestReceived();
+        instance.requestAnswered();
+        instance.record(InterpreterMetrics.Stage.PARSE, 2000000);
+
+        @NotNull final String text = instance.render();
+
+        Assert.assertTrue(text, text.contains("interpreter_requests_total 1\n"));
+        Assert.assertTrue(text, text.contains("interpreter_in_flight 0\n"));
+        Assert.assertTrue(text, text.contains("interpreter_stage_seconds_count{stage=\"parse\"} 1\n"));
+        Assert.assertTrue(text, text.contains("interpreter_stage_seconds{stage=\"parse\",quantile=\"0.99\"} 0.002"));
+    }
+
+    /**
+     * Checks whether metrics can be read over JMX.
+     * @throws Exception if JMX fails.
+     */
+    @Test
+    public void registers_over_jmx()
+        throws Exception
+    {
+        @NotNull final InterpreterMetrics instance = new InterpreterMetrics();
+
+        instance.requestReceived();
+        instance.requestAnswered();
+        instance.record(InterpreterMetrics.Stage.REQUEST, 1500);
+
+        @Nullable final ObjectName name = instance.register(0);
+
+        Assert.assertNotNull(name);
+
+        try
+        {
+            Assert.assertEquals(
+                1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Requests"));
+
+            @NotNull final InterpreterMetricsMXBean proxy =
+                JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(), name, InterpreterMetricsMXBean.class);
+
+            @NotNull final Map<String, Double> latencies = proxy.getLatencies();
+
+            Assert.assertEquals(1.0, latencies.get("request.count"), 0);
+            Assert.assertEquals(1.5, latencies.get("request.p99"), 0.1);
+        }
+        finally
+        {
+            instance.unregister(name);
+        }
+
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    /**
+     * Checks whether metrics registered under a taken name fail, leaving the existing ones alone.
+     * @throws Exception if JMX fails.
+     */
+    @Test
+    public void registering_under_a_taken_name_fails()
+        throws Exception
+    {
+        @NotNull final InterpreterMetrics existing = new InterpreterMetrics();
+
+        existing.requestReceived();
+        existing.requestAnswered();
+
+        @NotNull final ObjectName name = existing.register(1);
+
+        try
+        {
+            new InterpreterMetrics().register(1);
+            Assert.fail("Name taken");
+        }
+        catch (@NotNull final InstanceAlreadyExistsException expected)
+        {
+            Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Requests"));
+        }
+        finally
+        {
+            existing.unregister(name);
+        }
+    }
+}
@@ -35,6 +35,16 @@
  */
 package org.acmsl.katas.antlr4netty;
 
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.util.CharsetUtil;
+
 /*
  * Importing JetBrains annotations.
  */
@@ -44,6 +54,7 @@ import org.jetbrains.annotations.NotNull;
  * Importing JUnit classes.
  */
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -51,6 +62,8 @@ import org.junit.runners.JUnit4;
 /*
  * Importing JDK classes.
  */
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
 
 /**
@@ -74,4 +87,434 @@ public class InterpreterServerChannelHandlerTest
 
         Assert.assertEquals(new BigDecimal("6.5"), outcome);
     }
+
+    /**
+     * Checks whether malformed expressions get an error response, and the
+     * connection keeps answering the next ones.
+     */
+    @Test
+    public void answers_malformed_expressions_with_an_error()
+    {
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler());
+
+        channel.writeInbound(Unpooled.copiedBuffer("3-+5\n1+2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+        Assert.assertTrue(channel.isOpen());
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether cached responses are reused for equivalent expressions.
+     */
+    @Test
+    public void reuses_cached_responses()
+    {
+        @NotNull final ResultCache cache = new ResultCache(16);
+
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler(new Interpreter(), cache));
+
+        channel.writeInbound(Unpooled.copiedBuffer("3 + 5\n 3  +   5\n1 + 2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("8\n", readResponse(channel));
+        Assert.assertEquals("8\n", readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether a batch of expressions gets all its results in a single response.
+     */
+    @Test
+    public void answers_batches_in_a_single_response()
+    {
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler());
+
+        channel.writeInbound(Unpooled.copiedBuffer("1+2;3 + 4; -5 - 1;3-+5;;-13.1+42.1\n7-2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("3;7;-6;error;error;29.0\n", readResponse(channel));
+        Assert.assertEquals("5\n", readResponse(channel));
+        Assert.assertNull(channel.readOutbound());
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether prepared expressions get evaluated with the arguments of each execution,
+     * and whether unknown handles and malformed commands are told apart.
+     */
+    @Test
+    public void executes_prepared_expressions()
+    {
+        @NotNull final PreparedExpressions prepared = new PreparedExpressions(16);
+
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler(new Interpreter(), new ResultCache(16), prepared));
+
+        channel.writeInbound(Unpooled.copiedBuffer("prepare ? * (? - 1)\n", CharsetUtil.US_ASCII));
+
+        @NotNull final String handle = readResponse(channel).trim();
+
+        channel.writeInbound(
+            Unpooled.copiedBuffer(
+                "execute " + handle + " 6 3\n"
+                + "execute " + handle + " -2 1.5\n"
+                + "execute " + handle + " 6\n"
+                + "execute " + handle + " 6 3-1\n"
+                + "execute 999 1 2\n"
+                + "explain 1+2\n"
+                + "prepare 1 +\n"
+                + "execute " + handle + " 1 2;execute 999 1 2;1+2\n",
+                CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("12\n", readResponse(channel));
+        Assert.assertEquals("-1.0\n", readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.UNPREPARED_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals("1;unprepared;3\n", readResponse(channel));
+        Assert.assertEquals(1, prepared.size());
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether expressions evicted from the registry get unprepared.
+     */
+    @Test
+    public void evicted_expressions_get_unprepared()
+    {
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler(new Interpreter(), null, new PreparedExpressions(1)));
+
+        channel.writeInbound(Unpooled.copiedBuffer("prepare ? + 1\nprepare ? + 2\n", CharsetUtil.US_ASCII));
+
+        @NotNull final String first = readResponse(channel).trim();
+        @NotNull final String second = readResponse(channel).trim();
+
+        channel.writeInbound(
+            Unpooled.copiedBuffer(
+                "execute " + first + " 1\nexecute " + second + " 1\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.UNPREPARED_RESPONSE, readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether commands are malformed when there's no registry,
+     * and parameters are malformed outside prepared expressions.
+     */
+    @Test
+    public void rejects_commands_without_prepared_expressions()
+    {
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler());
+
+        channel.writeInbound(Unpooled.copiedBuffer("prepare 1 + ?\n1 + ?\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether variables are kept per connection, across lines and batches,
+     * and bypass the cache.
+     */
+    @Test
+    public void keeps_variables_per_connection()
+    {
+        @NotNull final PreparedExpressions prepared = new PreparedExpressions(16);
+
+        @NotNull final InterpreterServerChannelHandler handler =
+            new InterpreterServerChannelHandler(new Interpreter(), new ResultCache(16), prepared);
+
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH), handler);
+
+        channel.writeInbound(
+            Unpooled.copiedBuffer(
+                "x = 2\n"
+                + "x * 3\n"
+                + "x = x + 1; x * 3; y\n"
+                + "x * 3\n"
+                + "prepare total = x * ?\n",
+                CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("2\n", readResponse(channel));
+        Assert.assertEquals("6\n", readResponse(channel));
+        Assert.assertEquals("3;9;error\n", readResponse(channel));
+        Assert.assertEquals("9\n", readResponse(channel));
+
+        @NotNull final String handle = readResponse(channel).trim();
+
+        channel.writeInbound(Unpooled.copiedBuffer("execute " + handle + " 5\ntotal\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("15\n", readResponse(channel));
+        Assert.assertEquals("15\n", readResponse(channel));
+
+        @NotNull final EmbeddedChannel other =
+            new EmbeddedChannel(new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH), handler);
+
+        other.writeInbound(Unpooled.copiedBuffer("x * 3\nexecute " + handle + " 5\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(other));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(other));
+
+        channel.finish();
+        other.finish();
+    }
+
+    /**
+     * Checks whether accumulators are shared by all connections, and their commands
+     * rejected when there are none.
+     */
+    @Test
+    public void accumulates_across_connections()
+    {
+        @NotNull final InterpreterServerChannelHandler handler =
+            new InterpreterServerChannelHandler(new Interpreter(), null, null, null, new Accumulators(16));
+
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH), handler);
+
+        @NotNull final EmbeddedChannel other =
+            new EmbeddedChannel(new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH), handler);
+
+        channel.writeInbound(Unpooled.copiedBuffer("add hits 2 * 3\nx = 2\nadd hits x\n", CharsetUtil.US_ASCII));
+        other.writeInbound(
+            Unpooled.copiedBuffer("add hits 0.5\nsum hits\nsum misses\nadd 1x 2\nsum hits 1\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("6\n", readResponse(channel));
+        Assert.assertEquals("2\n", readResponse(channel));
+        Assert.assertEquals("2\n", readResponse(channel));
+        Assert.assertEquals("0.5\n", readResponse(other));
+        Assert.assertEquals("8.5\n", readResponse(other));
+        Assert.assertEquals("0\n", readResponse(other));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(other));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(other));
+
+        @NotNull final EmbeddedChannel disabled =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler());
+
+        disabled.writeInbound(Unpooled.copiedBuffer("add hits 1\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(disabled));
+
+        channel.finish();
+        other.finish();
+        disabled.finish();
+    }
+
+    /**
+     * Checks whether assigning values beyond the precision limit gets rejected,
+     * so repeated squaring can't make a variable grow exponentially.
+     */
+    @Test(timeout = 10000)
+    public void repeated_squaring_is_bounded()
+    {
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH), new InterpreterServerChannelHandler());
+
+        @NotNull final StringBuilder power = new StringBuilder("x = x");
+
+        for (int index = 0; index < 30; index++)
+        {
+            power.append(" * x");
+        }
+
+        power.append('\n');
+
+        channel.writeInbound(Unpooled.copiedBuffer("x = 3\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("3\n", readResponse(channel));
+
+        for (int index = 0; index < 5; index++)
+        {
+            channel.writeInbound(Unpooled.copiedBuffer(power, CharsetUtil.US_ASCII));
+        }
+
+        // 3^31, then 3^961.
+        Assert.assertEquals("617673396283947\n", readResponse(channel));
+        Assert.assertEquals(459, readResponse(channel).trim().length());
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+
+        channel.writeInbound(Unpooled.copiedBuffer("x * 0 + 1\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("1\n", readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether command keywords are just variable names when no argument
+     * follows them, but an assignment or an operator.
+     */
+    @Test
+    public void keywords_not_followed_by_arguments_are_variables()
+    {
+        @NotNull final InterpreterServerChannelHandler handler =
+            new InterpreterServerChannelHandler(
+                new Interpreter(), null, new PreparedExpressions(16), null, new Accumulators(16));
+
+        @NotNull final EmbeddedChannel channel =
+            new EmbeddedChannel(new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH), handler);
+
+        channel.writeInbound(
+            Unpooled.copiedBuffer(
+                "sum = 1 + 2\nsum + 1\nadd = 4\nadd * sum\nprepare = 5\nexecute = prepare - 1\n"
+                + "add hits sum\nsum hits\nsum\n",
+                CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("3\n", readResponse(channel));
+        Assert.assertEquals("4\n", readResponse(channel));
+        Assert.assertEquals("4\n", readResponse(channel));
+        Assert.assertEquals("12\n", readResponse(channel));
+        Assert.assertEquals("5\n", readResponse(channel));
+        Assert.assertEquals("4\n", readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether answering integer expressions generates next to no garbage
+     * once the pooled allocator and the JIT are warm.
+     */
+    @Test
+    public void responses_generate_no_garbage_in_steady_state()
+    {
+        assertNoGarbage(new InterpreterServerChannelHandler());
+    }
+
+    /**
+     * Checks whether recording metrics keeps answering integer expressions garbage-free.
+     */
+    @Test
+    public void recording_metrics_generates_no_garbage()
+    {
+        @NotNull final InterpreterMetrics metrics = new InterpreterMetrics();
+
+        assertNoGarbage(
+            new InterpreterServerChannelHandler(new Interpreter(true, true, ParseStrategy.SLL_THEN_LL, metrics)));
+
+        Assert.assertTrue(metrics.getRequests() > 0);
+        Assert.assertEquals(metrics.getRequests(), metrics.getLatencies(InterpreterMetrics.Stage.REQUEST).getCount());
+        Assert.assertEquals(metrics.getRequests(), metrics.getLatencies(InterpreterMetrics.Stage.ENCODE).getCount());
+    }
+
+    /**
+     * Checks whether given handler answers integer expressions without allocating,
+     * once warm.
+     * @param handler the handler.
+     */
+    protected void assertNoGarbage(@NotNull final InterpreterServerChannelHandler handler)
+    {
+        @NotNull final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        @NotNull final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        @NotNull final EmbeddedChannel channel = new EmbeddedChannel(handler);
+        channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+
+        // the handler releases its input; this one survives it, so it can be sent over and over.
+        @NotNull final Object[] request =
+            new Object[]
+            {
+                Unpooled.unreleasableBuffer(Unpooled.copiedBuffer("1234 + 5678", CharsetUtil.US_ASCII))
+            };
+
+        final int iterations = 100000;
+
+        // warm-up
+        for (int index = 0; index < 2 * iterations; index++)
+        {
+            exchange(channel, request);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = allocations.getThreadAllocatedBytes(threadId);
+
+        for (int index = 0; index < iterations; index++)
+        {
+            exchange(channel, request);
+        }
+
+        final long bytesPerResponse = (allocations.getThreadAllocatedBytes(threadId) - before) / iterations;
+
+        Assert.assertTrue("Garbage per response: " + bytesPerResponse + " bytes", bytesPerResponse < 16);
+
+        channel.writeInbound(request);
+        Assert.assertEquals("6912\n", readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Sends given request through given channel, and discards the response.
+     * @param channel the channel.
+     * @param request the request.
+     */
+    protected void exchange(@NotNull final EmbeddedChannel channel, @NotNull final Object[] request)
+    {
+        channel.writeInbound(request);
+
+        @NotNull final ByteBuf response = channel.readOutbound();
+
+        response.release();
+    }
+
+    /**
+     * Reads the next response written to given channel.
+     * @param channel the channel.
+     * @return the response.
+     */
+    @NotNull
+    protected String readResponse(@NotNull final EmbeddedChannel channel)
+    {
+        @NotNull final ByteBuf buffer = channel.readOutbound();
+
+        @NotNull final String result = buffer.toString(CharsetUtil.US_ASCII);
+
+        buffer.release();
+
+        return result;
+    }
 }
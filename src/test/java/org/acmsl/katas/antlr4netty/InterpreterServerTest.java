@@ -67,7 +67,16 @@ import org.junit.runners.JUnit4;
 /*
  * Importing JDK classes.
  */
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import javax.management.ObjectName;
 
 /**
  * Tests {@link InterpreterServer}.
@@ -90,9 +99,395 @@ public class InterpreterServerTest
 
         @NotNull final InterpreterServer server = new InterpreterServer();
 
-        server.listen(port);
+        @NotNull final ChannelFuture future = server.listen(port);
 
-        sendTextToServer("localhost", port, "3 + 5", "8");
+        try
+        {
+            future.await();
+
+            sendTextToServer("localhost", port, "3 + 5\n", "8\n");
+        }
+        finally
+        {
+            stop(future);
+        }
+    }
+
+    /**
+     * Checks whether the server answers pipelined expressions, sent
+     * over the same connection, in order.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void server_answers_pipelined_expressions_in_order()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterServer server = new InterpreterServer();
+
+        @NotNull final ChannelFuture future = server.listen(port);
+
+        try
+        {
+            future.await();
+
+            sendTextToServer("localhost", port, "1+2\n3 + 4\r\n\n5-1\n-13.1+42.1\n", "3\n7\n4\n29.0\n");
+        }
+        finally
+        {
+            stop(future);
+        }
+    }
+
+    /**
+     * Checks whether the server keeps answering pipelined expressions in order
+     * when they're evaluated off the I/O threads.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void server_offloading_evaluation_answers_in_order()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterServer server =
+            new InterpreterServer(new ServerSettings().setEvaluationThreads(2).setVirtualThreads(true));
+
+        Assert.assertTrue(server.describe(), server.describe().contains("2 evaluation threads"));
+
+        @NotNull final ChannelFuture future = server.listen(port);
+
+        try
+        {
+            future.await();
+
+            @NotNull final StringBuilder input = new StringBuilder();
+            @NotNull final StringBuilder expected = new StringBuilder();
+
+            for (int index = 0; index < 200; index++)
+            {
+                input.append(index).append(" + ").append(index).append('\n');
+                expected.append(index + index).append('\n');
+            }
+
+            sendTextToServer("localhost", port, input.toString(), expected.toString());
+        }
+        finally
+        {
+            stop(future);
+        }
+    }
+
+    /**
+     * Checks whether the server falls back to NIO when the native transport is not available,
+     * and honors socket settings, reporting those it cannot.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void server_runs_on_tuned_transport()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterServer server =
+            new InterpreterServer(
+                new ServerSettings()
+                    .setBossThreads(1)
+                    .setWorkerThreads(2)
+                    .setBacklog(16)
+                    .setReceiveBufferSize(32768)
+                    .setSendBufferSize(32768)
+                    .setReusePort(true));
+
+        Assert.assertNotNull(server.getTransport());
+        Assert.assertEquals(
+            server.getTransport().getReusePortOption() == null,
+            server.describe().contains("SO_REUSEPORT not supported"));
+
+        @NotNull final ChannelFuture future = server.listen(port);
+
+        try
+        {
+            future.await();
+
+            sendTextToServer("localhost", port, "3 + 5\n", "8\n");
+        }
+        finally
+        {
+            stop(future);
+        }
+    }
+
+    /**
+     * Checks whether the server answers connections speaking the binary protocol.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void server_speaks_binary_protocol()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterServer server = new InterpreterServer();
+
+        @NotNull final ChannelFuture future = server.listen(port);
+
+        try
+        {
+            future.await();
+
+            @NotNull final BinaryProtocol protocol = new BinaryProtocol();
+
+            @NotNull final ByteBuf requests = Unpooled.buffer();
+            requests.writeByte(BinaryProtocol.MAGIC);
+            protocol.writeRequest(BinaryProtocol.ADD, new NumericValue().setLong(3), new NumericValue().setLong(5), requests);
+            protocol.writeRequest(BinaryProtocol.SUBTRACT, new NumericValue().setLong(3), new NumericValue().setLong(5), requests);
+
+            @NotNull final ByteBuf expected = Unpooled.buffer();
+            protocol.writeResponse(new NumericValue().setLong(8), expected);
+            protocol.writeResponse(new NumericValue().setLong(-2), expected);
+
+            @NotNull final byte[] response = new byte[expected.readableBytes()];
+
+            @NotNull final Socket socket = new Socket("localhost", port);
+
+            try
+            {
+                socket.getOutputStream().write(requests.array(), requests.arrayOffset(), requests.readableBytes());
+                new DataInputStream(socket.getInputStream()).readFully(response);
+            }
+            finally
+            {
+                socket.close();
+            }
+
+            Assert.assertEquals(expected, Unpooled.wrappedBuffer(response));
+        }
+        finally
+        {
+            stop(future);
+        }
+    }
+
+    /**
+     * Checks whether the server serves its metrics over HTTP, and over JMX, while it's up.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void server_exposes_metrics()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterServer server =
+            new InterpreterServer(new ServerSettings().setMetricsPort(port + 1));
+
+        @NotNull final ChannelFuture future = server.listen(port);
+
+        @NotNull final ObjectName name =
+            new ObjectName(InterpreterMetrics.JMX_DOMAIN + ":type=InterpreterMetrics,port=" + port);
+
+        try
+        {
+            future.await();
+
+            sendTextToServer("localhost", port, "3 + 5\n1 +\n", "8\nerror\n");
+
+            @NotNull final String metrics = scrape(port + 1, MetricsHttpHandler.PATH);
+
+            Assert.assertTrue(metrics, metrics.startsWith("HTTP/1.1 200 OK"));
+            Assert.assertTrue(metrics, metrics.contains("interpreter_requests_total 2\n"));
+            Assert.assertTrue(metrics, metrics.contains("interpreter_errors_total 1\n"));
+            Assert.assertTrue(metrics, metrics.contains("interpreter_stage_seconds_count{stage=\"decode\"} 2\n"));
+
+            Assert.assertTrue(scrape(port + 1, "/other").startsWith("HTTP/1.1 404"));
+
+            Assert.assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Requests"));
+        }
+        finally
+        {
+            stop(future);
+        }
+
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    /**
+     * Checks whether the server fails to start, and closes, if its metrics port is taken.
+     * @throws Exception if the port cannot be taken.
+     */
+    @Test
+    public void server_fails_to_start_if_the_metrics_port_is_taken()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final ServerSocket taken = new ServerSocket(port + 1, 1, InetAddress.getLoopbackAddress());
+
+        try
+        {
+            @NotNull final ChannelFuture future =
+                new InterpreterServer(new ServerSettings().setMetricsPort(port + 1)).listen(port);
+
+            future.await();
+
+            Assert.assertFalse(future.isSuccess());
+            Assert.assertNotNull(future.cause());
+
+            future.channel().closeFuture().sync();
+
+            try
+            {
+                future.sync();
+                Assert.fail("Metrics port taken");
+            }
+            catch (@NotNull final Exception expected)
+            {
+                // the event loops get shut down anyway
+            }
+        }
+        finally
+        {
+            taken.close();
+        }
+    }
+
+    /**
+     * Checks whether the server fails to start if its metrics cannot be registered over JMX,
+     * leaving the MBean already registered under their name alone.
+     * @throws Exception if JMX fails.
+     */
+    @Test
+    public void server_fails_to_start_if_the_metrics_name_is_taken()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterMetrics existing = new InterpreterMetrics();
+
+        @NotNull final ObjectName name = existing.register(port);
+
+        try
+        {
+            @NotNull final ChannelFuture future = new InterpreterServer(new ServerSettings()).listen(port);
+
+            future.await();
+
+            Assert.assertFalse(future.isSuccess());
+            Assert.assertNotNull(future.cause());
+
+            future.channel().closeFuture().sync();
+
+            Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        }
+        finally
+        {
+            existing.unregister(name);
+        }
+    }
+
+    /**
+     * Checks whether connections above the admission limit get closed right away,
+     * while admitted ones keep being answered.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void server_closes_connections_above_the_limit()
+        throws Exception
+    {
+        final int port = findOutPort();
+
+        @NotNull final InterpreterServer server =
+            new InterpreterServer(new ServerSettings().setAdmissionMaxConnections(1));
+
+        @NotNull final ChannelFuture future = server.listen(port);
+
+        try
+        {
+            future.await();
+
+            @NotNull final Socket admitted = new Socket("localhost", port);
+
+            try
+            {
+                admitted.getOutputStream().write("1 + 1\n".getBytes(CharsetUtil.US_ASCII));
+                Assert.assertEquals('2', admitted.getInputStream().read());
+
+                @NotNull final Socket rejected = new Socket("localhost", port);
+
+                try
+                {
+                    rejected.setSoTimeout(5000);
+                    Assert.assertEquals(-1, rejected.getInputStream().read());
+                }
+                finally
+                {
+                    rejected.close();
+                }
+
+                Assert.assertEquals(1, server.getMetrics().getRejectedConnections());
+            }
+            finally
+            {
+                admitted.close();
+            }
+        }
+        finally
+        {
+            stop(future);
+        }
+    }
+
+    /**
+     * Sends a {@code GET} request to the local HTTP server on given port.
+     * @param port the port.
+     * @param path the path.
+     * @return the whole response, headers included.
+     * @throws IOException if the communication fails.
+     */
+    @NotNull
+    protected String scrape(final int port, @NotNull final String path)
+        throws IOException
+    {
+        @NotNull final ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        @NotNull final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+
+        try
+        {
+            socket.getOutputStream().write(
+                ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(CharsetUtil.US_ASCII));
+
+            @NotNull final InputStream input = socket.getInputStream();
+            @NotNull final byte[] chunk = new byte[4096];
+
+            int read;
+
+            while ((read = input.read(chunk)) >= 0)
+            {
+                result.write(chunk, 0, read);
+            }
+        }
+        finally
+        {
+            socket.close();
+        }
+
+        return new String(result.toByteArray(), CharsetUtil.UTF_8);
+    }
+
+    /**
+     * Stops the server launched with given future.
+     * @param future the future returned by {@link InterpreterServer#listen(int)}.
+     * @throws InterruptedException if the shutdown gets interrupted.
+     */
+    protected void stop(@NotNull final ChannelFuture future)
+        throws InterruptedException
+    {
+        future.channel().close().sync();
+        future.sync();
     }
 
     /**
@@ -195,7 +590,8 @@ public class InterpreterServerTest
         }
 
         /**
-         * Connects to the server.
+         * Connects to the server, and checks the response once the
+         * connection gets closed.
          * @param host the host.
          * @param port the port.
          * @param msg the message.
@@ -207,6 +603,8 @@ public class InterpreterServerTest
         {
             @NotNull final NioEventLoopGroup group = new NioEventLoopGroup();
 
+            @NotNull final NettyClientHandler handler = new NettyClientHandler(msg, expectedResponse);
+
             try
             {
                 @NotNull final Bootstrap bootstrap = new Bootstrap();
@@ -224,12 +622,14 @@ public class InterpreterServerTest
                             public void initChannel(@NotNull final SocketChannel channel)
                                 throws Exception
                             {
-                                channel.pipeline().addLast(new NettyClientHandler(msg, expectedResponse));
+                                channel.pipeline().addLast(handler);
                             }
                         }
                     );
                 @NotNull final ChannelFuture future = bootstrap.connect().sync();
                 future.channel().closeFuture().sync();
+
+                Assert.assertEquals(expectedResponse, handler.getResponse());
             }
             finally
             {
@@ -239,7 +639,9 @@ public class InterpreterServerTest
     }
 
     /**
-     * Handles outbound connections.
+     * Handles outbound connections. Since the server keeps connections
+     * open, it closes the channel itself once it has received as many
+     * lines as the expected response contains.
      */
     protected static class NettyClientHandler
         extends SimpleChannelInboundHandler<ByteBuf>
@@ -254,6 +656,11 @@ public class InterpreterServerTest
          */
         private final String expectedResponse;
 
+        /**
+         * The response received so far.
+         */
+        private final StringBuilder response = new StringBuilder();
+
         /**
          * Creates an instance to send given message.
          * @param message the message to send.
@@ -289,7 +696,42 @@ public class InterpreterServerTest
                 aux[index] = msg.readByte();
             }
 
-            Assert.assertEquals(this.expectedResponse + "\n", new String(aux, CharsetUtil.UTF_8));
+            this.response.append(new String(aux, CharsetUtil.UTF_8));
+
+            if (countLines(this.response) >= countLines(this.expectedResponse))
+            {
+                ctx.close();
+            }
+        }
+
+        /**
+         * Retrieves the response received so far.
+         * @return such response.
+         */
+        @NotNull
+        public String getResponse()
+        {
+            return this.response.toString();
+        }
+
+        /**
+         * Counts the newline-terminated lines in given text.
+         * @param text the text.
+         * @return the number of lines.
+         */
+        protected int countLines(@NotNull final CharSequence text)
+        {
+            int result = 0;
+
+            for (int index = 0; index < text.length(); index++)
+            {
+                if (text.charAt(index) == '\n')
+                {
+                    result++;
+                }
+            }
+
+            return result;
         }
     }
 }
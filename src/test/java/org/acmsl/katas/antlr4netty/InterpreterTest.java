@@ -35,6 +35,18 @@
  */
 package org.acmsl.katas.antlr4netty;
 
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing ANTLR classes.
+ */
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
 /*
  * Importing JetBrains annotations.
  */
@@ -50,6 +62,13 @@ import org.junit.Test;
  * Importing JDK classes.
  */
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Tests for {@link Interpreter} class.
@@ -132,4 +151,462 @@ public class InterpreterTest
         Assert.assertEquals(new BigDecimal("66.1"), interpreter.eval("-19.5+85.6"));
         Assert.assertEquals(new BigDecimal("66.1"), interpreter.eval("85.6-19.5"));
     }
+
+    /**
+     * Checks whether multiplication and division take precedence over addition and subtraction.
+     */
+    @Test
+    public void interpreter_honors_operator_precedence()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        Assert.assertEquals(new BigDecimal("7"), interpreter.eval("1+2*3"));
+        Assert.assertEquals(new BigDecimal("11.5"), interpreter.eval("2 * 3 + 4 * 5 - 10 / 4 - 12"));
+        Assert.assertEquals(new BigDecimal("2"), interpreter.eval("8 / 2 / 2"));
+        Assert.assertEquals(new BigDecimal("-4"), interpreter.eval("1 - 2 - 3"));
+    }
+
+    /**
+     * Checks whether parentheses override precedence.
+     */
+    @Test
+    public void interpreter_honors_parentheses()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        Assert.assertEquals(new BigDecimal("9"), interpreter.eval("(1+2)*3"));
+        Assert.assertEquals(new BigDecimal("2"), interpreter.eval("1 - (2 - 3)"));
+        Assert.assertEquals(new BigDecimal("0.5"), interpreter.eval("((((2)))) / (1 + (1 + 2))"));
+    }
+
+    /**
+     * Checks whether unary minus binds tighter than any binary operator.
+     */
+    @Test
+    public void interpreter_performs_unary_minus()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        Assert.assertEquals(new BigDecimal("-6"), interpreter.eval("-2*3"));
+        Assert.assertEquals(new BigDecimal("-6"), interpreter.eval("2*-3"));
+        Assert.assertEquals(new BigDecimal("-12"), interpreter.eval("-(1+2)*4"));
+        Assert.assertEquals(new BigDecimal("5"), interpreter.eval("--5"));
+        Assert.assertEquals(new BigDecimal("3"), interpreter.eval("1 - -2"));
+        Assert.assertEquals(new BigDecimal("-9223372036854775808"), interpreter.eval("-9223372036854775808"));
+    }
+
+    /**
+     * Checks whether division is exact when possible, and rounded otherwise.
+     */
+    @Test
+    public void interpreter_divides()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        Assert.assertEquals(new BigDecimal("3.5"), interpreter.eval("7/2"));
+        Assert.assertEquals(new BigDecimal("0.3333333333333333333333333333333333"), interpreter.eval("1/3"));
+
+        try
+        {
+            interpreter.eval("1 / (2 - 2)");
+            Assert.fail("Division by zero");
+        }
+        catch (@NotNull final ArithmeticException expected)
+        {
+            // fine
+        }
+    }
+
+    /**
+     * Checks whether very long operator chains, parsed into very deep trees,
+     * evaluate without overflowing the stack.
+     */
+    @Test
+    public void interpreter_evaluates_very_long_expressions()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final StringBuilder input = new StringBuilder("0");
+
+        for (int index = 1; index <= 100000; index++)
+        {
+            input.append((index % 2 == 0) ? " - " : " + ").append(index).append(" * 2");
+        }
+
+        Assert.assertEquals(new BigDecimal("-100000"), interpreter.eval(input.toString()));
+    }
+
+    /**
+     * Checks whether expressions nested far deeper than {@link Interpreter#MAX_NESTING}
+     * are rejected as malformed, before parsing them.
+     */
+    @Test
+    public void interpreter_rejects_too_deeply_nested_expressions()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter(false);
+
+        @NotNull final StringBuilder input = new StringBuilder();
+
+        for (int index = 0; index < 1000000; index++)
+        {
+            input.append('(');
+        }
+
+        input.append('1');
+
+        try
+        {
+            interpreter.eval(input.toString());
+            Assert.fail("Unbalanced parentheses");
+        }
+        catch (@NotNull final ParseCancellationException expected)
+        {
+            // the parser must be usable right after
+        }
+
+        Assert.assertEquals(new BigDecimal("3"), interpreter.eval("1+2"));
+    }
+
+    /**
+     * Checks whether expressions nested up to {@link Interpreter#MAX_NESTING}
+     * are evaluated, even on a thread with a small stack, and whether one more
+     * level gets them rejected, however it's nested.
+     * @throws Exception if the evaluating thread fails.
+     */
+    @Test(timeout = 10000)
+    public void interpreter_checks_the_nesting_limit_at_the_boundary()
+        throws Exception
+    {
+        @NotNull final Interpreter interpreter = new Interpreter(false);
+
+        final int limit = Interpreter.MAX_NESTING;
+
+        @NotNull final FutureTask<Void> task =
+            new FutureTask<>(
+                new Callable<Void>()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public Void call()
+                    {
+                        Assert.assertEquals(BigDecimal.ONE, interpreter.eval(nest("(", limit, "1", ")")));
+                        Assert.assertEquals(BigDecimal.ONE, interpreter.eval(nest("-(", limit / 2, "1", ")")));
+                        Assert.assertEquals(BigDecimal.ONE, interpreter.eval(nest("-", limit, "1", "")));
+                        Assert.assertEquals(
+                            new BigDecimal("2"),
+                            interpreter.eval(nest("(", limit, "1", ")") + " + " + nest("(", limit, "1", ")")));
+
+                        assertRejected(interpreter, nest("(", limit + 1, "1", ")"));
+                        assertRejected(interpreter, "-" + nest("(", limit, "1", ")"));
+                        assertRejected(interpreter, nest("-", limit + 1, "1", ""));
+                        assertRejected(interpreter, nest("(", limit, "1", ")") + " + " + nest("(", limit + 1, "1", ")"));
+
+                        return null;
+                    }
+                });
+
+        @NotNull final Thread thread = new Thread(null, task, "small-stack", 512 * 1024);
+        thread.start();
+        task.get();
+
+        // unary minuses end with their operands, so they don't add up along a chain.
+        @NotNull final StringBuilder chain = new StringBuilder("-1");
+
+        for (int index = 1; index < limit * 10; index++)
+        {
+            chain.append(" + -1");
+        }
+
+        Assert.assertEquals(new BigDecimal(-limit * 10), interpreter.eval(chain.toString()));
+    }
+
+    /**
+     * Nests given operand.
+     * @param prefix the text opening each level.
+     * @param levels the number of levels.
+     * @param operand the operand.
+     * @param suffix the text closing each level.
+     * @return the nested expression.
+     */
+    @NotNull
+    protected static String nest(
+        @NotNull final String prefix, final int levels, @NotNull final String operand, @NotNull final String suffix)
+    {
+        @NotNull final StringBuilder result = new StringBuilder();
+
+        for (int index = 0; index < levels; index++)
+        {
+            result.append(prefix);
+        }
+
+        result.append(operand);
+
+        for (int index = 0; index < levels; index++)
+        {
+            result.append(suffix);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Checks given expression is rejected as nested too deeply, both when
+     * evaluated and when compiled.
+     * @param interpreter the interpreter.
+     * @param expression the expression.
+     */
+    protected static void assertRejected(@NotNull final Interpreter interpreter, @NotNull final String expression)
+    {
+        try
+        {
+            interpreter.eval(expression);
+            Assert.fail("Nested too deeply: " + expression.length());
+        }
+        catch (@NotNull final ParseCancellationException expected)
+        {
+            Assert.assertTrue(expected.getMessage().contains(String.valueOf(Interpreter.MAX_NESTING)));
+        }
+
+        try
+        {
+            interpreter.compile(expression);
+            Assert.fail("Nested too deeply: " + expression.length());
+        }
+        catch (@NotNull final ParseCancellationException expected)
+        {
+            // rejected before parsing
+        }
+    }
+
+    /**
+     * Checks whether parameters are rejected outside prepared expressions,
+     * and bound to the arguments of each execution within them.
+     */
+    @Test
+    public void interpreter_binds_parameters_of_prepared_expressions()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        try
+        {
+            interpreter.eval("1 + ?");
+            Assert.fail("Unbound parameter");
+        }
+        catch (@NotNull final ParseCancellationException expected)
+        {
+            // there's nothing to bind it to
+        }
+
+        @NotNull final CompiledExpression expression = interpreter.compile("(? + 1) / ?");
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertEquals(
+            "3", interpreter.execute(expression, Unpooled.copiedBuffer(" 5 2", CharsetUtil.US_ASCII), value).toString());
+        Assert.assertEquals(
+            "-0.5",
+            interpreter.execute(expression, Unpooled.copiedBuffer("-2 2.0 ", CharsetUtil.US_ASCII), value).toString());
+
+        for (@NotNull final String malformed : new String[] { "", "1", "1 2 3", "1-2", "1 +2", "a b" })
+        {
+            try
+            {
+                interpreter.execute(expression, Unpooled.copiedBuffer(malformed, CharsetUtil.US_ASCII), value);
+                Assert.fail("Malformed arguments: " + malformed);
+            }
+            catch (@NotNull final ParseCancellationException expected)
+            {
+                // arguments must match parameters
+            }
+        }
+    }
+
+    /**
+     * Checks whether variables are rejected outside sessions, and assigned and
+     * read within them, including by prepared expressions.
+     */
+    @Test
+    public void interpreter_assigns_and_reads_session_variables()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        for (@NotNull final String unbound : new String[] { "x", "x = 1", "x + 1" })
+        {
+            try
+            {
+                interpreter.eval(unbound);
+                Assert.fail("Variable outside a session: " + unbound);
+            }
+            catch (@NotNull final ParseCancellationException expected)
+            {
+                // there's nowhere to keep it
+            }
+        }
+
+        @NotNull final Environment environment = new Environment();
+
+        Assert.assertEquals(new BigDecimal("4"), interpreter.eval("x = 2 * 2", environment));
+        Assert.assertEquals(new BigDecimal("1.5"), interpreter.eval("rate_2 = x / 8 + 1", environment));
+        Assert.assertEquals(new BigDecimal("6.0"), interpreter.eval("x * rate_2", environment));
+        Assert.assertEquals(new BigDecimal("5"), interpreter.eval("x = x + 1", environment));
+
+        try
+        {
+            interpreter.eval("y + 1", environment);
+            Assert.fail("Undefined variable");
+        }
+        catch (@NotNull final ParseCancellationException expected)
+        {
+            // y was never assigned
+        }
+
+        @NotNull final CompiledExpression expression = interpreter.compile("x = x * ?");
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertEquals(
+            "15",
+            interpreter.execute(
+                expression, Unpooled.copiedBuffer("3", CharsetUtil.US_ASCII), environment, value).toString());
+        Assert.assertEquals(new BigDecimal("15"), interpreter.eval("x", environment));
+        Assert.assertEquals(2, environment.size());
+    }
+
+    /**
+     * Checks whether the interpreter evaluates operations read straight from a buffer.
+     */
+    @Test
+    public void interpreter_evaluates_buffers_in_place()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        @NotNull final ByteBuf buffer = Unpooled.copiedBuffer("-19.5 + 85.6", CharsetUtil.US_ASCII);
+
+        Assert.assertEquals(new BigDecimal("66.1"), interpreter.eval(buffer));
+        Assert.assertEquals(0, buffer.readerIndex());
+
+        buffer.release();
+    }
+
+    /**
+     * Checks whether reusing the thread's parser gives the same results as building new ones,
+     * even after an evaluation fails.
+     */
+    @Test
+    public void reused_parser_agrees_with_fresh_parser()
+    {
+        @NotNull final Interpreter reusing = new Interpreter(false, true);
+        @NotNull final Interpreter fresh = new Interpreter(false, false);
+
+        @NotNull final String[] inputs = { "1+2", "-13.1+42.1", "3-5", "1+2*3", "85.6 - 19.5" };
+
+        for (int round = 0; round < 3; round++)
+        {
+            for (@NotNull final String input : inputs)
+            {
+                Assert.assertEquals(fresh.eval(input), reusing.eval(input));
+            }
+
+            try
+            {
+                reusing.eval("3 +");
+                Assert.fail("'3 +' is not a valid command");
+            }
+            catch (@NotNull final ParseCancellationException expected)
+            {
+                // the parser must be usable right after
+            }
+        }
+    }
+
+    /**
+     * Checks whether the interpreter can be shared among threads while reusing parsers.
+     * @throws Exception if any evaluation fails.
+     */
+    @Test
+    public void reused_parsers_are_confined_to_each_thread()
+        throws Exception
+    {
+        @NotNull final Interpreter interpreter = new Interpreter(false, true);
+
+        @NotNull final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try
+        {
+            @NotNull final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+            for (int task = 0; task < 8; task++)
+            {
+                final int offset = task;
+
+                results.add(
+                    executor.submit(
+                        new Callable<Boolean>()
+                        {
+                            /**
+                             * {@inheritDoc}
+                             */
+                            @Override
+                            public Boolean call()
+                            {
+                                boolean result = true;
+
+                                for (int index = 0; index < 500; index++)
+                                {
+                                    result &= BigDecimal.valueOf(offset + index + index)
+                                        .equals(interpreter.eval(offset + index + " + " + index));
+                                }
+
+                                return result;
+                            }
+                        }));
+            }
+
+            for (@NotNull final Future<Boolean> result : results)
+            {
+                Assert.assertTrue(result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks whether malformed operations fail fast, instead of being recovered.
+     */
+    @Test
+    public void interpreter_bails_out_on_malformed_operations()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter(false);
+
+        for (@NotNull final String input : new String[] { "", "3 +", "3-+5", "1.5.5", "+1+2", "1 2", "(1", "1 * / 2" })
+        {
+            try
+            {
+                interpreter.eval(input);
+                Assert.fail("'" + input + "' is not a valid command");
+            }
+            catch (@NotNull final ParseCancellationException expected)
+            {
+                // fine
+            }
+        }
+    }
+
+    /**
+     * Checks whether the LL strategy keeps ANTLR's error recovery.
+     */
+    @Test
+    public void ll_strategy_recovers_from_errors()
+    {
+        @NotNull final Interpreter interpreter = new Interpreter(false, true, ParseStrategy.LL);
+
+        Assert.assertEquals(new BigDecimal("-2"), interpreter.eval("3 - 5 )"));
+        Assert.assertEquals(new BigDecimal("-2"), interpreter.eval("(3 - 5"));
+        Assert.assertEquals(new BigDecimal("1.5"), interpreter.eval("1.5.5"));
+    }
 }
@@ -0,0 +1,153 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: LatencyHistogramTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for LatencyHistogram class.
+ *
+ * Date: 2026/10/17
+ * Time: 11:30
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for {@link LatencyHistogram} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:30
+ */
+public class LatencyHistogramTest
+{
+    /**
+     * Checks whether small values are kept exactly.
+     */
+    @Test
+    public void small_values_are_exact()
+    {
+        @NotNull final LatencyHistogram instance = new LatencyHistogram();
+
+        for (int value = 1; value <= 100; value++)
+        {
+            instance.record(value);
+        }
+
+        Assert.assertEquals(100, instance.getCount());
+        Assert.assertEquals(1, instance.getMin());
+        Assert.assertEquals(100, instance.getMax());
+        Assert.assertEquals(50.5, instance.getMean(), 0.0001);
+        Assert.assertEquals(50, instance.getValueAtPercentile(50));
+        Assert.assertEquals(99, instance.getValueAtPercentile(99));
+        Assert.assertEquals(100, instance.getValueAtPercentile(100));
+    }
+
+    /**
+     * Checks whether percentiles of large values stay within the promised precision.
+     */
+    @Test
+    public void percentiles_are_within_precision()
+    {
+        @NotNull final LatencyHistogram instance = new LatencyHistogram();
+
+        @NotNull final Random random = new Random(14);
+
+        @NotNull final long[] values = new long[100000];
+
+        for (int index = 0; index < values.length; index++)
+        {
+            values[index] = (long) Math.exp(random.nextDouble() * 40);
+            instance.record(values[index]);
+        }
+
+        Arrays.sort(values);
+
+        for (@NotNull final double percentile : new double[] { 50, 90, 99, 99.9, 99.99 })
+        {
+            final long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+
+            final long actual = instance.getValueAtPercentile(percentile);
+
+            Assert.assertTrue(percentile + ": " + actual + " vs " + expected, actual >= expected);
+            Assert.assertTrue(percentile + ": " + actual + " vs " + expected, actual <= expected + expected / 64);
+        }
+
+        Assert.assertEquals(values[values.length - 1], instance.getMax());
+    }
+
+    /**
+     * Checks whether extreme values get a bucket.
+     */
+    @Test
+    public void extreme_values_are_recorded()
+    {
+        @NotNull final LatencyHistogram instance = new LatencyHistogram();
+
+        instance.record(Long.MAX_VALUE);
+        instance.record(-5);
+
+        Assert.assertEquals(0, instance.getMin());
+        Assert.assertEquals(Long.MAX_VALUE, instance.getValueAtPercentile(100));
+    }
+
+    /**
+     * Checks whether histograms add up.
+     */
+    @Test
+    public void histograms_add_up()
+    {
+        @NotNull final LatencyHistogram first = new LatencyHistogram();
+        @NotNull final LatencyHistogram second = new LatencyHistogram();
+
+        first.record(10);
+        second.record(1000000);
+        second.record(20);
+
+        first.add(second);
+
+        Assert.assertEquals(3, first.getCount());
+        Assert.assertEquals(10, first.getMin());
+        Assert.assertEquals(1000000, first.getMax());
+        Assert.assertEquals(20, first.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: LoadGeneratorTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for LoadGenerator class.
+ *
+ * Date: 2026/10/17
+ * Time: 11:50
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.channel.ChannelFuture;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LoadGenerator} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:50
+ */
+public class LoadGeneratorTest
+{
+    /**
+     * Checks whether closed-loop load gets answered and measured.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void closed_loop_load_is_measured()
+        throws Exception
+    {
+        @NotNull final LoadGenerator.Report report =
+            runAgainstServer(
+                new LoadSettings()
+                    .setConnections(4)
+                    .setMode(LoadSettings.Mode.CLOSED)
+                    .setWarmup(0)
+                    .setDuration(1)
+                    .setMix(ExpressionMix.parse("integer:1,malformed:1")));
+
+        Assert.assertTrue(report.getResponses() > 0);
+        Assert.assertTrue(report.getErrors() > 0);
+        Assert.assertTrue(report.getErrors() < report.getResponses());
+        Assert.assertTrue(report.getLatencies().getValueAtPercentile(50) > 0);
+    }
+
+    /**
+     * Checks whether open-loop load is sent at the requested rate.
+     * @throws Exception if the communication fails.
+     */
+    @Test
+    public void open_loop_load_follows_the_rate()
+        throws Exception
+    {
+        @NotNull final LoadGenerator.Report report =
+            runAgainstServer(
+                new LoadSettings()
+                    .setConnections(4)
+                    .setMode(LoadSettings.Mode.OPEN)
+                    .setRate(2000)
+                    .setWarmup(0)
+                    .setDuration(1));
+
+        Assert.assertEquals(2000, report.getResponses(), 200);
+        Assert.assertEquals(0, report.getErrors());
+        Assert.assertTrue(
+            report.getLatencies().getValueAtPercentile(99.9) <= report.getLatencies().getMax());
+    }
+
+    /**
+     * Runs the load generator against a new server, on the port in the "kata.port" property.
+     * @param settings the settings of the load generator.
+     * @return the outcome.
+     * @throws Exception if the communication fails.
+     */
+    @NotNull
+    protected LoadGenerator.Report runAgainstServer(@NotNull final LoadSettings settings)
+        throws Exception
+    {
+        @NotNull final LoadGenerator.Report result;
+
+        final int port = Integer.getInteger("kata.port", 8765);
+
+        @NotNull final ChannelFuture future = new InterpreterServer().listen(port);
+
+        try
+        {
+            future.await();
+
+            result = new LoadGenerator(settings.setPort(port)).run();
+        }
+        finally
+        {
+            future.channel().close().sync();
+            future.sync();
+        }
+
+        return result;
+    }
+}
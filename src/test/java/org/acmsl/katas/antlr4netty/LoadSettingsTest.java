@@ -0,0 +1,84 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: LoadSettingsTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for LoadSettings class.
+ *
+ * Date: 2026/10/17
+ * Time: 11:55
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LoadSettings} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 11:55
+ */
+public class LoadSettingsTest
+{
+    /**
+     * Checks whether command-line options override the defaults.
+     */
+    @Test
+    public void options_override_defaults()
+    {
+        @NotNull final LoadSettings instance =
+            LoadSettings.fromArguments(
+                new String[] { "--port=9000", "--connections=64", "--mode=open", "--rate=50000", "--mix=real:1" });
+
+        Assert.assertEquals("localhost", instance.getHost());
+        Assert.assertEquals(9000, instance.getPort());
+        Assert.assertEquals(64, instance.getConnections());
+        Assert.assertEquals(LoadSettings.Mode.OPEN, instance.getMode());
+        Assert.assertEquals(50000, instance.getRate());
+        Assert.assertEquals("real:1", instance.getMix().toString());
+        Assert.assertEquals(10, instance.getDuration());
+    }
+
+    /**
+     * Checks whether malformed options are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void malformed_options_are_rejected()
+    {
+        LoadSettings.fromArguments(new String[] { "-connections=64" });
+    }
+}
@@ -0,0 +1,253 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: NumericValueTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for NumericValue class.
+ *
+ * Date: 2026/10/17
+ * Time: 22:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Tests for {@link NumericValue} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 22:20
+ */
+public class NumericValueTest
+{
+    /**
+     * Checks whether integer arithmetic stays in {@code long}s.
+     */
+    @Test
+    public void integer_arithmetic_stays_in_longs()
+    {
+        @NotNull final NumericValue value = new NumericValue().setLong(40).add(3).subtract(1);
+
+        Assert.assertTrue(value.isLong());
+        Assert.assertEquals(42L, value.getLong());
+        Assert.assertEquals("42", value.toString());
+        Assert.assertEquals(new BigDecimal("42"), value.toBigDecimal());
+    }
+
+    /**
+     * Checks whether overflows get promoted to exact decimals.
+     */
+    @Test
+    public void overflows_are_promoted_to_decimals()
+    {
+        @NotNull final NumericValue sum = new NumericValue().setLong(Long.MAX_VALUE).add(1);
+
+        Assert.assertFalse(sum.isLong());
+        Assert.assertEquals(new BigDecimal("9223372036854775808"), sum.toBigDecimal());
+
+        @NotNull final NumericValue difference = new NumericValue().setLong(Long.MIN_VALUE).subtract(1);
+
+        Assert.assertFalse(difference.isLong());
+        Assert.assertEquals("-9223372036854775809", difference.toString());
+    }
+
+    /**
+     * Checks whether mixing reals keeps {@link BigDecimal}'s scale and formatting.
+     */
+    @Test
+    public void reals_keep_big_decimal_formatting()
+    {
+        @NotNull final NumericValue value = new NumericValue().setLong(-13).add(new BigDecimal("42.10"));
+
+        Assert.assertFalse(value.isLong());
+        Assert.assertEquals("29.10", value.toString());
+
+        value.subtract(2);
+
+        Assert.assertEquals("27.10", value.toString());
+    }
+
+    /**
+     * Checks whether values combine as their integer or decimal counterparts do.
+     */
+    @Test
+    public void values_combine_as_their_counterparts()
+    {
+        Assert.assertEquals(
+            "7", new NumericValue().setLong(4).add(new NumericValue().setLong(3)).toString());
+        Assert.assertEquals(
+            "1.5", new NumericValue().setLong(4).subtract(new NumericValue().setDecimal(new BigDecimal("2.5"))).toString());
+        Assert.assertEquals(
+            "-9223372036854775809",
+            new NumericValue().setLong(Long.MIN_VALUE).subtract(new NumericValue().setLong(1)).toString());
+    }
+
+    /**
+     * Checks whether products stay in {@code long}s unless they overflow.
+     */
+    @Test
+    public void products_are_promoted_on_overflow()
+    {
+        Assert.assertEquals(-42L, new NumericValue().setLong(6).multiply(-7).getLong());
+
+        @NotNull final NumericValue product = new NumericValue().setLong(Long.MAX_VALUE).multiply(2);
+
+        Assert.assertFalse(product.isLong());
+        Assert.assertEquals("18446744073709551614", product.toString());
+        Assert.assertEquals("3.75", new NumericValue().setLong(3).multiply(new BigDecimal("1.25")).toString());
+    }
+
+    /**
+     * Checks whether quotients stay in {@code long}s only when the division is exact.
+     */
+    @Test
+    public void exact_integer_quotients_stay_in_longs()
+    {
+        @NotNull final NumericValue exact = new NumericValue().setLong(42).divide(-6);
+
+        Assert.assertTrue(exact.isLong());
+        Assert.assertEquals(-7L, exact.getLong());
+
+        @NotNull final NumericValue fraction = new NumericValue().setLong(7).divide(2);
+
+        Assert.assertFalse(fraction.isLong());
+        Assert.assertEquals("3.5", fraction.toString());
+
+        Assert.assertEquals("9223372036854775808", new NumericValue().setLong(Long.MIN_VALUE).divide(-1).toString());
+    }
+
+    /**
+     * Checks whether non-terminating quotients get rounded to 34 digits.
+     */
+    @Test
+    public void non_terminating_quotients_are_rounded()
+    {
+        Assert.assertEquals("0.3333333333333333333333333333333333", new NumericValue().setLong(1).divide(3).toString());
+        Assert.assertEquals(
+            "0.6666666666666666666666666666666667",
+            new NumericValue().setDecimal(new BigDecimal("2.0")).divide(new NumericValue().setLong(3)).toString());
+    }
+
+    /**
+     * Checks whether dividing by zero fails, whatever the representation.
+     */
+    @Test
+    public void division_by_zero_fails()
+    {
+        for (@NotNull final NumericValue divisor
+            : new NumericValue[] { new NumericValue().setLong(0), new NumericValue().setDecimal(new BigDecimal("0.0")) })
+        {
+            try
+            {
+                new NumericValue().setLong(1).divide(divisor);
+                Assert.fail("Division by " + divisor);
+            }
+            catch (@NotNull final ArithmeticException expected)
+            {
+                // fine
+            }
+        }
+    }
+
+    /**
+     * Checks whether negating {@link Long#MIN_VALUE} gets promoted.
+     */
+    @Test
+    public void negation_is_promoted_on_overflow()
+    {
+        Assert.assertEquals(-5L, new NumericValue().setLong(5).negate().getLong());
+        Assert.assertEquals("9223372036854775808", new NumericValue().setLong(Long.MIN_VALUE).negate().toString());
+        Assert.assertEquals("-1.50", new NumericValue().setDecimal(new BigDecimal("1.50")).negate().toString());
+    }
+
+    /**
+     * Checks whether products beyond the precision or scale limits are rejected
+     * before computing them.
+     */
+    @Test(timeout = 5000)
+    public void oversized_products_are_rejected()
+    {
+        // 500 digits each, so their product takes 999.
+        @NotNull final BigDecimal half = new BigDecimal(BigInteger.TEN.pow(NumericValue.MAX_PRECISION / 2 - 1));
+
+        @NotNull final NumericValue value = new NumericValue().setDecimal(half).multiply(half);
+
+        Assert.assertEquals(NumericValue.MAX_PRECISION - 1, value.toBigDecimal().precision());
+
+        try
+        {
+            value.multiply(BigDecimal.TEN);
+            Assert.fail("Too many digits");
+        }
+        catch (@NotNull final ArithmeticException expected)
+        {
+            Assert.assertEquals(NumericValue.MAX_PRECISION - 1, value.toBigDecimal().precision());
+        }
+
+        @NotNull final BigDecimal tiny = BigDecimal.ONE.scaleByPowerOfTen(-NumericValue.MAX_SCALE);
+
+        try
+        {
+            new NumericValue().setDecimal(new BigDecimal("0.5")).multiply(tiny);
+            Assert.fail("Scale too large");
+        }
+        catch (@NotNull final ArithmeticException expected)
+        {
+            Assert.assertTrue(new NumericValue().setDecimal(tiny).isBounded());
+            Assert.assertFalse(new NumericValue().setDecimal(tiny.movePointLeft(1)).isBounded());
+        }
+    }
+
+    /**
+     * Checks whether values compare numerically, regardless of how they're held.
+     */
+    @Test
+    public void values_compare_numerically()
+    {
+        Assert.assertTrue(new NumericValue().setLong(-3).compareTo(new NumericValue().setLong(2)) < 0);
+        Assert.assertEquals(
+            0, new NumericValue().setLong(2).compareTo(new NumericValue().setDecimal(new BigDecimal("2.00"))));
+        Assert.assertTrue(
+            new NumericValue().setLong(Long.MAX_VALUE).add(1).compareTo(new NumericValue().setLong(Long.MAX_VALUE)) > 0);
+    }
+}
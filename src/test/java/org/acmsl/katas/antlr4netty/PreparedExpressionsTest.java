@@ -0,0 +1,152 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: PreparedExpressionsTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for PreparedExpressions.
+ *
+ * Date: 2026/10/17
+ * Time: 09:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.NoSuchElementException;
+
+/**
+ * Tests for {@link PreparedExpressions} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 09:40
+ */
+public class PreparedExpressionsTest
+{
+    /**
+     * Checks whether each preparation gets a new handle, even for the same expression.
+     */
+    @Test
+    public void handles_are_never_reused()
+    {
+        @NotNull final PreparedExpressions instance = new PreparedExpressions(4);
+
+        @NotNull final CompiledExpression expression = new Interpreter().compile("? + 1");
+
+        final long first = instance.prepare(expression);
+        final long second = instance.prepare(expression);
+
+        Assert.assertTrue(first > 0);
+        Assert.assertNotEquals(first, second);
+        Assert.assertSame(expression, instance.get(first));
+        Assert.assertSame(expression, instance.get(second));
+        Assert.assertEquals(2, instance.size());
+    }
+
+    /**
+     * Checks whether the least recently used expression gets evicted once full.
+     */
+    @Test
+    public void least_recently_used_expressions_get_evicted()
+    {
+        @NotNull final PreparedExpressions instance = new PreparedExpressions(2, 1);
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        final long first = instance.prepare(interpreter.compile("1"));
+        final long second = instance.prepare(interpreter.compile("2"));
+
+        instance.get(first);
+
+        final long third = instance.prepare(interpreter.compile("3"));
+
+        Assert.assertEquals(2, instance.size());
+        Assert.assertEquals(1, instance.getEvictions());
+        Assert.assertNotNull(instance.get(first));
+        Assert.assertNotNull(instance.get(third));
+
+        try
+        {
+            instance.get(second);
+            Assert.fail("Evicted expression");
+        }
+        catch (@NotNull final NoSuchElementException expected)
+        {
+            // it has to be prepared again
+        }
+    }
+
+    /**
+     * Checks whether each stripe keeps its most recent expressions, once all of them are full.
+     */
+    @Test
+    public void stripes_keep_their_most_recent_expressions()
+    {
+        @NotNull final PreparedExpressions instance = new PreparedExpressions(64, 4);
+
+        @NotNull final CompiledExpression[] expressions = new CompiledExpression[1000];
+
+        @NotNull final Interpreter interpreter = new Interpreter();
+
+        for (int index = 0; index < expressions.length; index++)
+        {
+            expressions[index] = interpreter.compile(Integer.toString(index));
+
+            Assert.assertEquals(index + 1, instance.prepare(expressions[index]));
+        }
+
+        Assert.assertEquals(64, instance.size());
+        Assert.assertEquals(936, instance.getEvictions());
+
+        for (int index = expressions.length - 64; index < expressions.length; index++)
+        {
+            Assert.assertSame(expressions[index], instance.get(index + 1));
+        }
+
+        try
+        {
+            instance.get(expressions.length - 64);
+            Assert.fail("Evicted expression");
+        }
+        catch (@NotNull final NoSuchElementException expected)
+        {
+            // it has to be prepared again
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ProtocolSelectorTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ProtocolSelector class.
+ *
+ * Date: 2026/10/17
+ * Time: 18:25
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ProtocolSelector} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:25
+ */
+public class ProtocolSelectorTest
+{
+    /**
+     * Checks whether connections not starting with the magic byte speak text.
+     */
+    @Test
+    public void text_connections_get_text_responses()
+    {
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        channel.writeInbound(Unpooled.copiedBuffer("3 + 5\n1", CharsetUtil.US_ASCII));
+        channel.writeInbound(Unpooled.copiedBuffer("-2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("8\n", readText(channel));
+        Assert.assertEquals("-1\n", readText(channel));
+        Assert.assertNull(channel.pipeline().get(ProtocolSelector.class));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether connections starting with the magic byte speak the binary protocol,
+     * even if the magic byte and the first request arrive split.
+     */
+    @Test
+    public void binary_connections_get_binary_responses()
+    {
+        @NotNull final BinaryProtocol protocol = new BinaryProtocol();
+
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        @NotNull final ByteBuf requests = Unpooled.buffer();
+        requests.writeByte(BinaryProtocol.MAGIC);
+        protocol.writeRequest(BinaryProtocol.ADD, new NumericValue().setLong(3), new NumericValue().setLong(5), requests);
+        protocol.writeRequest(
+            BinaryProtocol.SUBTRACT, new NumericValue().setLong(1), new NumericValue().setLong(2), requests);
+
+        channel.writeInbound(requests.readSlice(3).retain());
+        channel.writeInbound(requests);
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        Assert.assertTrue(readBinary(protocol, channel, value));
+        Assert.assertEquals("8", value.toString());
+        Assert.assertTrue(readBinary(protocol, channel, value));
+        Assert.assertEquals("-1", value.toString());
+        Assert.assertNull(channel.readOutbound());
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether blank lines are dropped by the framing, so every frame
+     * reaching the interpreter gets exactly one response.
+     */
+    @Test
+    public void text_framing_drops_blank_lines()
+    {
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        channel.writeInbound(Unpooled.copiedBuffer("1 + 1\n\n  \r\n2 + 2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("2\n", readText(channel));
+        Assert.assertEquals("4\n", readText(channel));
+        Assert.assertNull(channel.readOutbound());
+        Assert.assertEquals(
+            0, ((BackpressureHandler) channel.pipeline().get(ProtocolSelector.BACKPRESSURE)).getInFlight());
+
+        channel.finish();
+    }
+
+    /**
+     * Builds a channel whose protocol is yet to be selected.
+     * @return such channel.
+     */
+    @NotNull
+    protected EmbeddedChannel newChannel()
+    {
+        return
+            new EmbeddedChannel(
+                new ProtocolSelector(
+                    new InterpreterServerChannelHandler(), new BinaryInterpreterServerChannelHandler(), null));
+    }
+
+    /**
+     * Reads the next text response written to given channel.
+     * @param channel the channel.
+     * @return the response.
+     */
+    @NotNull
+    protected String readText(@NotNull final EmbeddedChannel channel)
+    {
+        @NotNull final ByteBuf buffer = channel.readOutbound();
+
+        @NotNull final String result = buffer.toString(CharsetUtil.US_ASCII);
+
+        buffer.release();
+
+        return result;
+    }
+
+    /**
+     * Reads the next binary response written to given channel.
+     * @param protocol the protocol.
+     * @param channel the channel.
+     * @param value the value to hold the outcome.
+     * @return {@code false} if the response is an error.
+     */
+    protected boolean readBinary(
+        @NotNull final BinaryProtocol protocol, @NotNull final EmbeddedChannel channel, @NotNull final NumericValue value)
+    {
+        @NotNull final ByteBuf buffer = channel.readOutbound();
+
+        Assert.assertEquals(buffer.readableBytes() - BinaryProtocol.LENGTH_FIELD_LENGTH, buffer.readUnsignedShort());
+
+        final boolean result = protocol.readResponse(buffer, value);
+
+        Assert.assertFalse(buffer.isReadable());
+
+        buffer.release();
+
+        return result;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: RequestCoalescerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for RequestCoalescer.
+ *
+ * Date: 2026/10/17
+ * Time: 15:40
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link RequestCoalescer} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 15:40
+ */
+public class RequestCoalescerTest
+{
+    /**
+     * Checks whether requests arriving while an evaluation is in flight join it,
+     * getting notified when it completes, and later ones start a new one.
+     * @throws InterruptedException if the test gets interrupted.
+     */
+    @Test
+    public void requests_join_the_evaluation_in_flight()
+        throws InterruptedException
+    {
+        @NotNull final RequestCoalescer instance = new RequestCoalescer();
+
+        @NotNull final RequestCoalescer.Evaluation leading = instance.join(key(" 1 +  2"));
+
+        Assert.assertTrue(leading.isLed());
+
+        @NotNull final AtomicReference<byte[]> followed = new AtomicReference<>();
+
+        @NotNull final Thread follower =
+            new Thread()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run()
+                {
+                    @NotNull final RequestCoalescer.Evaluation evaluation = instance.join(key("1 + 2"));
+
+                    Assert.assertFalse(evaluation.isLed());
+
+                    evaluation.listen(
+                        new RequestCoalescer.Listener()
+                        {
+                            /**
+                             * {@inheritDoc}
+                             */
+                            @Override
+                            public void completed(@Nullable final byte[] response)
+                            {
+                                followed.set(response);
+                            }
+                        });
+                }
+            };
+
+        follower.start();
+        follower.join();
+
+        Assert.assertNull(followed.get());
+
+        instance.complete(leading, new byte[] { '3', '\n' });
+
+        Assert.assertArrayEquals(new byte[] { '3', '\n' }, followed.get());
+        Assert.assertEquals(0, instance.size());
+        Assert.assertTrue(instance.join(key("1 + 2")).isLed());
+        Assert.assertEquals(2, instance.getLed());
+
+        @NotNull final AtomicReference<byte[]> late = new AtomicReference<>();
+
+        leading.listen(
+            new RequestCoalescer.Listener()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void completed(@Nullable final byte[] response)
+                {
+                    late.set(response);
+                }
+            });
+
+        Assert.assertArrayEquals(new byte[] { '3', '\n' }, late.get());
+    }
+
+    /**
+     * Checks whether concurrent identical requests get evaluated once, each one
+     * getting its own response, without blocking the follower's thread, and
+     * keeping the order of the follower's responses.
+     * @throws InterruptedException if the test gets interrupted.
+     */
+    @Test
+    public void handler_evaluates_identical_requests_in_flight_once()
+        throws InterruptedException
+    {
+        @NotNull final RequestCoalescer coalescer = new RequestCoalescer();
+
+        @NotNull final CountDownLatch release = new CountDownLatch(1);
+
+        @NotNull final AtomicInteger evaluations = new AtomicInteger();
+
+        @NotNull final InterpreterServerChannelHandler handler =
+            new InterpreterServerChannelHandler(new Interpreter(), null, null, coalescer)
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @NotNull
+                @Override
+                public NumericValue calculate(
+                    @NotNull final ByteBuf input,
+                    @Nullable final Environment environment,
+                    @NotNull final NumericValue result)
+                {
+                    if (evaluations.incrementAndGet() == 1)
+                    {
+                        try
+                        {
+                            release.await(10, TimeUnit.SECONDS);
+                        }
+                        catch (@NotNull final InterruptedException interrupted)
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+
+                    return super.calculate(input, environment, result);
+                }
+            };
+
+        @NotNull final AtomicReference<String> leaderResponse = new AtomicReference<>();
+
+        @NotNull final Thread leader =
+            new Thread()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run()
+                {
+                    leaderResponse.set(exchange(new EmbeddedChannel(handler), "3 + 5"));
+                }
+            };
+
+        leader.start();
+
+        while (evaluations.get() == 0)
+        {
+            Thread.sleep(1);
+        }
+
+        @NotNull final EmbeddedChannel follower = new EmbeddedChannel(handler);
+
+        follower.writeInbound(Unpooled.copiedBuffer("  3  +   5 ", CharsetUtil.US_ASCII));
+        follower.writeInbound(Unpooled.copiedBuffer("1 + 1", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(1, coalescer.getCoalesced());
+        Assert.assertNull(follower.readOutbound());
+
+        release.countDown();
+
+        leader.join();
+
+        Assert.assertEquals("8\n", leaderResponse.get());
+        Assert.assertEquals("8\n", read(follower));
+        Assert.assertEquals("2\n", read(follower));
+        Assert.assertEquals(2, evaluations.get());
+        Assert.assertEquals(0, coalescer.size());
+
+        follower.finish();
+    }
+
+    /**
+     * Reads the next response from given channel.
+     * @param channel the channel.
+     * @return the response.
+     */
+    @Nullable
+    protected String read(@NotNull final EmbeddedChannel channel)
+    {
+        @Nullable final ByteBuf response = channel.readOutbound();
+
+        @Nullable final String result = (response != null) ? response.toString(CharsetUtil.US_ASCII) : null;
+
+        if (response != null)
+        {
+            response.release();
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends given request through given channel.
+     * @param channel the channel.
+     * @param request the request.
+     * @return the response.
+     */
+    @Nullable
+    protected String exchange(@NotNull final EmbeddedChannel channel, @NotNull final String request)
+    {
+        channel.writeInbound(Unpooled.copiedBuffer(request, CharsetUtil.US_ASCII));
+
+        @Nullable final String result = read(channel);
+
+        channel.finish();
+
+        return result;
+    }
+
+    /**
+     * Builds the key of given expression.
+     * @param expression the expression.
+     * @return the key.
+     */
+    @NotNull
+    protected ResultCache.Key key(@NotNull final String expression)
+    {
+        return ResultCache.keyOf(Unpooled.copiedBuffer(expression, CharsetUtil.US_ASCII));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ResultCacheTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ResultCache class.
+ *
+ * Date: 2026/10/17
+ * Time: 22:55
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ResultCache} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 22:55
+ */
+public class ResultCacheTest
+{
+    /**
+     * Checks whether keys ignore surrounding whitespace, and collapse inner whitespace.
+     */
+    @Test
+    public void keys_are_whitespace_normalized()
+    {
+        Assert.assertEquals(key("3 + 5"), key(" \t3   +\t5\r"));
+        Assert.assertEquals("3 + 5", key(" 3 \t + 5 ").toString());
+        Assert.assertFalse(key("1 2").equals(key("12")));
+    }
+
+    /**
+     * Checks whether hits and misses are counted.
+     */
+    @Test
+    public void counts_hits_and_misses()
+    {
+        @NotNull final ResultCache cache = new ResultCache(4);
+
+        Assert.assertNull(cache.get(key("1+2")));
+
+        cache.put(key("1+2"), bytes("3\n"));
+
+        Assert.assertArrayEquals(bytes("3\n"), cache.get(key(" 1+2 ")));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Checks whether the least recently used entry gets evicted.
+     */
+    @Test
+    public void lru_evicts_least_recently_used()
+    {
+        @NotNull final ResultCache cache = new ResultCache(2, ResultCache.EvictionPolicy.LRU, 1);
+
+        cache.put(key("a"), bytes("1"));
+        cache.put(key("b"), bytes("2"));
+        cache.get(key("a"));
+        cache.put(key("c"), bytes("3"));
+
+        Assert.assertNotNull(cache.get(key("a")));
+        Assert.assertNull(cache.get(key("b")));
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    /**
+     * Checks whether the oldest entry gets evicted, regardless of its use.
+     */
+    @Test
+    public void fifo_evicts_oldest()
+    {
+        @NotNull final ResultCache cache = new ResultCache(2, ResultCache.EvictionPolicy.FIFO, 1);
+
+        cache.put(key("a"), bytes("1"));
+        cache.put(key("b"), bytes("2"));
+        cache.get(key("a"));
+        cache.put(key("c"), bytes("3"));
+
+        Assert.assertNull(cache.get(key("a")));
+        Assert.assertNotNull(cache.get(key("b")));
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    /**
+     * Checks whether the size stays bounded across stripes.
+     */
+    @Test
+    public void size_is_bounded()
+    {
+        @NotNull final ResultCache cache = new ResultCache(10, ResultCache.EvictionPolicy.LRU, 4);
+
+        for (int index = 0; index < 1000; index++)
+        {
+            cache.put(key(index + "+1"), bytes(index + 1 + "\n"));
+        }
+
+        Assert.assertTrue(cache.size() <= 10);
+        Assert.assertEquals(1000 - cache.size(), cache.getEvictions());
+    }
+
+    /**
+     * Builds the key for given expression.
+     * @param expression the expression.
+     * @return the key.
+     */
+    @NotNull
+    protected ResultCache.Key key(@NotNull final String expression)
+    {
+        @NotNull final ByteBuf buffer = Unpooled.copiedBuffer(expression, CharsetUtil.US_ASCII);
+
+        @NotNull final ResultCache.Key result = ResultCache.keyOf(buffer);
+
+        buffer.release();
+
+        return result;
+    }
+
+    /**
+     * Retrieves the ASCII bytes of given text.
+     * @param text the text.
+     * @return such bytes.
+     */
+    @NotNull
+    protected byte[] bytes(@NotNull final String text)
+    {
+        return text.getBytes(CharsetUtil.US_ASCII);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: RunningAggregateTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for RunningAggregate.
+ *
+ * Date: 2026/10/17
+ * Time: 18:45
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.math.BigDecimal;
+
+/**
+ * Tests for {@link RunningAggregate} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:45
+ */
+public class RunningAggregateTest
+{
+    /**
+     * Checks whether the aggregate keeps the exact sum, count, minimum and maximum.
+     */
+    @Test
+    public void aggregate_keeps_exact_statistics()
+    {
+        @NotNull final RunningAggregate instance = new RunningAggregate();
+
+        Assert.assertEquals("0;0;;;0", snapshot(instance));
+
+        @NotNull final NumericValue value = new NumericValue();
+
+        instance.add(value.setDecimal(new BigDecimal("0.1")));
+        instance.add(value.setLong(Long.MAX_VALUE));
+        instance.add(value.setDecimal(new BigDecimal("-0.30")));
+        instance.add(value.setLong(2));
+        instance.error();
+
+        Assert.assertEquals(4, instance.getCount());
+        Assert.assertEquals(new BigDecimal("9223372036854775808.80"), instance.getSum().toBigDecimal());
+        Assert.assertEquals("-0.30", instance.getMin().toString());
+        Assert.assertEquals(Long.MAX_VALUE, instance.getMax().getLong());
+        Assert.assertEquals("9223372036854775808.80;4;-0.30;9223372036854775807;1", snapshot(instance));
+    }
+
+    /**
+     * Writes a snapshot of given aggregate.
+     * @param aggregate the aggregate.
+     * @return the snapshot.
+     */
+    @NotNull
+    protected String snapshot(@NotNull final RunningAggregate aggregate)
+    {
+        @NotNull final ByteBuf output = Unpooled.buffer();
+
+        aggregate.write(new DigitWriter(), output);
+
+        @NotNull final String result = output.toString(CharsetUtil.US_ASCII);
+
+        output.release();
+
+        return result;
+    }
+}
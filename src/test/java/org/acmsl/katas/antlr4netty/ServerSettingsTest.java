@@ -0,0 +1,143 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ServerSettingsTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ServerSettings class.
+ *
+ * Date: 2026/10/17
+ * Time: 23:50
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Importing JDK classes.
+ */
+import java.util.Properties;
+
+/**
+ * Tests for {@link ServerSettings} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 23:50
+ */
+public class ServerSettingsTest
+{
+    /**
+     * Checks whether missing properties keep their defaults.
+     */
+    @Test
+    public void missing_properties_keep_defaults()
+    {
+        @NotNull final ServerSettings settings = ServerSettings.from(new Properties());
+
+        Assert.assertEquals(128, settings.getBacklog());
+        Assert.assertTrue(settings.isTcpNoDelay());
+        Assert.assertTrue(settings.isNativeTransport());
+        Assert.assertEquals(0, settings.getWorkerThreads());
+        Assert.assertEquals(0, settings.getCacheCapacity());
+        Assert.assertTrue(settings.isMetricsEnabled());
+        Assert.assertEquals(0, settings.getMetricsPort());
+        Assert.assertEquals(64 * 1024, settings.getWriteBufferHighWaterMark());
+        Assert.assertEquals(32 * 1024, settings.getWriteBufferLowWaterMark());
+        Assert.assertEquals(1024, settings.getMaxInFlight());
+        Assert.assertEquals(0, settings.getJitThreshold());
+        Assert.assertEquals(ExpressionJit.DEFAULT_CAPACITY, settings.getJitCapacity());
+        Assert.assertEquals(PreparedExpressions.DEFAULT_CAPACITY, settings.getPreparedCapacity());
+        Assert.assertFalse(settings.isCoalescingEnabled());
+        Assert.assertEquals(Accumulators.DEFAULT_CAPACITY, settings.getAccumulatorsCapacity());
+    }
+
+    /**
+     * Checks whether properties are read.
+     */
+    @Test
+    public void properties_are_read()
+    {
+        @NotNull final Properties properties = new Properties();
+        properties.setProperty(ServerSettings.WORKER_THREADS_PROPERTY, "8");
+        properties.setProperty(ServerSettings.BACKLOG_PROPERTY, "1024");
+        properties.setProperty(ServerSettings.TCP_NODELAY_PROPERTY, "false");
+        properties.setProperty(ServerSettings.CACHE_EVICTION_PROPERTY, "FIFO");
+        properties.setProperty(ServerSettings.METRICS_PORT_PROPERTY, "9100");
+        properties.setProperty(ServerSettings.MAX_IN_FLIGHT_PROPERTY, "0");
+        properties.setProperty(ServerSettings.METRICS_JMX_PROPERTY, "false");
+        properties.setProperty(ServerSettings.JIT_THRESHOLD_PROPERTY, "500");
+        properties.setProperty(ServerSettings.PREPARED_CAPACITY_PROPERTY, "0");
+        properties.setProperty(ServerSettings.COALESCING_ENABLED_PROPERTY, "true");
+        properties.setProperty(ServerSettings.ACCUMULATORS_CAPACITY_PROPERTY, "16");
+
+        @NotNull final ServerSettings settings = ServerSettings.from(properties);
+
+        Assert.assertEquals(8, settings.getWorkerThreads());
+        Assert.assertEquals(1024, settings.getBacklog());
+        Assert.assertFalse(settings.isTcpNoDelay());
+        Assert.assertEquals(ResultCache.EvictionPolicy.FIFO, settings.getCacheEviction());
+        Assert.assertEquals(9100, settings.getMetricsPort());
+        Assert.assertEquals(0, settings.getMaxInFlight());
+        Assert.assertFalse(settings.isMetricsJmx());
+        Assert.assertEquals(500, settings.getJitThreshold());
+        Assert.assertEquals(0, settings.getPreparedCapacity());
+        Assert.assertTrue(settings.isCoalescingEnabled());
+        Assert.assertEquals(16, settings.getAccumulatorsCapacity());
+    }
+
+    /**
+     * Checks whether command-line options are read.
+     */
+    @Test
+    public void options_are_read()
+    {
+        @NotNull final ServerSettings settings =
+            ServerSettings.fromArguments(new String[] { "--boss.threads=1", "--reuseport=true", "--rcvbuf=65536" });
+
+        Assert.assertEquals(1, settings.getBossThreads());
+        Assert.assertTrue(settings.isReusePort());
+        Assert.assertEquals(65536, settings.getReceiveBufferSize());
+    }
+
+    /**
+     * Checks whether malformed command-line options are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void malformed_options_are_rejected()
+    {
+        ServerSettings.fromArguments(new String[] { "backlog=10" });
+    }
+}
@@ -0,0 +1,153 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: ShapeCompilerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for ShapeCompiler class.
+ *
+ * Date: 2026/10/17
+ * Time: 12:20
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ShapeCompiler} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 12:20
+ */
+public class ShapeCompilerTest
+{
+    /**
+     * Checks whether generated classes evaluate their shape.
+     */
+    @Test
+    public void generated_classes_evaluate_their_shape()
+    {
+        @NotNull final CompiledShape shape = new ShapeCompiler().compile("nnn*+~n/");
+
+        // -(1 + 2 * 3) / 7
+        Assert.assertEquals(-1L, shape.evaluate(new long[] { 1, 2, 3, 7 }));
+        // -(10 + 5 * 2) / -4
+        Assert.assertEquals(5L, shape.evaluate(new long[] { 10, 5, 2, -4 }));
+    }
+
+    /**
+     * Checks whether each shape gets its own class and class loader, so it can be unloaded.
+     */
+    @Test
+    public void each_shape_gets_its_own_class_loader()
+    {
+        @NotNull final ShapeCompiler compiler = new ShapeCompiler();
+
+        @NotNull final CompiledShape first = compiler.compile("nn+");
+        @NotNull final CompiledShape second = compiler.compile("nn+");
+
+        Assert.assertNotSame(first.getClass(), second.getClass());
+        Assert.assertNotSame(first.getClass().getClassLoader(), second.getClass().getClassLoader());
+        Assert.assertSame(
+            ShapeCompiler.class.getClassLoader(), first.getClass().getClassLoader().getParent());
+    }
+
+    /**
+     * Checks whether generated code refuses anything but exact {@code long} outcomes.
+     */
+    @Test
+    public void generated_code_fails_outside_long_arithmetic()
+    {
+        @NotNull final ShapeCompiler compiler = new ShapeCompiler();
+
+        @NotNull final long[][] cases =
+            {
+                { Long.MAX_VALUE, 1 }, { Long.MIN_VALUE, 1 }, { Long.MAX_VALUE, 2 }, { 7, 2 }, { 1, 0 }, { Long.MIN_VALUE, -1 }
+            };
+
+        @NotNull final String[] shapes = { "nn+", "nn-", "nn*", "nn/", "nn/", "nn/" };
+
+        for (int index = 0; index < shapes.length; index++)
+        {
+            try
+            {
+                compiler.compile(shapes[index]).evaluate(cases[index]);
+                Assert.fail(shapes[index] + " overflows");
+            }
+            catch (@NotNull final ArithmeticException expected)
+            {
+                // fine
+            }
+        }
+
+        try
+        {
+            compiler.compile("n~").evaluate(new long[] { Long.MIN_VALUE });
+            Assert.fail("Negating Long.MIN_VALUE overflows");
+        }
+        catch (@NotNull final ArithmeticException expected)
+        {
+            // fine
+        }
+    }
+
+    /**
+     * Checks whether malformed or too large shapes are rejected.
+     */
+    @Test
+    public void malformed_shapes_are_rejected()
+    {
+        @NotNull final StringBuilder large = new StringBuilder("n");
+
+        while (large.length() <= ShapeCompiler.MAX_NODES)
+        {
+            large.append("n+");
+        }
+
+        for (@NotNull final String shape : new String[] { "", "n+", "nn", "~", "nn%", large.toString() })
+        {
+            try
+            {
+                new ShapeCompiler().compile(shape);
+                Assert.fail("'" + shape + "' is not a valid shape");
+            }
+            catch (@NotNull final IllegalArgumentException expected)
+            {
+                // fine
+            }
+        }
+    }
+}
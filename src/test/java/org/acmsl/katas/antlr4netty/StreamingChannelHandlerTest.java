@@ -0,0 +1,203 @@
+/*
+                        kata-antlr4-netty
+
+    Copyright (C) 2002-today  Jose San Leandro Armendariz
+                              chous@acm-sl.org
+
+    This library is free software; you can redistribute it and/or
+    modify it under the terms of the GNU General Public
+    License as published by the Free Software Foundation; either
+    version 2 of the License, or any later version.
+
+    This library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+    General Public License for more details.
+
+    You should have received a copy of the GNU General Public
+    License along with this library; if not, write to the Free Software
+    Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+    Thanks to ACM S.L. for distributing this library under the GPL license.
+    Contact info: jose.sanleandro@acm-sl.com
+
+ ******************************************************************************
+ *
+ * Filename: StreamingChannelHandlerTest.java
+ *
+ * Author: Jose San Leandro Armendariz
+ *
+ * Description: Tests for StreamingChannelHandler.
+ *
+ * Date: 2026/10/17
+ * Time: 18:50
+ *
+ */
+package org.acmsl.katas.antlr4netty;
+
+/*
+ * Importing Netty classes.
+ */
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.util.CharsetUtil;
+
+/*
+ * Importing JetBrains annotations.
+ */
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+ * Importing JUnit classes.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StreamingChannelHandler} class.
+ * @author <a href="mailto:queryj@acm-sl.org">Jose San Leandro</a>
+ * @since 3.0
+ * Created: 2026/10/17 18:50
+ */
+public class StreamingChannelHandlerTest
+{
+    /**
+     * Checks whether streamed inputs are folded into the aggregate, exactly,
+     * answering only snapshots, until the stream stops.
+     */
+    @Test
+    public void streams_fold_inputs_until_stopped()
+    {
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        channel.writeInbound(
+            Unpooled.copiedBuffer(
+                "stream\n"
+                + "snapshot\n"
+                + "9223372036854775807\n"
+                + "1; 2.5 * 2\n"
+                + "1 +\n"
+                + "x = -3\n"
+                + "x * 2\n"
+                + "snapshot\n"
+                + "stop\n"
+                + "1 + 2\n",
+                CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.STREAMING_RESPONSE, readResponse(channel));
+        Assert.assertEquals("0;0;;;0\n", readResponse(channel));
+        Assert.assertEquals("9223372036854775804.0;5;-6;9223372036854775807;1\n", readResponse(channel));
+        Assert.assertEquals("9223372036854775804.0;5;-6;9223372036854775807;1\n", readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+        Assert.assertNull(readResponse(channel));
+        Assert.assertNull(channel.pipeline().get(InterpreterServerChannelHandler.STREAMING));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether snapshots are sent every given number of inputs.
+     */
+    @Test
+    public void snapshots_are_sent_every_given_number_of_inputs()
+    {
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        channel.writeInbound(Unpooled.copiedBuffer("stream 2\n1;2;3\n4\n5\n6;7\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.STREAMING_RESPONSE, readResponse(channel));
+        Assert.assertEquals("6;3;1;3;0\n", readResponse(channel));
+        Assert.assertEquals("15;5;1;5;0\n", readResponse(channel));
+        Assert.assertEquals("28;7;1;7;0\n", readResponse(channel));
+        Assert.assertNull(readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether malformed stream commands are rejected, without streaming.
+     */
+    @Test
+    public void malformed_stream_commands_are_rejected()
+    {
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        channel.writeInbound(Unpooled.copiedBuffer("stream x\nstream 1234567890\n1 + 2\n", CharsetUtil.US_ASCII));
+
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.ERROR_RESPONSE, readResponse(channel));
+        Assert.assertEquals("3\n", readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Checks whether the stream keywords are just variable names when they're
+     * followed by an assignment or an operator.
+     */
+    @Test
+    public void keywords_not_followed_by_arguments_are_variables()
+    {
+        @NotNull final EmbeddedChannel channel = newChannel();
+
+        channel.writeInbound(
+            Unpooled.copiedBuffer(
+                "stream = 4\nstream + 1\nstream\nsnapshot = 2\nsnapshot * stream\nstop = 1\nsnapshot\nstop\n",
+                CharsetUtil.US_ASCII));
+
+        Assert.assertEquals("4\n", readResponse(channel));
+        Assert.assertEquals("5\n", readResponse(channel));
+        Assert.assertEquals(InterpreterServerChannelHandler.STREAMING_RESPONSE, readResponse(channel));
+        Assert.assertEquals("11;3;1;8;0\n", readResponse(channel));
+        Assert.assertEquals("11;3;1;8;0\n", readResponse(channel));
+        Assert.assertNull(readResponse(channel));
+
+        channel.finish();
+    }
+
+    /**
+     * Builds a channel with the framing and the interpreter handler.
+     * @return the channel.
+     */
+    @NotNull
+    protected EmbeddedChannel newChannel()
+    {
+        return
+            new EmbeddedChannel(
+                new LineBasedFrameDecoder(InterpreterServer.MAX_FRAME_LENGTH),
+                new InterpreterServerChannelHandler());
+    }
+
+    /**
+     * Reads the next non-empty response, skipping those of inputs absorbed by the stream.
+     * @param channel the channel.
+     * @return the response, or {@code null} if there's none.
+     */
+    @Nullable
+    protected String readResponse(@NotNull final EmbeddedChannel channel)
+    {
+        @Nullable String result = null;
+
+        @Nullable ByteBuf buffer = channel.readOutbound();
+
+        while (buffer != null && result == null)
+        {
+            if (buffer.isReadable())
+            {
+                result = buffer.toString(CharsetUtil.US_ASCII);
+            }
+
+            buffer.release();
+
+            if (result == null)
+            {
+                buffer = channel.readOutbound();
+            }
+        }
+
+        return result;
+    }
+}